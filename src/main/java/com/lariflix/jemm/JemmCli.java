@@ -0,0 +1,188 @@
+package com.lariflix.jemm;
+
+import com.lariflix.jemm.core.ConnectJellyfinAPI;
+import com.lariflix.jemm.dtos.JellyfinCredentials;
+import com.lariflix.jemm.dtos.JellyfinInstanceDetails;
+import com.lariflix.jemm.dtos.JellyfinUser;
+import com.lariflix.jemm.reports.JellyfinReportCsvExporter;
+import com.lariflix.jemm.reports.JellyfinReportEngine;
+import com.lariflix.jemm.utils.JellyfinReportTypes;
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Arrays;
+import java.util.Locale;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import net.sf.jasperreports.engine.JasperExportManager;
+import net.sf.jasperreports.engine.JasperPrint;
+
+/**
+ * Command line entry point of the application, to export the reports without a user interface (e.g. scheduled runs on a headless server).
+ *
+ * Usage: java -cp jemm_runnable-jar-with-dependencies.jar com.lariflix.jemm.JemmCli &lt;URL&gt; &lt;apiToken&gt; &lt;reportType&gt; &lt;PDF|CSV|HTML&gt; &lt;outputFile&gt; [DEBUG]
+ *
+ * The report type is one of JellyfinReportTypes (e.g. INVENTORY_FULL). PDF and HTML are filled by JasperReports and exported with JasperExportManager.
+ * CSV rows are written straight to the output file (see JellyfinReportCsvExporter), without filling a JasperPrint.
+ * No window is opened: the application runs in AWT headless mode.
+ *
+ * The exit code is 0 on success, 1 if the arguments are not valid and 2 if the report fails.
+ *
+ * @author Cesar Bianchi
+ * @since 1.2
+ * @see com.lariflix.jemm.Jemm
+ */
+public class JemmCli {
+
+    static final int EXIT_OK = 0;
+    static final int EXIT_USAGE = 1;
+    static final int EXIT_FAILURE = 2;
+
+    /**
+     * The output formats of the reports.
+     *
+     * @author Cesar Bianchi
+     * @since 1.2
+     */
+    enum ExportFormat {
+        PDF,
+        CSV,
+        HTML;
+    }
+
+    /**
+     * The main entry point for the command line.
+     *
+     * @param args URL, API token, report type, format, output file and, optionally, DEBUG.
+     * @author Cesar Bianchi
+     * @since 1.2
+     */
+    public static void main(String[] args) {
+        //No Swing window can be opened from the command line
+        System.setProperty("java.awt.headless", "true");
+
+        System.exit(run(args));
+    }
+
+    /**
+     * Exports a report as given by the command line arguments.
+     *
+     * @param args URL, API token, report type, format, output file and, optionally, DEBUG.
+     * @return The exit code.
+     * @author Cesar Bianchi
+     * @since 1.2
+     */
+    static int run(String[] args) {
+
+        if (args.length < 5){
+            printUsage();
+            return EXIT_USAGE;
+        }
+
+        JellyfinReportTypes reportType = null;
+        ExportFormat format = null;
+        try {
+            reportType = JellyfinReportTypes.valueOf(args[2].trim().toUpperCase(Locale.ROOT));
+            format = ExportFormat.valueOf(args[3].trim().toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException ex) {
+            System.err.println("Invalid report type or format: " + args[2] + " " + args[3]);
+            printUsage();
+            return EXIT_USAGE;
+        }
+
+        Path outputFile = Paths.get(args[4]);
+        boolean isDebug = args.length > 5 && args[5].trim().equals("DEBUG");
+
+        try {
+            JellyfinInstanceDetails instanceData = connect(args[0], args[1], isDebug);
+            export(instanceData, reportType, format, outputFile);
+            System.out.println("Report " + reportType + " exported to " + outputFile.toAbsolutePath());
+            return EXIT_OK;
+        } catch (Exception ex) {
+            Logger.getLogger(JemmCli.class.getName()).log(Level.SEVERE, null, ex);
+            System.err.println("Report " + reportType + " failed: " + ex);
+            return EXIT_FAILURE;
+        }
+    }
+
+    /**
+     * Connects to the Jellyfin server and loads its admin user.
+     *
+     * @param cURL The base URL of the Jellyfin server.
+     * @param cTokenAPI The API token.
+     * @param isDebug If true, the report templates are read from the local JRXML path.
+     * @return The instance data, with the credentials and the admin user.
+     * @throws Exception If the server can't be requested, or it has no administrator.
+     * @author Cesar Bianchi
+     * @since 1.2
+     */
+    private static JellyfinInstanceDetails connect(String cURL, String cTokenAPI, boolean isDebug) throws Exception {
+        JellyfinInstanceDetails instanceData = new JellyfinInstanceDetails();
+        instanceData.setCredentials(new JellyfinCredentials(cURL, cTokenAPI));
+        instanceData.setIsDebug(isDebug);
+
+        ConnectJellyfinAPI connectAPI = new ConnectJellyfinAPI();
+        connectAPI.setcBaseURL(cURL);
+        connectAPI.setcTokenApi(cTokenAPI);
+
+        JellyfinUser adminUser = connectAPI.getAdminUser();
+        if (adminUser.getId() == null || adminUser.getId().isEmpty()){
+            throw new IOException("No administrator user found on " + cURL);
+        }
+        instanceData.setAdminUser(adminUser);
+
+        return instanceData;
+    }
+
+    /**
+     * Exports a report to a file.
+     *
+     * @param instanceData The instance data, with the credentials and the admin user.
+     * @param reportType The type of the report.
+     * @param format The output format.
+     * @param outputFile The output file.
+     * @throws Exception If the report can't be generated or written.
+     * @author Cesar Bianchi
+     * @since 1.2
+     */
+    private static void export(JellyfinInstanceDetails instanceData, JellyfinReportTypes reportType, ExportFormat format, Path outputFile) throws Exception {
+
+        if (format == ExportFormat.CSV){
+            try (Writer out = Files.newBufferedWriter(outputFile, StandardCharsets.UTF_8)) {
+                new JellyfinReportCsvExporter(instanceData).export(reportType, out);
+            }
+            return;
+        }
+
+        //The report is filled on this thread, and never shown
+        JellyfinReportEngine reportEng = new JellyfinReportEngine(reportType, instanceData);
+        reportEng.setShowReport(false);
+        JasperPrint paintedReport = reportEng.call();
+
+        switch (format) {
+            case PDF:
+                JasperExportManager.exportReportToPdfFile(paintedReport, outputFile.toString());
+                break;
+            case HTML:
+                JasperExportManager.exportReportToHtmlFile(paintedReport, outputFile.toString());
+                break;
+            default:
+                break;
+        }
+    }
+
+    /**
+     * Prints the usage of the command line.
+     *
+     * @author Cesar Bianchi
+     * @since 1.2
+     */
+    private static void printUsage() {
+        System.err.println("Usage: JemmCli <URL> <apiToken> <reportType> <PDF|CSV|HTML> <outputFile> [DEBUG]");
+        System.err.println("Report types: " + Arrays.toString(JellyfinReportTypes.values()));
+    }
+
+}
@@ -1,10 +1,12 @@
 package com.lariflix.jemm.core;
 
 import com.lariflix.jemm.dtos.JellyfinCadGenresItems;
+import com.lariflix.jemm.dtos.JellyfinItem;
 import com.lariflix.jemm.dtos.JellyfinItemMetadata;
 import com.lariflix.jemm.dtos.JellyfinItems;
 import com.lariflix.jemm.dtos.JellyfinCadPeopleItems;
 import com.lariflix.jemm.dtos.JellyfinCadStudioItems;
+import com.lariflix.jemm.dtos.JellyfinFolder;
 import com.lariflix.jemm.dtos.JellyfinFolderMetadata;
 import com.lariflix.jemm.dtos.JellyfinFolders;
 import com.lariflix.jemm.dtos.JellyfinInstanceDetails;
@@ -12,7 +14,13 @@ import com.lariflix.jemm.dtos.JellyfinUser;
 import com.lariflix.jemm.dtos.JellyfinUsers;
 import com.lariflix.jemm.utils.JellyfimParameters;
 import java.io.IOException;
+import java.io.InterruptedIOException;
 import java.net.MalformedURLException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Objects;
+import java.util.function.Consumer;
 import org.json.simple.parser.ParseException;
 
 /**
@@ -25,6 +33,7 @@ import org.json.simple.parser.ParseException;
  * @see JellyfinFolderMetadata
  * @see JellyfinItems
  * @see JellyfinItemMetadata
+ * @see LoadItemsMetadata
  * @see JellyfinCadPeopleItems
  * @see JellyfinCadGenresItems
  * @see JellyfinCadStudioItems
@@ -35,8 +44,11 @@ import org.json.simple.parser.ParseException;
  */
 public class ConnectJellyfinAPI {
 
+    private static final JellyfinHttpTransport transport = new JellyfinHttpTransport();
+    
     private String cBaseURL = new String();
     private String cTokenApi = new String();
+    private volatile JellyfinUser adminUser = null;
     
     /**
      * Constructor for the ConnectJellyfinAPI class.
@@ -66,6 +78,9 @@ public class ConnectJellyfinAPI {
      * @author Cesar Bianchi
      */
     public void setcBaseURL(String cBaseURL) {
+        if (!Objects.equals(this.cBaseURL, cBaseURL)){
+            this.invalidateAdminUser();
+        }
         this.cBaseURL = cBaseURL;
     }
 
@@ -88,9 +103,24 @@ public class ConnectJellyfinAPI {
      * @author Cesar Bianchi
      */
     public void setcTokenApi(String cTokenApi) {
+        if (!Objects.equals(this.cTokenApi, cTokenApi)){
+            this.invalidateAdminUser();
+        }
         this.cTokenApi = cTokenApi;
     }
 
+    /**
+     * Returns the shared HTTP transport used by all loaders and by the save path.
+     * The same keep-alive connection pool is reused for every request to the Jellyfin server.
+     *
+     * @return The shared JellyfinHttpTransport.
+     * @since 1.2
+     * @author Cesar Bianchi
+     */
+    public static JellyfinHttpTransport getTransport() {
+        return transport;
+    }
+
     /**
      * Retrieves all users from the Jellyfin server.
      *
@@ -107,6 +137,12 @@ public class ConnectJellyfinAPI {
          
         JellyfinUsers allUsers = LoadJellyfinUsers.requestUsers();
         
+        //The user list is already here: refresh the cached admin user for free
+        JellyfinUser admUsr = this.findAdminUser(allUsers);
+        if (admUsr != null){
+            this.adminUser = admUsr;
+        }
+        
         return allUsers;
     }
     
@@ -137,6 +173,25 @@ public class ConnectJellyfinAPI {
         return allFolders;
     }
     
+    /**
+     * Retrieves the direct subfolders of a folder from the Jellyfin server, for the lazy loading of the folder tree.
+     *
+     * @param parentFolder The folder whose subfolders are requested.
+     * @return The subfolders, sorted by name, one level below the parent folder.
+     * @throws IOException If an I/O error occurs.
+     * @throws MalformedURLException If the provided URL is not valid.
+     * @throws ParseException If there is an error parsing the server's response.
+     * @since 1.2
+     * @author Cesar Bianchi
+     * @see LoadFolders#requestSubFolders(JellyfinFolder)
+     */
+    public List<JellyfinFolder> getSubFolders(JellyfinFolder parentFolder) throws IOException, MalformedURLException, ParseException{
+        
+        LoadFolders loadedSubFolders = new LoadFolders(this.getcBaseURL(),this.getcTokenApi(),getAdminUser().getId(),JellyfimParameters.JUST_SUBFOLDERS);
+        
+        return loadedSubFolders.requestSubFolders(parentFolder);
+    }
+    
     /**
      * Retrieves metadata for a specific folder from the Jellyfin server.
      *
@@ -159,6 +214,7 @@ public class ConnectJellyfinAPI {
     
     /**
      * Retrieves all items from a specific parent folder from the Jellyfin server.
+     * The metadata of the items is requested in bulk; the per-item endpoint is only used for items missing from the bulk response.
      *
      * @param cParentID The ID of the parent folder from which to retrieve items.
      * @return A JellyfinItems object containing all items from the specified parent folder.
@@ -169,36 +225,117 @@ public class ConnectJellyfinAPI {
      * @author Cesar Bianchi
      */
     public JellyfinItems getItems(String cParentID) throws IOException, MalformedURLException, ParseException{
+        return this.getItems(cParentID, null);
+    }
+    
+    /**
+     * Retrieves all items from a specific parent folder from the Jellyfin server, handing the items to a listener as their metadata arrives,
+     * so a screen can show the first items while the others are still loading.
+     * The items are handed in alphabetical order within each chunk; the returned JellyfinItems is fully sorted.
+     * The load stops with an InterruptedIOException if the calling thread is interrupted.
+     *
+     * @param cParentID The ID of the parent folder from which to retrieve items.
+     * @param itemsLoaded Receives each group of items whose metadata was just loaded, on the calling thread. Can be null.
+     * @return A JellyfinItems object containing all items from the specified parent folder.
+     * @throws IOException If an I/O error occurs.
+     * @throws MalformedURLException If the provided URL is not valid.
+     * @throws ParseException If there is an error parsing the server's response.
+     * @since 1.2
+     * @author Cesar Bianchi
+     */
+    public JellyfinItems getItems(String cParentID, Consumer<List<JellyfinItem>> itemsLoaded) throws IOException, MalformedURLException, ParseException{
         
         JellyfimParameters typeOfItems = JellyfimParameters.JUST_ITEMS;
+        String cAdminID = getAdminUser().getId();
         
-        
-        //1* - First, request all itens (without Metadata Property)
-        LoadItems loadedallFolders = new LoadItems(this.getcBaseURL(),this.getcTokenApi(),getAdminUser().getId(),cParentID,typeOfItems);
+        //1* - First, request all itens (without Metadata Property, just their Etag to know which ones changed)
+        LoadItems loadedallFolders = new LoadItems(this.getcBaseURL(),this.getcTokenApi(),cAdminID,cParentID,typeOfItems);
+        loadedallFolders.setFields("Etag");
         JellyfinItems folderItems = loadedallFolders.requestItems();
         
-        //2* Then, for each item, request their Metadata info.
-        String cItemID = new String();
-        LoadItemMetadata loadedMetadata = null;
+        //1.1* - Set the return by alfabetical order, before the metadata, so the items are handed in the same order they are returned
+        if (folderItems.items != null && folderItems.items.size() > 0){
+            folderItems.items.sort((o1, o2) -> o1.getName().toUpperCase().compareTo(o2.getName().toUpperCase()));
+        }
+        
+        //2* Then, request the Metadata of all items in bulk (Ids + Fields, a few chunked requests), except the items not changed since the last load
+        ArrayList<String> itemIDs = new ArrayList<>();
+        HashMap<String, JellyfinItem> itemsById = new HashMap<>();
+        HashMap<String, String> etagsById = new HashMap<>();
         for (int nI = 0; nI < folderItems.getItems().size(); nI++){
+            itemIDs.add(folderItems.getItems().get(nI).getId());
+            itemsById.put(folderItems.getItems().get(nI).getId(), folderItems.getItems().get(nI));
+            if (folderItems.getItems().get(nI).getEtag() != null){
+                etagsById.put(folderItems.getItems().get(nI).getId(), folderItems.getItems().get(nI).getEtag());
+            }
+        }
+        LoadItemsMetadata loadedBulkMetadata = new LoadItemsMetadata(this.getcBaseURL(),this.getcTokenApi(),cAdminID);
+        HashMap<String, JellyfinItemMetadata> bulkMetadata = loadedBulkMetadata.requestItemsMetadataById(itemIDs, etagsById, chunk -> {
+            if (itemsLoaded != null){
+                itemsLoaded.accept(this.setItemsMetadata(itemsById, chunk));
+            }
+        });
+        
+        if (Thread.currentThread().isInterrupted()){
+            throw new InterruptedIOException("Load of the items of " + cParentID + " interrupted");
+        }
+        
+        //3* Fallback: items not returned by the bulk request are loaded concurrently, one request per item
+        ArrayList<String> missingIDs = new ArrayList<>();
+        for (String cItemID : itemIDs){
+            if (!bulkMetadata.containsKey(cItemID)){
+                missingIDs.add(cItemID);
+            }
+        }
+        
+        if (!missingIDs.isEmpty()){
+            LoadItemMetadataConcurrent loadedMetadata = new LoadItemMetadataConcurrent(this.getcBaseURL(),this.getcTokenApi(),cAdminID);
+            ArrayList<JellyfinItemMetadata> missingMetadata = loadedMetadata.requestItemsMetadata(missingIDs);
             
-            cItemID = folderItems.getItems().get(nI).getId();
-            loadedMetadata = new LoadItemMetadata(this.getcBaseURL(),this.getcTokenApi(),getAdminUser().getId(),cItemID);
+            //Items are edited and saved back: an item without metadata must not be returned
+            if (loadedMetadata.hasFailures()){
+                Exception firstFailure = loadedMetadata.getFailures().values().iterator().next();
+                throw new IOException(loadedMetadata.getFailures().size() + " item(s) without metadata", firstFailure);
+            }
             
-            JellyfinItemMetadata itemMetadata = loadedMetadata.requestItemMetadata();
+            for (int nI = 0; nI < missingIDs.size(); nI++){
+                bulkMetadata.put(missingIDs.get(nI), missingMetadata.get(nI));
+            }
             
-            folderItems.getItems().get(nI).setItemMetadata(itemMetadata);
+            if (itemsLoaded != null){
+                itemsLoaded.accept(this.setItemsMetadata(itemsById, missingMetadata));
+            }
         }
         
-        //Set the return by alfabetical order
-        if (folderItems.items != null && folderItems.items.size() > 0){
-            folderItems.items.sort((o1, o2) -> o1.getName().toUpperCase().compareTo(o2.getName().toUpperCase()));
+        for (int nI = 0; nI < folderItems.getItems().size(); nI++){
+            folderItems.getItems().get(nI).setItemMetadata(bulkMetadata.get(folderItems.getItems().get(nI).getId()));
         }
         
-        
         return folderItems;
     }
     
+    /**
+     * Sets the metadata just loaded on the matching items.
+     *
+     * @param itemsById The items being loaded, indexed by ID.
+     * @param itemsMetadata The metadata just loaded.
+     * @return The items that received metadata, sorted by name.
+     * @since 1.2
+     * @author Cesar Bianchi
+     */
+    private List<JellyfinItem> setItemsMetadata(HashMap<String, JellyfinItem> itemsById, List<JellyfinItemMetadata> itemsMetadata) {
+        ArrayList<JellyfinItem> loadedItems = new ArrayList<>();
+        for (JellyfinItemMetadata itemMetadata : itemsMetadata){
+            JellyfinItem item = itemMetadata == null ? null : itemsById.get(itemMetadata.getId());
+            if (item != null){
+                item.setItemMetadata(itemMetadata);
+                loadedItems.add(item);
+            }
+        }
+        loadedItems.sort((o1, o2) -> o1.getName().toUpperCase().compareTo(o2.getName().toUpperCase()));
+        return loadedItems;
+    }
+    
     /**
      * Retrieves all people from the Jellyfin server.
      *
@@ -218,6 +355,25 @@ public class ConnectJellyfinAPI {
         return people;
     }
     
+    /**
+     * Retrieves all people from the Jellyfin server page by page.
+     * Each page is handed to the consumer as soon as it arrives, so the full list of people is never held in a single response.
+     *
+     * @param pageConsumer The consumer that receives each page of people, in order.
+     * @return The number of people received.
+     * @throws IOException If an I/O error occurs.
+     * @throws MalformedURLException If the provided URL is not valid.
+     * @since 1.2
+     * @author Cesar Bianchi
+     * @see LoadPeople#requestPeoplePages(Consumer)
+     */
+    public int getPeoplePages(Consumer<JellyfinCadPeopleItems> pageConsumer) throws IOException, MalformedURLException{
+        
+        LoadPeople loadedPeople = new LoadPeople(this.getcBaseURL(),this.getcTokenApi());
+        
+        return loadedPeople.requestPeoplePages(pageConsumer);
+    }
+    
     /**
      * Retrieves all genres from the Jellyfin server.
      *
@@ -258,6 +414,8 @@ public class ConnectJellyfinAPI {
     
     /**
      * Retrieves the admin user from the Jellyfin server.
+     * The admin user is resolved once per session and cached; the cache is dropped when the base URL or the token changes,
+     * or when invalidateAdminUser() is called.
      *
      * @return A JellyfinUser object representing the admin user.
      * @throws IOException If an I/O error occurs.
@@ -267,10 +425,62 @@ public class ConnectJellyfinAPI {
      * @author Cesar Bianchi
      */
     public JellyfinUser getAdminUser() throws IOException, MalformedURLException, ParseException{
-        JellyfinUser admUsr = new JellyfinUser();
         
-        LoadUsers LoadJellyfinUsers = new LoadUsers(this.getcBaseURL(),this.getcTokenApi());
-        JellyfinUsers allUsers = LoadJellyfinUsers.requestUsers();
+        if (this.adminUser == null){
+            this.getUsers();
+        }
+        
+        //No administrator found: return an empty user and try again in the next call
+        if (this.adminUser == null){
+            return new JellyfinUser();
+        }
+        
+        return this.adminUser;
+    }
+    
+    /**
+     * Sets the cached admin user, e.g. from a JellyfinInstanceDetails that was already loaded.
+     *
+     * @param adminUser The admin user to be cached. An user without ID is ignored.
+     * @since 1.2
+     * @author Cesar Bianchi
+     */
+    public void setAdminUser(JellyfinUser adminUser) {
+        if (adminUser != null && adminUser.getId() != null && !adminUser.getId().isEmpty()){
+            this.adminUser = adminUser;
+        }
+    }
+    
+    /**
+     * Drops the cached admin user, so the next call to getAdminUser() requests it again from the Jellyfin server.
+     *
+     * @since 1.2
+     * @author Cesar Bianchi
+     */
+    public void invalidateAdminUser() {
+        this.adminUser = null;
+    }
+    
+    /**
+     * Checks whether the admin user is already cached, i.e. whether the next call to getAdminUser() is served without a request.
+     *
+     * @return true if the admin user is cached, false otherwise.
+     * @since 1.2
+     * @author Cesar Bianchi
+     */
+    public boolean isAdminUserCached() {
+        return this.adminUser != null;
+    }
+    
+    /**
+     * Finds the first user with the administrator policy in a list of users.
+     *
+     * @param allUsers The list of users to be checked.
+     * @return The admin user, or null if there is none.
+     * @since 1.2
+     * @author Cesar Bianchi
+     */
+    private JellyfinUser findAdminUser(JellyfinUsers allUsers) {
         JellyfinUser validateUser = new JellyfinUser();
                 
         for (int nI = 0; nI <= allUsers.getUsers().size()-1;nI++){
@@ -278,17 +488,17 @@ public class ConnectJellyfinAPI {
             validateUser = allUsers.getUsers().get(nI);
             
             if (validateUser.getPolicy().isAdministrator){
-                admUsr = validateUser;
-                break;
+                return validateUser;
             }
             
         }
         
-        return admUsr;
+        return null;
     }
     
     /**
      * Posts an update to a specific item in a specific folder on the Jellyfin server.
+     * The library snapshot shared by the reports is dropped, so the next report reads the updated item.
      *
      * @param cFolderID The ID of the folder containing the item to be updated.
      * @param cItemID The ID of the item to be updated.
@@ -307,7 +517,61 @@ public class ConnectJellyfinAPI {
          
         int responseCode =  updateItem.postUpdates();
         
+        //The reports must not show the item as it was before the update
+        JellyfinLibrarySnapshotLoader.getDefault().invalidate();
+        
         return responseCode;
     }
     
+    /**
+     * Posts the updates of many items of a specific folder on the Jellyfin server, concurrently (see SaveItemsConcurrent).
+     * A failed item does not abort the others. The library snapshot shared by the reports is dropped once, after all posts.
+     *
+     * @param cFolderID The ID of the folder containing the items to be updated.
+     * @param itemIDs The IDs of the items to be updated.
+     * @param instanceDetails The details of the Jellyfin instance.
+     * @return The status code or error of each item.
+     * @since 1.2
+     * @author Cesar Bianchi
+     */
+    public SaveItemsResult postUpdates(String cFolderID, List<String> itemIDs, JellyfinInstanceDetails instanceDetails) {
+        return this.postUpdates(this.prepareUpdates(cFolderID, itemIDs, instanceDetails));
+    }
+
+    /**
+     * Builds the update requests of many items of a specific folder, to be posted by postUpdates(PreparedItems).
+     * It reads the instance data, so it must run on the thread that owns it (the EDT, in the GUI).
+     *
+     * @param cFolderID The ID of the folder containing the items to be updated.
+     * @param itemIDs The IDs of the items to be updated.
+     * @param instanceDetails The details of the Jellyfin instance.
+     * @return The requests to be posted.
+     * @since 1.2
+     * @author Cesar Bianchi
+     */
+    public SaveItemsConcurrent.PreparedItems prepareUpdates(String cFolderID, List<String> itemIDs, JellyfinInstanceDetails instanceDetails) {
+        return new SaveItemsConcurrent(this.getcBaseURL(), this.getcTokenApi()).prepareItems(instanceDetails, cFolderID, itemIDs);
+    }
+
+    /**
+     * Posts update requests built by prepareUpdates(), concurrently. It doesn't read the instance data, so it can run in a background task.
+     * The library snapshot shared by the reports is dropped once, after all posts.
+     *
+     * @param preparedItems The requests built by prepareUpdates().
+     * @return The status code or error of each item.
+     * @since 1.2
+     * @author Cesar Bianchi
+     */
+    public SaveItemsResult postUpdates(SaveItemsConcurrent.PreparedItems preparedItems) {
+
+        SaveItemsResult result = new SaveItemsConcurrent(this.getcBaseURL(), this.getcTokenApi()).postItems(preparedItems);
+
+        //The reports must not show the items as they were before the update
+        if (!preparedItems.getPreparedItems().isEmpty()){
+            JellyfinLibrarySnapshotLoader.getDefault().invalidate();
+        }
+
+        return result;
+    }
+    
 }
@@ -0,0 +1,160 @@
+package com.lariflix.jemm.core;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.lariflix.jemm.dtos.JellyfinItem;
+import com.lariflix.jemm.dtos.JellyfinItems;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.List;
+
+/**
+ * This class tracks which items of the instance data were changed since they were read from (or saved to) the Jellyfin server,
+ * so only the changed items are posted back.
+ *
+ * For each item, the last server state of its metadata is kept as a JSON tree (the baseline). The edits are made on the
+ * metadata objects themselves, so the current metadata is compared field by field with the baseline.
+ * An item without a baseline is always considered changed.
+ *
+ * @author Cesar Bianchi
+ * @since 1.2
+ * @see ConnectJellyfinAPI#postUpdate(String, String, com.lariflix.jemm.dtos.JellyfinInstanceDetails, int)
+ */
+public class JellyfinChangeTracker {
+
+    private static final ObjectMapper mapper = JellyfinHttpTransport.getMapper();
+
+    private final HashMap<String, JsonNode> baselines = new HashMap<>();
+
+    /**
+     * Constructor for the JellyfinChangeTracker class.
+     *
+     * @since 1.2
+     * @author Cesar Bianchi
+     */
+    public JellyfinChangeTracker() {
+        // ...
+    }
+
+    /**
+     * Keeps the current metadata of the given items as their server state.
+     *
+     * @param items The items just read from, or saved to, the Jellyfin server.
+     * @since 1.2
+     * @author Cesar Bianchi
+     */
+    public synchronized void setBaseline(JellyfinItems items) {
+        if (items == null || items.getItems() == null){
+            return;
+        }
+        for (JellyfinItem item : items.getItems()){
+            this.setBaseline(item);
+        }
+    }
+
+    /**
+     * Keeps the current metadata of an item as its server state.
+     *
+     * @param item The item just read from, or saved to, the Jellyfin server.
+     * @since 1.2
+     * @author Cesar Bianchi
+     */
+    public synchronized void setBaseline(JellyfinItem item) {
+        if (item.getItemMetadata() == null){
+            baselines.remove(item.getId());
+        } else {
+            baselines.put(item.getId(), mapper.valueToTree(item.getItemMetadata()));
+        }
+    }
+
+    /**
+     * Gets the current state of the metadata of an item, to be kept as its baseline later (e.g. when the post of this state succeeds).
+     *
+     * @param item The item.
+     * @return A copy of the current metadata as a JSON tree, or null if the item has no metadata.
+     * @since 1.2
+     * @author Cesar Bianchi
+     */
+    public JsonNode getState(JellyfinItem item) {
+        return item.getItemMetadata() == null ? null : mapper.valueToTree(item.getItemMetadata());
+    }
+
+    /**
+     * Keeps a state taken by getState() as the server state of an item. Edits made after the state was taken stay pending.
+     *
+     * @param itemID The ID of the item.
+     * @param state The state of the metadata just saved to the Jellyfin server.
+     * @since 1.2
+     * @author Cesar Bianchi
+     */
+    public synchronized void setBaseline(String itemID, JsonNode state) {
+        if (state == null){
+            baselines.remove(itemID);
+        } else {
+            baselines.put(itemID, state);
+        }
+    }
+
+    /**
+     * Gets the fields of the metadata of an item that differ from its server state.
+     *
+     * @param item The item.
+     * @return The names of the changed fields (as sent to the server, e.g. "Overview"), empty if the item is unchanged,
+     * or null if the item has no baseline.
+     * @since 1.2
+     * @author Cesar Bianchi
+     */
+    public synchronized List<String> getChangedFields(JellyfinItem item) {
+        JsonNode baseline = baselines.get(item.getId());
+        if (baseline == null){
+            return null;
+        }
+
+        JsonNode current = item.getItemMetadata() == null ? mapper.createObjectNode() : mapper.valueToTree(item.getItemMetadata());
+
+        //The fields of both sides, so a field removed from the metadata is a change too
+        LinkedHashSet<String> fieldNames = new LinkedHashSet<>();
+        for (Iterator<String> names = baseline.fieldNames(); names.hasNext();){
+            fieldNames.add(names.next());
+        }
+        for (Iterator<String> names = current.fieldNames(); names.hasNext();){
+            fieldNames.add(names.next());
+        }
+
+        ArrayList<String> changedFields = new ArrayList<>();
+        for (String fieldName : fieldNames){
+            JsonNode baselineValue = baseline.get(fieldName);
+            JsonNode currentValue = current.get(fieldName);
+            if (baselineValue == null || !baselineValue.equals(currentValue)){
+                changedFields.add(fieldName);
+            }
+        }
+        return changedFields;
+    }
+
+    /**
+     * Checks whether an item must be posted to the Jellyfin server.
+     *
+     * @param item The item.
+     * @return true if the item has no baseline or any field of its metadata was changed, false otherwise.
+     * @since 1.2
+     * @author Cesar Bianchi
+     */
+    public boolean isDirty(JellyfinItem item) {
+        List<String> changedFields = this.getChangedFields(item);
+        return changedFields == null || !changedFields.isEmpty();
+    }
+
+    /**
+     * Drops all baselines, so every item is considered changed (e.g. after another server is loaded).
+     *
+     * @since 1.2
+     * @author Cesar Bianchi
+     */
+    public synchronized void clear() {
+        baselines.clear();
+    }
+
+}
@@ -0,0 +1,382 @@
+package com.lariflix.jemm.core;
+
+import com.lariflix.jemm.dtos.JellyfinFolder;
+import com.lariflix.jemm.dtos.JellyfinFolderMetadata;
+import com.lariflix.jemm.dtos.JellyfinInstanceDetails;
+import com.lariflix.jemm.dtos.JellyfinItem;
+import com.lariflix.jemm.dtos.JellyfinItemMetadata;
+import com.lariflix.jemm.dtos.JellyfinItems;
+import java.io.IOException;
+import java.net.MalformedURLException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.Set;
+import org.json.simple.parser.ParseException;
+
+/**
+ * This class refreshes the folders and items of a JellyfinInstanceDetails incrementally, asking the Jellyfin server only for the items
+ * saved or created since the last sync (see LoadChangedItems), instead of loading the whole library again.
+ *
+ * The changes are merged in memory:
+ * an item already loaded gets the new metadata; a new item of a folder whose content is loaded is added to it;
+ * a changed folder gets its metadata reloaded. A new or renamed folder changes the folder tree, which is reported by isFolderTreeChanged(),
+ * so the caller can reload just the tree. A folder under a folder whose subfolders were not loaded yet is ignored: it comes when its parent is opened.
+ * A new root folder (a library) has a parent never listed, the root of the user, so it is recognized by its type.
+ * Deleted items are not reported by the server, so they are only dropped by a full reload.
+ *
+ * The requests (requestChanges) don't touch the instance data, so a GUI can run them in a background task, and merge the changes (mergeChanges) on the EDT.
+ *
+ * @author Cesar Bianchi
+ * @since 1.2
+ * @see LoadChangedItems
+ * @see JellyfinInstanceDetails#getLastSync()
+ */
+public class JellyfinDeltaSync {
+
+    /**
+     * The sync asks for the changes since the last sync minus this margin, to tolerate a clock difference between JEMM and the server.
+     * The overlapping changes are merged again, which is harmless.
+     */
+    public static final Duration CLOCK_SKEW_MARGIN = Duration.ofMinutes(5);
+
+    /**
+     * The types of the root folders of the library (the views of the user), whose parent is never in the folder list.
+     */
+    public static final Set<String> ROOT_FOLDER_TYPES = Set.of("CollectionFolder", "UserView");
+
+    private ConnectJellyfinAPI connectAPI = null;
+    private Date syncStart = null;
+    private Date since = null;
+    private HashSet<String> loadedFolderIDs = new HashSet<>();
+    private ArrayList<JellyfinItemMetadata> changedItems = null;
+    private HashMap<String, JellyfinFolderMetadata> changedFolderMetadata = new HashMap<>();
+    private HashMap<String, JellyfinFolder> foldersById = new HashMap<>();
+    private HashMap<String, JellyfinItem> loadedItemsById = new HashMap<>();
+    private LinkedHashSet<String> changedFolderIDs = new LinkedHashSet<>();
+    private LinkedHashSet<String> foldersWithNewItems = new LinkedHashSet<>();
+    private LinkedHashSet<String> mergedItemIDs = new LinkedHashSet<>();
+    private int updatedItems = 0;
+    private int addedItems = 0;
+    private int updatedFolders = 0;
+    private boolean folderTreeChanged = false;
+
+    /**
+     * Constructor for the JellyfinDeltaSync class.
+     *
+     * @param connectAPI The connection used to request the changes, with the base URL and the token of the server.
+     * @since 1.2
+     * @author Cesar Bianchi
+     */
+    public JellyfinDeltaSync(ConnectJellyfinAPI connectAPI) {
+        this.connectAPI = connectAPI;
+    }
+
+    /**
+     * Requests the items changed since the last sync of the instance data and merges them into it.
+     * When it finishes, the last sync date of the instance data is set to the moment the sync started.
+     * It runs prepare(), requestChanges() and mergeChanges() in a row; a GUI runs requestChanges() in a background task instead.
+     *
+     * @param instanceData The instance data to be refreshed. Its last sync date must be set (by a full load or a previous sync).
+     * @throws IOException If an I/O error occurs.
+     * @throws MalformedURLException If the provided URL is not valid.
+     * @throws ParseException If there is an error parsing the server's response.
+     * @throws IllegalStateException If the instance data was never synchronized.
+     * @since 1.2
+     * @author Cesar Bianchi
+     */
+    public void synchronize(JellyfinInstanceDetails instanceData) throws IOException, MalformedURLException, ParseException {
+        this.prepare(instanceData);
+        this.requestChanges();
+        this.mergeChanges(instanceData);
+    }
+
+    /**
+     * Reads from the instance data what the requests need: the date of the last sync and the IDs of the folders whose metadata is loaded.
+     * It must run on the thread that owns the instance data (the EDT, in the GUI), before requestChanges().
+     *
+     * @param instanceData The instance data to be refreshed. Its last sync date must be set (by a full load or a previous sync).
+     * @throws IllegalStateException If the instance data was never synchronized.
+     * @since 1.2
+     * @author Cesar Bianchi
+     */
+    public void prepare(JellyfinInstanceDetails instanceData) {
+
+        if (instanceData.getLastSync() == null){
+            throw new IllegalStateException("A full load is required before a delta sync");
+        }
+
+        syncStart = new Date();
+        since = new Date(instanceData.getLastSync().getTime() - CLOCK_SKEW_MARGIN.toMillis());
+        loadedFolderIDs = new HashSet<>();
+        for (JellyfinFolder folder : instanceData.getFolders().getItems()){
+            if (folder.getMetadata() != null){
+                loadedFolderIDs.add(folder.getId());
+            }
+        }
+    }
+
+    /**
+     * Requests the items changed since the last sync, and the metadata of the changed folders that were loaded.
+     * It doesn't touch the instance data, so it can run in a background task while the GUI keeps using it.
+     *
+     * @throws IOException If an I/O error occurs.
+     * @throws MalformedURLException If the provided URL is not valid.
+     * @throws ParseException If there is an error parsing the server's response.
+     * @throws IllegalStateException If prepare() was not called.
+     * @since 1.2
+     * @author Cesar Bianchi
+     */
+    public void requestChanges() throws IOException, MalformedURLException, ParseException {
+
+        if (since == null){
+            throw new IllegalStateException("prepare() must be called before requestChanges()");
+        }
+
+        //1* - Request the changed items, page by page
+        ArrayList<JellyfinItemMetadata> newChangedItems = new ArrayList<>();
+        LoadChangedItems loadChangedItems = new LoadChangedItems(connectAPI.getcBaseURL(), connectAPI.getcTokenApi(), connectAPI.getAdminUser().getId(), since);
+        loadChangedItems.requestChangedItemsPages(page -> newChangedItems.addAll(page.getItems()));
+
+        //2* - Request the metadata of the changed folders that were already loaded
+        HashMap<String, JellyfinFolderMetadata> newFolderMetadata = new HashMap<>();
+        for (JellyfinItemMetadata changedItem : newChangedItems){
+            if (loadedFolderIDs.contains(changedItem.getId()) && !newFolderMetadata.containsKey(changedItem.getId())){
+                newFolderMetadata.put(changedItem.getId(), connectAPI.getFolderMetadata(changedItem.getId()));
+            }
+        }
+
+        changedItems = newChangedItems;
+        changedFolderMetadata = newFolderMetadata;
+    }
+
+    /**
+     * Merges the changes requested by requestChanges() into the instance data, and sets its last sync date to the moment prepare() ran.
+     * It must run on the thread that owns the instance data (the EDT, in the GUI).
+     *
+     * @param instanceData The instance data to be refreshed, the same given to prepare().
+     * @throws IllegalStateException If requestChanges() did not finish.
+     * @since 1.2
+     * @author Cesar Bianchi
+     */
+    public void mergeChanges(JellyfinInstanceDetails instanceData) {
+
+        if (changedItems == null){
+            throw new IllegalStateException("requestChanges() must finish before mergeChanges()");
+        }
+
+        //1* - Index the folders and the items already loaded
+        this.reset();
+        this.indexInstanceData(instanceData);
+
+        //2* - Merge the changed items
+        for (JellyfinItemMetadata changedItem : changedItems){
+            this.mergeChangedItem(changedItem);
+        }
+
+        //3* - Set the metadata of the changed folders that are still loaded
+        for (String cFolderID : changedFolderIDs){
+            JellyfinFolder changedFolder = foldersById.get(cFolderID);
+            JellyfinFolderMetadata folderMetadata = changedFolderMetadata.get(cFolderID);
+            if (changedFolder.getMetadata() != null && folderMetadata != null){
+                changedFolder.setMetadata(folderMetadata);
+                updatedFolders++;
+            }
+        }
+
+        //4* - Keep the alfabetical order of the folders with new items
+        for (String cFolderID : foldersWithNewItems){
+            foldersById.get(cFolderID).getFolderContent().getItems().sort((o1, o2) -> o1.getName().toUpperCase().compareTo(o2.getName().toUpperCase()));
+        }
+
+        instanceData.setLastSync(syncStart);
+    }
+
+    /**
+     * Clears the indexes and the counters of a previous sync.
+     *
+     * @since 1.2
+     * @author Cesar Bianchi
+     */
+    private void reset() {
+        foldersById = new HashMap<>();
+        loadedItemsById = new HashMap<>();
+        changedFolderIDs = new LinkedHashSet<>();
+        foldersWithNewItems = new LinkedHashSet<>();
+        mergedItemIDs = new LinkedHashSet<>();
+        updatedItems = 0;
+        addedItems = 0;
+        updatedFolders = 0;
+        folderTreeChanged = false;
+    }
+
+    /**
+     * Indexes the folders of the instance data and the items of the folders whose content is loaded.
+     *
+     * @param instanceData The instance data to be refreshed.
+     * @since 1.2
+     * @author Cesar Bianchi
+     */
+    void indexInstanceData(JellyfinInstanceDetails instanceData) {
+        for (JellyfinFolder folder : instanceData.getFolders().getItems()){
+            foldersById.put(folder.getId(), folder);
+
+            JellyfinItems folderContent = folder.getFolderContent();
+            if (folderContent != null && folderContent.getItems() != null){
+                for (JellyfinItem item : folderContent.getItems()){
+                    loadedItemsById.put(item.getId(), item);
+                }
+            }
+        }
+    }
+
+    /**
+     * Merges one changed item into the indexed instance data.
+     *
+     * @param changedItem The metadata of the changed item, as returned by the server.
+     * @since 1.2
+     * @author Cesar Bianchi
+     */
+    void mergeChangedItem(JellyfinItemMetadata changedItem) {
+
+        JellyfinFolder changedFolder = foldersById.get(changedItem.getId());
+        JellyfinItem loadedItem = loadedItemsById.get(changedItem.getId());
+
+        if (changedFolder != null){
+            //A folder: its metadata is reloaded later; a new name changes the folder list
+            changedFolderIDs.add(changedItem.getId());
+            if (changedItem.getName() != null && !changedFolder.getName().endsWith(changedItem.getName())){
+                folderTreeChanged = true;
+            }
+
+        } else if (loadedItem != null){
+            //An item already loaded: just refresh it
+            this.copyToItem(changedItem, loadedItem);
+            mergedItemIDs.add(loadedItem.getId());
+            updatedItems++;
+
+        } else if (changedItem.isIsFolder()){
+            //A folder not in the list: it changes the tree if it is a new root folder, or if its parent is listed with its subfolders loaded.
+            //Under a folder not opened yet (lazy folder tree), it is loaded with its siblings when the parent is opened
+            JellyfinFolder parentFolder = foldersById.get(changedItem.getParentId());
+            if (changedItem.getType() != null && ROOT_FOLDER_TYPES.contains(changedItem.getType())){
+                folderTreeChanged = true;
+            } else if (parentFolder != null && parentFolder.isSubFoldersLoaded()){
+                folderTreeChanged = true;
+            }
+
+        } else {
+            //A new item: added only if the content of its folder is loaded, otherwise it comes with the folder content
+            JellyfinFolder parentFolder = foldersById.get(changedItem.getParentId());
+            if (parentFolder != null && parentFolder.getFolderContent() != null && parentFolder.getFolderContent().getItems() != null){
+                JellyfinItem newItem = new JellyfinItem();
+                this.copyToItem(changedItem, newItem);
+
+                parentFolder.getFolderContent().getItems().add(newItem);
+                loadedItemsById.put(newItem.getId(), newItem);
+                foldersWithNewItems.add(parentFolder.getId());
+                mergedItemIDs.add(newItem.getId());
+                addedItems++;
+            }
+        }
+    }
+
+    /**
+     * Copies the metadata of a changed item into a JellyfinItem, including the list fields shown in the grids.
+     *
+     * @param changedItem The metadata of the changed item.
+     * @param item The item to be refreshed.
+     * @since 1.2
+     * @author Cesar Bianchi
+     */
+    private void copyToItem(JellyfinItemMetadata changedItem, JellyfinItem item) {
+        item.setId(changedItem.getId());
+        item.setName(changedItem.getName());
+        item.setServerId(changedItem.getServerId());
+        item.setParentId(changedItem.getParentId());
+        item.setContainer(changedItem.getContainer());
+        item.setPremiereDate(changedItem.getPremiereDate());
+        item.setCriticRating(changedItem.getCriticRating());
+        item.setOfficialRating(changedItem.getOfficialRating());
+        item.setCommunityRating(changedItem.getCommunityRating());
+        item.setAspectRatio(changedItem.getAspectRatio());
+        item.setProductionYear(changedItem.getProductionYear());
+        item.setIsFolder(changedItem.isIsFolder());
+        item.setType(changedItem.getType());
+        item.setVideoType(changedItem.getVideoType());
+        item.setLocationType(changedItem.getLocationType());
+        item.setMediaType(changedItem.getMediaType());
+        item.setItemMetadata(changedItem);
+    }
+
+    /**
+     * Gets the number of loaded items refreshed by the last sync.
+     *
+     * @return The number of updated items.
+     * @since 1.2
+     * @author Cesar Bianchi
+     */
+    public int getUpdatedItems() {
+        return updatedItems;
+    }
+
+    /**
+     * Gets the number of new items added to the loaded folders by the last sync.
+     *
+     * @return The number of added items.
+     * @since 1.2
+     * @author Cesar Bianchi
+     */
+    public int getAddedItems() {
+        return addedItems;
+    }
+
+    /**
+     * Gets the number of folders whose metadata was reloaded by the last sync.
+     *
+     * @return The number of updated folders.
+     * @since 1.2
+     * @author Cesar Bianchi
+     */
+    public int getUpdatedFolders() {
+        return updatedFolders;
+    }
+
+    /**
+     * Checks whether the last sync found a new or renamed folder, so the folder tree must be reloaded.
+     *
+     * @return true if the folder tree changed, false otherwise.
+     * @since 1.2
+     * @author Cesar Bianchi
+     */
+    public boolean isFolderTreeChanged() {
+        return folderTreeChanged;
+    }
+
+    /**
+     * Gets the IDs of the changed folders found by the last sync.
+     *
+     * @return The IDs of the changed folders.
+     * @since 1.2
+     * @author Cesar Bianchi
+     */
+    public ArrayList<String> getChangedFolderIDs() {
+        return new ArrayList<>(changedFolderIDs);
+    }
+
+    /**
+     * Gets the IDs of the loaded items refreshed or added by the last sync, whose data is now the server state.
+     * The other items were not touched, so their pending edits (if any) are still pending.
+     *
+     * @return The IDs of the updated and added items, in the order they were merged.
+     * @since 1.2
+     * @author Cesar Bianchi
+     */
+    public ArrayList<String> getMergedItemIDs() {
+        return new ArrayList<>(mergedItemIDs);
+    }
+
+}
@@ -0,0 +1,199 @@
+package com.lariflix.jemm.core;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+
+/**
+ * This class keeps the last ETag and the last parsed DTO of each cached resource (e.g. the metadata of an item, indexed by item ID).
+ *
+ * It is used by JellyfinHttpTransport to send conditional GETs with If-None-Match: when the server answers 304 (Not Modified),
+ * the cached DTO is reused instead of downloading and parsing the response again.
+ * The cache is bounded by size: each entry weighs about the size of the response it was parsed from, and when the total weight
+ * is over the limit, the least recently used entries are dropped. All methods are thread-safe.
+ *
+ * @author Cesar Bianchi
+ * @since 1.2
+ * @see JellyfinHttpTransport
+ */
+public class JellyfinEtagCache {
+
+    /**
+     * Default maximum total weight of the cached entries, in bytes (32 MB of responses).
+     */
+    public static final long DEFAULT_MAX_WEIGHT = 32L * 1024 * 1024;
+
+    private final LinkedHashMap<String, Entry> entries = new LinkedHashMap<>(16, 0.75f, true);
+    private final long maxWeight;
+    private long weight = 0;
+
+    /**
+     * Constructor for the JellyfinEtagCache class, with DEFAULT_MAX_WEIGHT bytes.
+     *
+     * @since 1.2
+     * @author Cesar Bianchi
+     */
+    public JellyfinEtagCache() {
+        this(DEFAULT_MAX_WEIGHT);
+    }
+
+    /**
+     * Constructor for the JellyfinEtagCache class.
+     *
+     * @param maxWeight The maximum total weight of the cached entries, in bytes.
+     * @since 1.2
+     * @author Cesar Bianchi
+     */
+    public JellyfinEtagCache(long maxWeight) {
+        this.maxWeight = maxWeight;
+    }
+
+    /**
+     * Gets the cached entry of a resource.
+     *
+     * @param key The key of the resource (e.g. the item ID).
+     * @return The cached entry, or null if the resource is not cached.
+     * @since 1.2
+     * @author Cesar Bianchi
+     */
+    public synchronized Entry get(String key) {
+        return entries.get(key);
+    }
+
+    /**
+     * Caches the ETag and the parsed DTO of a resource. A resource without ETag, or heavier than the whole cache, is not cached,
+     * and its previous entry is dropped.
+     *
+     * @param key The key of the resource (e.g. the item ID).
+     * @param etag The ETag of the resource.
+     * @param value The parsed DTO of the resource.
+     * @param entryWeight The weight of the entry, in bytes (e.g. the size of the response body).
+     * @since 1.2
+     * @author Cesar Bianchi
+     */
+    public synchronized void put(String key, String etag, Object value, long entryWeight) {
+        this.invalidate(key);
+        if (etag == null || etag.isEmpty() || entryWeight > maxWeight){
+            return;
+        }
+
+        entries.put(key, new Entry(etag, value, entryWeight));
+        weight += entryWeight;
+
+        //Drop the least recently used entries until the cache is under its limit again
+        Iterator<Entry> eldest = entries.values().iterator();
+        while (weight > maxWeight && eldest.hasNext()){
+            weight -= eldest.next().getWeight();
+            eldest.remove();
+        }
+    }
+
+    /**
+     * Drops the cached entry of a resource, e.g. after the resource was updated.
+     *
+     * @param key The key of the resource (e.g. the item ID).
+     * @since 1.2
+     * @author Cesar Bianchi
+     */
+    public synchronized void invalidate(String key) {
+        Entry removed = entries.remove(key);
+        if (removed != null){
+            weight -= removed.getWeight();
+        }
+    }
+
+    /**
+     * Drops all cached entries.
+     *
+     * @since 1.2
+     * @author Cesar Bianchi
+     */
+    public synchronized void clear() {
+        entries.clear();
+        weight = 0;
+    }
+
+    /**
+     * Gets the number of cached entries.
+     *
+     * @return The number of cached entries.
+     * @since 1.2
+     * @author Cesar Bianchi
+     */
+    public synchronized int size() {
+        return entries.size();
+    }
+
+    /**
+     * Gets the total weight of the cached entries.
+     *
+     * @return The total weight, in bytes.
+     * @since 1.2
+     * @author Cesar Bianchi
+     */
+    public synchronized long getWeight() {
+        return weight;
+    }
+
+    /**
+     * A cached ETag and the DTO parsed from the response it belongs to.
+     * The DTO is shared by the cache and must not be handed to callers without a copy.
+     *
+     * @since 1.2
+     * @author Cesar Bianchi
+     */
+    public static class Entry {
+
+        private final String etag;
+        private final Object value;
+        private final long weight;
+
+        /**
+         * Constructor for the Entry class.
+         *
+         * @param etag The ETag of the resource.
+         * @param value The parsed DTO of the resource.
+         * @param weight The weight of the entry, in bytes.
+         * @since 1.2
+         * @author Cesar Bianchi
+         */
+        public Entry(String etag, Object value, long weight) {
+            this.etag = etag;
+            this.value = value;
+            this.weight = weight;
+        }
+
+        /**
+         * Gets the ETag of the resource.
+         *
+         * @return The ETag.
+         * @since 1.2
+         * @author Cesar Bianchi
+         */
+        public String getEtag() {
+            return etag;
+        }
+
+        /**
+         * Gets the parsed DTO of the resource.
+         *
+         * @return The cached DTO.
+         * @since 1.2
+         * @author Cesar Bianchi
+         */
+        public Object getValue() {
+            return value;
+        }
+
+        /**
+         * Gets the weight of the entry.
+         *
+         * @return The weight, in bytes.
+         * @since 1.2
+         * @author Cesar Bianchi
+         */
+        public long getWeight() {
+            return weight;
+        }
+    }
+
+}
@@ -0,0 +1,298 @@
+package com.lariflix.jemm.core;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+
+/**
+ * This class is the single HTTP transport used by all loaders and by the save path.
+ *
+ * It wraps one shared java.net.http.HttpClient, so the TCP/TLS connections to the Jellyfin server are kept alive and reused between requests,
+ * and HTTP/2 is used whenever the server supports it. Each GET is issued only once: the status code and the body come from the same response.
+ * JSON responses are stream-parsed straight from the response body into the DTOs, without materializing the body as a String.
+ *
+ * @author Cesar Bianchi
+ * @since 1.2
+ * @see ConnectJellyfinAPI
+ */
+public class JellyfinHttpTransport {
+
+    private static final Duration CONNECT_TIMEOUT = Duration.ofSeconds(30);
+
+    private static final ObjectMapper mapper = new ObjectMapper()
+        .configure(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES, false);
+
+    private final HttpClient client;
+    private final JellyfinEtagCache etagCache = new JellyfinEtagCache();
+
+    /**
+     * Constructor for the JellyfinHttpTransport class.
+     * Builds the shared HttpClient with HTTP/2 preference and redirect support.
+     *
+     * @since 1.2
+     * @author Cesar Bianchi
+     */
+    public JellyfinHttpTransport() {
+        this.client = HttpClient.newBuilder()
+            .version(HttpClient.Version.HTTP_2)
+            .followRedirects(HttpClient.Redirect.NORMAL)
+            .connectTimeout(CONNECT_TIMEOUT)
+            .build();
+    }
+
+    /**
+     * Issues a GET request and returns the response body as a stream.
+     * The caller must close the returned stream, so the connection goes back to the pool.
+     *
+     * @param fullURL The full URL of the request, including the ApiKey parameter.
+     * @return An InputStream with the response body.
+     * @throws IOException If an I/O error occurs or the request is interrupted.
+     * @throws RuntimeException If the server answers with a status code other than 200.
+     * @since 1.2
+     * @author Cesar Bianchi
+     */
+    public InputStream requestGet(String fullURL) throws IOException {
+
+        HttpRequest request = HttpRequest.newBuilder()
+            .uri(URI.create(fullURL))
+            .GET()
+            .build();
+
+        HttpResponse<InputStream> response = this.send(request, HttpResponse.BodyHandlers.ofInputStream());
+
+        //Getting the response code
+        int responsecode = response.statusCode();
+
+        if (responsecode != 200) {
+            response.body().close();
+            throw new RuntimeException("HttpResponseCode: " + responsecode);
+        }
+
+        return response.body();
+    }
+
+    /**
+     * Issues a GET request and stream-parses the JSON response body into an object of the given class.
+     *
+     * @param fullURL The full URL of the request, including the ApiKey parameter.
+     * @param valueType The class of the DTO to be returned.
+     * @return The deserialized DTO.
+     * @throws IOException If an I/O error occurs, the request is interrupted or the JSON cannot be parsed.
+     * @since 1.2
+     * @author Cesar Bianchi
+     */
+    public <T> T requestObject(String fullURL, Class<T> valueType) throws IOException {
+        try (InputStream body = this.requestGet(fullURL)) {
+            return mapper.readValue(body, valueType);
+        }
+    }
+
+    /**
+     * Issues a GET request and stream-parses the JSON response body into an object of the given generic type.
+     *
+     * @param fullURL The full URL of the request, including the ApiKey parameter.
+     * @param valueType The type reference of the value to be returned (e.g. a list of DTOs).
+     * @return The deserialized value.
+     * @throws IOException If an I/O error occurs, the request is interrupted or the JSON cannot be parsed.
+     * @since 1.2
+     * @author Cesar Bianchi
+     */
+    public <T> T requestObject(String fullURL, TypeReference<T> valueType) throws IOException {
+        try (InputStream body = this.requestGet(fullURL)) {
+            return mapper.readValue(body, valueType);
+        }
+    }
+
+    /**
+     * Issues a conditional GET request and stream-parses the JSON response body into an object of the given class.
+     *
+     * The last ETag of the resource is sent in the If-None-Match header. If the server answers 304 (Not Modified),
+     * a copy of the cached DTO is returned, without downloading or parsing the body again.
+     * Only a response with an ETag header is cached, so a resource the server doesn't tag costs no copy and no memory.
+     *
+     * @param fullURL The full URL of the request, including the ApiKey parameter.
+     * @param cacheKey The key of the resource in the ETag cache (e.g. the request URL).
+     * @param valueType The class of the DTO to be returned.
+     * @return The deserialized DTO, owned by the caller.
+     * @throws IOException If an I/O error occurs, the request is interrupted or the JSON cannot be parsed.
+     * @throws RuntimeException If the server answers with a status code other than 200 or 304.
+     * @since 1.2
+     * @author Cesar Bianchi
+     */
+    public <T> T requestObjectRevalidated(String fullURL, String cacheKey, Class<T> valueType) throws IOException {
+
+        JellyfinEtagCache.Entry cached = etagCache.get(cacheKey);
+
+        HttpRequest.Builder builder = HttpRequest.newBuilder()
+            .uri(URI.create(fullURL))
+            .GET();
+        if (cached != null && valueType.isInstance(cached.getValue())){
+            builder.setHeader("If-None-Match", cached.getEtag());
+        }
+
+        HttpResponse<InputStream> response = this.send(builder.build(), HttpResponse.BodyHandlers.ofInputStream());
+
+        //Getting the response code
+        int responsecode = response.statusCode();
+
+        //Not Modified: reuse the cached DTO (a copy, so the caller can change it freely)
+        if (responsecode == 304 && cached != null && valueType.isInstance(cached.getValue())) {
+            response.body().close();
+            return mapper.treeToValue(mapper.valueToTree(cached.getValue()), valueType);
+        }
+
+        if (responsecode != 200) {
+            response.body().close();
+            throw new RuntimeException("HttpResponseCode: " + responsecode);
+        }
+
+        //Without an ETag header the response can't be revalidated: just parse it, and drop any stale entry
+        String etag = response.headers().firstValue("ETag").orElse(null);
+        if (etag == null || etag.isEmpty()){
+            etagCache.invalidate(cacheKey);
+            try (InputStream body = response.body()) {
+                return mapper.readValue(body, valueType);
+            }
+        }
+
+        T value;
+        long bodySize;
+        try (CountingInputStream body = new CountingInputStream(response.body())) {
+            value = mapper.readValue(body, valueType);
+            bodySize = body.getCount();
+        }
+
+        etagCache.put(cacheKey, etag, mapper.treeToValue(mapper.valueToTree(value), valueType), bodySize);
+
+        return value;
+    }
+
+    /**
+     * An InputStream that counts the bytes read through it, used to weigh the cached responses.
+     */
+    private static final class CountingInputStream extends FilterInputStream {
+
+        private long count = 0;
+
+        private CountingInputStream(InputStream in) {
+            super(in);
+        }
+
+        @Override
+        public int read() throws IOException {
+            int read = super.read();
+            if (read >= 0){
+                count++;
+            }
+            return read;
+        }
+
+        @Override
+        public int read(byte[] buffer, int offset, int length) throws IOException {
+            int read = super.read(buffer, offset, length);
+            if (read > 0){
+                count += read;
+            }
+            return read;
+        }
+
+        @Override
+        public long skip(long length) throws IOException {
+            long skipped = super.skip(length);
+            count += skipped;
+            return skipped;
+        }
+
+        private long getCount() {
+            return count;
+        }
+    }
+
+    /**
+     * Issues a POST request with a JSON body.
+     *
+     * @param fullURL The full URL of the request, including the ApiKey parameter.
+     * @param bodyRequestJson The JSON body to be posted.
+     * @return The HTTP response code from the server.
+     * @throws IOException If an I/O error occurs or the request is interrupted.
+     * @since 1.2
+     * @author Cesar Bianchi
+     */
+    public int requestPost(String fullURL, String bodyRequestJson) throws IOException {
+
+        HttpRequest request = HttpRequest.newBuilder()
+            .uri(URI.create(fullURL))
+            .POST(HttpRequest.BodyPublishers.ofString(bodyRequestJson))
+            .setHeader("Content-type",  "application/json")
+            .build();
+
+        HttpResponse<Void> response = this.send(request, HttpResponse.BodyHandlers.discarding());
+
+        return response.statusCode();
+    }
+
+    /**
+     * Sends a request through the shared client, translating an interruption into an InterruptedIOException.
+     *
+     * @param request The request to be sent.
+     * @param handler The body handler for the response.
+     * @return The server response.
+     * @throws IOException If an I/O error occurs or the request is interrupted.
+     * @since 1.2
+     * @author Cesar Bianchi
+     */
+    private <T> HttpResponse<T> send(HttpRequest request, HttpResponse.BodyHandler<T> handler) throws IOException {
+        try {
+            return client.send(request, handler);
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            InterruptedIOException interrupted = new InterruptedIOException("Request interrupted: " + request.uri().getPath());
+            interrupted.initCause(ex);
+            throw interrupted;
+        }
+    }
+
+    /**
+     * Returns the shared ObjectMapper used to parse the Jellyfin responses.
+     * The mapper is thread-safe once configured and must not be reconfigured by callers.
+     *
+     * @return The shared ObjectMapper.
+     * @since 1.2
+     * @author Cesar Bianchi
+     */
+    public static ObjectMapper getMapper() {
+        return mapper;
+    }
+
+    /**
+     * Returns the ETag cache used by requestObjectRevalidated().
+     *
+     * @return The ETag cache.
+     * @since 1.2
+     * @author Cesar Bianchi
+     */
+    public JellyfinEtagCache getEtagCache() {
+        return etagCache;
+    }
+
+    /**
+     * Returns the underlying shared HttpClient.
+     *
+     * @return The shared HttpClient.
+     * @since 1.2
+     * @author Cesar Bianchi
+     */
+    public HttpClient getClient() {
+        return client;
+    }
+
+}
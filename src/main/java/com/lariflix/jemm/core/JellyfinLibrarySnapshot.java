@@ -0,0 +1,235 @@
+package com.lariflix.jemm.core;
+
+import com.lariflix.jemm.dtos.JellyfinFolder;
+import com.lariflix.jemm.dtos.JellyfinItem;
+import com.lariflix.jemm.dtos.JellyfinItemMetadata;
+import com.lariflix.jemm.utils.JellyfinItemFields;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * This class is an immutable picture of a Jellyfin library, as read by the reports: all folders and subfolders,
+ * the items of each folder and the metadata of every folder and item.
+ *
+ * A snapshot is built once by JellyfinLibrarySnapshotLoader and shared by all report types while it is fresh,
+ * so running several reports back-to-back costs a single crawl of the server.
+ * The collections can't be modified, and the DTOs they hold are shared by every report: they must be read, never changed.
+ *
+ * A snapshot may hold only some fields of the items (see JellyfinItemFields), e.g. without the metadata of the items:
+ * covers() tells whether it has all the fields a report needs.
+ *
+ * @author Cesar Bianchi
+ * @since 1.2
+ * @see JellyfinLibrarySnapshotLoader
+ */
+public final class JellyfinLibrarySnapshot {
+
+    private final String baseURL;
+    private final String cUserAdminID;
+    private final Instant createdAt;
+    private final List<JellyfinFolder> folders;
+    private final Map<String, List<JellyfinItem>> folderItems;
+    private final List<JellyfinItem> episodes;
+    private final Map<String, JellyfinItemMetadata> metadata;
+    private final Set<JellyfinItemFields> itemFields;
+
+    /**
+     * Constructor for the JellyfinLibrarySnapshot class, with all the fields of the items. The given collections are copied.
+     *
+     * @param baseURL The base URL of the Jellyfin server.
+     * @param cUserAdminID The ID of the admin user used to read the library.
+     * @param createdAt The moment the crawl of the library started.
+     * @param folders The folders and subfolders, in the order returned by the server.
+     * @param folderItems The items of each folder, indexed by folder ID.
+     * @param metadata The metadata of the folders and items, indexed by ID.
+     * @since 1.2
+     * @author Cesar Bianchi
+     */
+    public JellyfinLibrarySnapshot(String baseURL, String cUserAdminID, Instant createdAt, List<JellyfinFolder> folders,
+            Map<String, ? extends List<JellyfinItem>> folderItems, Map<String, JellyfinItemMetadata> metadata) {
+        this(baseURL, cUserAdminID, createdAt, folders, folderItems, metadata, EnumSet.allOf(JellyfinItemFields.class));
+    }
+
+    /**
+     * Constructor for the JellyfinLibrarySnapshot class. The given collections are copied.
+     *
+     * @param baseURL The base URL of the Jellyfin server.
+     * @param cUserAdminID The ID of the admin user used to read the library.
+     * @param createdAt The moment the crawl of the library started.
+     * @param folders The folders and subfolders, in the order returned by the server.
+     * @param folderItems The items of each folder, indexed by folder ID.
+     * @param metadata The metadata of the folders and items, indexed by ID.
+     * @param itemFields The fields of the items requested from the server.
+     * @since 1.2
+     * @author Cesar Bianchi
+     */
+    public JellyfinLibrarySnapshot(String baseURL, String cUserAdminID, Instant createdAt, List<JellyfinFolder> folders,
+            Map<String, ? extends List<JellyfinItem>> folderItems, Map<String, JellyfinItemMetadata> metadata, Set<JellyfinItemFields> itemFields) {
+
+        this.baseURL = baseURL;
+        this.cUserAdminID = cUserAdminID;
+        this.createdAt = createdAt;
+        this.folders = List.copyOf(folders);
+
+        LinkedHashMap<String, List<JellyfinItem>> itemsCopy = new LinkedHashMap<>();
+        ArrayList<JellyfinItem> allEpisodes = new ArrayList<>();
+        for (JellyfinFolder folder : this.folders){
+            List<JellyfinItem> items = folderItems.get(folder.getId());
+            List<JellyfinItem> itemsOfFolder = items == null ? List.of() : List.copyOf(items);
+            itemsCopy.put(folder.getId(), itemsOfFolder);
+            allEpisodes.addAll(itemsOfFolder);
+        }
+        this.folderItems = Collections.unmodifiableMap(itemsCopy);
+        this.episodes = Collections.unmodifiableList(allEpisodes);
+        this.metadata = Collections.unmodifiableMap(new LinkedHashMap<>(metadata));
+        EnumSet<JellyfinItemFields> fieldsCopy = EnumSet.noneOf(JellyfinItemFields.class);
+        fieldsCopy.addAll(itemFields);
+        this.itemFields = Collections.unmodifiableSet(fieldsCopy);
+    }
+
+    /**
+     * Checks whether this snapshot can still be used.
+     *
+     * @param freshnessWindow How long a snapshot stays fresh after it was created.
+     * @return true if the snapshot is younger than the freshness window, false otherwise.
+     * @since 1.2
+     * @author Cesar Bianchi
+     */
+    public boolean isFresh(Duration freshnessWindow) {
+        return Instant.now().isBefore(createdAt.plus(freshnessWindow));
+    }
+
+    /**
+     * Checks whether this snapshot was read from the given server, with the given admin user.
+     *
+     * @param baseURL The base URL of the Jellyfin server.
+     * @param cUserAdminID The ID of the admin user.
+     * @return true if the snapshot belongs to the server and user, false otherwise.
+     * @since 1.2
+     * @author Cesar Bianchi
+     */
+    public boolean isSnapshotOf(String baseURL, String cUserAdminID) {
+        return this.baseURL.equals(baseURL) && this.cUserAdminID.equals(cUserAdminID);
+    }
+
+    /**
+     * Checks whether this snapshot holds the given fields of the items.
+     *
+     * @param fields The fields of the items needed by a report.
+     * @return true if all the fields were requested from the server, false otherwise.
+     * @since 1.2
+     * @author Cesar Bianchi
+     */
+    public boolean covers(Set<JellyfinItemFields> fields) {
+        return itemFields.containsAll(fields);
+    }
+
+    /**
+     * Gets the fields of the items requested from the server.
+     *
+     * @return The fields of the items.
+     * @since 1.2
+     * @author Cesar Bianchi
+     */
+    public Set<JellyfinItemFields> getItemFields() {
+        return itemFields;
+    }
+
+    /**
+     * Gets the base URL of the Jellyfin server.
+     *
+     * @return The base URL.
+     * @since 1.2
+     * @author Cesar Bianchi
+     */
+    public String getBaseURL() {
+        return baseURL;
+    }
+
+    /**
+     * Gets the ID of the admin user used to read the library.
+     *
+     * @return The ID of the admin user.
+     * @since 1.2
+     * @author Cesar Bianchi
+     */
+    public String getcUserAdminID() {
+        return cUserAdminID;
+    }
+
+    /**
+     * Gets the moment the crawl of the library started.
+     *
+     * @return The creation time of the snapshot.
+     * @since 1.2
+     * @author Cesar Bianchi
+     */
+    public Instant getCreatedAt() {
+        return createdAt;
+    }
+
+    /**
+     * Gets all folders and subfolders of the library.
+     *
+     * @return The folders, in the order returned by the server.
+     * @since 1.2
+     * @author Cesar Bianchi
+     */
+    public List<JellyfinFolder> getFolders() {
+        return folders;
+    }
+
+    /**
+     * Gets the items of a folder (subfolders not included).
+     *
+     * @param cFolderID The ID of the folder.
+     * @return The items of the folder, empty if the folder is unknown.
+     * @since 1.2
+     * @author Cesar Bianchi
+     */
+    public List<JellyfinItem> getFolderItems(String cFolderID) {
+        return folderItems.getOrDefault(cFolderID, List.of());
+    }
+
+    /**
+     * Gets the items of all folders, folder after folder.
+     *
+     * @return All items of the library.
+     * @since 1.2
+     * @author Cesar Bianchi
+     */
+    public List<JellyfinItem> getEpisodes() {
+        return episodes;
+    }
+
+    /**
+     * Gets the metadata of a folder or item.
+     *
+     * @param cItemID The ID of the folder or item.
+     * @return The metadata, or null if it couldn't be loaded.
+     * @since 1.2
+     * @author Cesar Bianchi
+     */
+    public JellyfinItemMetadata getMetadata(String cItemID) {
+        return metadata.get(cItemID);
+    }
+
+    /**
+     * Gets the metadata of all folders and items.
+     *
+     * @return The metadata, indexed by ID.
+     * @since 1.2
+     * @author Cesar Bianchi
+     */
+    public Map<String, JellyfinItemMetadata> getMetadata() {
+        return metadata;
+    }
+
+}
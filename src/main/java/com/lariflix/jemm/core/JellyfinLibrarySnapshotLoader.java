@@ -0,0 +1,340 @@
+package com.lariflix.jemm.core;
+
+import com.lariflix.jemm.dtos.JellyfinFolder;
+import com.lariflix.jemm.dtos.JellyfinFolders;
+import com.lariflix.jemm.dtos.JellyfinInstanceDetails;
+import com.lariflix.jemm.dtos.JellyfinItem;
+import com.lariflix.jemm.dtos.JellyfinItemMetadata;
+import com.lariflix.jemm.dtos.JellyfinItems;
+import com.lariflix.jemm.utils.JellyfimParameters;
+import com.lariflix.jemm.utils.JellyfinItemFields;
+import com.lariflix.jemm.utils.JellyfinReportPhase;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.net.MalformedURLException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Consumer;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import java.util.stream.Collectors;
+import org.json.simple.parser.ParseException;
+
+/**
+ * This class crawls a Jellyfin library once and keeps the resulting JellyfinLibrarySnapshot while it is fresh,
+ * so every report type reads the same snapshot instead of requesting the folders, items and metadata again.
+ *
+ * The crawl requests all folders and subfolders, the items of each folder, and the metadata of all of them in bulk
+ * (see LoadItemsMetadata), with a per-item fallback for the ones missing in the bulk response.
+ * A folder or item whose metadata can't be loaded is kept without metadata.
+ *
+ * Each report asks only for the fields of the items it needs (see JellyfinItemFields): the overview and the path are requested
+ * with the list of items, and the metadata of the items only if JellyfinItemFields.METADATA is asked for. A cached snapshot
+ * without some of the asked fields is crawled again, with the fields it had plus the asked ones.
+ *
+ * The reports share a default loader (see getDefault()). Its snapshot is dropped when the freshness window expires,
+ * when another server or user is used, or when invalidate() is called (e.g. after an item is saved).
+ *
+ * @author Cesar Bianchi
+ * @since 1.2
+ * @see JellyfinLibrarySnapshot
+ */
+public class JellyfinLibrarySnapshotLoader {
+
+    /**
+     * Default time a snapshot stays fresh.
+     */
+    public static final Duration DEFAULT_FRESHNESS_WINDOW = Duration.ofMinutes(5);
+
+    private static final JellyfinLibrarySnapshotLoader defaultLoader = new JellyfinLibrarySnapshotLoader();
+
+    private Duration freshnessWindow = DEFAULT_FRESHNESS_WINDOW;
+    private JellyfinLibrarySnapshot snapshot = null;
+
+    /**
+     * Constructor for the JellyfinLibrarySnapshotLoader class.
+     *
+     * @since 1.2
+     * @author Cesar Bianchi
+     */
+    public JellyfinLibrarySnapshotLoader() {
+        // ...
+    }
+
+    /**
+     * Gets the loader shared by all reports.
+     *
+     * @return The default loader.
+     * @since 1.2
+     * @author Cesar Bianchi
+     */
+    public static JellyfinLibrarySnapshotLoader getDefault() {
+        return defaultLoader;
+    }
+
+    /**
+     * Gets a fresh snapshot of the library of the given instance, crawling the server only if the cached snapshot is missing,
+     * stale or belongs to another server or user. Concurrent callers wait for the same crawl.
+     *
+     * @param instanceData The instance data, with the credentials and the admin user of the Jellyfin server.
+     * @return The snapshot of the library.
+     * @throws IOException If an I/O error occurs.
+     * @throws MalformedURLException If the URL of the Jellyfin server is not valid.
+     * @throws ParseException If there is an error parsing the server's response.
+     * @since 1.2
+     * @author Cesar Bianchi
+     */
+    public JellyfinLibrarySnapshot getSnapshot(JellyfinInstanceDetails instanceData) throws IOException, MalformedURLException, ParseException {
+        return this.getSnapshot(instanceData, EnumSet.allOf(JellyfinItemFields.class), null);
+    }
+
+    /**
+     * Gets a fresh snapshot of the library of the given instance, as getSnapshot(instanceData), with at least the given fields of the items.
+     *
+     * @param instanceData The instance data, with the credentials and the admin user of the Jellyfin server.
+     * @param itemFields The fields of the items needed by the caller.
+     * @return The snapshot of the library.
+     * @throws IOException If an I/O error occurs.
+     * @throws MalformedURLException If the URL of the Jellyfin server is not valid.
+     * @throws ParseException If there is an error parsing the server's response.
+     * @since 1.2
+     * @author Cesar Bianchi
+     */
+    public JellyfinLibrarySnapshot getSnapshot(JellyfinInstanceDetails instanceData, Set<JellyfinItemFields> itemFields) throws IOException, MalformedURLException, ParseException {
+        return this.getSnapshot(instanceData, itemFields, null);
+    }
+
+    /**
+     * Gets a fresh snapshot of the library of the given instance, as getSnapshot(instanceData, itemFields), reporting when the metadata is requested.
+     *
+     * @param instanceData The instance data, with the credentials and the admin user of the Jellyfin server.
+     * @param itemFields The fields of the items needed by the caller.
+     * @param phaseListener Receives JellyfinReportPhase.FETCH_METADATA when the crawl starts requesting the metadata. May be null.
+     * @return The snapshot of the library.
+     * @throws IOException If an I/O error occurs, or InterruptedIOException if the thread is interrupted during the crawl.
+     * @throws MalformedURLException If the URL of the Jellyfin server is not valid.
+     * @throws ParseException If there is an error parsing the server's response.
+     * @since 1.2
+     * @author Cesar Bianchi
+     */
+    public synchronized JellyfinLibrarySnapshot getSnapshot(JellyfinInstanceDetails instanceData, Set<JellyfinItemFields> itemFields, Consumer<JellyfinReportPhase> phaseListener) throws IOException, MalformedURLException, ParseException {
+        String cBaseURL = instanceData.getCredentials().getBaseURL();
+        String cAdminID = instanceData.getAdminUser().getId();
+
+        if (snapshot == null || !snapshot.isSnapshotOf(cBaseURL, cAdminID) || !snapshot.isFresh(freshnessWindow)){
+            snapshot = this.load(cBaseURL, instanceData.getCredentials().getTokenAPI(), cAdminID, itemFields, phaseListener);
+        } else if (!snapshot.covers(itemFields)){
+            //The fields of the cached snapshot are kept, for the reports that already use it
+            EnumSet<JellyfinItemFields> allFields = EnumSet.noneOf(JellyfinItemFields.class);
+            allFields.addAll(snapshot.getItemFields());
+            allFields.addAll(itemFields);
+            snapshot = this.load(cBaseURL, instanceData.getCredentials().getTokenAPI(), cAdminID, allFields, phaseListener);
+        }
+
+        return snapshot;
+    }
+
+    /**
+     * Crawls the library of the Jellyfin server.
+     *
+     * @param cBaseURL The base URL of the Jellyfin server.
+     * @param cTokenAPI The API token.
+     * @param cAdminID The ID of the admin user.
+     * @return A new snapshot of the library.
+     * @throws IOException If an I/O error occurs.
+     * @throws MalformedURLException If the URL of the Jellyfin server is not valid.
+     * @throws ParseException If there is an error parsing the server's response.
+     * @since 1.2
+     * @author Cesar Bianchi
+     */
+    public JellyfinLibrarySnapshot load(String cBaseURL, String cTokenAPI, String cAdminID) throws IOException, MalformedURLException, ParseException {
+        return this.load(cBaseURL, cTokenAPI, cAdminID, EnumSet.allOf(JellyfinItemFields.class), null);
+    }
+
+    /**
+     * Crawls the library of the Jellyfin server, reporting when the metadata is requested.
+     * The crawl stops with an InterruptedIOException if the current thread is interrupted (e.g. a cancelled report).
+     *
+     * @param cBaseURL The base URL of the Jellyfin server.
+     * @param cTokenAPI The API token.
+     * @param cAdminID The ID of the admin user.
+     * @param itemFields The fields of the items to request.
+     * @param phaseListener Receives JellyfinReportPhase.FETCH_METADATA when the crawl starts requesting the metadata. May be null.
+     * @return A new snapshot of the library.
+     * @throws IOException If an I/O error occurs, or InterruptedIOException if the thread is interrupted.
+     * @throws MalformedURLException If the URL of the Jellyfin server is not valid.
+     * @throws ParseException If there is an error parsing the server's response.
+     * @since 1.2
+     * @author Cesar Bianchi
+     */
+    public JellyfinLibrarySnapshot load(String cBaseURL, String cTokenAPI, String cAdminID, Set<JellyfinItemFields> itemFields, Consumer<JellyfinReportPhase> phaseListener) throws IOException, MalformedURLException, ParseException {
+        Instant crawlStart = Instant.now();
+
+        //1* Get All Folders
+        LoadFolders loadFolders = new LoadFolders(JellyfimParameters.FOLDERS_AND_SUBFOLDERS);
+        loadFolders.setJellyfinInstanceUrl(cBaseURL);
+        loadFolders.setApiToken(cTokenAPI);
+        loadFolders.setcUserAdminID(cAdminID);
+        JellyfinFolders folders = loadFolders.requestFolders();
+
+        //2* Get All Itens for each folder
+        HashMap<String, ArrayList<JellyfinItem>> folderItems = new HashMap<>();
+        LinkedHashSet<String> itemIDs = new LinkedHashSet<>();
+        LoadItems loadItems = new LoadItems(JellyfimParameters.JUST_ITEMS);
+        loadItems.setJellyfinInstanceUrl(cBaseURL);
+        loadItems.setApiToken(cTokenAPI);
+        loadItems.setcUserAdminID(cAdminID);
+        loadItems.setFields(getListFields(itemFields));
+        HashMap<String, String> etagsById = new HashMap<>();
+
+        for (JellyfinFolder folder : folders.getItems()){
+            this.checkInterrupted();
+            itemIDs.add(folder.getId());
+
+            loadItems.setcParentID(folder.getId());
+            JellyfinItems items = loadItems.requestItems();
+            folderItems.put(folder.getId(), items.getItems());
+            if (itemFields.contains(JellyfinItemFields.METADATA)){
+                for (JellyfinItem item : items.getItems()){
+                    itemIDs.add(item.getId());
+                    if (item.getEtag() != null){
+                        etagsById.put(item.getId(), item.getEtag());
+                    }
+                }
+            }
+        }
+
+        //3* Get the metadata of all folders, and of the items only if it was asked for
+        if (phaseListener != null){
+            phaseListener.accept(JellyfinReportPhase.FETCH_METADATA);
+        }
+        HashMap<String, JellyfinItemMetadata> metadata = this.requestMetadata(cBaseURL, cTokenAPI, cAdminID, new ArrayList<>(itemIDs), etagsById);
+
+        //An interrupted crawl is incomplete and must not be used
+        this.checkInterrupted();
+
+        return new JellyfinLibrarySnapshot(cBaseURL, cAdminID, crawlStart, folders.getItems(), folderItems, metadata, itemFields);
+    }
+
+    /**
+     * Gets the fields requested with the list of items, for the "Fields" option of the Items endpoint.
+     *
+     * @param itemFields The fields of the items to request.
+     * @return The names of the fields, separated by commas, or an empty string if none is requested with the list.
+     * @since 1.2
+     * @author Cesar Bianchi
+     */
+    static String getListFields(Set<JellyfinItemFields> itemFields) {
+        return itemFields.stream()
+                .map(JellyfinItemFields::getApiField)
+                .filter(apiField -> !apiField.isEmpty())
+                .collect(Collectors.joining(","));
+    }
+
+    /**
+     * Requests the metadata of the given IDs in bulk, then one by one (concurrently) for the IDs missing in the bulk response.
+     *
+     * @param cBaseURL The base URL of the Jellyfin server.
+     * @param cTokenAPI The API token.
+     * @param cAdminID The ID of the admin user.
+     * @param itemIDs The IDs of the folders and items.
+     * @param etagsById The Etag of the items returned with the lists, so the items not changed since the last crawl aren't requested again.
+     * @return The metadata, indexed by ID. An ID whose metadata couldn't be loaded is left out.
+     * @since 1.2
+     * @author Cesar Bianchi
+     */
+    private HashMap<String, JellyfinItemMetadata> requestMetadata(String cBaseURL, String cTokenAPI, String cAdminID, List<String> itemIDs, Map<String, String> etagsById) {
+        LoadItemsMetadata loadBulkMetadata = new LoadItemsMetadata(cBaseURL, cTokenAPI, cAdminID);
+        HashMap<String, JellyfinItemMetadata> metadata = loadBulkMetadata.requestItemsMetadataById(itemIDs, etagsById, null);
+
+        ArrayList<String> missingIDs = new ArrayList<>();
+        for (String cItemID : itemIDs){
+            if (!metadata.containsKey(cItemID)){
+                missingIDs.add(cItemID);
+            }
+        }
+
+        if (!missingIDs.isEmpty()){
+            LoadItemMetadataConcurrent loadMissingMetadata = new LoadItemMetadataConcurrent(cBaseURL, cTokenAPI, cAdminID);
+            ArrayList<JellyfinItemMetadata> missingMetadata = loadMissingMetadata.requestItemsMetadata(missingIDs);
+            for (int nI = 0; nI < missingIDs.size(); nI++){
+                if (missingMetadata.get(nI) != null){
+                    metadata.put(missingIDs.get(nI), missingMetadata.get(nI));
+                }
+            }
+            if (loadMissingMetadata.hasFailures()){
+                Logger.getLogger(JellyfinLibrarySnapshotLoader.class.getName()).log(Level.WARNING, "{0} item(s) without metadata in the library snapshot", loadMissingMetadata.getFailures().size());
+            }
+        }
+
+        return metadata;
+    }
+
+    /**
+     * Stops the crawl if the current thread was interrupted.
+     *
+     * @throws InterruptedIOException If the current thread was interrupted.
+     * @since 1.2
+     * @author Cesar Bianchi
+     */
+    private void checkInterrupted() throws InterruptedIOException {
+        if (Thread.currentThread().isInterrupted()){
+            throw new InterruptedIOException("Library crawl cancelled");
+        }
+    }
+
+    /**
+     * Drops the cached snapshot, so the next call to getSnapshot() crawls the server again.
+     *
+     * @since 1.2
+     * @author Cesar Bianchi
+     */
+    public synchronized void invalidate() {
+        snapshot = null;
+    }
+
+    /**
+     * Gets the cached snapshot, fresh or not.
+     *
+     * @return The cached snapshot, or null if there is none.
+     * @since 1.2
+     * @author Cesar Bianchi
+     */
+    public synchronized JellyfinLibrarySnapshot getCachedSnapshot() {
+        return snapshot;
+    }
+
+    /**
+     * Gets how long a snapshot stays fresh.
+     *
+     * @return The freshness window.
+     * @since 1.2
+     * @author Cesar Bianchi
+     */
+    public synchronized Duration getFreshnessWindow() {
+        return freshnessWindow;
+    }
+
+    /**
+     * Sets how long a snapshot stays fresh. A zero window makes every report crawl the server again.
+     *
+     * @param freshnessWindow The freshness window. Must not be negative.
+     * @throws IllegalArgumentException If freshnessWindow is null or negative.
+     * @since 1.2
+     * @author Cesar Bianchi
+     */
+    public synchronized void setFreshnessWindow(Duration freshnessWindow) {
+        if (freshnessWindow == null || freshnessWindow.isNegative()){
+            throw new IllegalArgumentException("freshnessWindow must not be negative");
+        }
+        this.freshnessWindow = freshnessWindow;
+    }
+
+}
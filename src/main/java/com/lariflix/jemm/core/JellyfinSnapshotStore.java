@@ -0,0 +1,349 @@
+package com.lariflix.jemm.core;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.lariflix.jemm.dtos.JellyfinFolder;
+import com.lariflix.jemm.dtos.JellyfinFolders;
+import com.lariflix.jemm.dtos.JellyfinInstanceDetails;
+import com.lariflix.jemm.dtos.JellyfinUser;
+import com.lariflix.jemm.dtos.JellyfinUsers;
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Reader;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.Properties;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * This class stores a local snapshot of a Jellyfin library (users, admin user, folder tree, folder metadata and folder content),
+ * so the next session can show the folder list right away and revalidate it against the server in the background.
+ *
+ * Each server has its own snapshot file, named after the Jellyfin server ID, in the user's ~/.jemm/snapshots directory.
+ * The file is gzipped NDJSON: one JSON record per line, beginning with a header (format version, server ID, base URL, save and last sync time),
+ * then the users, the admin user and one line per folder. The credentials are never written.
+ * A small index (servers.properties) maps each base URL to its server ID, so a snapshot can be found before any request.
+ *
+ * @author Cesar Bianchi
+ * @since 1.2
+ * @see JellyfinInstanceDetails
+ */
+public class JellyfinSnapshotStore {
+
+    /**
+     * Version of the snapshot format. A snapshot written with another version is ignored.
+     */
+    public static final int FORMAT_VERSION = 1;
+
+    private static final String INDEX_FILE = "servers.properties";
+    private static final String SNAPSHOT_EXTENSION = ".ndjson.gz";
+
+    private static final ObjectMapper mapper = JellyfinHttpTransport.getMapper();
+
+    private final Path snapshotDir;
+
+    /**
+     * Constructor for the JellyfinSnapshotStore class, using the default directory ~/.jemm/snapshots.
+     *
+     * @since 1.2
+     * @author Cesar Bianchi
+     */
+    public JellyfinSnapshotStore() {
+        this(Paths.get(System.getProperty("user.home"), ".jemm", "snapshots"));
+    }
+
+    /**
+     * Constructor for the JellyfinSnapshotStore class.
+     *
+     * @param snapshotDir The directory where the snapshots are stored.
+     * @since 1.2
+     * @author Cesar Bianchi
+     */
+    public JellyfinSnapshotStore(Path snapshotDir) {
+        this.snapshotDir = snapshotDir;
+    }
+
+    /**
+     * Loads the last snapshot of the server at the given base URL.
+     * A missing, unreadable or outdated snapshot is not an error: the caller just loads everything from the server.
+     *
+     * @param baseURL The base URL of the Jellyfin server.
+     * @return A JellyfinInstanceDetails with the users, admin user and folders of the snapshot (without credentials), or null if there is no usable snapshot.
+     * @since 1.2
+     * @author Cesar Bianchi
+     */
+    public JellyfinInstanceDetails load(String baseURL) {
+        String serverId = this.readIndex().getProperty(baseURL);
+        if (serverId == null){
+            return null;
+        }
+
+        Path snapshotFile = this.getSnapshotFile(serverId);
+        if (!Files.isRegularFile(snapshotFile)){
+            return null;
+        }
+
+        JellyfinInstanceDetails snapshot = new JellyfinInstanceDetails();
+        ArrayList<JellyfinFolder> folders = new ArrayList<>();
+
+        try (InputStream in = new GZIPInputStream(Files.newInputStream(snapshotFile));
+             BufferedReader reader = new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8))) {
+
+            //1* - Header: the snapshot must have the same format and belong to the same server
+            String line = reader.readLine();
+            if (line == null){
+                return null;
+            }
+            JsonNode header = mapper.readTree(line).get("value");
+            if (header == null || header.path("format").asInt() != FORMAT_VERSION || !serverId.equals(header.path("serverId").asText())){
+                return null;
+            }
+            if (header.hasNonNull("lastSync")){
+                snapshot.setLastSync(new Date(header.get("lastSync").asLong()));
+            }
+
+            //2* - One record per line
+            while ((line = reader.readLine()) != null){
+                JsonNode record = mapper.readTree(line);
+                JsonNode value = record.get("value");
+
+                switch (record.path("type").asText()){
+                    case "users":
+                        snapshot.setUsers(mapper.treeToValue(value, JellyfinUsers.class));
+                        break;
+                    case "adminUser":
+                        snapshot.setAdminUser(mapper.treeToValue(value, JellyfinUser.class));
+                        break;
+                    case "folder":
+                        folders.add(mapper.treeToValue(value, JellyfinFolder.class));
+                        break;
+                    default:
+                        //Unknown record: written by a newer version, just skip it
+                        break;
+                }
+            }
+
+        } catch (IOException | RuntimeException ex) {
+            Logger.getLogger(JellyfinSnapshotStore.class.getName()).log(Level.WARNING, "Ignoring unreadable snapshot " + snapshotFile, ex);
+            return null;
+        }
+
+        JellyfinFolders snapshotFolders = new JellyfinFolders();
+        snapshotFolders.setItems(folders);
+        snapshotFolders.setTotalRecordCount(folders.size());
+        snapshot.setFolders(snapshotFolders);
+
+        return snapshot;
+    }
+
+    /**
+     * Makes a deep copy of the parts of the instance data that are saved in a snapshot (users, admin user, folders and last sync date),
+     * so the copy can be saved in a background thread while the original keeps being changed by the GUI.
+     * The credentials are shared, not copied: they are only read, to index the snapshot by base URL.
+     *
+     * @param instanceData The instance data to be copied.
+     * @return The copy of the instance data.
+     * @throws IllegalArgumentException If the instance data cannot be copied.
+     * @since 1.2
+     * @author Cesar Bianchi
+     */
+    public static JellyfinInstanceDetails copyOf(JellyfinInstanceDetails instanceData) {
+        JellyfinInstanceDetails copy = new JellyfinInstanceDetails();
+        try {
+            copy.setCredentials(instanceData.getCredentials());
+            if (instanceData.getUsers() != null){
+                copy.setUsers(mapper.treeToValue(mapper.valueToTree(instanceData.getUsers()), JellyfinUsers.class));
+            }
+            if (instanceData.getAdminUser() != null){
+                copy.setAdminUser(mapper.treeToValue(mapper.valueToTree(instanceData.getAdminUser()), JellyfinUser.class));
+            }
+            if (instanceData.getFolders() != null){
+                copy.setFolders(mapper.treeToValue(mapper.valueToTree(instanceData.getFolders()), JellyfinFolders.class));
+            }
+            copy.setLastSync(instanceData.getLastSync());
+        } catch (JsonProcessingException ex) {
+            throw new IllegalArgumentException("Unable to copy the instance data", ex);
+        }
+        return copy;
+    }
+
+    /**
+     * Saves a snapshot of the given instance data, replacing the previous snapshot of the same server.
+     * The file is written to a temporary file first and then moved, so a crash never leaves a truncated snapshot.
+     *
+     * @param instanceData The instance data to be saved. Its credentials are used only to index the snapshot by base URL.
+     * @throws IOException If an I/O error occurs.
+     * @since 1.2
+     * @author Cesar Bianchi
+     */
+    public void save(JellyfinInstanceDetails instanceData) throws IOException {
+        String serverId = this.getServerId(instanceData);
+        if (serverId == null){
+            //Nothing was loaded from the server yet
+            return;
+        }
+
+        Files.createDirectories(snapshotDir);
+        Path snapshotFile = this.getSnapshotFile(serverId);
+        Path tempFile = Files.createTempFile(snapshotDir, "snapshot", ".tmp");
+
+        try {
+            try (OutputStream out = new GZIPOutputStream(Files.newOutputStream(tempFile));
+                 Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8))) {
+
+                ObjectNode header = mapper.createObjectNode();
+                header.put("format", FORMAT_VERSION);
+                header.put("serverId", serverId);
+                header.put("baseURL", instanceData.getCredentials().getBaseURL());
+                header.put("savedAt", System.currentTimeMillis());
+                if (instanceData.getLastSync() != null){
+                    header.put("lastSync", instanceData.getLastSync().getTime());
+                }
+
+                this.writeRecord(writer, "header", header);
+                this.writeRecord(writer, "users", instanceData.getUsers());
+                this.writeRecord(writer, "adminUser", instanceData.getAdminUser());
+
+                if (instanceData.getFolders().getItems() != null){
+                    for (JellyfinFolder folder : instanceData.getFolders().getItems()){
+                        this.writeRecord(writer, "folder", folder);
+                    }
+                }
+            }
+
+            Files.move(tempFile, snapshotFile, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+
+        } finally {
+            Files.deleteIfExists(tempFile);
+        }
+
+        this.writeIndex(instanceData.getCredentials().getBaseURL(), serverId);
+    }
+
+    /**
+     * Gets the ID of the Jellyfin server of the given instance data, taken from the loaded folders or from the admin user.
+     *
+     * @param instanceData The instance data.
+     * @return The server ID, or null if nothing was loaded from the server.
+     * @since 1.2
+     * @author Cesar Bianchi
+     */
+    public String getServerId(JellyfinInstanceDetails instanceData) {
+        if (instanceData.getFolders().getItems() != null){
+            for (JellyfinFolder folder : instanceData.getFolders().getItems()){
+                if (folder.getServerId() != null && !folder.getServerId().isEmpty()){
+                    return folder.getServerId();
+                }
+            }
+        }
+
+        if (instanceData.getAdminUser() != null && instanceData.getAdminUser().getServerId() != null && !instanceData.getAdminUser().getServerId().isEmpty()){
+            return instanceData.getAdminUser().getServerId();
+        }
+
+        return null;
+    }
+
+    /**
+     * Gets the snapshot file of a server.
+     *
+     * @param serverId The ID of the Jellyfin server.
+     * @return The path of the snapshot file.
+     * @since 1.2
+     * @author Cesar Bianchi
+     */
+    public Path getSnapshotFile(String serverId) {
+        return snapshotDir.resolve(serverId.replaceAll("[^A-Za-z0-9_-]", "_").concat(SNAPSHOT_EXTENSION));
+    }
+
+    /**
+     * Gets the directory where the snapshots are stored.
+     *
+     * @return The snapshot directory.
+     * @since 1.2
+     * @author Cesar Bianchi
+     */
+    public Path getSnapshotDir() {
+        return snapshotDir;
+    }
+
+    /**
+     * Writes one NDJSON record, in the form {"type": ..., "value": ...}.
+     *
+     * @param writer The writer of the snapshot file.
+     * @param type The type of the record.
+     * @param value The value of the record.
+     * @throws IOException If an I/O error occurs.
+     * @since 1.2
+     * @author Cesar Bianchi
+     */
+    private void writeRecord(Writer writer, String type, Object value) throws IOException {
+        ObjectNode record = mapper.createObjectNode();
+        record.put("type", type);
+        record.set("value", mapper.valueToTree(value));
+
+        writer.write(mapper.writeValueAsString(record));
+        writer.write('\n');
+    }
+
+    /**
+     * Reads the index of base URLs and server IDs.
+     *
+     * @return The index, empty if it doesn't exist yet.
+     * @since 1.2
+     * @author Cesar Bianchi
+     */
+    private synchronized Properties readIndex() {
+        Properties index = new Properties();
+        Path indexFile = snapshotDir.resolve(INDEX_FILE);
+
+        if (Files.isRegularFile(indexFile)){
+            try (Reader reader = Files.newBufferedReader(indexFile, StandardCharsets.UTF_8)) {
+                index.load(reader);
+            } catch (IOException ex) {
+                Logger.getLogger(JellyfinSnapshotStore.class.getName()).log(Level.WARNING, null, ex);
+            }
+        }
+
+        return index;
+    }
+
+    /**
+     * Adds or updates a base URL in the index of base URLs and server IDs.
+     *
+     * @param baseURL The base URL of the Jellyfin server.
+     * @param serverId The ID of the Jellyfin server.
+     * @throws IOException If an I/O error occurs.
+     * @since 1.2
+     * @author Cesar Bianchi
+     */
+    private synchronized void writeIndex(String baseURL, String serverId) throws IOException {
+        Properties index = this.readIndex();
+
+        if (serverId.equals(index.getProperty(baseURL))){
+            return;
+        }
+        index.setProperty(baseURL, serverId);
+
+        try (Writer writer = Files.newBufferedWriter(snapshotDir.resolve(INDEX_FILE), StandardCharsets.UTF_8)) {
+            index.store(writer, "JEMM snapshots: base URL = Jellyfin server ID");
+        }
+    }
+
+}
@@ -0,0 +1,250 @@
+package com.lariflix.jemm.core;
+
+import com.lariflix.jemm.dtos.JellyfinItemsMetadata;
+import java.io.IOException;
+import java.net.MalformedURLException;
+import java.net.URLEncoder;
+import java.nio.charset.StandardCharsets;
+import java.time.format.DateTimeFormatter;
+import java.util.Date;
+import java.util.function.Consumer;
+
+/**
+ * This class is responsible for loading, from the Jellyfin server, the items saved or created since a given date.
+ *
+ * It uses a recursive query of the Items endpoint with the "MinDateLastSaved" option, so only the items changed since the last sync are returned,
+ * already with the fields read by JellyfinItemMetadata. The results are requested page by page (StartIndex and Limit).
+ *
+ * @author Cesar Bianchi
+ * @since 1.2
+ * @see JellyfinDeltaSync
+ * @see LoadItemsMetadata
+ */
+public class LoadChangedItems {
+
+    /**
+     * Default number of items requested per page by requestChangedItemsPages().
+     */
+    public static final int DEFAULT_PAGE_SIZE = 200;
+
+    private String jellyfinInstanceUrl = new String();
+    private String apiToken = new String();
+    private String cUserAdminID = new String();
+    private Date minDateLastSaved = new Date(0);
+    private int pageSize = DEFAULT_PAGE_SIZE;
+
+    /**
+     * Default constructor for the LoadChangedItems class.
+     *
+     * @since 1.2
+     * @author Cesar Bianchi
+     */
+    public LoadChangedItems() {
+        // ...
+    }
+
+    /**
+     * Constructor for the LoadChangedItems class.
+     *
+     * @param jellyfinURL The URL of the Jellyfin server.
+     * @param apiToken The API token for accessing the Jellyfin server.
+     * @param cAdminID The ID of the admin user.
+     * @param minDateLastSaved Only the items saved or created since this date are requested.
+     * @since 1.2
+     * @author Cesar Bianchi
+     */
+    public LoadChangedItems(String jellyfinURL, String apiToken, String cAdminID, Date minDateLastSaved) {
+       this.setJellyfinInstanceUrl(jellyfinURL);
+       this.setApiToken(apiToken);
+       this.setcUserAdminID(cAdminID);
+       this.setMinDateLastSaved(minDateLastSaved);
+    }
+
+    /**
+     * Requests the changed items from the Jellyfin server page by page.
+     * Each page is handed to the consumer as soon as it arrives. The paging stops early if the current thread is interrupted.
+     *
+     * @param pageConsumer The consumer that receives each page, in order.
+     * @return The number of changed items received.
+     * @throws MalformedURLException If the provided URL is not valid.
+     * @throws IOException If an I/O error occurs.
+     * @since 1.2
+     * @author Cesar Bianchi
+     */
+    public int requestChangedItemsPages(Consumer<JellyfinItemsMetadata> pageConsumer) throws MalformedURLException, IOException{
+        int startIndex = 0;
+        int totalRecords = 0;
+
+        do {
+            JellyfinItemsMetadata page = ConnectJellyfinAPI.getTransport().requestObject(this.getPagedURL(startIndex), JellyfinItemsMetadata.class);
+
+            //An empty page means the end of the result set, even if the server count changed in the meantime
+            if (page.getItems() == null || page.getItems().isEmpty()){
+                break;
+            }
+
+            totalRecords = page.getTotalRecordCount();
+            pageConsumer.accept(page);
+            startIndex += page.getItems().size();
+
+        } while (startIndex < totalRecords && !Thread.currentThread().isInterrupted());
+
+        return startIndex;
+    }
+
+    /**
+     * Gets the Jellyfin instance URL.
+     *
+     * @return The Jellyfin instance URL.
+     * @since 1.2
+     * @author Cesar Bianchi
+     */
+    public String getJellyfinInstanceUrl() {
+        return jellyfinInstanceUrl;
+    }
+
+    /**
+     * Sets the Jellyfin instance URL.
+     *
+     * @param jellyfinInstanceUrl The Jellyfin instance URL.
+     * @since 1.2
+     * @author Cesar Bianchi
+     */
+    public void setJellyfinInstanceUrl(String jellyfinInstanceUrl) {
+        this.jellyfinInstanceUrl = jellyfinInstanceUrl;
+    }
+
+    /**
+     * Gets the API token.
+     *
+     * @return The API token.
+     * @since 1.2
+     * @author Cesar Bianchi
+     */
+    public String getApiToken() {
+        return apiToken;
+    }
+
+    /**
+     * Sets the API token.
+     *
+     * @param apiToken The API token.
+     * @since 1.2
+     * @author Cesar Bianchi
+     */
+    public void setApiToken(String apiToken) {
+        this.apiToken = apiToken;
+    }
+
+    /**
+     * Gets the ID of the admin user.
+     *
+     * @return The ID of the admin user.
+     * @since 1.2
+     * @author Cesar Bianchi
+     */
+    public String getcUserAdminID() {
+        return cUserAdminID;
+    }
+
+    /**
+     * Sets the ID of the admin user.
+     *
+     * @param cUserAdminID The ID of the admin user.
+     * @since 1.2
+     * @author Cesar Bianchi
+     */
+    public void setcUserAdminID(String cUserAdminID) {
+        this.cUserAdminID = cUserAdminID;
+    }
+
+    /**
+     * Gets the date since when the changed items are requested.
+     *
+     * @return The minimum date last saved.
+     * @since 1.2
+     * @author Cesar Bianchi
+     */
+    public Date getMinDateLastSaved() {
+        return minDateLastSaved;
+    }
+
+    /**
+     * Sets the date since when the changed items are requested.
+     *
+     * @param minDateLastSaved The minimum date last saved.
+     * @since 1.2
+     * @author Cesar Bianchi
+     */
+    public void setMinDateLastSaved(Date minDateLastSaved) {
+        this.minDateLastSaved = minDateLastSaved;
+    }
+
+    /**
+     * Gets the number of items requested per page.
+     *
+     * @return The page size.
+     * @since 1.2
+     * @author Cesar Bianchi
+     */
+    public int getPageSize() {
+        return pageSize;
+    }
+
+    /**
+     * Sets the number of items requested per page.
+     *
+     * @param pageSize The page size. Must be at least 1.
+     * @throws IllegalArgumentException If pageSize is lower than 1.
+     * @since 1.2
+     * @author Cesar Bianchi
+     */
+    public void setPageSize(int pageSize) {
+        if (pageSize < 1){
+            throw new IllegalArgumentException("pageSize must be at least 1");
+        }
+        this.pageSize = pageSize;
+    }
+
+    /**
+     * Constructs the full URL for accessing the changed items on the Jellyfin server.
+     * The date is sent in ISO-8601 format (UTC).
+     *
+     * @return The full URL as a string.
+     * @since 1.2
+     * @author Cesar Bianchi
+     */
+    public String getFullURL() {
+        String urlWithApiKey = new String();
+        String minDate = DateTimeFormatter.ISO_INSTANT.format(this.getMinDateLastSaved().toInstant());
+
+        urlWithApiKey = this.getJellyfinInstanceUrl().concat("Users/").concat(this.getcUserAdminID());
+        urlWithApiKey = urlWithApiKey.concat("/Items");
+        urlWithApiKey = urlWithApiKey.concat("?Recursive=true");
+        urlWithApiKey = urlWithApiKey.concat("&MinDateLastSaved=").concat(URLEncoder.encode(minDate, StandardCharsets.UTF_8));
+        urlWithApiKey = urlWithApiKey.concat("&Fields=").concat(LoadItemsMetadata.METADATA_FIELDS);
+        urlWithApiKey = urlWithApiKey.concat("&ApiKey=").concat(this.apiToken);
+
+        return urlWithApiKey;
+    }
+
+    /**
+     * Constructs the full URL for accessing one page of the changed items on the Jellyfin server.
+     * The results are sorted by name, so the pages are stable while they are requested.
+     *
+     * @param startIndex The index of the first record of the page.
+     * @return The full URL as a string.
+     * @since 1.2
+     * @author Cesar Bianchi
+     */
+    public String getPagedURL(int startIndex) {
+        String urlWithApiKey = this.getFullURL();
+
+        urlWithApiKey = urlWithApiKey.concat("&SortBy=SortName");
+        urlWithApiKey = urlWithApiKey.concat("&StartIndex=").concat(Integer.toString(startIndex));
+        urlWithApiKey = urlWithApiKey.concat("&Limit=").concat(Integer.toString(this.getPageSize()));
+
+        return urlWithApiKey;
+    }
+
+}
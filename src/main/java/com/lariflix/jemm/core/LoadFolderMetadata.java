@@ -1,15 +1,10 @@
 
 package com.lariflix.jemm.core;
 
-import com.fasterxml.jackson.databind.DeserializationFeature;
-import com.fasterxml.jackson.databind.ObjectMapper;
 import com.lariflix.jemm.dtos.JellyfinFolderMetadata;
 import com.lariflix.jemm.dtos.JellyfinFolders;
 import java.io.IOException;
-import java.net.HttpURLConnection;
 import java.net.MalformedURLException;
-import java.net.URL;
-import java.util.Scanner;
 import org.json.simple.parser.ParseException;
 
 /**
@@ -70,40 +65,11 @@ public class LoadFolderMetadata {
      */
     public JellyfinFolderMetadata requestFolderMetadata() throws MalformedURLException, IOException, ParseException{
         
-        URL url = new URL(this.getFullURL());
-        
-        HttpURLConnection conn = (HttpURLConnection) url.openConnection();
-        conn.setRequestMethod("GET");
-        conn.connect();
-
-        //Getting the response code
-        int responsecode = conn.getResponseCode();
-        
-        if (responsecode != 200) {
-            throw new RuntimeException("HttpResponseCode: " + responsecode);
-        } else {
-
-            //String inline = "{\n" + "    \"Users\" : ";
-            String inline = "";
-            Scanner scanner = new Scanner(url.openStream());
-
-           //Write all the JSON data into a string using a scanner
-            while (scanner.hasNext()) {
-               inline += scanner.nextLine();
-            }
-            //inline += "}";
-
-            //Close the scanner
-            scanner.close();
-
-            //Transform the JSON String in a Object
-            ObjectMapper mapper = new ObjectMapper();
-            mapper.configure(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES, false);
-            JellyfinFolderMetadata foldMetadata = mapper.readValue(inline, JellyfinFolderMetadata.class);
+        //Single GET through the shared transport, stream-parsed straight into the DTO
+        JellyfinFolderMetadata foldMetadata = ConnectJellyfinAPI.getTransport().requestObject(this.getFullURL(), JellyfinFolderMetadata.class);
 
 
-            return foldMetadata;
-        }
+        return foldMetadata;
         
         
     }
@@ -1,18 +1,17 @@
 
 package com.lariflix.jemm.core;
 
-import com.fasterxml.jackson.databind.DeserializationFeature;
-import com.fasterxml.jackson.databind.ObjectMapper;
 import com.lariflix.jemm.dtos.JellyfinFolder;
 import com.lariflix.jemm.dtos.JellyfinFolders;
 import com.lariflix.jemm.dtos.JellyfinItem;
-import com.lariflix.jemm.dtos.JellyfinItems;
 import com.lariflix.jemm.utils.JellyfimParameters;
 import java.io.IOException;
-import java.net.HttpURLConnection;
 import java.net.MalformedURLException;
-import java.net.URL;
-import java.util.Scanner;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 import org.json.simple.parser.ParseException;
@@ -71,51 +70,22 @@ public class LoadFolders {
      */
     public JellyfinFolders requestFolders() throws MalformedURLException, IOException, ParseException{
         
-        URL url = new URL(this.getFullURL());
-        
-        HttpURLConnection conn = (HttpURLConnection) url.openConnection();
-        conn.setRequestMethod("GET");
-        conn.connect();
+        //Single GET through the shared transport, stream-parsed straight into the DTO
+        JellyfinFolders folders = ConnectJellyfinAPI.getTransport().requestObject(this.getFullURL(), JellyfinFolders.class);
 
-        //Getting the response code
-        int responsecode = conn.getResponseCode();
+        //Define order By Name (Just for Root Folders)
+        if (folders.items != null && folders.items.size() > 0){
+            folders.items.sort((o1, o2) -> o1.getName().toUpperCase().compareTo(o2.getName().toUpperCase()));
+        }
         
-        if (responsecode != 200) {
-            throw new RuntimeException("HttpResponseCode: " + responsecode);
-        } else {
-
-            //String inline = "{\n" + "    \"Users\" : ";
-            String inline = "";
-            Scanner scanner = new Scanner(url.openStream());
-
-           //Write all the JSON data into a string using a scanner
-            while (scanner.hasNext()) {
-               inline += scanner.nextLine();
-            }
-            //inline += "}";
-
-            //Close the scanner
-            scanner.close();
-
-            //Transform the JSON String in a Object
-            ObjectMapper mapper = new ObjectMapper();
-            mapper.configure(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES, false);
-            JellyfinFolders folders = mapper.readValue(inline, JellyfinFolders.class);
-
-            //Define order By Name (Just for Root Folders)
-            if (folders.items != null && folders.items.size() > 0){
-                folders.items.sort((o1, o2) -> o1.getName().toUpperCase().compareTo(o2.getName().toUpperCase()));
-            }
-            
-            //load and add SubFolders as Folder-Item
-            //Issue: https://github.com/CesarBianchi/JellyfinEasyMetadataManager/issues/12
-            if (this.getFoldersType() == JellyfimParameters.FOLDERS_AND_SUBFOLDERS){
-                folders = this.getSubFolders(folders);
-            }
-            
-            return folders;
+        //load and add SubFolders as Folder-Item
+        //Issue: https://github.com/CesarBianchi/JellyfinEasyMetadataManager/issues/12
+        if (this.getFoldersType() == JellyfimParameters.FOLDERS_AND_SUBFOLDERS){
+            folders = this.getSubFolders(folders);
         }
         
+        return folders;
+        
         
     }
     
@@ -238,58 +208,150 @@ public class LoadFolders {
 
      /**
      * Retrieves the subfolders for each folder in the provided JellyfinFolders object.
+     * The subfolders of each root folder, at any depth, are requested in a single recursive (and paged) query,
+     * and the parent/child hierarchy is rebuilt in memory from the ParentId of each subfolder.
      *
      * @param folders A JellyfinFolders object representing the folders for which to retrieve subfolders. Each folder in this object should have a valid ID.
      * @return A JellyfinFolders object containing the original folders and their subfolders. The subfolders are added to the list immediately after their parent folder.
-     * @throws IOException If an I/O error occurs. This can happen if there's a problem with the network connection, the server, or the local machine.
-     * @throws ParseException If there is an error parsing the server's response. This can happen if the server's response does not match the expected format.
      * @since 1.1
      * @author Cesar Bianchi
      */
     private JellyfinFolders getSubFolders(JellyfinFolders folders) {
         
+        ArrayList<JellyfinFolder> foldersTree = new ArrayList<>();
+        
+        LoadItems loadSubFolders = new LoadItems(JellyfimParameters.ALL_SUBFOLDERS);
+        loadSubFolders.setJellyfinInstanceUrl(this.getJellyfinInstanceUrl());
+        loadSubFolders.setApiToken(this.getApiToken());
+        loadSubFolders.setcUserAdminID(this.getcUserAdminID());
+        
         for (int nI = 0; nI < folders.getItems().size(); nI++){
             
-            LoadItems loadSubFolders = new LoadItems(JellyfimParameters.JUST_SUBFOLDERS);
-            loadSubFolders.setJellyfinInstanceUrl(this.getJellyfinInstanceUrl());
-            loadSubFolders.setApiToken(this.getApiToken());
-            loadSubFolders.setcUserAdminID(this.getcUserAdminID());
-            loadSubFolders.setcParentID(folders.getItems().get(nI).getId() );            
+            JellyfinFolder rootFolder = folders.getItems().get(nI);
+            foldersTree.add(rootFolder);
+            
+            loadSubFolders.setcParentID(rootFolder.getId());
             
             try {
-                JellyfinItems subFolders = loadSubFolders.requestItems();
+                //1* - Request all subfolders of the root folder, at any depth
+                ArrayList<JellyfinItem> allSubFolders = new ArrayList<>();
+                loadSubFolders.requestItemsPages(page -> allSubFolders.addAll(page.getItems()));
                 
-                //Set Alfabetical Order
-                if (subFolders.getItems() != null && subFolders.getItems().size() > 0){
-                    subFolders.items.sort((o2, o1) -> o1.getName().toUpperCase().compareTo(o2.getName().toUpperCase()));
-                }
+                //2* - Rebuild the hierarchy and add it right after the root folder
+                ArrayList<JellyfinFolder> subFoldersTree = this.buildSubFoldersTree(rootFolder, allSubFolders);
+                foldersTree.addAll(subFoldersTree);
                 
-                for (int nJ = 0; nJ < subFolders.getItems().size(); nJ++){
-                   
-                    //get parentFolder level
-                    int parentFolderLevel = folders.getItems().get(nI).getFolderLevel();
-                   
-                    
-                    JellyfinFolder newSubFolder = new JellyfinFolder();
-                    newSubFolder = this.addNewSubFolder(subFolders.getItems().get(nJ),parentFolderLevel);                                      
-                    
-                    //Add a new SubFolder
-                    folders.getItems().add(nI+1, newSubFolder);                    
+                //3* - The whole depth is loaded: nothing left to load on selection
+                rootFolder.setSubFoldersLoaded(true);
+                for (JellyfinFolder subFolder : subFoldersTree){
+                    subFolder.setSubFoldersLoaded(true);
                 }
-                
-                
             
             } catch (IOException ex) {
                 Logger.getLogger(LoadFolders.class.getName()).log(Level.SEVERE, null, ex);
-            } catch (ParseException ex) {
-                Logger.getLogger(LoadFolders.class.getName()).log(Level.SEVERE, null, ex);
             }
             
-            
         }
         
+        folders.setItems(foldersTree);
+        
         return folders;
     }
+    
+    /**
+     * Builds the indented list of subfolders of a root folder from a flat list of subfolders.
+     *
+     * The subfolders are grouped by ParentId in a single pass; a subfolder whose parent is not in the list is a direct child of the root folder.
+     * Then the tree is walked depth-first, with the children of each folder in alphabetical order,
+     * so each subfolder comes right after its parent, as in the folder list shown by MainWindow.
+     *
+     * @param rootFolder The root folder of the tree.
+     * @param allSubFolders All subfolders of the root folder, at any depth, in any order.
+     * @return The subfolders of the root folder (without the root folder itself), in tree order and with the indentation prefix.
+     * @since 1.2
+     * @author Cesar Bianchi
+     */
+    ArrayList<JellyfinFolder> buildSubFoldersTree(JellyfinFolder rootFolder, List<JellyfinItem> allSubFolders) {
+        
+        ArrayList<JellyfinFolder> subFoldersTree = new ArrayList<>(allSubFolders.size());
+        
+        //1* - Index the children of each folder by parent ID
+        HashSet<String> subFolderIDs = new HashSet<>();
+        for (JellyfinItem subFolder : allSubFolders){
+            subFolderIDs.add(subFolder.getId());
+        }
+        
+        HashMap<String, ArrayList<JellyfinItem>> childrenByParent = new HashMap<>();
+        for (JellyfinItem subFolder : allSubFolders){
+            String parentID = subFolder.getParentId();
+            if (parentID == null || !subFolderIDs.contains(parentID)){
+                parentID = rootFolder.getId();
+            }
+            childrenByParent.computeIfAbsent(parentID, k -> new ArrayList<>()).add(subFolder);
+        }
+        
+        //Set Alfabetical Order
+        for (ArrayList<JellyfinItem> children : childrenByParent.values()){
+            children.sort((o1, o2) -> o1.getName().toUpperCase().compareTo(o2.getName().toUpperCase()));
+        }
+        
+        //2* - Walk the tree depth-first, each subfolder right after its parent
+        ArrayDeque<JellyfinFolder> pending = new ArrayDeque<>();
+        pending.push(rootFolder);
+        
+        while (!pending.isEmpty()){
+            JellyfinFolder parentFolder = pending.pop();
+            
+            if (parentFolder != rootFolder){
+                subFoldersTree.add(parentFolder);
+            }
+            
+            ArrayList<JellyfinItem> children = childrenByParent.remove(parentFolder.getId());
+            if (children != null){
+                //Pushed in reverse order, so the first child is the next one to be popped
+                for (int nJ = children.size()-1; nJ >= 0; nJ--){
+                    pending.push(this.addNewSubFolder(children.get(nJ), parentFolder.getFolderLevel()));
+                }
+            }
+        }
+        
+        return subFoldersTree;
+    }
+
+    /**
+     * Requests just the direct subfolders of a folder, for the lazy loading of the folder tree
+     * (the root folders are loaded with JUST_ROOT_FOLDERS, and the subfolders of a folder the first time it is selected).
+     *
+     * @param parentFolder The folder whose subfolders are requested. Its folder level defines the indentation of the subfolders.
+     * @return The subfolders, sorted by name and named with the indentation prefix of their level.
+     * @throws MalformedURLException If the provided URL is not valid.
+     * @throws IOException If an I/O error occurs.
+     * @since 1.2
+     * @author Cesar Bianchi
+     */
+    public ArrayList<JellyfinFolder> requestSubFolders(JellyfinFolder parentFolder) throws MalformedURLException, IOException {
+        
+        LoadItems loadSubFolders = new LoadItems(JellyfimParameters.JUST_SUBFOLDERS);
+        loadSubFolders.setJellyfinInstanceUrl(this.getJellyfinInstanceUrl());
+        loadSubFolders.setApiToken(this.getApiToken());
+        loadSubFolders.setcUserAdminID(this.getcUserAdminID());
+        loadSubFolders.setcParentID(parentFolder.getId());
+        
+        //1* - Request the direct subfolders (one level, paged)
+        ArrayList<JellyfinItem> children = new ArrayList<>();
+        loadSubFolders.requestItemsPages(page -> children.addAll(page.getItems()));
+        
+        //Set Alfabetical Order
+        children.sort((o1, o2) -> o1.getName().toUpperCase().compareTo(o2.getName().toUpperCase()));
+        
+        //2* - Transform them into folders of the next level
+        ArrayList<JellyfinFolder> subFolders = new ArrayList<>(children.size());
+        for (JellyfinItem child : children){
+            subFolders.add(this.addNewSubFolder(child, parentFolder.getFolderLevel()));
+        }
+        
+        return subFolders;
+    }
 
     /**
      * Transforms a JellyfinItem object into a JellyfinFolder object and adds a prefix to the folder name to indicate its level in the folder hierarchy.
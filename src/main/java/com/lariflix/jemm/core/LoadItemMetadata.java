@@ -1,14 +1,9 @@
 
 package com.lariflix.jemm.core;
 
-import com.fasterxml.jackson.databind.DeserializationFeature;
-import com.fasterxml.jackson.databind.ObjectMapper;
 import com.lariflix.jemm.dtos.JellyfinItemMetadata;
 import java.io.IOException;
-import java.net.HttpURLConnection;
 import java.net.MalformedURLException;
-import java.net.URL;
-import java.util.Scanner;
 import org.json.simple.parser.ParseException;
 
 /**
@@ -65,38 +60,11 @@ public class LoadItemMetadata {
      */
     public JellyfinItemMetadata requestItemMetadata() throws MalformedURLException, IOException, ParseException{
         
-        URL url = new URL(this.getFullURL());
-        
-        HttpURLConnection conn = (HttpURLConnection) url.openConnection();
-        conn.setRequestMethod("GET");
-        conn.connect();
-
-        //Getting the response code
-        int responsecode = conn.getResponseCode();
-        
-        if (responsecode != 200) {
-            throw new RuntimeException("HttpResponseCode: " + responsecode);
-        } else {
-
-            String inline = "";
-            Scanner scanner = new Scanner(url.openStream());
-
-           //Write all the JSON data into a string using a scanner
-            while (scanner.hasNext()) {
-               inline += scanner.nextLine();
-            }
-
-            //Close the scanner
-            scanner.close();
-
-            //Transform the JSON String in a Object
-            ObjectMapper mapper = new ObjectMapper();
-            mapper.configure(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES, false);
-            JellyfinItemMetadata itemMetadata = mapper.readValue(inline, JellyfinItemMetadata.class);
+        //Conditional GET through the shared transport: an unchanged item (304) is served from the ETag cache
+        JellyfinItemMetadata itemMetadata = ConnectJellyfinAPI.getTransport().requestObjectRevalidated(this.getFullURL(), this.getFullURL(), JellyfinItemMetadata.class);
 
 
-            return itemMetadata;
-        }
+        return itemMetadata;
     }
     
     
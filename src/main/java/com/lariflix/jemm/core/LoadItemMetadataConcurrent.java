@@ -0,0 +1,234 @@
+package com.lariflix.jemm.core;
+
+import com.lariflix.jemm.dtos.JellyfinItemMetadata;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * This class loads the metadata of many items concurrently from the Jellyfin server, one request per item (see LoadItemMetadata).
+ *
+ * Each item is requested on its own virtual thread, so the network latency of the requests overlaps, while a semaphore bounds
+ * the number of requests in flight to avoid overloading the Jellyfin server. The results keep the order of the requested IDs.
+ * A failed item does not abort the batch: its position in the result list is null and the error is recorded in getFailures().
+ *
+ * @author Cesar Bianchi
+ * @since 1.2
+ * @see LoadItemMetadata
+ */
+public class LoadItemMetadataConcurrent {
+
+    /**
+     * Default maximum number of metadata requests in flight at the same time.
+     */
+    public static final int DEFAULT_MAX_IN_FLIGHT = 8;
+
+    private String jellyfinInstanceUrl = new String();
+    private String apiToken = new String();
+    private String cUserAdminID = new String();
+    private int maxInFlight = DEFAULT_MAX_IN_FLIGHT;
+    private LinkedHashMap<String, Exception> failures = new LinkedHashMap<>();
+
+    /**
+     * Default constructor for the LoadItemMetadataConcurrent class.
+     *
+     * @since 1.2
+     * @author Cesar Bianchi
+     */
+    public LoadItemMetadataConcurrent() {
+        // ...
+    }
+
+    /**
+     * Constructor for the LoadItemMetadataConcurrent class.
+     *
+     * @param jellyfinURL The URL of the Jellyfin server.
+     * @param apiToken The API token for accessing the Jellyfin server.
+     * @param cAdminID The ID of the admin user.
+     * @since 1.2
+     * @author Cesar Bianchi
+     */
+    public LoadItemMetadataConcurrent(String jellyfinURL, String apiToken, String cAdminID) {
+       this.setJellyfinInstanceUrl(jellyfinURL);
+       this.setApiToken(apiToken);
+       this.setcUserAdminID(cAdminID);
+    }
+
+    /**
+     * Requests the metadata of all given item IDs concurrently.
+     *
+     * @param itemIDs The IDs of the items whose metadata should be loaded.
+     * @return A list with the metadata of each item, in the same order of itemIDs. The position of a failed item is null.
+     * @since 1.2
+     * @author Cesar Bianchi
+     */
+    public ArrayList<JellyfinItemMetadata> requestItemsMetadata(List<String> itemIDs) {
+        ArrayList<JellyfinItemMetadata> results = new ArrayList<>(itemIDs.size());
+        ArrayList<Future<JellyfinItemMetadata>> pending = new ArrayList<>(itemIDs.size());
+        Semaphore inFlight = new Semaphore(this.getMaxInFlight());
+
+        this.failures = new LinkedHashMap<>();
+
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+
+            //1* - Start one virtual thread per item; the semaphore bounds the requests in flight
+            for (String cItemID : itemIDs){
+                pending.add(executor.submit(() -> {
+                    inFlight.acquire();
+                    try {
+                        LoadItemMetadata loadItemMetadata = new LoadItemMetadata(this.getJellyfinInstanceUrl(), this.getApiToken(), this.getcUserAdminID(), cItemID);
+                        return loadItemMetadata.requestItemMetadata();
+                    } finally {
+                        inFlight.release();
+                    }
+                }));
+            }
+
+            //2* - Collect the results in the original order, recording the failures
+            for (int nI = 0; nI < pending.size(); nI++){
+                String cItemID = itemIDs.get(nI);
+                try {
+                    results.add(pending.get(nI).get());
+                } catch (ExecutionException ex) {
+                    Exception cause = ex.getCause() instanceof Exception ? (Exception) ex.getCause() : ex;
+                    this.failures.put(cItemID, cause);
+                    results.add(null);
+                    Logger.getLogger(LoadItemMetadataConcurrent.class.getName()).log(Level.WARNING, "Metadata request failed for item " + cItemID, cause);
+                } catch (InterruptedException ex) {
+                    Thread.currentThread().interrupt();
+                    this.failures.put(cItemID, ex);
+                    results.add(null);
+                }
+            }
+
+            //3* - If interrupted, don't wait for the remaining requests
+            if (Thread.currentThread().isInterrupted()){
+                executor.shutdownNow();
+            }
+        }
+
+        return results;
+    }
+
+    /**
+     * Checks whether the last batch had any failed item.
+     *
+     * @return true if at least one item failed, false otherwise.
+     * @since 1.2
+     * @author Cesar Bianchi
+     */
+    public boolean hasFailures() {
+        return !this.failures.isEmpty();
+    }
+
+    /**
+     * Gets the failures of the last batch, indexed by item ID in the order they were requested.
+     *
+     * @return The failed item IDs and their errors.
+     * @since 1.2
+     * @author Cesar Bianchi
+     */
+    public LinkedHashMap<String, Exception> getFailures() {
+        return failures;
+    }
+
+    /**
+     * Gets the Jellyfin instance URL.
+     *
+     * @return The Jellyfin instance URL.
+     * @since 1.2
+     * @author Cesar Bianchi
+     */
+    public String getJellyfinInstanceUrl() {
+        return jellyfinInstanceUrl;
+    }
+
+    /**
+     * Sets the Jellyfin instance URL.
+     *
+     * @param jellyfinInstanceUrl The Jellyfin instance URL.
+     * @since 1.2
+     * @author Cesar Bianchi
+     */
+    public void setJellyfinInstanceUrl(String jellyfinInstanceUrl) {
+        this.jellyfinInstanceUrl = jellyfinInstanceUrl;
+    }
+
+    /**
+     * Gets the API token.
+     *
+     * @return The API token.
+     * @since 1.2
+     * @author Cesar Bianchi
+     */
+    public String getApiToken() {
+        return apiToken;
+    }
+
+    /**
+     * Sets the API token.
+     *
+     * @param apiToken The API token.
+     * @since 1.2
+     * @author Cesar Bianchi
+     */
+    public void setApiToken(String apiToken) {
+        this.apiToken = apiToken;
+    }
+
+    /**
+     * Gets the ID of the admin user.
+     *
+     * @return The ID of the admin user.
+     * @since 1.2
+     * @author Cesar Bianchi
+     */
+    public String getcUserAdminID() {
+        return cUserAdminID;
+    }
+
+    /**
+     * Sets the ID of the admin user.
+     *
+     * @param cUserAdminID The ID of the admin user.
+     * @since 1.2
+     * @author Cesar Bianchi
+     */
+    public void setcUserAdminID(String cUserAdminID) {
+        this.cUserAdminID = cUserAdminID;
+    }
+
+    /**
+     * Gets the maximum number of requests in flight at the same time.
+     *
+     * @return The maximum number of requests in flight.
+     * @since 1.2
+     * @author Cesar Bianchi
+     */
+    public int getMaxInFlight() {
+        return maxInFlight;
+    }
+
+    /**
+     * Sets the maximum number of requests in flight at the same time.
+     *
+     * @param maxInFlight The maximum number of requests in flight. Must be at least 1.
+     * @throws IllegalArgumentException If maxInFlight is lower than 1.
+     * @since 1.2
+     * @author Cesar Bianchi
+     */
+    public void setMaxInFlight(int maxInFlight) {
+        if (maxInFlight < 1){
+            throw new IllegalArgumentException("maxInFlight must be at least 1");
+        }
+        this.maxInFlight = maxInFlight;
+    }
+
+}
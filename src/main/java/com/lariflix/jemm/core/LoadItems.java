@@ -1,14 +1,10 @@
 package com.lariflix.jemm.core;
 
-import com.fasterxml.jackson.databind.DeserializationFeature;
-import com.fasterxml.jackson.databind.ObjectMapper;
 import com.lariflix.jemm.dtos.JellyfinItems;
 import com.lariflix.jemm.utils.JellyfimParameters;
 import java.io.IOException;
-import java.net.HttpURLConnection;
 import java.net.MalformedURLException;
-import java.net.URL;
-import java.util.Scanner;
+import java.util.function.Consumer;
 import org.json.simple.parser.ParseException;
 
  /**
@@ -20,11 +16,18 @@ import org.json.simple.parser.ParseException;
  */
 public class LoadItems {
 
+    /**
+     * Default number of items requested per page by requestItemsPages().
+     */
+    public static final int DEFAULT_PAGE_SIZE = 500;
+
     private String jellyfinInstanceUrl = new String();
     private String apiToken = new String();
     private String cUserAdminID = new String();
     private String cParentID = new String();
     private String fullURL = new String();
+    private int pageSize = DEFAULT_PAGE_SIZE;
+    private String fields = new String();
     private JellyfimParameters itemsType = null;
     
     /**
@@ -69,42 +72,49 @@ public class LoadItems {
      */
     public JellyfinItems requestItems() throws MalformedURLException, IOException, ParseException{
         
-        URL url = new URL(this.getFullURL());
-        
-        HttpURLConnection conn = (HttpURLConnection) url.openConnection();
-        conn.setRequestMethod("GET");
-        conn.connect();
-
-        //Getting the response code
-        int responsecode = conn.getResponseCode();
-        
-        if (responsecode != 200) {
-            throw new RuntimeException("HttpResponseCode: " + responsecode);
-        } else {
-
-            String inline = "";
-            Scanner scanner = new Scanner(url.openStream());
-
-           //Write all the JSON data into a string using a scanner
-            while (scanner.hasNext()) {
-               inline += scanner.nextLine();
-            }
-
-            //Close the scanner
-            scanner.close();
-
-            //Transform the JSON String in a Object
-            ObjectMapper mapper = new ObjectMapper();
-            mapper.configure(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES, false);
-            JellyfinItems folderItems = mapper.readValue(inline, JellyfinItems.class);
+        //Single GET through the shared transport, stream-parsed straight into the DTO
+        JellyfinItems folderItems = ConnectJellyfinAPI.getTransport().requestObject(this.getFullURL(), JellyfinItems.class);
 
 
-            return folderItems;
-        }
+        return folderItems;
         
         
     }
     
+    /**
+     * Requests the items from the Jellyfin server page by page, using the StartIndex and Limit options.
+     * Each page is handed to the consumer as soon as it arrives and is not kept by this loader,
+     * so only one page of getPageSize() items is held in memory at a time (unless the consumer keeps it).
+     * The paging stops early if the current thread is interrupted.
+     *
+     * @param pageConsumer The consumer that receives each page, in order.
+     * @return The number of items received.
+     * @throws MalformedURLException If the provided URL is not valid.
+     * @throws IOException If an I/O error occurs.
+     * @since 1.2
+     * @author Cesar Bianchi
+     */
+    public int requestItemsPages(Consumer<JellyfinItems> pageConsumer) throws MalformedURLException, IOException{
+        int startIndex = 0;
+        int totalRecords = 0;
+        
+        do {
+            JellyfinItems page = ConnectJellyfinAPI.getTransport().requestObject(this.getPagedURL(startIndex), JellyfinItems.class);
+            
+            //An empty page means the end of the result set, even if the server count changed in the meantime
+            if (page.getItems() == null || page.getItems().isEmpty()){
+                break;
+            }
+            
+            totalRecords = page.getTotalRecordCount();
+            pageConsumer.accept(page);
+            startIndex += page.getItems().size();
+            
+        } while (startIndex < totalRecords && !Thread.currentThread().isInterrupted());
+        
+        return startIndex;
+    }
+    
     
     /**
      * Gets the Jellyfin instance URL.
@@ -194,6 +204,32 @@ public class LoadItems {
         this.cParentID = cParentID;
     }
 
+    /**
+     * Gets the number of items requested per page.
+     *
+     * @return The page size.
+     * @since 1.2
+     * @author Cesar Bianchi
+     */
+    public int getPageSize() {
+        return pageSize;
+    }
+
+    /**
+     * Sets the number of items requested per page.
+     *
+     * @param pageSize The page size. Must be at least 1.
+     * @throws IllegalArgumentException If pageSize is lower than 1.
+     * @since 1.2
+     * @author Cesar Bianchi
+     */
+    public void setPageSize(int pageSize) {
+        if (pageSize < 1){
+            throw new IllegalArgumentException("pageSize must be at least 1");
+        }
+        this.pageSize = pageSize;
+    }
+
     /**
      * Constructs the full URL for accessing the items on the Jellyfin server.
      * The URL is constructed based on the Jellyfin instance URL, the admin user ID, the parent ID, the API token, and the type of items to retrieve.
@@ -215,10 +251,37 @@ public class LoadItems {
             urlWithApiKey = urlWithApiKey.concat("&filters=").concat("IsNotFolder");
         } else if (this.getItemsType() == JellyfimParameters.JUST_SUBFOLDERS){
             urlWithApiKey = urlWithApiKey.concat("&filters=").concat("IsFolder");
+        } else if (this.getItemsType() == JellyfimParameters.ALL_SUBFOLDERS){
+            urlWithApiKey = urlWithApiKey.concat("&filters=").concat("IsFolder");
+            urlWithApiKey = urlWithApiKey.concat("&Recursive=true&Fields=ParentId");
         } else {
             //Nothig to do: Default way include Subfolers and Items
         }        
         
+        //Extra fields of the items, projected by the caller (see JellyfinItemFields)
+        if (!this.getFields().isEmpty()){
+            urlWithApiKey = urlWithApiKey.concat(urlWithApiKey.contains("&Fields=") ? "," : "&Fields=").concat(this.getFields());
+        }
+        
+        return urlWithApiKey;
+    }
+
+    /**
+     * Constructs the full URL for accessing one page of the items on the Jellyfin server.
+     * The results are sorted by name, so the pages are stable while they are requested.
+     *
+     * @param startIndex The index of the first record of the page.
+     * @return The full URL as a string.
+     * @since 1.2
+     * @author Cesar Bianchi
+     */
+    public String getPagedURL(int startIndex) {
+        String urlWithApiKey = this.getFullURL();
+        
+        urlWithApiKey = urlWithApiKey.concat("&SortBy=SortName");
+        urlWithApiKey = urlWithApiKey.concat("&StartIndex=").concat(Integer.toString(startIndex));
+        urlWithApiKey = urlWithApiKey.concat("&Limit=").concat(Integer.toString(this.getPageSize()));
+        
         return urlWithApiKey;
     }
 
@@ -243,6 +306,28 @@ public class LoadItems {
     public void setItemsType(JellyfimParameters itemsType) {
         this.itemsType = itemsType;
     }
+
+    /**
+     * Retrieves the extra fields requested with the items.
+     *
+     * @return The extra fields, separated by commas (e.g. "Overview,Path"), or an empty string if none is requested.
+     * @since 1.2
+     * @author Cesar Bianchi
+     */
+    public String getFields() {
+        return fields;
+    }
+
+    /**
+     * Sets the extra fields requested with the items, besides the ones always returned by the server.
+     *
+     * @param fields The extra fields, separated by commas (e.g. "Overview,Path"). Null or empty requests none.
+     * @since 1.2
+     * @author Cesar Bianchi
+     */
+    public void setFields(String fields) {
+        this.fields = fields == null ? new String() : fields;
+    }
  
     
     
@@ -0,0 +1,345 @@
+package com.lariflix.jemm.core;
+
+import com.lariflix.jemm.dtos.JellyfinItemMetadata;
+import com.lariflix.jemm.dtos.JellyfinItemsMetadata;
+import java.io.IOException;
+import java.net.MalformedURLException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import org.json.simple.parser.ParseException;
+
+/**
+ * This class is responsible for loading the metadata of many items at once from the Jellyfin server.
+ *
+ * Instead of one request per item (see LoadItemMetadata), the item IDs are sent in chunks through the "Ids" option of the Items endpoint,
+ * together with the "Fields" option that asks the server for the same fields read by JellyfinItemMetadata.
+ * The metadata received is kept in the shared cache of the transport under the Etag of the item, so a caller that
+ * knows the current Etags (requested with the list of items) only requests the items changed since the last load.
+ *
+ * @author Cesar Bianchi
+ * @since 1.2
+ * @see LoadItemMetadata
+ * @see JellyfinItemsMetadata
+ */
+public class LoadItemsMetadata {
+
+    /**
+     * Maximum number of item IDs sent in a single request, keeping the URL length safe for any proxy.
+     */
+    public static final int MAX_IDS_PER_REQUEST = 100;
+
+    /**
+     * The extra fields requested from the Items endpoint, matching the properties of JellyfinItemMetadata.
+     */
+    public static final String METADATA_FIELDS = "Overview,Genres,People,Studios,Tags,Path,DateCreated,SortName,"
+            + "OriginalTitle,CustomRating,Etag,ParentId,ChildCount,ProductionLocations,DisplayPreferencesId,"
+            + "CanDelete,CanDownload,PrimaryImageAspectRatio,Settings";
+
+    private String jellyfinInstanceUrl = new String();
+    private String apiToken = new String();
+    private String cUserAdminID = new String();
+    private List<String> itemIDs = new ArrayList<>();
+
+    /**
+     * Default constructor for the LoadItemsMetadata class.
+     *
+     * @since 1.2
+     * @author Cesar Bianchi
+     */
+    public LoadItemsMetadata() {
+        // ...
+    }
+
+    /**
+     * Constructor for the LoadItemsMetadata class.
+     *
+     * @param jellyfinURL The URL of the Jellyfin server.
+     * @param apiToken The API token for accessing the Jellyfin server.
+     * @param cAdminID The ID of the admin user.
+     * @since 1.2
+     * @author Cesar Bianchi
+     */
+    public LoadItemsMetadata(String jellyfinURL, String apiToken, String cAdminID) {
+       this.setJellyfinInstanceUrl(jellyfinURL);
+       this.setApiToken(apiToken);
+       this.setcUserAdminID(cAdminID);
+    }
+
+    /**
+     * Requests the metadata of the current item IDs in a single request.
+     *
+     * @return A JellyfinItemsMetadata object containing the metadata of the requested items.
+     * @throws MalformedURLException If the provided URL is not valid.
+     * @throws IOException If an I/O error occurs.
+     * @throws ParseException If there is an error parsing the server's response.
+     * @since 1.2
+     * @author Cesar Bianchi
+     */
+    public JellyfinItemsMetadata requestItemsMetadata() throws MalformedURLException, IOException, ParseException{
+
+        //Single GET through the shared transport, stream-parsed straight into the DTO
+        JellyfinItemsMetadata itemsMetadata = ConnectJellyfinAPI.getTransport().requestObject(this.getFullURL(), JellyfinItemsMetadata.class);
+
+        return itemsMetadata;
+    }
+
+    /**
+     * Requests the metadata of all given item IDs, splitting them in chunks of MAX_IDS_PER_REQUEST.
+     * A chunk that fails is logged and skipped, so the caller can fall back to the per-item endpoint for the missing IDs.
+     * The remaining chunks are skipped if the current thread is interrupted.
+     *
+     * @param allItemIDs The IDs of the items whose metadata should be loaded.
+     * @return A HashMap with the metadata found, indexed by item ID.
+     * @since 1.2
+     * @author Cesar Bianchi
+     */
+    public HashMap<String, JellyfinItemMetadata> requestItemsMetadataById(List<String> allItemIDs) {
+        return this.requestItemsMetadataById(allItemIDs, null);
+    }
+
+    /**
+     * Requests the metadata of all given item IDs, splitting them in chunks of MAX_IDS_PER_REQUEST,
+     * and hands each chunk to a listener as soon as it arrives (e.g. to show the items while the next chunks load).
+     *
+     * @param allItemIDs The IDs of the items whose metadata should be loaded.
+     * @param chunkLoaded Receives the metadata of each chunk, on the calling thread. Can be null.
+     * @return A HashMap with the metadata found, indexed by item ID.
+     * @since 1.2
+     * @author Cesar Bianchi
+     * @see #requestItemsMetadataById(List)
+     */
+    public HashMap<String, JellyfinItemMetadata> requestItemsMetadataById(List<String> allItemIDs, Consumer<List<JellyfinItemMetadata>> chunkLoaded) {
+        return this.requestItemsMetadataById(allItemIDs, Map.of(), chunkLoaded);
+    }
+
+    /**
+     * Requests the metadata of all given item IDs, taking from the cache the items whose Etag didn't change
+     * since their metadata was loaded, and splitting the others in chunks of MAX_IDS_PER_REQUEST.
+     * The cached items are handed to the listener first, as a single chunk.
+     *
+     * @param allItemIDs The IDs of the items whose metadata should be loaded.
+     * @param etagsById The current Etag of the items, as returned with the list of items. An item without an Etag is always requested.
+     * @param chunkLoaded Receives the metadata of each chunk, on the calling thread. Can be null.
+     * @return A HashMap with the metadata found, indexed by item ID.
+     * @since 1.2
+     * @author Cesar Bianchi
+     * @see #requestItemsMetadataById(List, Consumer)
+     */
+    public HashMap<String, JellyfinItemMetadata> requestItemsMetadataById(List<String> allItemIDs, Map<String, String> etagsById, Consumer<List<JellyfinItemMetadata>> chunkLoaded) {
+        HashMap<String, JellyfinItemMetadata> metadataById = new HashMap<>();
+
+        //1* Items not changed since the last load are taken from the cache
+        ArrayList<String> requestIDs = new ArrayList<>();
+        ArrayList<JellyfinItemMetadata> cachedMetadata = new ArrayList<>();
+        for (String cItemID : allItemIDs){
+            JellyfinItemMetadata itemMetadata = this.getCachedMetadata(cItemID, etagsById.get(cItemID));
+            if (itemMetadata != null){
+                metadataById.put(cItemID, itemMetadata);
+                cachedMetadata.add(itemMetadata);
+            } else {
+                requestIDs.add(cItemID);
+            }
+        }
+
+        if (chunkLoaded != null && !cachedMetadata.isEmpty()){
+            chunkLoaded.accept(cachedMetadata);
+        }
+
+        //2* The others are requested in chunks
+        for (int nI = 0; nI < requestIDs.size() && !Thread.currentThread().isInterrupted(); nI += MAX_IDS_PER_REQUEST){
+
+            this.setItemIDs(requestIDs.subList(nI, Math.min(nI + MAX_IDS_PER_REQUEST, requestIDs.size())));
+
+            try {
+                JellyfinItemsMetadata chunk = this.requestItemsMetadata();
+
+                for (JellyfinItemMetadata itemMetadata : chunk.getItems()){
+                    metadataById.put(itemMetadata.getId(), itemMetadata);
+                    this.putCachedMetadata(itemMetadata);
+                }
+
+                if (chunkLoaded != null){
+                    chunkLoaded.accept(chunk.getItems());
+                }
+
+            } catch (IOException | ParseException | RuntimeException ex) {
+                Logger.getLogger(LoadItemsMetadata.class.getName()).log(Level.WARNING, "Bulk metadata request failed, using per-item fallback", ex);
+            }
+        }
+
+        return metadataById;
+    }
+
+    /**
+     * Gets a copy of the cached metadata of an item, if it was loaded with the given Etag.
+     *
+     * @param cItemID The ID of the item.
+     * @param etag The current Etag of the item. Can be null.
+     * @return A copy of the cached metadata, or null if it isn't cached or the item changed since.
+     * @since 1.2
+     * @author Cesar Bianchi
+     */
+    private JellyfinItemMetadata getCachedMetadata(String cItemID, String etag) {
+        if (etag == null || etag.isEmpty()){
+            return null;
+        }
+
+        JellyfinEtagCache.Entry cached = ConnectJellyfinAPI.getTransport().getEtagCache().get(this.getCacheKey(cItemID));
+        if (cached == null || !etag.equals(cached.getEtag()) || !(cached.getValue() instanceof byte[])){
+            return null;
+        }
+
+        //The metadata is kept serialized, so every caller gets its own copy to edit
+        try {
+            return JellyfinHttpTransport.getMapper().readValue((byte[]) cached.getValue(), JellyfinItemMetadata.class);
+        } catch (IOException ex) {
+            Logger.getLogger(LoadItemsMetadata.class.getName()).log(Level.WARNING, null, ex);
+            return null;
+        }
+    }
+
+    /**
+     * Keeps the metadata of an item in the cache, under the Etag returned with it.
+     *
+     * @param itemMetadata The metadata just loaded.
+     * @since 1.2
+     * @author Cesar Bianchi
+     */
+    private void putCachedMetadata(JellyfinItemMetadata itemMetadata) {
+        if (itemMetadata.getEtag() == null || itemMetadata.getEtag().isEmpty()){
+            return;
+        }
+
+        try {
+            byte[] serialized = JellyfinHttpTransport.getMapper().writeValueAsBytes(itemMetadata);
+            ConnectJellyfinAPI.getTransport().getEtagCache().put(this.getCacheKey(itemMetadata.getId()), itemMetadata.getEtag(), serialized, serialized.length);
+        } catch (IOException ex) {
+            Logger.getLogger(LoadItemsMetadata.class.getName()).log(Level.WARNING, null, ex);
+        }
+    }
+
+    /**
+     * Gets the key of an item's metadata in the cache of the transport, distinct from the keys of whole responses.
+     *
+     * @param cItemID The ID of the item.
+     * @return The cache key.
+     * @since 1.2
+     * @author Cesar Bianchi
+     */
+    private String getCacheKey(String cItemID) {
+        return "ItemMetadata:" + this.getJellyfinInstanceUrl() + "|" + this.getcUserAdminID() + "|" + cItemID;
+    }
+
+    /**
+     * Gets the Jellyfin instance URL.
+     *
+     * @return The Jellyfin instance URL.
+     * @since 1.2
+     * @author Cesar Bianchi
+     */
+    public String getJellyfinInstanceUrl() {
+        return jellyfinInstanceUrl;
+    }
+
+    /**
+     * Sets the Jellyfin instance URL.
+     *
+     * @param jellyfinInstanceUrl The Jellyfin instance URL.
+     * @since 1.2
+     * @author Cesar Bianchi
+     */
+    public void setJellyfinInstanceUrl(String jellyfinInstanceUrl) {
+        this.jellyfinInstanceUrl = jellyfinInstanceUrl;
+    }
+
+    /**
+     * Gets the API token.
+     *
+     * @return The API token.
+     * @since 1.2
+     * @author Cesar Bianchi
+     */
+    public String getApiToken() {
+        return apiToken;
+    }
+
+    /**
+     * Sets the API token.
+     *
+     * @param apiToken The API token.
+     * @since 1.2
+     * @author Cesar Bianchi
+     */
+    public void setApiToken(String apiToken) {
+        this.apiToken = apiToken;
+    }
+
+    /**
+     * Gets the ID of the admin user.
+     *
+     * @return The ID of the admin user.
+     * @since 1.2
+     * @author Cesar Bianchi
+     */
+    public String getcUserAdminID() {
+        return cUserAdminID;
+    }
+
+    /**
+     * Sets the ID of the admin user.
+     *
+     * @param cUserAdminID The ID of the admin user.
+     * @since 1.2
+     * @author Cesar Bianchi
+     */
+    public void setcUserAdminID(String cUserAdminID) {
+        this.cUserAdminID = cUserAdminID;
+    }
+
+    /**
+     * Gets the IDs of the items to be requested.
+     *
+     * @return The IDs of the items.
+     * @since 1.2
+     * @author Cesar Bianchi
+     */
+    public List<String> getItemIDs() {
+        return itemIDs;
+    }
+
+    /**
+     * Sets the IDs of the items to be requested.
+     *
+     * @param itemIDs The IDs of the items.
+     * @since 1.2
+     * @author Cesar Bianchi
+     */
+    public void setItemIDs(List<String> itemIDs) {
+        this.itemIDs = itemIDs;
+    }
+
+    /**
+     * Constructs the full URL for accessing the metadata of the current items on the Jellyfin server.
+     *
+     * @return The full URL as a string.
+     * @since 1.2
+     * @author Cesar Bianchi
+     */
+    public String getFullURL() {
+        String urlWithApiKey = new String();
+
+        urlWithApiKey = this.getJellyfinInstanceUrl().concat("Users/").concat(this.getcUserAdminID());
+        urlWithApiKey = urlWithApiKey.concat("/Items");
+        urlWithApiKey = urlWithApiKey.concat("?Ids=").concat(String.join(",", this.getItemIDs()));
+        urlWithApiKey = urlWithApiKey.concat("&Fields=").concat(METADATA_FIELDS);
+        urlWithApiKey = urlWithApiKey.concat("&ApiKey=").concat(this.apiToken);
+
+        return urlWithApiKey;
+    }
+
+}
@@ -1,14 +1,12 @@
 package com.lariflix.jemm.core;
 
-import com.fasterxml.jackson.databind.DeserializationFeature;
-import com.fasterxml.jackson.databind.ObjectMapper;
 import com.lariflix.jemm.dtos.JellyfinItems;
+import com.lariflix.jemm.dtos.JellyfinCadPeopleItem;
 import com.lariflix.jemm.dtos.JellyfinCadPeopleItems;
 import java.io.IOException;
-import java.net.HttpURLConnection;
 import java.net.MalformedURLException;
-import java.net.URL;
-import java.util.Scanner;
+import java.util.HashSet;
+import java.util.function.Consumer;
 import org.json.simple.parser.ParseException;
 
 /**
@@ -19,11 +17,17 @@ import org.json.simple.parser.ParseException;
  * @see LoadPeople
  */
 public class LoadPeople {
+
+    /**
+     * Default number of people requested per page by requestPeoplePages().
+     */
+    public static final int DEFAULT_PAGE_SIZE = 500;
     private String jellyfinInstanceUrl = new String();
     private String apiToken = new String();
     private String cUserAdminID = new String();
     private String cParentID = new String();
     private String fullURL = new String();
+    private int pageSize = DEFAULT_PAGE_SIZE;
 
     /**
      * Default constructor for the LoadPeople class.
@@ -60,40 +64,86 @@ public class LoadPeople {
      */
     public JellyfinCadPeopleItems requestPeople() throws MalformedURLException, IOException, ParseException{
         
-        URL url = new URL(this.getFullURL());
-        
-        HttpURLConnection conn = (HttpURLConnection) url.openConnection();
-        conn.setRequestMethod("GET");
-        conn.connect();
+        //Single GET through the shared transport, stream-parsed straight into the DTO
+        JellyfinCadPeopleItems people = ConnectJellyfinAPI.getTransport().requestObject(this.getFullURL(), JellyfinCadPeopleItems.class);
 
-        //Getting the response code
-        int responsecode = conn.getResponseCode();
-        
-        if (responsecode != 200) {
-            throw new RuntimeException("HttpResponseCode: " + responsecode);
-        } else {
-
-            String inline = "";
-            Scanner scanner = new Scanner(url.openStream());
 
-           //Write all the JSON data into a string using a scanner
-            while (scanner.hasNext()) {
-               inline += scanner.nextLine();
+        return people;
+        
+        
+    }
+    
+    /**
+     * Requests the people from the Jellyfin server page by page, using the StartIndex and Limit options of the Items endpoint
+     * (the Persons endpoint honors Limit, but not StartIndex, and counts just the page it returns).
+     * Each page is handed to the consumer as soon as it arrives and is not kept by this loader,
+     * so only one page of getPageSize() people is held in memory at a time (unless the consumer keeps it).
+     * If the server ignores StartIndex (it answers the first page again, or a full first page that claims to be everything),
+     * the people not handed yet are requested once, without paging, so nobody is dropped.
+     * The paging stops early if the current thread is interrupted.
+     *
+     * @param pageConsumer The consumer that receives each page, in order.
+     * @return The number of people received.
+     * @throws MalformedURLException If the provided URL is not valid.
+     * @throws IOException If an I/O error occurs.
+     * @since 1.2
+     * @author Cesar Bianchi
+     */
+    public int requestPeoplePages(Consumer<JellyfinCadPeopleItems> pageConsumer) throws MalformedURLException, IOException{
+        int startIndex = 0;
+        int totalRecords = 0;
+        HashSet<String> receivedIDs = new HashSet<>();
+        
+        do {
+            JellyfinCadPeopleItems page = ConnectJellyfinAPI.getTransport().requestObject(this.getPagedURL(startIndex), JellyfinCadPeopleItems.class);
+            
+            //An empty page means the end of the result set, even if the server count changed in the meantime
+            if (page.getItems() == null || page.getItems().isEmpty()){
+                break;
             }
-
-            //Close the scanner
-            scanner.close();
-
-            //Transform the JSON String in a Object
-            ObjectMapper mapper = new ObjectMapper();
-            mapper.configure(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES, false);
-            JellyfinCadPeopleItems people = mapper.readValue(inline, JellyfinCadPeopleItems.class);
-
-
-            return people;
-        }
+            
+            //StartIndex ignored: fall back to a single request for the people not received yet
+            boolean lRepeatedPage = startIndex > 0 && receivedIDs.contains(page.getItems().get(0).getId());
+            boolean lCappedTotal = startIndex == 0 && page.getItems().size() >= this.getPageSize() && page.getTotalRecordCount() <= page.getItems().size();
+            if (lRepeatedPage || lCappedTotal){
+                return startIndex + this.requestRemainingPeople(receivedIDs, pageConsumer);
+            }
+            
+            totalRecords = page.getTotalRecordCount();
+            for (JellyfinCadPeopleItem people : page.getItems()){
+                receivedIDs.add(people.getId());
+            }
+            pageConsumer.accept(page);
+            startIndex += page.getItems().size();
+            
+        } while (startIndex < totalRecords && !Thread.currentThread().isInterrupted());
         
+        return startIndex;
+    }
+    
+    /**
+     * Requests all people in a single request and hands the ones not received yet to the consumer, as one page.
+     *
+     * @param receivedIDs The IDs of the people already handed to the consumer.
+     * @param pageConsumer The consumer that receives the page.
+     * @return The number of people handed to the consumer.
+     * @throws MalformedURLException If the provided URL is not valid.
+     * @throws IOException If an I/O error occurs.
+     * @since 1.2
+     * @author Cesar Bianchi
+     */
+    private int requestRemainingPeople(HashSet<String> receivedIDs, Consumer<JellyfinCadPeopleItems> pageConsumer) throws MalformedURLException, IOException{
+        JellyfinCadPeopleItems allPeople = ConnectJellyfinAPI.getTransport().requestObject(this.getFullURL(), JellyfinCadPeopleItems.class);
+        if (allPeople.getItems() == null){
+            return 0;
+        }
         
+        allPeople.getItems().removeIf(people -> receivedIDs.contains(people.getId()));
+        allPeople.setTotalRecordCount(allPeople.getItems().size());
+        if (!allPeople.getItems().isEmpty()){
+            pageConsumer.accept(allPeople);
+        }
+        return allPeople.getItems().size();
     }
     
     
@@ -185,6 +235,32 @@ public class LoadPeople {
         this.cParentID = cParentID;
     }
 
+    /**
+     * Gets the number of people requested per page.
+     *
+     * @return The page size.
+     * @since 1.2
+     * @author Cesar Bianchi
+     */
+    public int getPageSize() {
+        return pageSize;
+    }
+
+    /**
+     * Sets the number of people requested per page.
+     *
+     * @param pageSize The page size. Must be at least 1.
+     * @throws IllegalArgumentException If pageSize is lower than 1.
+     * @since 1.2
+     * @author Cesar Bianchi
+     */
+    public void setPageSize(int pageSize) {
+        if (pageSize < 1){
+            throw new IllegalArgumentException("pageSize must be at least 1");
+        }
+        this.pageSize = pageSize;
+    }
+
     /**
      * Constructs the full URL for accessing the persons on the Jellyfin server.
      *
@@ -201,5 +277,27 @@ public class LoadPeople {
         return urlWithApiKey;
     }
 
+    /**
+     * Constructs the full URL for accessing one page of the people on the Jellyfin server.
+     * The Items endpoint is used, restricted to the Person items, because it honors StartIndex and returns the real total.
+     * The results are sorted by name, so the pages are stable while they are requested.
+     *
+     * @param startIndex The index of the first record of the page.
+     * @return The full URL as a string.
+     * @since 1.2
+     * @author Cesar Bianchi
+     */
+    public String getPagedURL(int startIndex) {
+        String urlWithApiKey = this.getJellyfinInstanceUrl().concat("Items");
+        
+        urlWithApiKey = urlWithApiKey.concat("?ApiKey=").concat(this.apiToken);
+        urlWithApiKey = urlWithApiKey.concat("&IncludeItemTypes=Person&Recursive=true");
+        urlWithApiKey = urlWithApiKey.concat("&SortBy=SortName");
+        urlWithApiKey = urlWithApiKey.concat("&StartIndex=").concat(Integer.toString(startIndex));
+        urlWithApiKey = urlWithApiKey.concat("&Limit=").concat(Integer.toString(this.getPageSize()));
+        
+        return urlWithApiKey;
+    }
+
     
 }
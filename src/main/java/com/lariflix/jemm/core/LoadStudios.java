@@ -1,14 +1,9 @@
 package com.lariflix.jemm.core;
 
-import com.fasterxml.jackson.databind.DeserializationFeature;
-import com.fasterxml.jackson.databind.ObjectMapper;
 import com.lariflix.jemm.dtos.JellyfinCadGenresItems;
 import com.lariflix.jemm.dtos.JellyfinCadStudioItems;
 import java.io.IOException;
-import java.net.HttpURLConnection;
 import java.net.MalformedURLException;
-import java.net.URL;
-import java.util.Scanner;
 import org.json.simple.parser.ParseException;
 
 /**
@@ -61,38 +56,11 @@ public class LoadStudios {
      */
     public JellyfinCadStudioItems requestStudios() throws MalformedURLException, IOException, ParseException{
         
-        URL url = new URL(this.getFullURL());
-        
-        HttpURLConnection conn = (HttpURLConnection) url.openConnection();
-        conn.setRequestMethod("GET");
-        conn.connect();
-
-        //Getting the response code
-        int responsecode = conn.getResponseCode();
-        
-        if (responsecode != 200) {
-            throw new RuntimeException("HttpResponseCode: " + responsecode);
-        } else {
-
-            String inline = new String();
-            Scanner scanner = new Scanner(url.openStream());
-
-           //Write all the JSON data into a string using a scanner
-            while (scanner.hasNext()) {
-               inline += scanner.nextLine();
-            }
-
-            //Close the scanner
-            scanner.close();
-
-            //Transform the JSON String in a Object
-            ObjectMapper mapper = new ObjectMapper();
-            mapper.configure(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES, false);
-            JellyfinCadStudioItems studios = mapper.readValue(inline, JellyfinCadStudioItems.class);
+        //Single GET through the shared transport, stream-parsed straight into the DTO
+        JellyfinCadStudioItems studios = ConnectJellyfinAPI.getTransport().requestObject(this.getFullURL(), JellyfinCadStudioItems.class);
 
 
-            return studios;
-        }
+        return studios;
         
         
     }
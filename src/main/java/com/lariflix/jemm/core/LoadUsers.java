@@ -1,13 +1,11 @@
 package com.lariflix.jemm.core;
 
-import com.fasterxml.jackson.databind.DeserializationFeature;
-import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.lariflix.jemm.dtos.JellyfinUser;
 import com.lariflix.jemm.dtos.JellyfinUsers;
 import java.io.IOException;
-import java.net.HttpURLConnection;
 import java.net.MalformedURLException;
-import java.net.URL;
-import java.util.Scanner;
+import java.util.List;
 import org.json.simple.parser.ParseException;
 
 /**
@@ -58,39 +56,13 @@ public class LoadUsers {
      */
     public JellyfinUsers requestUsers() throws MalformedURLException, IOException, ParseException{
         
-        URL url = new URL(this.getFullURL());
-        
-        HttpURLConnection conn = (HttpURLConnection) url.openConnection();
-        conn.setRequestMethod("GET");
-        conn.connect();
-
-        //Getting the response code
-        int responsecode = conn.getResponseCode();
-        
-        if (responsecode != 200) {
-            throw new RuntimeException("HttpResponseCode: " + responsecode);
-        } else {
-
-            String inline = "{\n" + "    \"Users\" : ";
-            Scanner scanner = new Scanner(url.openStream());
-
-           //Write all the JSON data into a string using a scanner
-            while (scanner.hasNext()) {
-               inline += scanner.nextLine();
-            }
-            inline += "}";
-
-            //Close the scanner
-            scanner.close();
-
-            //Transform the JSON String in a Object
-            ObjectMapper mapper = new ObjectMapper();
-            mapper.configure(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES, false);
-            JellyfinUsers Users = mapper.readValue(inline, JellyfinUsers.class);
+        //Single GET through the shared transport; the server returns a plain JSON array, stream-parsed into the user list
+        List<JellyfinUser> userList = ConnectJellyfinAPI.getTransport().requestObject(this.getFullURL(), new TypeReference<List<JellyfinUser>>(){});
+        JellyfinUsers Users = new JellyfinUsers();
+        Users.setUsers(userList);
 
 
-            return Users;
-        }
+        return Users;
         
         
     }
@@ -1,17 +1,17 @@
 package com.lariflix.jemm.core;
 
-import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.databind.ObjectWriter;
+import com.lariflix.jemm.dtos.JellyfinFolder;
+import com.lariflix.jemm.dtos.JellyfinFolderMetadata;
 import com.lariflix.jemm.dtos.JellyfinInstanceDetails;
+import com.lariflix.jemm.dtos.JellyfinItem;
+import com.lariflix.jemm.dtos.JellyfinItemMetadata;
 import com.lariflix.jemm.dtos.JellyfinItemUpdate;
 import com.lariflix.jemm.dtos.JellyfinProviderIds;
 import com.lariflix.jemm.utils.TransformDateFormat;
 import java.io.IOException;
+import java.io.InterruptedIOException;
 import java.net.MalformedURLException;
-import java.net.URI;
-import java.net.http.HttpClient;
-import java.net.http.HttpRequest;
-import java.net.http.HttpResponse;
 import java.util.ArrayList;
 import java.util.logging.Level;
 import java.util.logging.Logger;
@@ -27,6 +27,11 @@ import org.json.simple.parser.ParseException;
  */
 public class SaveFolder {
 
+    /**
+     * The writer of the request bodies, shared by all saves: compact JSON, built once from the shared mapper.
+     */
+    static final ObjectWriter bodyWriter = JellyfinHttpTransport.getMapper().writer();
+
     private JellyfinInstanceDetails instance = new JellyfinInstanceDetails();
     private String jellyfinInstanceUrl = new String();
     private String apiToken = new String();
@@ -87,22 +92,12 @@ public class SaveFolder {
         JellyfinItemUpdate itemUpdate = this.getObjItemToUpdate();
         
         if (!itemUpdate.getId().isEmpty()){
-            ObjectWriter ow = new ObjectMapper().writer().withDefaultPrettyPrinter();
-            String bodyRequestJson = ow.writeValueAsString(itemUpdate);
-
-            HttpClient client = HttpClient.newHttpClient();
-            HttpRequest request = HttpRequest.newBuilder()
-                .uri(URI.create(this.getFullURL()))
-                .POST(HttpRequest.BodyPublishers.ofString(bodyRequestJson))
-                .setHeader("Content-type",  "application/json")
-                .build();
+            String bodyRequestJson = bodyWriter.writeValueAsString(itemUpdate);
 
+            //POST through the shared transport (reuses the keep-alive connection)
             try {
-                HttpResponse<String> response = client.send(request, HttpResponse.BodyHandlers.ofString());
-
-                responsecode = response.statusCode();
-
-            } catch (InterruptedException ex) {
+                responsecode = ConnectJellyfinAPI.getTransport().requestPost(this.getFullURL(), bodyRequestJson);
+            } catch (InterruptedIOException ex) {
                 Logger.getLogger(SaveFolder.class.getName()).log(Level.SEVERE, null, ex);
             }
         }
@@ -118,122 +113,111 @@ public class SaveFolder {
      * @since 1.0
      * @author Cesar Bianchi
      */
-    private JellyfinItemUpdate getObjItemToUpdate() {
+    JellyfinItemUpdate getObjItemToUpdate() {
         JellyfinItemUpdate itemToUpdate = new JellyfinItemUpdate();
         ArrayList<String> genres = new ArrayList();
         
         if (this.getnOpc() == JUST_FOLDER_ITEM){
             
-            //Seek Folder
-            for (int nI = 0; nI < instance.getFolders().getItems().size(); nI++){
-                if (instance.getFolders().getItems().get(nI).getId().equals(this.getcFolderID()) ){
-                    
-                    itemToUpdate.setId(instance.getFolders().getItems().get(nI).getId());
-                    itemToUpdate.setName(instance.getFolders().getItems().get(nI).getMetadata().getName() );
-                    itemToUpdate.setOriginalTitle(instance.getFolders().getItems().get(nI).getMetadata().getSortName() );
-                    itemToUpdate.setForcedSortName(instance.getFolders().getItems().get(nI).getMetadata().getName());
-                    itemToUpdate.setCommunityRating(instance.getFolders().getItems().get(nI).getMetadata().getCommunityRating());
-                    itemToUpdate.setCriticRating(instance.getFolders().getItems().get(nI).getCriticRating());
-                    itemToUpdate.setIndexNumber(null);
-                    itemToUpdate.setAirsBeforeSeasonNumber("");
-                    itemToUpdate.setAirsAfterSeasonNumber("");
-                    itemToUpdate.setAirsBeforeEpisodeNumber("");
-                    itemToUpdate.setParentIndexNumber(null);
-                    itemToUpdate.setDisplayOrder("");
-                    itemToUpdate.setAlbum("");
-                    itemToUpdate.setOverview(instance.getFolders().getItems().get(nI).getMetadata().getOverview());
-                    itemToUpdate.setStatus("");
-                    
-                    for (int nJ = 0; nJ < instance.getFolders().getItems().get(nI).getMetadata().getGenreItems().size(); nJ++){
-                        genres.add(instance.getFolders().getItems().get(nI).getMetadata().getGenreItems().get(nJ).getName());
-                    }
-                    itemToUpdate.setGenres(genres);                    
-                    itemToUpdate.setTags(instance.getFolders().getItems().get(nI).getMetadata().getTags());
-                    itemToUpdate.setStudios(instance.getFolders().getItems().get(nI).getMetadata().getStudios());
-                    itemToUpdate.setPremiereDate(transformDate.convertToFull(instance.getFolders().getItems().get(nI).getMetadata().getPremiereDate()) );
-                    itemToUpdate.setDateCreated(transformDate.convertToFull(instance.getFolders().getItems().get(nI).getMetadata().getDateCreated()) );
-                    itemToUpdate.setProductionYear(instance.getFolders().getItems().get(nI).getMetadata().getProductionYear());
-                    itemToUpdate.setOfficialRating(instance.getFolders().getItems().get(nI).getMetadata().getOfficialRating());
-                    itemToUpdate.setCustomRating(instance.getFolders().getItems().get(nI).getMetadata().getCustomRating());
-                    itemToUpdate.setPeople(instance.getFolders().getItems().get(nI).getMetadata().getPeople());
-                    itemToUpdate.setLockData(false);
-                    itemToUpdate.setPreferredMetadataLanguage(instance.getFolders().getItems().get(nI).getMetadata().getPreferredMetadataLanguage());
-                    itemToUpdate.setPreferredMetadataCountryCode(instance.getFolders().getItems().get(nI).getMetadata().getPreferredMetadataCountryCode());
+            //Seek Folder, by the index of the instance data
+            JellyfinFolder folder = instance.findFolder(this.getcFolderID());
+            if (folder != null){
+                JellyfinFolderMetadata folderMetadata = folder.getMetadata();
                     
-                    JellyfinProviderIds providerID = new JellyfinProviderIds();
-                    providerID.setImdb("");
-                    providerID.setTmdb("");
-                    providerID.setTmdbCollection("");
-                    itemToUpdate.setProviderIds(providerID);
-                    
-                    break;
+                itemToUpdate.setId(folder.getId());
+                itemToUpdate.setName(folderMetadata.getName() );
+                itemToUpdate.setOriginalTitle(folderMetadata.getSortName() );
+                itemToUpdate.setForcedSortName(folderMetadata.getName());
+                itemToUpdate.setCommunityRating(folderMetadata.getCommunityRating());
+                itemToUpdate.setCriticRating(folder.getCriticRating());
+                itemToUpdate.setIndexNumber(null);
+                itemToUpdate.setAirsBeforeSeasonNumber("");
+                itemToUpdate.setAirsAfterSeasonNumber("");
+                itemToUpdate.setAirsBeforeEpisodeNumber("");
+                itemToUpdate.setParentIndexNumber(null);
+                itemToUpdate.setDisplayOrder("");
+                itemToUpdate.setAlbum("");
+                itemToUpdate.setOverview(folderMetadata.getOverview());
+                itemToUpdate.setStatus("");
+                
+                for (int nJ = 0; nJ < folderMetadata.getGenreItems().size(); nJ++){
+                    genres.add(folderMetadata.getGenreItems().get(nJ).getName());
                 }
+                itemToUpdate.setGenres(genres);                    
+                itemToUpdate.setTags(folderMetadata.getTags());
+                itemToUpdate.setStudios(folderMetadata.getStudios());
+                itemToUpdate.setPremiereDate(transformDate.convertToFull(folderMetadata.getPremiereDate()) );
+                itemToUpdate.setDateCreated(transformDate.convertToFull(folderMetadata.getDateCreated()) );
+                itemToUpdate.setProductionYear(folderMetadata.getProductionYear());
+                itemToUpdate.setOfficialRating(folderMetadata.getOfficialRating());
+                itemToUpdate.setCustomRating(folderMetadata.getCustomRating());
+                itemToUpdate.setPeople(folderMetadata.getPeople());
+                itemToUpdate.setLockData(false);
+                itemToUpdate.setPreferredMetadataLanguage(folderMetadata.getPreferredMetadataLanguage());
+                itemToUpdate.setPreferredMetadataCountryCode(folderMetadata.getPreferredMetadataCountryCode());
+                
+                JellyfinProviderIds providerID = new JellyfinProviderIds();
+                providerID.setImdb("");
+                providerID.setTmdb("");
+                providerID.setTmdbCollection("");
+                itemToUpdate.setProviderIds(providerID);
             }
         
             
         } else if (this.getnOpc() == JUST_CONTENT_ITEM){
             
-            //Seek Folder
-            for (int nI = 0; nI < instance.getFolders().getItems().size(); nI++){                
-                if (instance.getFolders().getItems().get(nI).getId().equals(this.getcFolderID()) ){
-                    
-                    //Seek Item
-                    for (int nJ = 0; nJ < instance.getFolders().getItems().get(nI).getFolderContent().getItems().size(); nJ++){
-                        if (instance.getFolders().getItems().get(nI).getFolderContent().getItems().get(nJ).getId().equals(this.getItemID())){
+            //Seek Item of the Folder, by the index of the instance data
+            JellyfinItem item = instance.findItem(this.getcFolderID(), this.getItemID());
+            if (item != null){
+                JellyfinItemMetadata itemMetadata = item.getItemMetadata();
                             
-                            itemToUpdate.setId(instance.getFolders().getItems().get(nI).getFolderContent().getItems().get(nJ).getId());
-                            itemToUpdate.setName(instance.getFolders().getItems().get(nI).getFolderContent().getItems().get(nJ).getItemMetadata().getName() );
-                            itemToUpdate.setOriginalTitle(instance.getFolders().getItems().get(nI).getFolderContent().getItems().get(nJ).getItemMetadata().getOriginalTitle() );
-                            itemToUpdate.setForcedSortName(instance.getFolders().getItems().get(nI).getFolderContent().getItems().get(nJ).getItemMetadata().getOriginalTitle());
-                            itemToUpdate.setCommunityRating(instance.getFolders().getItems().get(nI).getFolderContent().getItems().get(nJ).getItemMetadata().getCommunityRating());
-                            itemToUpdate.setCriticRating(instance.getFolders().getItems().get(nI).getFolderContent().getItems().get(nJ).getItemMetadata().getCriticRating());
-                            itemToUpdate.setIndexNumber(null);
-                            itemToUpdate.setAirsBeforeSeasonNumber("");
-                            itemToUpdate.setAirsAfterSeasonNumber("");
-                            itemToUpdate.setAirsBeforeEpisodeNumber("");
-                            itemToUpdate.setParentIndexNumber(null);
-                            itemToUpdate.setDisplayOrder("");
-                            itemToUpdate.setAlbum("");
-                            itemToUpdate.setOverview(instance.getFolders().getItems().get(nI).getFolderContent().getItems().get(nJ).getItemMetadata().getOverview());
-                            itemToUpdate.setStatus("");
-                            
-                            
-                            for (int nX = 0; nX < instance.getFolders().getItems().get(nI).getFolderContent().getItems().get(nJ).getItemMetadata().getGenreItems().size(); nX++){
-                                genres.add(instance.getFolders().getItems().get(nI).getFolderContent().getItems().get(nJ).getItemMetadata().getGenreItems().get(nX).getName());
-                            }
-                            itemToUpdate.setGenres(genres);
-
-                            ArrayList<String> tags = new ArrayList();
-                            for (int nX = 0; nX < instance.getFolders().getItems().get(nI).getFolderContent().getItems().get(nJ).getItemMetadata().getTags().size(); nX++){
-                                tags.add(instance.getFolders().getItems().get(nI).getFolderContent().getItems().get(nJ).getItemMetadata().getTags().get(nX) );
-                            }
-                            itemToUpdate.setTags(tags);
-                            
-                            
-                            
-                            itemToUpdate.setStudios(instance.getFolders().getItems().get(nI).getFolderContent().getItems().get(nJ).getItemMetadata().getStudios());
-                            itemToUpdate.setPremiereDate( transformDate.convertToFull(instance.getFolders().getItems().get(nI).getFolderContent().getItems().get(nJ).getItemMetadata().getPremiereDate()) );
-                            
-                            itemToUpdate.setDateCreated(transformDate.convertToFull(instance.getFolders().getItems().get(nI).getFolderContent().getItems().get(nJ).getItemMetadata().getDateCreated()) );
-                            itemToUpdate.setProductionYear(instance.getFolders().getItems().get(nI).getFolderContent().getItems().get(nJ).getItemMetadata().getProductionYear());
-                            itemToUpdate.setOfficialRating(instance.getFolders().getItems().get(nI).getFolderContent().getItems().get(nJ).getItemMetadata().getOfficialRating());
-                            itemToUpdate.setCustomRating(instance.getFolders().getItems().get(nI).getFolderContent().getItems().get(nJ).getItemMetadata().getCustomRating());
-                            itemToUpdate.setPeople(instance.getFolders().getItems().get(nI).getFolderContent().getItems().get(nJ).getItemMetadata().getPeople());
-                            itemToUpdate.setLockData(false);
-                            itemToUpdate.setPreferredMetadataLanguage(instance.getFolders().getItems().get(nI).getFolderContent().getItems().get(nJ).getItemMetadata().getPreferredMetadataLanguage());
-                            itemToUpdate.setPreferredMetadataCountryCode(instance.getFolders().getItems().get(nI).getFolderContent().getItems().get(nJ).getItemMetadata().getPreferredMetadataCountryCode());
+                itemToUpdate.setId(item.getId());
+                itemToUpdate.setName(itemMetadata.getName() );
+                itemToUpdate.setOriginalTitle(itemMetadata.getOriginalTitle() );
+                itemToUpdate.setForcedSortName(itemMetadata.getOriginalTitle());
+                itemToUpdate.setCommunityRating(itemMetadata.getCommunityRating());
+                itemToUpdate.setCriticRating(itemMetadata.getCriticRating());
+                itemToUpdate.setIndexNumber(null);
+                itemToUpdate.setAirsBeforeSeasonNumber("");
+                itemToUpdate.setAirsAfterSeasonNumber("");
+                itemToUpdate.setAirsBeforeEpisodeNumber("");
+                itemToUpdate.setParentIndexNumber(null);
+                itemToUpdate.setDisplayOrder("");
+                itemToUpdate.setAlbum("");
+                itemToUpdate.setOverview(itemMetadata.getOverview());
+                itemToUpdate.setStatus("");
+                
+                
+                for (int nX = 0; nX < itemMetadata.getGenreItems().size(); nX++){
+                    genres.add(itemMetadata.getGenreItems().get(nX).getName());
+                }
+                itemToUpdate.setGenres(genres);
 
-                            JellyfinProviderIds providerID = new JellyfinProviderIds();
-                            providerID.setImdb("");
-                            providerID.setTmdb("");
-                            providerID.setTmdbCollection("");
-                            itemToUpdate.setProviderIds(providerID);
-                            
-                            break;
-                        }                        
-                    }                    
-                    break;
+                ArrayList<String> tags = new ArrayList();
+                for (int nX = 0; nX < itemMetadata.getTags().size(); nX++){
+                    tags.add(itemMetadata.getTags().get(nX) );
                 }
+                itemToUpdate.setTags(tags);
+                
+                
+                
+                itemToUpdate.setStudios(itemMetadata.getStudios());
+                itemToUpdate.setPremiereDate( transformDate.convertToFull(itemMetadata.getPremiereDate()) );
+                
+                itemToUpdate.setDateCreated(transformDate.convertToFull(itemMetadata.getDateCreated()) );
+                itemToUpdate.setProductionYear(itemMetadata.getProductionYear());
+                itemToUpdate.setOfficialRating(itemMetadata.getOfficialRating());
+                itemToUpdate.setCustomRating(itemMetadata.getCustomRating());
+                itemToUpdate.setPeople(itemMetadata.getPeople());
+                itemToUpdate.setLockData(false);
+                itemToUpdate.setPreferredMetadataLanguage(itemMetadata.getPreferredMetadataLanguage());
+                itemToUpdate.setPreferredMetadataCountryCode(itemMetadata.getPreferredMetadataCountryCode());
+
+                JellyfinProviderIds providerID = new JellyfinProviderIds();
+                providerID.setImdb("");
+                providerID.setTmdb("");
+                providerID.setTmdbCollection("");
+                itemToUpdate.setProviderIds(providerID);
             }
         }
         
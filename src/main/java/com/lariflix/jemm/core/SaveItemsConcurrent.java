@@ -0,0 +1,391 @@
+package com.lariflix.jemm.core;
+
+import com.lariflix.jemm.dtos.JellyfinInstanceDetails;
+import com.lariflix.jemm.dtos.JellyfinItemUpdate;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * This class saves many items of a folder concurrently to the Jellyfin server, one POST per item (see SaveFolder).
+ *
+ * The request bodies are built and serialized once per item with a shared writer. Each item is posted on its own virtual thread,
+ * while a semaphore bounds the number of requests in flight to avoid overloading the Jellyfin server.
+ * A transient error (an I/O error, or a 429, 502, 503 or 504 status code) is retried up to getMaxRetries() times, waiting a bit longer each time.
+ * A failed item does not abort the batch: its status code or error is recorded in the SaveItemsResult.
+ *
+ * @author Cesar Bianchi
+ * @since 1.2
+ * @see SaveFolder
+ * @see SaveItemsResult
+ */
+public class SaveItemsConcurrent {
+
+    /**
+     * Default maximum number of save requests in flight at the same time.
+     */
+    public static final int DEFAULT_MAX_IN_FLIGHT = 4;
+
+    /**
+     * Default number of times a transient error is retried.
+     */
+    public static final int DEFAULT_MAX_RETRIES = 2;
+
+    /**
+     * Default wait before the first retry. Each next retry waits this much longer.
+     */
+    public static final long DEFAULT_RETRY_DELAY_MILLIS = 500;
+
+    private static final int JUST_CONTENT_ITEM = 3;
+
+    private String jellyfinInstanceUrl = new String();
+    private String apiToken = new String();
+    private int maxInFlight = DEFAULT_MAX_IN_FLIGHT;
+    private int maxRetries = DEFAULT_MAX_RETRIES;
+    private long retryDelayMillis = DEFAULT_RETRY_DELAY_MILLIS;
+
+    /**
+     * Default constructor for the SaveItemsConcurrent class.
+     *
+     * @since 1.2
+     * @author Cesar Bianchi
+     */
+    public SaveItemsConcurrent() {
+        // ...
+    }
+
+    /**
+     * Constructor for the SaveItemsConcurrent class.
+     *
+     * @param jellyfinURL The URL of the Jellyfin server.
+     * @param apiToken The API token for accessing the Jellyfin server.
+     * @since 1.2
+     * @author Cesar Bianchi
+     */
+    public SaveItemsConcurrent(String jellyfinURL, String apiToken) {
+        this.setJellyfinInstanceUrl(jellyfinURL);
+        this.setApiToken(apiToken);
+    }
+
+    /**
+     * Saves the given items of a folder concurrently. It runs prepareItems() and postItems() in a row.
+     *
+     * @param instance The Jellyfin instance details, with the edited items.
+     * @param cFolderID The ID of the folder of the items.
+     * @param itemIDs The IDs of the items to be saved.
+     * @return The status code or error of each item.
+     * @since 1.2
+     * @author Cesar Bianchi
+     */
+    public SaveItemsResult saveItems(JellyfinInstanceDetails instance, String cFolderID, List<String> itemIDs) {
+        return this.postItems(this.prepareItems(instance, cFolderID, itemIDs));
+    }
+
+    /**
+     * Builds and serializes the request body of each item. It reads the instance data, so it must run on the thread that owns it (the EDT, in the GUI).
+     * An item that is not found, or cannot be serialized, is recorded as a failure of the batch.
+     *
+     * @param instance The Jellyfin instance details, with the edited items.
+     * @param cFolderID The ID of the folder of the items.
+     * @param itemIDs The IDs of the items to be saved.
+     * @return The requests to be posted by postItems().
+     * @since 1.2
+     * @author Cesar Bianchi
+     */
+    public PreparedItems prepareItems(JellyfinInstanceDetails instance, String cFolderID, List<String> itemIDs) {
+        PreparedItems prepared = new PreparedItems();
+
+        for (String cItemID : itemIDs){
+            prepared.itemIDs.add(cItemID);
+            SaveFolder saveItem = new SaveFolder(instance, cFolderID, cItemID, JUST_CONTENT_ITEM, this.getJellyfinInstanceUrl(), this.getApiToken());
+            JellyfinItemUpdate itemUpdate = saveItem.getObjItemToUpdate();
+            if (itemUpdate.getId() == null || itemUpdate.getId().isEmpty()){
+                prepared.failures.put(cItemID, new IOException("Item " + cItemID + " not found in folder " + cFolderID));
+                continue;
+            }
+
+            try {
+                prepared.bodies.put(cItemID, SaveFolder.bodyWriter.writeValueAsString(itemUpdate));
+                prepared.urls.put(cItemID, saveItem.getFullURL());
+            } catch (IOException ex) {
+                prepared.failures.put(cItemID, ex);
+            }
+        }
+
+        return prepared;
+    }
+
+    /**
+     * Posts the prepared requests concurrently. It doesn't read the instance data, so it can run in a background task.
+     *
+     * @param prepared The requests built by prepareItems().
+     * @return The status code or error of each item, in the order of the items given to prepareItems().
+     * @since 1.2
+     * @author Cesar Bianchi
+     */
+    public SaveItemsResult postItems(PreparedItems prepared) {
+        LinkedHashMap<String, Future<Integer>> pending = new LinkedHashMap<>();
+        HashMap<String, Integer> statusCodes = new HashMap<>();
+        HashMap<String, Exception> failures = new HashMap<>(prepared.failures);
+        Semaphore inFlight = new Semaphore(this.getMaxInFlight());
+
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+
+            //1* - Post each body on its own virtual thread; the semaphore bounds the requests in flight
+            for (Map.Entry<String, String> body : prepared.bodies.entrySet()){
+                String fullURL = prepared.urls.get(body.getKey());
+                String bodyRequestJson = body.getValue();
+                pending.put(body.getKey(), executor.submit(() -> {
+                    inFlight.acquire();
+                    try {
+                        return this.postWithRetries(fullURL, bodyRequestJson);
+                    } finally {
+                        inFlight.release();
+                    }
+                }));
+            }
+
+            //2* - Collect the results, recording the failures
+            for (Map.Entry<String, Future<Integer>> request : pending.entrySet()){
+                String cItemID = request.getKey();
+                try {
+                    statusCodes.put(cItemID, request.getValue().get());
+                } catch (ExecutionException ex) {
+                    Exception cause = ex.getCause() instanceof Exception ? (Exception) ex.getCause() : ex;
+                    failures.put(cItemID, cause);
+                    Logger.getLogger(SaveItemsConcurrent.class.getName()).log(Level.WARNING, "Save request failed for item " + cItemID, cause);
+                } catch (InterruptedException ex) {
+                    Thread.currentThread().interrupt();
+                    failures.put(cItemID, ex);
+                }
+            }
+
+            //3* - If interrupted, don't wait for the remaining requests
+            if (Thread.currentThread().isInterrupted()){
+                executor.shutdownNow();
+            }
+        }
+
+        //4* - Report the items in their original order
+        SaveItemsResult result = new SaveItemsResult();
+        for (String cItemID : prepared.itemIDs){
+            if (statusCodes.containsKey(cItemID)){
+                result.putStatusCode(cItemID, statusCodes.get(cItemID));
+            } else if (failures.containsKey(cItemID)){
+                result.putFailure(cItemID, failures.get(cItemID));
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Posts a request body, retrying the transient errors.
+     *
+     * @param fullURL The full URL of the item.
+     * @param bodyRequestJson The JSON body.
+     * @return The last HTTP status code answered by the server.
+     * @throws IOException If the last attempt failed with an I/O error, or the thread was interrupted.
+     * @throws InterruptedException If the thread was interrupted while waiting to retry.
+     * @since 1.2
+     * @author Cesar Bianchi
+     */
+    private int postWithRetries(String fullURL, String bodyRequestJson) throws IOException, InterruptedException {
+        for (int nAttempt = 0; ; nAttempt++){
+            try {
+                int statusCode = ConnectJellyfinAPI.getTransport().requestPost(fullURL, bodyRequestJson);
+                if (!isTransient(statusCode) || nAttempt >= this.getMaxRetries()){
+                    return statusCode;
+                }
+            } catch (InterruptedIOException ex) {
+                throw ex;
+            } catch (IOException ex) {
+                if (nAttempt >= this.getMaxRetries()){
+                    throw ex;
+                }
+            }
+            Thread.sleep(this.getRetryDelayMillis() * (nAttempt + 1));
+        }
+    }
+
+    /**
+     * Checks whether a status code is worth retrying: the server is busy or a proxy couldn't reach it.
+     *
+     * @param statusCode The HTTP status code.
+     * @return true for 429, 502, 503 and 504, false otherwise.
+     * @since 1.2
+     * @author Cesar Bianchi
+     */
+    static boolean isTransient(int statusCode) {
+        return statusCode == 429 || statusCode == 502 || statusCode == 503 || statusCode == 504;
+    }
+
+    /**
+     * Gets the Jellyfin instance URL.
+     *
+     * @return The Jellyfin instance URL.
+     * @since 1.2
+     * @author Cesar Bianchi
+     */
+    public String getJellyfinInstanceUrl() {
+        return jellyfinInstanceUrl;
+    }
+
+    /**
+     * Sets the Jellyfin instance URL.
+     *
+     * @param jellyfinInstanceUrl The Jellyfin instance URL.
+     * @since 1.2
+     * @author Cesar Bianchi
+     */
+    public void setJellyfinInstanceUrl(String jellyfinInstanceUrl) {
+        this.jellyfinInstanceUrl = jellyfinInstanceUrl;
+    }
+
+    /**
+     * Gets the API token.
+     *
+     * @return The API token.
+     * @since 1.2
+     * @author Cesar Bianchi
+     */
+    public String getApiToken() {
+        return apiToken;
+    }
+
+    /**
+     * Sets the API token.
+     *
+     * @param apiToken The API token.
+     * @since 1.2
+     * @author Cesar Bianchi
+     */
+    public void setApiToken(String apiToken) {
+        this.apiToken = apiToken;
+    }
+
+    /**
+     * Gets the maximum number of save requests in flight at the same time.
+     *
+     * @return The maximum number of requests in flight.
+     * @since 1.2
+     * @author Cesar Bianchi
+     */
+    public int getMaxInFlight() {
+        return maxInFlight;
+    }
+
+    /**
+     * Sets the maximum number of save requests in flight at the same time.
+     *
+     * @param maxInFlight The maximum number of requests in flight. Must be at least 1.
+     * @throws IllegalArgumentException If maxInFlight is lower than 1.
+     * @since 1.2
+     * @author Cesar Bianchi
+     */
+    public void setMaxInFlight(int maxInFlight) {
+        if (maxInFlight < 1){
+            throw new IllegalArgumentException("maxInFlight must be at least 1");
+        }
+        this.maxInFlight = maxInFlight;
+    }
+
+    /**
+     * Gets the number of times a transient error is retried.
+     *
+     * @return The maximum number of retries.
+     * @since 1.2
+     * @author Cesar Bianchi
+     */
+    public int getMaxRetries() {
+        return maxRetries;
+    }
+
+    /**
+     * Sets the number of times a transient error is retried.
+     *
+     * @param maxRetries The maximum number of retries. Zero disables the retries.
+     * @throws IllegalArgumentException If maxRetries is negative.
+     * @since 1.2
+     * @author Cesar Bianchi
+     */
+    public void setMaxRetries(int maxRetries) {
+        if (maxRetries < 0){
+            throw new IllegalArgumentException("maxRetries must not be negative");
+        }
+        this.maxRetries = maxRetries;
+    }
+
+    /**
+     * Gets the wait before the first retry.
+     *
+     * @return The wait, in milliseconds.
+     * @since 1.2
+     * @author Cesar Bianchi
+     */
+    public long getRetryDelayMillis() {
+        return retryDelayMillis;
+    }
+
+    /**
+     * Sets the wait before the first retry. Each next retry waits this much longer.
+     *
+     * @param retryDelayMillis The wait, in milliseconds. Must not be negative.
+     * @throws IllegalArgumentException If retryDelayMillis is negative.
+     * @since 1.2
+     * @author Cesar Bianchi
+     */
+    public void setRetryDelayMillis(long retryDelayMillis) {
+        if (retryDelayMillis < 0){
+            throw new IllegalArgumentException("retryDelayMillis must not be negative");
+        }
+        this.retryDelayMillis = retryDelayMillis;
+    }
+
+    /**
+     * The request bodies of a batch of items, built from the instance data by prepareItems() and posted by postItems().
+     *
+     * @since 1.2
+     * @author Cesar Bianchi
+     */
+    public static class PreparedItems {
+
+        private final ArrayList<String> itemIDs = new ArrayList<>();
+        private final LinkedHashMap<String, String> urls = new LinkedHashMap<>();
+        private final LinkedHashMap<String, String> bodies = new LinkedHashMap<>();
+        private final LinkedHashMap<String, Exception> failures = new LinkedHashMap<>();
+
+        /**
+         * Gets the IDs of the items whose request body was built.
+         *
+         * @return The IDs of the items to be posted, in their original order.
+         * @since 1.2
+         * @author Cesar Bianchi
+         */
+        public List<String> getPreparedItems() {
+            return new ArrayList<>(bodies.keySet());
+        }
+
+        /**
+         * Gets the number of items that could not be prepared (not found, or not serializable).
+         *
+         * @return The number of items that will not be posted.
+         * @since 1.2
+         * @author Cesar Bianchi
+         */
+        public int getFailedCount() {
+            return failures.size();
+        }
+    }
+
+}
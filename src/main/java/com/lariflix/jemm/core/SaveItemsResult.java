@@ -0,0 +1,137 @@
+package com.lariflix.jemm.core;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * This class holds the result of a batch save (see SaveItemsConcurrent): the HTTP status code of each posted item
+ * and the error of each item that couldn't be posted, both in the order the items were given.
+ *
+ * An item is saved if the server answered it with a 2xx status code. Any other status code, or an error, is a failure.
+ *
+ * @author Cesar Bianchi
+ * @since 1.2
+ * @see SaveItemsConcurrent
+ */
+public class SaveItemsResult {
+
+    private final LinkedHashMap<String, Integer> statusCodes = new LinkedHashMap<>();
+    private final LinkedHashMap<String, Exception> failures = new LinkedHashMap<>();
+
+    /**
+     * Constructor for the SaveItemsResult class.
+     *
+     * @since 1.2
+     * @author Cesar Bianchi
+     */
+    public SaveItemsResult() {
+        // ...
+    }
+
+    /**
+     * Records the last status code answered by the server for an item.
+     *
+     * @param cItemID The ID of the item.
+     * @param statusCode The HTTP status code.
+     * @since 1.2
+     * @author Cesar Bianchi
+     */
+    void putStatusCode(String cItemID, int statusCode) {
+        statusCodes.put(cItemID, statusCode);
+    }
+
+    /**
+     * Records the error of an item that couldn't be posted.
+     *
+     * @param cItemID The ID of the item.
+     * @param failure The error.
+     * @since 1.2
+     * @author Cesar Bianchi
+     */
+    void putFailure(String cItemID, Exception failure) {
+        failures.put(cItemID, failure);
+    }
+
+    /**
+     * Checks whether an item was saved.
+     *
+     * @param cItemID The ID of the item.
+     * @return true if the server answered the item with a 2xx status code, false otherwise.
+     * @since 1.2
+     * @author Cesar Bianchi
+     */
+    public boolean isSaved(String cItemID) {
+        Integer statusCode = statusCodes.get(cItemID);
+        return statusCode != null && statusCode >= 200 && statusCode < 300;
+    }
+
+    /**
+     * Gets the IDs of the saved items.
+     *
+     * @return The IDs of the items answered with a 2xx status code.
+     * @since 1.2
+     * @author Cesar Bianchi
+     */
+    public List<String> getSavedItems() {
+        ArrayList<String> savedItems = new ArrayList<>();
+        for (String cItemID : statusCodes.keySet()){
+            if (this.isSaved(cItemID)){
+                savedItems.add(cItemID);
+            }
+        }
+        return savedItems;
+    }
+
+    /**
+     * Gets the number of items that were not saved: with an error or a status code other than 2xx.
+     *
+     * @return The number of failed items.
+     * @since 1.2
+     * @author Cesar Bianchi
+     */
+    public int getFailedCount() {
+        int failedCount = failures.size();
+        for (String cItemID : statusCodes.keySet()){
+            if (!this.isSaved(cItemID) && !failures.containsKey(cItemID)){
+                failedCount++;
+            }
+        }
+        return failedCount;
+    }
+
+    /**
+     * Checks whether any item was not saved.
+     *
+     * @return true if at least one item failed, false otherwise.
+     * @since 1.2
+     * @author Cesar Bianchi
+     */
+    public boolean hasFailures() {
+        return this.getFailedCount() > 0;
+    }
+
+    /**
+     * Gets the last status code answered by the server for each posted item.
+     *
+     * @return The status codes, indexed by item ID.
+     * @since 1.2
+     * @author Cesar Bianchi
+     */
+    public Map<String, Integer> getStatusCodes() {
+        return statusCodes;
+    }
+
+    /**
+     * Gets the errors of the items that couldn't be posted.
+     *
+     * @return The errors, indexed by item ID.
+     * @since 1.2
+     * @author Cesar Bianchi
+     */
+    public Map<String, Exception> getFailures() {
+        return failures;
+    }
+
+}
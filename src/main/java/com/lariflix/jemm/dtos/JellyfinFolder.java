@@ -46,6 +46,7 @@ public class JellyfinFolder {
     public JellyfinItems folderContent;
     
     private int folderLevel = 1;
+    private boolean subFoldersLoaded = false;
     
     /**
      * Default constructor for the JellyfinFolder class.
@@ -391,6 +392,29 @@ public class JellyfinFolder {
     public void setFolderLevel(int folderLevel) {
         this.folderLevel = folderLevel;
     }
+
+    /**
+     * Checks whether the subfolders of this folder were already loaded into the folder list.
+     * In the lazy mode only the root folders are loaded at login, and the subfolders of a folder the first time it is selected.
+     * 
+     * @return true if the subfolders were loaded, false otherwise.
+     * @author Cesar Bianchi
+     * @since 1.2
+     */
+    public boolean isSubFoldersLoaded() {
+        return subFoldersLoaded;
+    }
+
+    /**
+     * Sets whether the subfolders of this folder were already loaded into the folder list.
+     * 
+     * @param subFoldersLoaded true if the subfolders were loaded, false otherwise.
+     * @author Cesar Bianchi
+     * @since 1.2
+     */
+    public void setSubFoldersLoaded(boolean subFoldersLoaded) {
+        this.subFoldersLoaded = subFoldersLoaded;
+    }
     
     
     
@@ -1,5 +1,9 @@
 package com.lariflix.jemm.dtos;
 
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+
 /**
  * This class represents the JellyfinInstanceDetails.
  *
@@ -13,6 +17,8 @@ public class JellyfinInstanceDetails {
     public JellyfinUser adminUser = new JellyfinUser();
     public JellyfinFolders folders = new JellyfinFolders();
     public boolean isDebug = false;
+    public Date lastSync = null;
+    private final JellyfinInstanceIndex index = new JellyfinInstanceIndex();
     
     /**
      * Default constructor for JellyfinInstanceDetails.
@@ -110,6 +116,122 @@ public class JellyfinInstanceDetails {
      */
     public void setFolders(JellyfinFolders folders) {
         this.folders = folders;   
+        this.index.clear();
+    }
+
+    /**
+     * Finds a folder by its ID, using a hash index of the folders (see JellyfinInstanceIndex).
+     *
+     * @param folderID The ID of the folder.
+     * @return The folder, or null if there is none with this ID.
+     * @author Cesar Bianchi
+     * @since 1.2
+     */
+    public JellyfinFolder findFolder(String folderID) {
+        return index.findFolder(folders, folderID);
+    }
+
+    /**
+     * Finds an item of a folder by its ID, using a hash index of the folder content.
+     *
+     * @param folderID The ID of the folder.
+     * @param itemID The ID of the item.
+     * @return The item, or null if the folder, its content or the item is not loaded.
+     * @author Cesar Bianchi
+     * @since 1.2
+     */
+    public JellyfinItem findItem(String folderID, String itemID) {
+        return index.findItem(folders, folderID, itemID);
+    }
+
+    /**
+     * Finds the folder whose loaded content has an item.
+     *
+     * @param itemID The ID of the item.
+     * @return The folder, or null if no loaded folder content has the item.
+     * @author Cesar Bianchi
+     * @since 1.2
+     */
+    public JellyfinFolder findFolderOfItem(String itemID) {
+        return index.findFolderOfItem(folders, itemID);
+    }
+
+    /**
+     * Finds the loaded items under a parent (a folder, a series or a season).
+     *
+     * @param parentID The ID of the parent.
+     * @return The items whose parent ID is parentID. Empty if there is none.
+     * @author Cesar Bianchi
+     * @since 1.2
+     */
+    public List<JellyfinItem> findChildren(String parentID) {
+        return index.findChildren(folders, parentID);
+    }
+
+    /**
+     * Adds the subfolders of a folder to the folder list, right after the folder, and marks the folder as having its subfolders loaded.
+     * A subfolder already in the list (e.g. from a snapshot) is not added again.
+     *
+     * @param parentID The ID of the folder.
+     * @param subFolders The subfolders, in the order they are shown.
+     * @return The number of subfolders added, or -1 if the folder is not in the list.
+     * @author Cesar Bianchi
+     * @since 1.2
+     */
+    public int addSubFolders(String parentID, List<JellyfinFolder> subFolders) {
+        JellyfinFolder parentFolder = this.findFolder(parentID);
+        if (parentFolder == null){
+            return -1;
+        }
+        
+        ArrayList<JellyfinFolder> newSubFolders = new ArrayList<>();
+        for (JellyfinFolder subFolder : subFolders){
+            if (this.findFolder(subFolder.getId()) == null){
+                newSubFolders.add(subFolder);
+            }
+        }
+        
+        folders.getItems().addAll(folders.getItems().indexOf(parentFolder) + 1, newSubFolders);
+        parentFolder.setSubFoldersLoaded(true);
+        
+        return newSubFolders.size();
+    }
+
+    /**
+     * Gets the date of the last full load or delta sync of the folders and items.
+     *
+     * @return The date of the last sync, or null if nothing was synchronized yet.
+     * @author Cesar Bianchi
+     * @since 1.2
+     */
+    public Date getLastSync() {
+        return lastSync;
+    }
+
+    /**
+     * Sets the date of the last full load or delta sync of the folders and items.
+     *
+     * @param lastSync The date of the last sync.
+     * @author Cesar Bianchi
+     * @since 1.2
+     */
+    public void setLastSync(Date lastSync) {
+        this.lastSync = lastSync;
+    }
+
+    /**
+     * Restores the users, admin user, folders and date of the last sync from a snapshot of the same server (see JellyfinSnapshotStore).
+     * The last sync date comes with the folder contents it describes, so the next reload can be a delta sync. The credentials are kept.
+     *
+     * @param snapshot The instance data loaded from the snapshot.
+     * @author Cesar Bianchi
+     * @since 1.2
+     */
+    public void restoreFrom(JellyfinInstanceDetails snapshot) {
+        this.setUsers(snapshot.getUsers());
+        this.setAdminUser(snapshot.getAdminUser());
+        this.setFolders(snapshot.getFolders());
+        this.setLastSync(snapshot.getLastSync());
     }
 
     public boolean isDebug() {
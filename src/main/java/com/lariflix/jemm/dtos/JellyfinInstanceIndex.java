@@ -0,0 +1,190 @@
+package com.lariflix.jemm.dtos;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+
+/**
+ * This class keeps the hash indexes of the instance data (see JellyfinInstanceDetails): folder ID to folder,
+ * item ID to item of each folder, and parent ID to the items under it.
+ *
+ * The indexes are built on the first lookup and checked on each lookup against the lists they were built from:
+ * if the folders, the content of a folder, or the list of items was replaced, or an item was added or removed,
+ * the affected index is built again. So the instance data is loaded and reloaded as before, without keeping the indexes by hand.
+ * A folder content is indexed only when it is looked up, so folders not loaded yet cost nothing.
+ *
+ * @author Cesar Bianchi
+ * @since 1.2
+ * @see JellyfinInstanceDetails
+ */
+final class JellyfinInstanceIndex {
+
+    private JellyfinFolders indexedFolders = null;
+    private ArrayList<JellyfinFolder> indexedFolderList = null;
+    private int indexedFolderCount = -1;
+    private final HashMap<String, JellyfinFolder> foldersById = new HashMap<>();
+    private final HashMap<String, FolderContentIndex> contentByFolderId = new HashMap<>();
+
+    /**
+     * The indexes of the content of one folder.
+     */
+    private static final class FolderContentIndex {
+        private JellyfinItems indexedContent = null;
+        private ArrayList<JellyfinItem> indexedItemList = null;
+        private int indexedItemCount = -1;
+        private final HashMap<String, JellyfinItem> itemsById = new HashMap<>();
+        private final HashMap<String, List<JellyfinItem>> childrenByParentId = new HashMap<>();
+
+        private boolean isCurrent(JellyfinItems content) {
+            return content == indexedContent && content.getItems() == indexedItemList && content.getItems().size() == indexedItemCount;
+        }
+
+        private void build(JellyfinItems content) {
+            itemsById.clear();
+            childrenByParentId.clear();
+            for (JellyfinItem item : content.getItems()){
+                itemsById.put(item.getId(), item);
+                if (item.getParentId() != null){
+                    childrenByParentId.computeIfAbsent(item.getParentId(), key -> new ArrayList<>()).add(item);
+                }
+            }
+            indexedContent = content;
+            indexedItemList = content.getItems();
+            indexedItemCount = content.getItems().size();
+        }
+    }
+
+    /**
+     * Finds a folder by its ID.
+     *
+     * @param folders The folders of the instance data.
+     * @param folderID The ID of the folder.
+     * @return The folder, or null if there is none with this ID.
+     * @since 1.2
+     * @author Cesar Bianchi
+     */
+    synchronized JellyfinFolder findFolder(JellyfinFolders folders, String folderID) {
+        if (folders == null || folders.getItems() == null || folderID == null){
+            return null;
+        }
+
+        //1* - Build the folder index again if the folders were replaced, added or removed
+        if (folders != indexedFolders || folders.getItems() != indexedFolderList || folders.getItems().size() != indexedFolderCount){
+            this.buildFolders(folders);
+        }
+
+        //2* - A folder whose ID was changed in place is found by building the index again
+        JellyfinFolder folder = foldersById.get(folderID);
+        if (folder != null && !folderID.equals(folder.getId())){
+            this.buildFolders(folders);
+            folder = foldersById.get(folderID);
+        }
+        return folder;
+    }
+
+    /**
+     * Finds an item of a folder by its ID.
+     *
+     * @param folders The folders of the instance data.
+     * @param folderID The ID of the folder.
+     * @param itemID The ID of the item.
+     * @return The item, or null if the folder, its content or the item is not loaded.
+     * @since 1.2
+     * @author Cesar Bianchi
+     */
+    synchronized JellyfinItem findItem(JellyfinFolders folders, String folderID, String itemID) {
+        FolderContentIndex contentIndex = this.getContentIndex(this.findFolder(folders, folderID));
+        if (contentIndex == null || itemID == null){
+            return null;
+        }
+
+        JellyfinItem item = contentIndex.itemsById.get(itemID);
+        if (item != null && !itemID.equals(item.getId())){
+            contentIndex.build(contentIndex.indexedContent);
+            item = contentIndex.itemsById.get(itemID);
+        }
+        return item;
+    }
+
+    /**
+     * Finds the folder whose loaded content has an item.
+     *
+     * @param folders The folders of the instance data.
+     * @param itemID The ID of the item.
+     * @return The folder, or null if no loaded folder content has the item.
+     * @since 1.2
+     * @author Cesar Bianchi
+     */
+    synchronized JellyfinFolder findFolderOfItem(JellyfinFolders folders, String itemID) {
+        if (folders == null || folders.getItems() == null){
+            return null;
+        }
+        for (JellyfinFolder folder : folders.getItems()){
+            if (this.findItem(folders, folder.getId(), itemID) != null){
+                return folder;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Finds the loaded items under a parent (a folder, a series or a season).
+     *
+     * @param folders The folders of the instance data.
+     * @param parentID The ID of the parent.
+     * @return The items whose parent ID is parentID, in the order they were loaded. Empty if there is none.
+     * @since 1.2
+     * @author Cesar Bianchi
+     */
+    synchronized List<JellyfinItem> findChildren(JellyfinFolders folders, String parentID) {
+        if (folders == null || folders.getItems() == null || parentID == null){
+            return Collections.emptyList();
+        }
+        ArrayList<JellyfinItem> children = new ArrayList<>();
+        for (JellyfinFolder folder : folders.getItems()){
+            FolderContentIndex contentIndex = this.getContentIndex(this.findFolder(folders, folder.getId()));
+            if (contentIndex != null){
+                children.addAll(contentIndex.childrenByParentId.getOrDefault(parentID, Collections.emptyList()));
+            }
+        }
+        return children;
+    }
+
+    /**
+     * Drops all indexes, so they are built again on the next lookup.
+     *
+     * @since 1.2
+     * @author Cesar Bianchi
+     */
+    synchronized void clear() {
+        indexedFolders = null;
+        indexedFolderList = null;
+        indexedFolderCount = -1;
+        foldersById.clear();
+        contentByFolderId.clear();
+    }
+
+    private void buildFolders(JellyfinFolders folders) {
+        foldersById.clear();
+        for (JellyfinFolder folder : folders.getItems()){
+            foldersById.put(folder.getId(), folder);
+        }
+        //The content of the folders no longer listed is dropped, the others are checked on their next lookup
+        contentByFolderId.keySet().retainAll(foldersById.keySet());
+        indexedFolders = folders;
+        indexedFolderList = folders.getItems();
+        indexedFolderCount = folders.getItems().size();
+    }
+
+    private FolderContentIndex getContentIndex(JellyfinFolder folder) {
+        if (folder == null || folder.getFolderContent() == null || folder.getFolderContent().getItems() == null){
+            return null;
+        }
+        FolderContentIndex contentIndex = contentByFolderId.computeIfAbsent(folder.getId(), key -> new FolderContentIndex());
+        if (!contentIndex.isCurrent(folder.getFolderContent())){
+            contentIndex.build(folder.getFolderContent());
+        }
+        return contentIndex;
+    }
+}
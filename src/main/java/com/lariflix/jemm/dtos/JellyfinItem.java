@@ -44,6 +44,14 @@ public class JellyfinItem {
     public String locationType;
     @JsonProperty("MediaType") 
     public String mediaType;
+    @JsonProperty("ParentId") 
+    public String parentId;
+    @JsonProperty("Overview") 
+    public String overview;
+    @JsonProperty("Path") 
+    public String path;
+    @JsonProperty("Etag") 
+    public String etag;
     
     public JellyfinItemMetadata itemMetadata;
     
@@ -343,6 +351,94 @@ public class JellyfinItem {
         this.videoType = videoType;
     }
 
+    /**
+     * Gets the ID of the parent item.
+     *
+     * @return A string representing the ID of the parent item.
+     * @author Cesar Bianchi
+     * @since 1.2
+     */
+    public String getParentId() {
+        return parentId;
+    }
+
+    /**
+     * Sets the ID of the parent item.
+     *
+     * @param parentId A string representing the ID of the parent item.
+     * @author Cesar Bianchi
+     * @since 1.2
+     */
+    public void setParentId(String parentId) {
+        this.parentId = parentId;
+    }
+
+    /**
+     * Gets the overview. It is only returned by the server if requested (see JellyfinItemFields.OVERVIEW).
+     *
+     * @return A string representing the overview.
+     * @author Cesar Bianchi
+     * @since 1.2
+     */
+    public String getOverview() {
+        return overview;
+    }
+
+    /**
+     * Sets the overview.
+     *
+     * @param overview A string containing the new overview.
+     * @author Cesar Bianchi
+     * @since 1.2
+     */
+    public void setOverview(String overview) {
+        this.overview = overview;
+    }
+
+    /**
+     * Gets the path. It is only returned by the server if requested (see JellyfinItemFields.PATH).
+     *
+     * @return A string representing the path.
+     * @author Cesar Bianchi
+     * @since 1.2
+     */
+    public String getPath() {
+        return path;
+    }
+
+    /**
+     * Sets the path.
+     *
+     * @param path A string containing the new path.
+     * @author Cesar Bianchi
+     * @since 1.2
+     */
+    public void setPath(String path) {
+        this.path = path;
+    }
+
+    /**
+     * Gets the Etag of the item, returned with the list only if the "Etag" field was requested.
+     *
+     * @return A string representing the Etag, or null if it wasn't requested.
+     * @author Cesar Bianchi
+     * @since 1.2
+     */
+    public String getEtag() {
+        return etag;
+    }
+
+    /**
+     * Sets the Etag of the item.
+     *
+     * @param etag A string containing the new Etag.
+     * @author Cesar Bianchi
+     * @since 1.2
+     */
+    public void setEtag(String etag) {
+        this.etag = etag;
+    }
+
     /**
      * Gets the location type.
      *
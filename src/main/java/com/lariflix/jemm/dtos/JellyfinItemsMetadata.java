@@ -0,0 +1,98 @@
+package com.lariflix.jemm.dtos;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+import java.util.ArrayList;
+
+/**
+ * This class represents a list of item metadata returned in bulk by the Jellyfin Items endpoint.
+ * It is the response of a query that uses the "Ids" and "Fields" options, so every item already carries the metadata fields.
+ *
+ * @author Cesar Bianchi
+ * @since 1.2
+ * @see JellyfinItemMetadata
+ */
+public class JellyfinItemsMetadata {
+
+    @JsonProperty("Items")
+    public ArrayList<JellyfinItemMetadata> items = new ArrayList<>();
+    @JsonProperty("TotalRecordCount")
+    public int totalRecordCount;
+    @JsonProperty("StartIndex")
+    public int startIndex;
+
+    /**
+     * Default constructor for JellyfinItemsMetadata.
+     *
+     * @since 1.2
+     * @author Cesar Bianchi
+     */
+    public JellyfinItemsMetadata() {
+    }
+
+    /**
+     * Returns the item metadata list.
+     *
+     * @return The item metadata list.
+     * @since 1.2
+     * @author Cesar Bianchi
+     */
+    public ArrayList<JellyfinItemMetadata> getItems() {
+        return items;
+    }
+
+    /**
+     * Sets the item metadata list.
+     *
+     * @param items The new item metadata list.
+     * @since 1.2
+     * @author Cesar Bianchi
+     */
+    public void setItems(ArrayList<JellyfinItemMetadata> items) {
+        this.items = items;
+    }
+
+    /**
+     * Returns the total record count.
+     *
+     * @return The total record count.
+     * @since 1.2
+     * @author Cesar Bianchi
+     */
+    public int getTotalRecordCount() {
+        return totalRecordCount;
+    }
+
+    /**
+     * Sets the total record count.
+     *
+     * @param totalRecordCount The new total record count.
+     * @since 1.2
+     * @author Cesar Bianchi
+     */
+    public void setTotalRecordCount(int totalRecordCount) {
+        this.totalRecordCount = totalRecordCount;
+    }
+
+    /**
+     * Returns the start index.
+     *
+     * @return The start index.
+     * @since 1.2
+     * @author Cesar Bianchi
+     */
+    public int getStartIndex() {
+        return startIndex;
+    }
+
+    /**
+     * Sets the start index.
+     *
+     * @param startIndex The new start index.
+     * @since 1.2
+     * @author Cesar Bianchi
+     */
+    public void setStartIndex(int startIndex) {
+        this.startIndex = startIndex;
+    }
+
+}
@@ -9,6 +9,8 @@ import java.awt.Color;
 import java.awt.Component;
 import java.awt.Window;
 import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 import javax.swing.ImageIcon;
@@ -17,10 +19,10 @@ import javax.swing.JOptionPane;
 import javax.swing.JTable;
 import javax.swing.JTextField;
 import javax.swing.SwingUtilities;
+import javax.swing.SwingWorker;
 import javax.swing.table.DefaultTableModel;
 import javax.swing.table.TableCellRenderer;
 import javax.swing.table.TableColumnModel;
-import org.json.simple.parser.ParseException;
 
 /**
  * This class represents a panel for adding people in the application.
@@ -36,6 +38,7 @@ public class AddPeoplePanel extends javax.swing.JPanel {
     static int existingPeopleSelected = 1;
     static int newPeopleSelected = 2;
     static ConnectJellyfinAPI loadedData = new ConnectJellyfinAPI();
+    private SwingWorker<Integer, JellyfinCadPeopleItems> peopleLoader = null;
     
     /**
      * Constructs a new AddPeoplePanel.
@@ -465,42 +468,68 @@ public class AddPeoplePanel extends javax.swing.JPanel {
   
     /**
      * Loads the existing people from the Jellyfin server and displays them in the table.
-     * This method requests the existing people from the Jellyfin server, clears the table, and adds the existing people to the table.
+     * The people are requested page by page in a background task, and each page is appended to the table as soon as it arrives,
+     * so the panel stays responsive and the whole list is never held in a single response.
      * Each row in the table represents a person and contains the id and name of the person.
-     * After adding the existing people to the table, it resizes the table width columns.
+     * After the last page, it resizes the table width columns. A previous load still running is cancelled.
      * 
      * @author Cesar Bianchi
      * @since 1.0
      
      */
     public void loadExistingPeople() {
-        JellyfinCadPeopleItem peopleItem = new JellyfinCadPeopleItem();
         DefaultTableModel model = (DefaultTableModel) jTable1.getModel();
         
-        //Request existing People
-        JellyfinCadPeopleItems existingPeople = null;
-        try {
-            existingPeople = loadedData.getPeople();
-        } catch (IOException ex) {
-            Logger.getLogger(AddPeoplePanel.class.getName()).log(Level.SEVERE, null, ex);
-        } catch (ParseException ex) {
-            Logger.getLogger(AddPeoplePanel.class.getName()).log(Level.SEVERE, null, ex);
-        }
-
-        //add People in Grid Existing People
         //Clean Grid before load again
         model = new JellyfinUtilFunctions().eraseModel(model);
-        for (int nI = 0; nI < existingPeople.getItems().size(); nI++ ){
-
-            peopleItem = existingPeople.getItems().get(nI);
-
-            Object[] row = { peopleItem.getId(), peopleItem.getName() };
-            model.addRow(row);                
-        }
         jTable1.setModel(model);
-
-        //Resize table width columns
-        this.resizeTableWidthColumns(jTable1);
+        
+        if (peopleLoader != null && !peopleLoader.isDone()){
+            peopleLoader.cancel(true);
+        }
+        
+        //Request existing People, one page at a time
+        peopleLoader = new SwingWorker<Integer, JellyfinCadPeopleItems>() {
+            @Override
+            protected Integer doInBackground() throws IOException {
+                return loadedData.getPeoplePages(page -> publish(page));
+            }
+            
+            @Override
+            protected void process(List<JellyfinCadPeopleItems> pages) {
+                if (isCancelled()){
+                    return;
+                }
+                
+                //add People in Grid Existing People
+                DefaultTableModel model = (DefaultTableModel) jTable1.getModel();
+                for (JellyfinCadPeopleItems page : pages){
+                    for (JellyfinCadPeopleItem peopleItem : page.getItems()){
+                        Object[] row = { peopleItem.getId(), peopleItem.getName() };
+                        model.addRow(row);
+                    }
+                }
+            }
+            
+            @Override
+            protected void done() {
+                if (isCancelled()){
+                    return;
+                }
+                
+                try {
+                    get();
+                } catch (InterruptedException ex) {
+                    Thread.currentThread().interrupt();
+                } catch (ExecutionException ex) {
+                    Logger.getLogger(AddPeoplePanel.class.getName()).log(Level.SEVERE, null, ex.getCause());
+                }
+                
+                //Resize table width columns
+                resizeTableWidthColumns(jTable1);
+            }
+        };
+        peopleLoader.execute();
                 
     }
     
@@ -2,27 +2,46 @@
 package com.lariflix.jemm.forms;
 
 import com.lariflix.jemm.dtos.JellyfinInstanceDetails;
+import com.fasterxml.jackson.databind.JsonNode;
 import com.lariflix.jemm.core.ConnectJellyfinAPI;
+import com.lariflix.jemm.core.JellyfinChangeTracker;
+import com.lariflix.jemm.core.JellyfinDeltaSync;
+import com.lariflix.jemm.core.JellyfinSnapshotStore;
+import com.lariflix.jemm.core.SaveItemsConcurrent;
+import com.lariflix.jemm.core.SaveItemsResult;
 import com.lariflix.jemm.dtos.JellyfinItem;
 import com.lariflix.jemm.dtos.JellyfinItems;
 import com.lariflix.jemm.dtos.JellyfinFolder;
 import com.lariflix.jemm.dtos.JellyfinFolderMetadata;
+import com.lariflix.jemm.dtos.JellyfinFolders;
 import com.lariflix.jemm.dtos.JellyfinGenreItem;
 import com.lariflix.jemm.dtos.JellyfinPeopleItem;
 import com.lariflix.jemm.dtos.JellyfinStudioItem;
 import com.lariflix.jemm.reports.JellyfinReportEngine;
+import com.lariflix.jemm.reports.JellyfinReportExecutor;
+import com.lariflix.jemm.reports.JellyfinReportProgressListener;
 import com.lariflix.jemm.utils.JellyfimParameters;
+import com.lariflix.jemm.utils.JellyfinReportPhase;
 import com.lariflix.jemm.utils.JellyfinReportTypes;
 import com.lariflix.jemm.utils.JellyfinUtilFunctions;
 import com.lariflix.jemm.utils.TransformDateFormat;
 import java.awt.Component;
 import java.awt.Cursor;
 import java.io.IOException;
+import java.io.InterruptedIOException;
 import java.net.MalformedURLException;
 import java.text.DateFormat;
 import java.text.SimpleDateFormat;
 import java.util.ArrayList;
 import java.util.Date;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 import javax.swing.DefaultListModel;
@@ -30,9 +49,12 @@ import javax.swing.Icon;
 import javax.swing.ImageIcon;
 import javax.swing.JOptionPane;
 import javax.swing.JTable;
+import javax.swing.SwingUtilities;
+import javax.swing.SwingWorker;
 import javax.swing.table.DefaultTableModel;
 import javax.swing.table.TableCellRenderer;
 import javax.swing.table.TableColumnModel;
+import net.sf.jasperreports.engine.JasperPrint;
 import org.json.simple.parser.ParseException;
 import java.awt.Desktop;
 import java.net.URI;
@@ -62,6 +84,14 @@ public class MainWindow extends javax.swing.JFrame {
     static JellyfinInstanceDetails instanceData = new JellyfinInstanceDetails();
     static ConnectJellyfinAPI connectAPI = new ConnectJellyfinAPI();
     static DefaultListModel<String> modelList = new DefaultListModel<>();
+    static JellyfinSnapshotStore snapshotStore = new JellyfinSnapshotStore();
+    static JellyfinChangeTracker changeTracker = new JellyfinChangeTracker();
+    private static final AtomicReference<JellyfinInstanceDetails> pendingSnapshot = new AtomicReference<>();
+    private static final AtomicBoolean shutdownHookAdded = new AtomicBoolean(false);
+    private SwingWorker<JellyfinItems, List<JellyfinItem>> folderLoad = null;
+    private String folderLoadID = null;
+    private SwingWorker<?, ?> folderSync = null;
+    private SwingWorker<SaveItemsResult, Void> contentSave = null;
     
     static String sortNameOldValue = new String();
     static String forcedSortNameOldValue = new String();
@@ -74,6 +104,12 @@ public class MainWindow extends javax.swing.JFrame {
     private final int DOWNLOADING_DATA = 1;
     private final int UPLOADING_DATA = 2;
     
+    /**
+     * System property that turns the lazy loading of the folder tree off (false): the whole tree is then loaded at login.
+     * In the lazy mode (default), only the root folders are loaded at login, and the subfolders of a folder the first time it is selected.
+     */
+    public static final String LAZY_FOLDERS_PROPERTY = "jemm.folders.lazy";
+    
     /**
      * Constructs a new MainWindow.
      * This constructor initializes the components of the window.
@@ -84,6 +120,18 @@ public class MainWindow extends javax.swing.JFrame {
      */
     public MainWindow() {
         initComponents();
+        
+        //Save the folders, metadata and content loaded in this session for the warm start of the next one.
+        //The hook is added once per JVM (a new window is created at each login), and saves the copy taken on the EDT when the window is closed
+        if (shutdownHookAdded.compareAndSet(false, true)){
+            Runtime.getRuntime().addShutdownHook(new Thread(MainWindow::savePendingSnapshot));
+        }
+        addWindowListener(new java.awt.event.WindowAdapter() {
+            @Override
+            public void windowClosing(java.awt.event.WindowEvent evt) {
+                keepSnapshotForExit();
+            }
+        });
     }
 
     /**
@@ -99,6 +147,8 @@ public class MainWindow extends javax.swing.JFrame {
         this.instanceData = instData;
         connectAPI.setcBaseURL(instanceData.getCredentials().getBaseURL());
         connectAPI.setcTokenApi(instanceData.getCredentials().getTokenAPI());
+        connectAPI.setAdminUser(instanceData.getAdminUser());
+        changeTracker.clear();
     }
     
     
@@ -1386,6 +1436,7 @@ public class MainWindow extends javax.swing.JFrame {
     }//GEN-LAST:event_jTextField9ActionPerformed
 
     private void jButton1ActionPerformed(java.awt.event.ActionEvent evt) {//GEN-FIRST:event_jButton1ActionPerformed
+        keepSnapshotForExit();
         System.exit(0);
     }//GEN-LAST:event_jButton1ActionPerformed
 
@@ -1415,7 +1466,10 @@ public class MainWindow extends javax.swing.JFrame {
     }//GEN-LAST:event_jTextField6ActionPerformed
 
     private void jList2ValueChanged(javax.swing.event.ListSelectionEvent evt) {//GEN-FIRST:event_jList2ValueChanged
-        this.setFieldsValues();
+        //Just the final selection loads a folder
+        if (!evt.getValueIsAdjusting()){
+            this.setFieldsValues();
+        }
     }//GEN-LAST:event_jList2ValueChanged
 
     private void jButton4ActionPerformed(java.awt.event.ActionEvent evt) {//GEN-FIRST:event_jButton4ActionPerformed
@@ -1490,16 +1544,13 @@ public class MainWindow extends javax.swing.JFrame {
     }//GEN-LAST:event_jButton20ActionPerformed
 
     private void jButton21ActionPerformed(java.awt.event.ActionEvent evt) {//GEN-FIRST:event_jButton21ActionPerformed
+        keepSnapshotForExit();
         System.exit(0);
     }//GEN-LAST:event_jButton21ActionPerformed
 
     private void formWindowOpened(java.awt.event.WindowEvent evt) {//GEN-FIRST:event_formWindowOpened
         // TODO add your handling code here:
-        try {
-            this.loadFolders();
-        } catch (IOException | ParseException ex) {
-            Logger.getLogger(MainWindow.class.getName()).log(Level.SEVERE, null, ex);
-        }
+        this.loadFolders();
     }//GEN-LAST:event_formWindowOpened
 
     private void jTable5MouseClicked(java.awt.event.MouseEvent evt) {//GEN-FIRST:event_jTable5MouseClicked
@@ -1528,210 +1579,67 @@ public class MainWindow extends javax.swing.JFrame {
 
     private void jMenuItem2ActionPerformed(java.awt.event.ActionEvent evt) {//GEN-FIRST:event_jMenuItem2ActionPerformed
 
-        JellyfinReportEngine reportEng = new JellyfinReportEngine(JellyfinReportTypes.INVENTORY_FULL,instanceData);
-        reportEng.start();
-        this.setCursor(Cursor.getPredefinedCursor(Cursor.WAIT_CURSOR));
-        
-        while (true){
-            if (reportEng.isDone()){
-                this.setCursor(Cursor.getDefaultCursor());
-                break;
-            } else {
-                try {
-                    
-                    Thread.sleep(2000);
-                    if (instanceData.isDebug()){
-                        System.out.println("Processing Inventory Full Report...");
-                    }
-                } catch (InterruptedException ex) {
-                    Logger.getLogger(MainWindow.class.getName()).log(Level.SEVERE, null, ex);
-                }
-            }
-        }
-        
+        this.runReport(JellyfinReportTypes.INVENTORY_FULL);
+
     }//GEN-LAST:event_jMenuItem2ActionPerformed
 
     private void jMenuItem1ActionPerformed(java.awt.event.ActionEvent evt) {//GEN-FIRST:event_jMenuItem1ActionPerformed
 
         // Inventory Basic Report Menu Item
-        JellyfinReportEngine reportEng = new JellyfinReportEngine(JellyfinReportTypes.INVENTORY_BASIC,instanceData);
-        reportEng.start();
-        this.setCursor(Cursor.getPredefinedCursor(Cursor.WAIT_CURSOR));
-        
-        while (true){
-            if (reportEng.isDone()){
-                this.setCursor(Cursor.getDefaultCursor());
-                break;
-            } else {
-                try {
-                    
-                    Thread.sleep(2000);
-                    if (instanceData.isDebug()){
-                        System.out.println("Processing Inventory Basic Report...");
-                    }
-                } catch (InterruptedException ex) {
-                    Logger.getLogger(MainWindow.class.getName()).log(Level.SEVERE, null, ex);
-                }
-            }
-        }
+        this.runReport(JellyfinReportTypes.INVENTORY_BASIC);
 
-        
     }//GEN-LAST:event_jMenuItem1ActionPerformed
 
     private void jMenuItem5ActionPerformed(java.awt.event.ActionEvent evt) {//GEN-FIRST:event_jMenuItem5ActionPerformed
         int dialogButton = JOptionPane.YES_NO_OPTION;
         int dialogResult = JOptionPane.showConfirmDialog (null, "Would you like exit JEMM?","Are you sure ?",dialogButton);
         if(dialogResult == JOptionPane.YES_OPTION){
+            keepSnapshotForExit();
             this.dispose();
             System.exit(0);
         }
     }//GEN-LAST:event_jMenuItem5ActionPerformed
 
     private void jMenuItem6ActionPerformed(java.awt.event.ActionEvent evt) {//GEN-FIRST:event_jMenuItem6ActionPerformed
-        
-        // Genres Basic Report Menu Item  
-        this.setCursor(Cursor.getPredefinedCursor(Cursor.WAIT_CURSOR));
-        JellyfinReportEngine reportEng = new JellyfinReportEngine(JellyfinReportTypes.GENRES_BASIC,instanceData);
-        reportEng.start();
-        
-        while (true){
-            if (reportEng.isDone()){
-                this.setCursor(Cursor.getDefaultCursor());
-                break;
-            } else {
-                try {
-                    
-                    Thread.sleep(2000);
-                    if (instanceData.isDebug()){
-                        System.out.println("Processing Genres Basic Report...");
-                    }
-                } catch (InterruptedException ex) {
-                    Logger.getLogger(MainWindow.class.getName()).log(Level.SEVERE, null, ex);
-                }
-            }
-        }
-        
+
+        // Genres Basic Report Menu Item
+        this.runReport(JellyfinReportTypes.GENRES_BASIC);
+
     }//GEN-LAST:event_jMenuItem6ActionPerformed
 
     private void jMenuItem7ActionPerformed(java.awt.event.ActionEvent evt) {//GEN-FIRST:event_jMenuItem7ActionPerformed
+
         // Genres Full Report Menu Item
-        this.setCursor(Cursor.getPredefinedCursor(Cursor.WAIT_CURSOR));
-        JellyfinReportEngine reportEng = new JellyfinReportEngine(JellyfinReportTypes.GENRES_FULL,instanceData);
-        reportEng.start();
-        
-        while (true){
-            if (reportEng.isDone()){
-                this.setCursor(Cursor.getDefaultCursor());
-                break;
-            } else {
-                try {
-                    
-                    Thread.sleep(2000);
-                    if (instanceData.isDebug()){
-                        System.out.println("Processing Genres Full Report...");
-                    }
-                } catch (InterruptedException ex) {
-                    Logger.getLogger(MainWindow.class.getName()).log(Level.SEVERE, null, ex);
-                }
-            }
-        }
+        this.runReport(JellyfinReportTypes.GENRES_FULL);
 
     }//GEN-LAST:event_jMenuItem7ActionPerformed
 
     private void jMenuItem8ActionPerformed(java.awt.event.ActionEvent evt) {//GEN-FIRST:event_jMenuItem8ActionPerformed
+
         // People Basic Report Menu Item
-        this.setCursor(Cursor.getPredefinedCursor(Cursor.WAIT_CURSOR));
-        JellyfinReportEngine reportEng = new JellyfinReportEngine(JellyfinReportTypes.PEOPLE_BASIC,instanceData);
-        reportEng.start();
-        
-        while (true){
-            if (reportEng.isDone()){
-                this.setCursor(Cursor.getDefaultCursor());
-                break;
-            } else {
-                try {
-                    
-                    Thread.sleep(2000);
-                    if (instanceData.isDebug()){
-                        System.out.println("Processing People Basic Report...");
-                    }
-                } catch (InterruptedException ex) {
-                    Logger.getLogger(MainWindow.class.getName()).log(Level.SEVERE, null, ex);
-                }
-            }
-        }
+        this.runReport(JellyfinReportTypes.PEOPLE_BASIC);
+
     }//GEN-LAST:event_jMenuItem8ActionPerformed
 
     private void jMenuItem9ActionPerformed(java.awt.event.ActionEvent evt) {//GEN-FIRST:event_jMenuItem9ActionPerformed
+
         // People Full Report Menu Item
-        this.setCursor(Cursor.getPredefinedCursor(Cursor.WAIT_CURSOR));
-        JellyfinReportEngine reportEng = new JellyfinReportEngine(JellyfinReportTypes.PEOPLE_FULL,instanceData);
-        reportEng.start();
-        
-        while (true){
-            if (reportEng.isDone()){
-                this.setCursor(Cursor.getDefaultCursor());
-                break;
-            } else {
-                try {
-                    
-                    Thread.sleep(2000);
-                    if (instanceData.isDebug()){
-                        System.out.println("Processing People Full Report...");
-                    }
-                } catch (InterruptedException ex) {
-                    Logger.getLogger(MainWindow.class.getName()).log(Level.SEVERE, null, ex);
-                }
-            }
-        }
+        this.runReport(JellyfinReportTypes.PEOPLE_FULL);
+
     }//GEN-LAST:event_jMenuItem9ActionPerformed
 
     private void jMenuItem10ActionPerformed(java.awt.event.ActionEvent evt) {//GEN-FIRST:event_jMenuItem10ActionPerformed
+
         // Tags Basic Report Menu Item
-        this.setCursor(Cursor.getPredefinedCursor(Cursor.WAIT_CURSOR));
-        JellyfinReportEngine reportEng = new JellyfinReportEngine(JellyfinReportTypes.TAGS_BASIC,instanceData);
-        reportEng.start();
-        
-        while (true){
-            if (reportEng.isDone()){
-                this.setCursor(Cursor.getDefaultCursor());
-                break;
-            } else {
-                try {
-                    
-                    Thread.sleep(2000);
-                    if (instanceData.isDebug()){
-                        System.out.println("Processing Tags Basic Report...");
-                    }
-                } catch (InterruptedException ex) {
-                    Logger.getLogger(MainWindow.class.getName()).log(Level.SEVERE, null, ex);
-                }
-            }
-        }
+        this.runReport(JellyfinReportTypes.TAGS_BASIC);
+
     }//GEN-LAST:event_jMenuItem10ActionPerformed
 
     private void jMenuItem11ActionPerformed(java.awt.event.ActionEvent evt) {//GEN-FIRST:event_jMenuItem11ActionPerformed
+
         // Tags FULL Report Menu Item
-        this.setCursor(Cursor.getPredefinedCursor(Cursor.WAIT_CURSOR));
-        JellyfinReportEngine reportEng = new JellyfinReportEngine(JellyfinReportTypes.TAGS_FULL,instanceData);
-        reportEng.start();
-        
-        while (true){
-            if (reportEng.isDone()){
-                this.setCursor(Cursor.getDefaultCursor());
-                break;
-            } else {
-                try {
-                    
-                    Thread.sleep(2000);
-                    if (instanceData.isDebug()){
-                        System.out.println("Processing Tags Full Report...");
-                    }
-                } catch (InterruptedException ex) {
-                    Logger.getLogger(MainWindow.class.getName()).log(Level.SEVERE, null, ex);
-                }
-            }
-        }
+        this.runReport(JellyfinReportTypes.TAGS_FULL);
+
     }//GEN-LAST:event_jMenuItem11ActionPerformed
 
     private void jMenuItem4ActionPerformed(java.awt.event.ActionEvent evt) {//GEN-FIRST:event_jMenuItem4ActionPerformed
@@ -1751,75 +1659,24 @@ public class MainWindow extends javax.swing.JFrame {
     }//GEN-LAST:event_jMenuItem12ActionPerformed
 
     private void jMenuItem16ActionPerformed(java.awt.event.ActionEvent evt) {//GEN-FIRST:event_jMenuItem16ActionPerformed
+
         // Studios Basic Report Menu Item
-        this.setCursor(Cursor.getPredefinedCursor(Cursor.WAIT_CURSOR));
-        JellyfinReportEngine reportEng = new JellyfinReportEngine(JellyfinReportTypes.STUDIOS_BASIC,instanceData);
-        reportEng.start();
-        
-        while (true){
-            if (reportEng.isDone()){
-                this.setCursor(Cursor.getDefaultCursor());
-                break;
-            } else {
-                try {
-                    
-                    Thread.sleep(2000);
-                    if (instanceData.isDebug()){
-                        System.out.println("Processing Studios Basic Report...");
-                    }
-                } catch (InterruptedException ex) {
-                    Logger.getLogger(MainWindow.class.getName()).log(Level.SEVERE, null, ex);
-                }
-            }
-        }
+        this.runReport(JellyfinReportTypes.STUDIOS_BASIC);
+
     }//GEN-LAST:event_jMenuItem16ActionPerformed
 
     private void jMenuItem15ActionPerformed(java.awt.event.ActionEvent evt) {//GEN-FIRST:event_jMenuItem15ActionPerformed
+
         // Studios Full Report Menu Item
-        this.setCursor(Cursor.getPredefinedCursor(Cursor.WAIT_CURSOR));
-        JellyfinReportEngine reportEng = new JellyfinReportEngine(JellyfinReportTypes.STUDIOS_FULL,instanceData);
-        reportEng.start();
-        
-        while (true){
-            if (reportEng.isDone()){
-                this.setCursor(Cursor.getDefaultCursor());
-                break;
-            } else {
-                try {
-                    
-                    Thread.sleep(2000);
-                    if (instanceData.isDebug()){
-                        System.out.println("Processing Studios Full Report...");
-                    }
-                } catch (InterruptedException ex) {
-                    Logger.getLogger(MainWindow.class.getName()).log(Level.SEVERE, null, ex);
-                }
-            }
-        }
+        this.runReport(JellyfinReportTypes.STUDIOS_FULL);
+
     }//GEN-LAST:event_jMenuItem15ActionPerformed
 
     private void jMenuItem13ActionPerformed(java.awt.event.ActionEvent evt) {//GEN-FIRST:event_jMenuItem13ActionPerformed
+
         // Years Full Report Menu Item
-        this.setCursor(Cursor.getPredefinedCursor(Cursor.WAIT_CURSOR));
-        JellyfinReportEngine reportEng = new JellyfinReportEngine(JellyfinReportTypes.YEARS_FULL,instanceData);
-        reportEng.start();
-        
-        while (true){
-            if (reportEng.isDone()){
-                this.setCursor(Cursor.getDefaultCursor());
-                break;
-            } else {
-                try {
-                    
-                    Thread.sleep(2000);
-                    if (instanceData.isDebug()){
-                        System.out.println("Processing Years Full Report...");
-                    }
-                } catch (InterruptedException ex) {
-                    Logger.getLogger(MainWindow.class.getName()).log(Level.SEVERE, null, ex);
-                }
-            }
-        }
+        this.runReport(JellyfinReportTypes.YEARS_FULL);
+
     }//GEN-LAST:event_jMenuItem13ActionPerformed
 
     private void jButton22ActionPerformed(java.awt.event.ActionEvent evt) {//GEN-FIRST:event_jButton22ActionPerformed
@@ -1989,11 +1846,10 @@ public class MainWindow extends javax.swing.JFrame {
 
     /**
      * Loads the folders from the Jellyfin API and updates the instance data and the list model.
-     * This method retrieves the users, admin user, and folders from the Jellyfin API and sets them in the instance data. It then updates the list model with the names of the folders.
+     * This method retrieves the users, admin user, and folders from the Jellyfin API in a background task (SwingWorker), so the window
+     * stays responsive, and sets them in the instance data when they arrive. It then updates the list model with the names of the folders.
+     * If there is a local snapshot of this server, the folders are shown from the snapshot right away and revalidated in the background.
      * 
-     * @throws IOException If an I/O error occurs.
-     * @throws MalformedURLException If a URL is malformed.
-     * @throws ParseException If an error occurs while parsing.
      * @author Cesar Bianchi
      * @since 1.0
      * @see ConnectAPI#getUsers()
@@ -2001,25 +1857,174 @@ public class MainWindow extends javax.swing.JFrame {
      * @see ConnectAPI#getFolders()
      * @see JellyfinFolder     
      */
-    private void loadFolders() throws IOException, MalformedURLException, ParseException {
-        //Folders Type
-        JellyfimParameters tpFolder = JellyfimParameters.FOLDERS_AND_SUBFOLDERS;
+    private void loadFolders() {
 
-        //Load Users From Jellyfin API
-        instanceData.setUsers(connectAPI.getUsers());
+        //0 - Warm start: show the last local snapshot of this server and revalidate it in the background
+        JellyfinInstanceDetails snapshot = snapshotStore.load(instanceData.getCredentials().getBaseURL());
+        if (snapshot != null && snapshot.getFolders().getItems().size() > 0){
+            instanceData.restoreFrom(snapshot);
+            connectAPI.setAdminUser(snapshot.getAdminUser());
+            
+            this.fillFolderList();
+            this.selectFirstFolder();
+            this.revalidateFoldersInBackground();
+            return;
+        }
+        
+        //Everything changed after this moment will be found by the next delta sync
+        Date loadStart = new Date();
+        this.setCursor(Cursor.getPredefinedCursor(Cursor.WAIT_CURSOR));
+        
+        SwingWorker<JellyfinInstanceDetails, Void> coldLoad = new SwingWorker<JellyfinInstanceDetails, Void>() {
+            @Override
+            protected JellyfinInstanceDetails doInBackground() throws Exception {
+                JellyfinInstanceDetails freshData = new JellyfinInstanceDetails();
+                
+                //Load Users From Jellyfin API
+                freshData.setUsers(connectAPI.getUsers());
+                
+                //Load Admin User from Jellyfin API
+                freshData.setAdminUser(connectAPI.getAdminUser());
+                
+                //Load Folders From Jellyfin API (just the root folders, in the lazy mode)
+                freshData.setFolders(requestFolderTree(new ArrayList<>()));
+                return freshData;
+            }
+            
+            @Override
+            protected void done() {
+                setCursor(Cursor.getDefaultCursor());
+                try {
+                    JellyfinInstanceDetails freshData = get();
+                    instanceData.setUsers(freshData.getUsers());
+                    instanceData.setAdminUser(freshData.getAdminUser());
+                    instanceData.setFolders(freshData.getFolders());
+                    instanceData.setLastSync(loadStart);
+                    
+                    fillFolderList();
+                    selectFirstFolder();
+                    saveSnapshotInBackground();
+                } catch (InterruptedException ex) {
+                    Thread.currentThread().interrupt();
+                } catch (ExecutionException ex) {
+                    Logger.getLogger(MainWindow.class.getName()).log(Level.SEVERE, null, ex.getCause());
+                }
+            }
+        };
+        folderSync = coldLoad;
+        coldLoad.execute();
+        
+    }
+    
+    /**
+     * Checks whether the folder tree is loaded lazily (see LAZY_FOLDERS_PROPERTY).
+     * 
+     * @return false if the system property jemm.folders.lazy is false, true otherwise.
+     * @author Cesar Bianchi
+     * @since 1.2
+     */
+    static boolean isLazyFolders() {
+        return !"false".equalsIgnoreCase(System.getProperty(LAZY_FOLDERS_PROPERTY));
+    }
+    
+    /**
+     * Requests the folder tree from the Jellyfin API. Must not run on the EDT.
+     * In the lazy mode, just the root folders are requested, plus the subfolders of the given folders (the ones already opened),
+     * so the time does not depend on the depth of the libraries. Otherwise, the whole tree is requested.
+     * 
+     * @param expandedFolderIDs The IDs of the folders whose subfolders must be requested, parents before children.
+     * @return The folders, each subfolder right after its parent.
+     * @throws IOException If an I/O error occurs.
+     * @throws ParseException If an error occurs while parsing.
+     * @author Cesar Bianchi
+     * @since 1.2
+     */
+    private JellyfinFolders requestFolderTree(List<String> expandedFolderIDs) throws IOException, ParseException {
+        if (!isLazyFolders()){
+            return connectAPI.getFolders(JellyfimParameters.FOLDERS_AND_SUBFOLDERS);
+        }
         
-        //Load Admin User from Jellyfin API
-        instanceData.setAdminUser(connectAPI.getAdminUser());
+        JellyfinInstanceDetails folderTree = new JellyfinInstanceDetails();
+        folderTree.setFolders(connectAPI.getFolders(JellyfimParameters.JUST_ROOT_FOLDERS));
         
-        //Load Folders From Jellyfin API
-        instanceData.setFolders(connectAPI.getFolders(tpFolder));
+        //Open again the folders already opened; a parent comes first, so its subfolders are there when they are opened
+        for (String cFolderID : expandedFolderIDs){
+            JellyfinFolder folder = folderTree.findFolder(cFolderID);
+            if (folder != null){
+                folderTree.addSubFolders(cFolderID, connectAPI.getSubFolders(folder));
+            }
+        }
+        
+        return folderTree.getFolders();
+    }
+    
+    /**
+     * Gets the IDs of the folders whose subfolders are loaded, in the list order.
+     * 
+     * @return The IDs of the opened folders.
+     * @author Cesar Bianchi
+     * @since 1.2
+     */
+    private List<String> getExpandedFolderIDs() {
+        ArrayList<String> expandedFolderIDs = new ArrayList<>();
+        for (JellyfinFolder folder : instanceData.getFolders().getItems()){
+            if (folder.isSubFoldersLoaded()){
+                expandedFolderIDs.add(folder.getId());
+            }
+        }
+        return expandedFolderIDs;
+    }
+    
+    /**
+     * Updates the folder list (jList2) in place after subfolders were added to the instance data.
+     * Unlike fillFolderList, the list is not cleared, so the selection is kept and no load is started.
+     * 
+     * @author Cesar Bianchi
+     * @since 1.2
+     */
+    private void updateFolderList() {
+        ArrayList<String> folderNames = this.getFolderListNames(instanceData);
+        for (int nI = 0; nI < folderNames.size(); nI++){
+            if (nI >= modelList.size()){
+                modelList.addElement(folderNames.get(nI));
+            } else if (!modelList.get(nI).equals(folderNames.get(nI))){
+                modelList.set(nI, folderNames.get(nI));
+            }
+        }
+    }
+    
+    /**
+     * Fills the folder list (jList2) from the folders of the instance data.
+     * Root folders are numbered, while subfolders keep their indentation prefix.
+     * 
+     * @author Cesar Bianchi
+     * @since 1.2
+     */
+    private void fillFolderList() {
+        modelList.clear();
+        jList2.setModel(modelList);
         
         //Set jList itens from instanceObject
+        for (String folderName : this.getFolderListNames(instanceData)){
+            modelList.addElement(folderName);
+        }
+    }
+    
+    /**
+     * Gets the names of the folders of an instance data, as they are shown in the folder list.
+     * 
+     * @param instData The instance data.
+     * @return The names of the folders, in the list order.
+     * @author Cesar Bianchi
+     * @since 1.2
+     */
+    private ArrayList<String> getFolderListNames(JellyfinInstanceDetails instData) {
+        ArrayList<String> folderNames = new ArrayList<>();
         JellyfinFolder newFolder = new JellyfinFolder();
         String prefix = new String();
         
-        for (int nI = 0; nI < instanceData.getFolders().getItems().size(); nI++){
-            newFolder = instanceData.getFolders().getItems().get(nI);
+        for (int nI = 0; nI < instData.getFolders().getItems().size(); nI++){
+            newFolder = instData.getFolders().getItems().get(nI);
             
             if (newFolder.getName().contains("⎆")){
                 prefix = "";
@@ -2027,10 +2032,206 @@ public class MainWindow extends javax.swing.JFrame {
                 prefix = Integer.toString(nI+1).concat(" - ");
             }
             
-            modelList.addElement(prefix.concat(newFolder.getName()) );
+            folderNames.add(prefix.concat(newFolder.getName()));
         }
-        this.selectFirstFolder();
         
+        return folderNames;
+    }
+    
+    /**
+     * Reloads the users, the admin user and the folder tree from the Jellyfin API in a background task, after a warm start from a snapshot.
+     * When the task finishes, the instance data is updated on the EDT. The folder list is refilled only if the folders changed,
+     * and the metadata and content already loaded for a folder are kept until the folder is selected again.
+     * Finally, a new snapshot is saved.
+     * 
+     * @author Cesar Bianchi
+     * @since 1.2
+     * @see JellyfinSnapshotStore
+     */
+    private void revalidateFoldersInBackground() {
+        
+        List<String> expandedFolderIDs = this.getExpandedFolderIDs();
+        SwingWorker<JellyfinInstanceDetails, Void> revalidation = new SwingWorker<JellyfinInstanceDetails, Void>() {
+            @Override
+            protected JellyfinInstanceDetails doInBackground() throws Exception {
+                JellyfinInstanceDetails freshData = new JellyfinInstanceDetails();
+                freshData.setUsers(connectAPI.getUsers());
+                freshData.setAdminUser(connectAPI.getAdminUser());
+                freshData.setFolders(requestFolderTree(expandedFolderIDs));
+                return freshData;
+            }
+            
+            @Override
+            protected void done() {
+                try {
+                    applyRevalidatedFolders(get());
+                } catch (InterruptedException ex) {
+                    Thread.currentThread().interrupt();
+                } catch (ExecutionException ex) {
+                    Logger.getLogger(MainWindow.class.getName()).log(Level.SEVERE, null, ex.getCause());
+                }
+            }
+        };
+        folderSync = revalidation;
+        revalidation.execute();
+    }
+    
+    /**
+     * Replaces the users, admin user and folders of the instance data with the ones just loaded from the Jellyfin API.
+     * 
+     * @param freshData The instance data loaded from the Jellyfin API.
+     * @author Cesar Bianchi
+     * @since 1.2
+     */
+    private void applyRevalidatedFolders(JellyfinInstanceDetails freshData) {
+        
+        //Keep the metadata and content already loaded, by folder ID
+        HashMap<String, JellyfinFolder> loadedFolders = new HashMap<>();
+        for (JellyfinFolder loadedFolder : instanceData.getFolders().getItems()){
+            loadedFolders.put(loadedFolder.getId(), loadedFolder);
+        }
+        for (JellyfinFolder freshFolder : freshData.getFolders().getItems()){
+            JellyfinFolder loadedFolder = loadedFolders.get(freshFolder.getId());
+            if (loadedFolder != null){
+                freshFolder.setMetadata(loadedFolder.getMetadata());
+                freshFolder.setFolderContent(loadedFolder.getFolderContent());
+            }
+        }
+        
+        boolean foldersChanged = !this.getFolderListNames(freshData).equals(this.getFolderListNames(instanceData));
+        String selectedFolderID = jList2.getSelectedIndex() >= 0 ? instanceData.getFolders().getItems().get(jList2.getSelectedIndex()).getId() : null;
+        
+        instanceData.setUsers(freshData.getUsers());
+        instanceData.setAdminUser(freshData.getAdminUser());
+        instanceData.setFolders(freshData.getFolders());
+        
+        if (foldersChanged){
+            this.fillFolderList();
+            
+            //Select the same folder again, if it still exists
+            for (int nI = 0; nI < instanceData.getFolders().getItems().size(); nI++){
+                if (instanceData.getFolders().getItems().get(nI).getId().equals(selectedFolderID)){
+                    jList2.setSelectedIndex(nI);
+                    break;
+                }
+            }
+        }
+        
+        this.saveSnapshotInBackground();
+    }
+    
+    /**
+     * Runs a report in the background (see JellyfinReportExecutor), showing its progress in a non-modal window with a Cancel button.
+     * The main window stays responsive while the report runs. When the report finishes the progress window is closed and,
+     * if the report failed, the error is shown to the user.
+     * 
+     * @param reportType The type of the report.
+     * @author Cesar Bianchi
+     * @since 1.2
+     * @see JellyfinReportEngine
+     */
+    private void runReport(JellyfinReportTypes reportType) {
+        
+        ReportProgressWindow progressWindow = new ReportProgressWindow(this, reportType);
+        JellyfinReportEngine reportEng = new JellyfinReportEngine(reportType, instanceData);
+        reportEng.setProgressListener(new JellyfinReportProgressListener() {
+            @Override
+            public void phaseStarted(JellyfinReportTypes rpType, JellyfinReportPhase phase) {
+                if (instanceData.isDebug()){
+                    System.out.println("Processing " + rpType + " Report: " + phase);
+                }
+                SwingUtilities.invokeLater(() -> progressWindow.setPhase(phase));
+            }
+            
+            @Override
+            public void reportFinished(JellyfinReportTypes rpType, Future<JasperPrint> report) {
+                SwingUtilities.invokeLater(() -> {
+                    progressWindow.close();
+                    if (!report.isCancelled()){
+                        try {
+                            report.get();
+                        } catch (InterruptedException ex) {
+                            Thread.currentThread().interrupt();
+                        } catch (ExecutionException ex) {
+                            Logger.getLogger(MainWindow.class.getName()).log(Level.SEVERE, null, ex.getCause());
+                            JOptionPane.showMessageDialog(MainWindow.this, "The report " + rpType + " failed: " + ex.getCause(), "Report error", JOptionPane.ERROR_MESSAGE);
+                        }
+                    }
+                });
+            }
+        });
+        
+        try {
+            progressWindow.showReport(JellyfinReportExecutor.getDefault().submit(reportEng));
+        } catch (RejectedExecutionException ex) {
+            progressWindow.close();
+            JOptionPane.showMessageDialog(this, "Too many reports are running. Wait for one of them to finish.", "Report", JOptionPane.WARNING_MESSAGE);
+        }
+    }
+    
+    /**
+     * Saves a snapshot of the instance data in a background (virtual) thread, for the warm start of the next session.
+     * The copy is taken here, on the EDT, so the background thread never reads the instance data while the GUI changes it.
+     * Until it is written, the copy is kept for the shutdown hook, in case the application exits first.
+     * 
+     * @author Cesar Bianchi
+     * @since 1.2
+     * @see JellyfinSnapshotStore
+     */
+    private void saveSnapshotInBackground() {
+        JellyfinInstanceDetails snapshot = JellyfinSnapshotStore.copyOf(instanceData);
+        pendingSnapshot.set(snapshot);
+        Thread.startVirtualThread(() -> {
+            saveSnapshot(snapshot);
+            pendingSnapshot.compareAndSet(snapshot, null);
+        });
+    }
+    
+    /**
+     * Keeps a copy of the instance data (e.g. with the folder contents loaded since the last snapshot), to be saved by the shutdown hook.
+     * It must be called on the EDT, before the application exits.
+     * 
+     * @author Cesar Bianchi
+     * @since 1.2
+     * @see #savePendingSnapshot()
+     */
+    private static void keepSnapshotForExit() {
+        try {
+            pendingSnapshot.set(JellyfinSnapshotStore.copyOf(instanceData));
+        } catch (RuntimeException ex) {
+            Logger.getLogger(MainWindow.class.getName()).log(Level.WARNING, "Unable to copy the library snapshot", ex);
+        }
+    }
+    
+    /**
+     * Saves the copy of the instance data not written yet, if any. Called by the shutdown hook.
+     * 
+     * @author Cesar Bianchi
+     * @since 1.2
+     * @see #keepSnapshotForExit()
+     */
+    private static void savePendingSnapshot() {
+        JellyfinInstanceDetails snapshot = pendingSnapshot.getAndSet(null);
+        if (snapshot != null){
+            saveSnapshot(snapshot);
+        }
+    }
+    
+    /**
+     * Saves a snapshot of the instance data, for the warm start of the next session.
+     * A failure is just logged: the next session will load everything from the Jellyfin API.
+     * 
+     * @param snapshot A copy of the instance data (see JellyfinSnapshotStore.copyOf), not shared with the GUI.
+     * @author Cesar Bianchi
+     * @since 1.2
+     * @see JellyfinSnapshotStore
+     */
+    private static void saveSnapshot(JellyfinInstanceDetails snapshot) {
+        try {
+            snapshotStore.save(snapshot);
+        } catch (IOException | RuntimeException ex) {
+            Logger.getLogger(MainWindow.class.getName()).log(Level.WARNING, "Unable to save the library snapshot", ex);
+        }
     }
 
     /**
@@ -2050,7 +2251,8 @@ public class MainWindow extends javax.swing.JFrame {
     
     /**
      * Sets the field values based on the selected item in the list.
-     * This method displays a waiting window and sets the cursor to the waiting cursor. It then calls the setFieldsValuesBackground method to load the fields and grids. After the fields and grids are loaded, it sets the cursor back to the default cursor.
+     * This method sets the waiting cursor and calls the setFieldsValuesBackground method to load the fields and grids in a background task.
+     * A load still running for another folder is cancelled. The cursor is set back to the default cursor when the load finishes.
      * 
      * @author Cesar Bianchi
      * @since 1.0
@@ -2058,68 +2260,228 @@ public class MainWindow extends javax.swing.JFrame {
      */
     public void setFieldsValues() {
         
-        try {
-            //Waitng Dialog and mouse cursor waiting
-            /*  Commented by the Issue #27
-            //WaitingWindow waitWin = new WaitingWindow(instanceData.getCredentials().getBaseURL(),DOWNLOADING_DATA);
-            //waitWin.showDialogWithTimmer();
-            */
-            this.setCursor(Cursor.getPredefinedCursor(Cursor.WAIT_CURSOR));
-            
-            //Load jFields and Grids
-            this.setFieldsValuesBackground();
-
-            this.setCursor(Cursor.getDefaultCursor());
-            
-        } catch (java.text.ParseException ex) {
-            Logger.getLogger(MainWindow.class.getName()).log(Level.SEVERE, null, ex);
-        } 
+        //Waitng Dialog and mouse cursor waiting
+        /*  Commented by the Issue #27
+        //WaitingWindow waitWin = new WaitingWindow(instanceData.getCredentials().getBaseURL(),DOWNLOADING_DATA);
+        //waitWin.showDialogWithTimmer();
+        */
         
+        //Load jFields and Grids
+        this.setFieldsValuesBackground();
 
     }
     
     /**
-     * Sets the field values in the background based on the selected item in the list.
-     * This method retrieves the selected item from the list and requests the metadata and content items for the selected folder from the Jellyfin API. It then updates the instance data with the retrieved metadata and content items, and refreshes the GUI objects based on the instance data.
+     * Loads the selected folder of the list in a background task (SwingWorker), so the window stays responsive.
+     * The folder metadata is shown as soon as it arrives, and the content rows are appended as the metadata of the items arrives
+     * (see ConnectJellyfinAPI#getItems(String, java.util.function.Consumer)). When all items are loaded, they are added to the
+     * main instance object and the content grid is filled again from it, in its final order.
+     * A newer selection cancels (interrupts) the load in flight, and the results of a cancelled load are dropped.
      * 
-     * @throws ParseException If an error occurs while parsing.
      * @author Cesar Bianchi
      * @since 1.0
      
      */
-    private void setFieldsValuesBackground() throws java.text.ParseException {
+    private void setFieldsValuesBackground() {
         //get Selected jList item
         int nIndex = jList2.getSelectedIndex();
+        String cFolderId = nIndex >= 0 ? instanceData.getFolders().getItems().get(nIndex).getId() : null;
+        
+        //0 - The same folder is already loading: keep it
+        if (folderLoad != null && !folderLoad.isDone() && Objects.equals(folderLoadID, cFolderId)){
+            return;
+        }
+        
+        //0.1 - A newer selection cancels the stale load
+        if (folderLoad != null){
+            folderLoad.cancel(true);
+            folderLoad = null;
+            folderLoadID = null;
+            this.setCursor(Cursor.getDefaultCursor());
+        }
         
         if (nIndex >= 0 ) {
             
-            String cFolderId = instanceData.getFolders().getItems().get(nIndex).getId();
-
-            //1 - Request Metadata for Selected Folder
-            JellyfinFolderMetadata folderMetadadta = null;        
-            try {
-                
-                //2 - Request Folder Metadata
-                folderMetadadta = connectAPI.getFolderMetadata(cFolderId);
-
-                //2.1 - Add folder metadata atributes to main instance object
-                instanceData.getFolders().getItems().get(nIndex).setMetadata(folderMetadadta);
-
-                //3 - Request Folder Content Items 
-                JellyfinItems folderItems = new JellyfinItems();
-                folderItems = connectAPI.getItems(cFolderId);
-
-                //4 - Add Folder Content Item to main instance object
-                instanceData.getFolders().getItems().get(nIndex).setFolderContent(folderItems);
+            JellyfinFolder selectedFolder = instanceData.getFolders().getItems().get(nIndex);
+            boolean lLoadSubFolders = isLazyFolders() && !selectedFolder.isSubFoldersLoaded();
+            
+            this.setCursor(Cursor.getPredefinedCursor(Cursor.WAIT_CURSOR));
+            folderLoadID = cFolderId;
+            folderLoad = new SwingWorker<JellyfinItems, List<JellyfinItem>>() {
+                @Override
+                protected JellyfinItems doInBackground() throws Exception {
+                    
+                    //0 - Lazy mode: request the subfolders the first time the folder is selected
+                    if (lLoadSubFolders){
+                        try {
+                            List<JellyfinFolder> subFolders = connectAPI.getSubFolders(selectedFolder);
+                            SwingUtilities.invokeLater(() -> showLoadedSubFolders(this, cFolderId, subFolders));
+                        } catch (InterruptedIOException ex) {
+                            throw ex;
+                        } catch (IOException | ParseException ex) {
+                            Logger.getLogger(MainWindow.class.getName()).log(Level.WARNING, "Unable to load the subfolders of " + cFolderId, ex);
+                        }
+                    }
+                    
+                    //1 - Request Metadata for Selected Folder and show it right away
+                    JellyfinFolderMetadata folderMetadadta = connectAPI.getFolderMetadata(cFolderId);
+                    SwingUtilities.invokeLater(() -> showLoadedFolderMetadata(this, cFolderId, folderMetadadta));
+                    
+                    //2 - Request Folder Content Items, appending the rows as their metadata arrives
+                    return connectAPI.getItems(cFolderId, loadedItems -> this.publish(loadedItems));
+                }
                 
-                //5 - Refresh GUI Objects from Instance Obj
-                this.setFolderGUIFromInstObj(cFolderId);
+                @Override
+                protected void process(List<List<JellyfinItem>> chunks) {
+                    if (folderLoad != this){
+                        return;
+                    }
+                    try {
+                        for (List<JellyfinItem> loadedItems : chunks){
+                            appendFolderContentRows(loadedItems);
+                        }
+                    } catch (java.text.ParseException ex) {
+                        Logger.getLogger(MainWindow.class.getName()).log(Level.SEVERE, null, ex);
+                    }
+                }
                 
-
-            } catch (IOException | ParseException ex) {
-                Logger.getLogger(MainWindow.class.getName()).log(Level.SEVERE, null, ex);
-            }
+                @Override
+                protected void done() {
+                    if (folderLoad != this || this.isCancelled()){
+                        return;
+                    }
+                    folderLoad = null;
+                    folderLoadID = null;
+                    setCursor(Cursor.getDefaultCursor());
+                    
+                    JellyfinFolder folder = instanceData.findFolder(cFolderId);
+                    try {
+                        JellyfinItems folderItems = this.get();
+                        
+                        //3 - Add Folder Content Item to main instance object
+                        if (folder != null){
+                            folder.setFolderContent(folderItems);
+                            
+                            //3.1 - Keep the server state of the items, so only the changed ones are saved
+                            changeTracker.setBaseline(folderItems);
+                        }
+                        
+                        //4 - Refresh the content grid from Instance Obj, so each row matches its item
+                        setAllFolderContent(folderItems);
+                        
+                    } catch (InterruptedException ex) {
+                        Thread.currentThread().interrupt();
+                    } catch (ExecutionException | java.text.ParseException ex) {
+                        Logger.getLogger(MainWindow.class.getName()).log(Level.SEVERE, null, ex instanceof ExecutionException ? ex.getCause() : ex);
+                        
+                        //The rows already appended don't match the instance object: show what it has
+                        try {
+                            setAllFolderContent(folder != null && folder.getFolderContent() != null && folder.getMetadata() != null ? folder.getFolderContent() : emptyItems());
+                        } catch (java.text.ParseException ex1) {
+                            Logger.getLogger(MainWindow.class.getName()).log(Level.SEVERE, null, ex1);
+                        }
+                    }
+                }
+            };
+            folderLoad.execute();
+        }
+    }
+    
+    /**
+     * Adds the subfolders of the folder being loaded to the instance data and to the folder list, right after the folder.
+     * Runs on the EDT; nothing is done if the load was cancelled by a newer selection (the subfolders are requested again next time).
+     * 
+     * @param load The load that requested the subfolders.
+     * @param cFolderId The ID of the folder.
+     * @param subFolders The subfolders of the folder.
+     * @author Cesar Bianchi
+     * @since 1.2
+     */
+    private void showLoadedSubFolders(SwingWorker<JellyfinItems, List<JellyfinItem>> load, String cFolderId, List<JellyfinFolder> subFolders) {
+        if (folderLoad != load){
+            return;
+        }
+        
+        if (instanceData.addSubFolders(cFolderId, subFolders) > 0){
+            this.updateFolderList();
+            this.saveSnapshotInBackground();
+        }
+    }
+    
+    /**
+     * Shows the metadata of the folder being loaded, and clears the content grid until its items arrive.
+     * Runs on the EDT; nothing is done if the load was cancelled by a newer selection.
+     * 
+     * @param load The load that requested the metadata.
+     * @param cFolderId The ID of the folder.
+     * @param folderMetadata The metadata of the folder.
+     * @author Cesar Bianchi
+     * @since 1.2
+     */
+    private void showLoadedFolderMetadata(SwingWorker<JellyfinItems, List<JellyfinItem>> load, String cFolderId, JellyfinFolderMetadata folderMetadata) {
+        if (folderLoad != load){
+            return;
+        }
+        
+        //Add folder metadata atributes to main instance object
+        JellyfinFolder folder = instanceData.findFolder(cFolderId);
+        if (folder != null){
+            folder.setMetadata(folderMetadata);
         }
+        
+        try {
+            this.setFolderMetadataGUI(folderMetadata);
+            this.setAllFolderContent(emptyItems());
+        } catch (java.text.ParseException ex) {
+            Logger.getLogger(MainWindow.class.getName()).log(Level.SEVERE, null, ex);
+        }
+    }
+    
+    /**
+     * Checks whether a folder is still loading. While it loads, the GUI doesn't match the main instance object yet, so nothing can be saved.
+     * 
+     * @return true if a folder load is in flight, false otherwise.
+     * @author Cesar Bianchi
+     * @since 1.2
+     */
+    private boolean isFolderLoading() {
+        return folderLoad != null && !folderLoad.isDone();
+    }
+    
+    /**
+     * Checks whether the folders are being reloaded or synchronized with the server. While they are, the instance data is about to change,
+     * so nothing can be saved nor reloaded again.
+     * 
+     * @return true if a reload, a delta sync or a revalidation of the folder tree is in flight, false otherwise.
+     * @author Cesar Bianchi
+     * @since 1.2
+     */
+    private boolean isSyncing() {
+        return folderSync != null && !folderSync.isDone();
+    }
+    
+    /**
+     * Checks whether the changed items of a folder are being posted to the server.
+     * 
+     * @return true if a save is in flight, false otherwise.
+     * @author Cesar Bianchi
+     * @since 1.2
+     */
+    private boolean isSaving() {
+        return contentSave != null && !contentSave.isDone();
+    }
+    
+    /**
+     * Creates an empty list of items, used to clear the content grid.
+     * 
+     * @return A JellyfinItems object without items.
+     * @author Cesar Bianchi
+     * @since 1.2
+     */
+    private static JellyfinItems emptyItems() {
+        JellyfinItems items = new JellyfinItems();
+        items.setItems(new ArrayList<>());
+        return items;
     }
     
     /**
@@ -2272,14 +2634,30 @@ public class MainWindow extends javax.swing.JFrame {
      
      */
     private void setAllFolderContent(JellyfinItems folderItems) throws java.text.ParseException {
-        JellyfinItem item = new JellyfinItem();
         DefaultTableModel model = (DefaultTableModel) jTable5.getModel();
         
         //Clean Grid before load again
         model = new JellyfinUtilFunctions().eraseModel(model);
+        jTable5.setModel(model);
         
-        for (int nI = 0; nI < folderItems.getItems().size(); nI++){
-            item = folderItems.getItems().get(nI);
+        this.appendFolderContentRows(folderItems.getItems());
+    }
+    
+    /**
+     * Appends a row to the folder content table (jTable5) for each given item, and resizes the table width columns.
+     * Used to fill the table at once, or little by little while the metadata of the items is loading.
+     * 
+     * @param items The items to be appended. Each one must have its metadata.
+     * @throws ParseException If an error occurs while parsing the dates.
+     * @author Cesar Bianchi
+     * @since 1.2
+     */
+    private void appendFolderContentRows(List<JellyfinItem> items) throws java.text.ParseException {
+        JellyfinItem item = new JellyfinItem();
+        DefaultTableModel model = (DefaultTableModel) jTable5.getModel();
+        
+        for (int nI = 0; nI < items.size(); nI++){
+            item = items.get(nI);
             
             Object[] row = { item.getId(),
                                 item.getItemMetadata().getName(), 
@@ -2946,6 +3324,15 @@ public class MainWindow extends javax.swing.JFrame {
      * @since 1.0
      */
     private void saveFolder() throws java.text.ParseException {
+        if (this.isFolderLoading()){
+            JOptionPane.showMessageDialog(this, "Wait for the folder to finish loading.", "Save", JOptionPane.WARNING_MESSAGE);
+            return;
+        }
+        if (this.isSyncing()){
+            JOptionPane.showMessageDialog(this, "Wait for the reload to finish.", "Save", JOptionPane.WARNING_MESSAGE);
+            return;
+        }
+        
         if (this.checkAllMandatoryFieldsIsOk()){        
             this.setCursor(Cursor.getPredefinedCursor(Cursor.WAIT_CURSOR));
             
@@ -2974,6 +3361,7 @@ public class MainWindow extends javax.swing.JFrame {
     /**
      * This method is used to save the content after checking all mandatory fields.
      * It updates the values in the main object from GUI Objects and posts updates on the Jellyfin instance.
+     * The changed items are posted in a background task (SwingWorker), so the window stays responsive; another save or reload is refused until it finishes.
      * 
      * @param lAll A boolean that determines whether all content should be saved.
      * @throws java.text.ParseException If parsing the date fails.
@@ -2982,32 +3370,89 @@ public class MainWindow extends javax.swing.JFrame {
      */
     private void saveContent(boolean lAll) throws java.text.ParseException {
         
+        if (this.isFolderLoading()){
+            JOptionPane.showMessageDialog(this, "Wait for the folder to finish loading.", "Save", JOptionPane.WARNING_MESSAGE);
+            return;
+        }
+        if (this.isSyncing()){
+            JOptionPane.showMessageDialog(this, "Wait for the reload to finish.", "Save", JOptionPane.WARNING_MESSAGE);
+            return;
+        }
+        
+        if (this.isSaving()){
+            JOptionPane.showMessageDialog(this, "Wait for the save to finish.", "Save", JOptionPane.WARNING_MESSAGE);
+            return;
+        }
+        
         if (this.checkAllMandatoryFieldsIsOk()){ 
             int folderIndex = jList2.getSelectedIndex();
             this.setCursor(Cursor.getPredefinedCursor(Cursor.WAIT_CURSOR));
             this.setFolderItemsInstObjFromGUI(folderIndex,lAll);
 
 
-            //Post Updates on Jellyfin instance
-            try {
-
-                for (int nI = 0; nI < instanceData.getFolders().getItems().get(folderIndex).getFolderContent().getItems().size(); nI++ ){
-                    String cFolderID = instanceData.getFolders().getItems().get(jList2.getSelectedIndex()).getId();
-                    String cItemID = instanceData.getFolders().getItems().get(jList2.getSelectedIndex()).getFolderContent().getItems().get(nI).getId();
-                    
-                    /*Commented by the Issue #27
-                    //WaitingWindow waitWin = new WaitingWindow(instanceData.getCredentials().getBaseURL(),UPLOADING_DATA);
-                    //waitWin.showDialogWithTimmer();  
-                    */
-                    
-                    connectAPI.postUpdate(cFolderID, cItemID, instanceData, JUST_CONTENT_ITEM);                
+            //Post Updates on Jellyfin instance, just for the items changed since they were loaded
+            String cFolderID = instanceData.getFolders().getItems().get(folderIndex).getId();
+            JellyfinItems folderContent = instanceData.getFolders().getItems().get(folderIndex).getFolderContent();
+            ArrayList<String> dirtyItems = new ArrayList<>();
+            HashMap<String, JsonNode> postedStates = new HashMap<>();
+            for (int nI = 0; nI < folderContent.getItems().size(); nI++ ){
+                JellyfinItem item = folderContent.getItems().get(nI);
+                if (changeTracker.isDirty(item)){
+                    dirtyItems.add(item.getId());
+                    postedStates.put(item.getId(), changeTracker.getState(item));
                 }
-
-            } catch (IOException | ParseException ex) {
-                Logger.getLogger(MainWindow.class.getName()).log(Level.SEVERE, null, ex);
             }
+            int skippedItems = folderContent.getItems().size() - dirtyItems.size();
 
-            this.setCursor(Cursor.getDefaultCursor());
+            /*Commented by the Issue #27
+            //WaitingWindow waitWin = new WaitingWindow(instanceData.getCredentials().getBaseURL(),UPLOADING_DATA);
+            //waitWin.showDialogWithTimmer();  
+            */
+
+            //The request bodies are built here, on the EDT; the changed items are posted concurrently in a background task
+            SaveItemsConcurrent.PreparedItems preparedItems = connectAPI.prepareUpdates(cFolderID, dirtyItems, instanceData);
+            SwingWorker<SaveItemsResult, Void> save = new SwingWorker<SaveItemsResult, Void>() {
+                @Override
+                protected SaveItemsResult doInBackground() throws Exception {
+                    return connectAPI.postUpdates(preparedItems);
+                }
+                
+                @Override
+                protected void done() {
+                    try {
+                        SaveItemsResult result = get();
+                        
+                        //Only the saved items get a new baseline (the state that was posted), so a failed item, or an item edited during the save, stays dirty
+                        for (String cItemID : result.getSavedItems()){
+                            changeTracker.setBaseline(cItemID, postedStates.get(cItemID));
+                        }
+                        
+                        Logger.getLogger(MainWindow.class.getName()).log(Level.INFO, "{0} item(s) saved, {1} unchanged item(s) skipped", new Object[]{result.getSavedItems().size(), skippedItems});
+                        if (result.hasFailures()){
+                            Logger.getLogger(MainWindow.class.getName()).log(Level.WARNING, "{0} item(s) not saved, they will be posted again on the next save", result.getFailedCount());
+                        }
+                        
+                        //Tell the user what was saved, skipped and failed
+                        String saveMsg = result.getSavedItems().size() + " item(s) saved." + System.lineSeparator()
+                            + skippedItems + " unchanged item(s) skipped.";
+                        if (result.hasFailures()){
+                            saveMsg = saveMsg + System.lineSeparator() + result.getFailedCount() + " item(s) not saved, they will be posted again on the next save.";
+                            JOptionPane.showMessageDialog(MainWindow.this, saveMsg, "Save", JOptionPane.WARNING_MESSAGE);
+                        } else {
+                            JOptionPane.showMessageDialog(MainWindow.this, saveMsg, "Save", JOptionPane.INFORMATION_MESSAGE);
+                        }
+                    } catch (InterruptedException ex) {
+                        Thread.currentThread().interrupt();
+                    } catch (ExecutionException ex) {
+                        Logger.getLogger(MainWindow.class.getName()).log(Level.SEVERE, null, ex.getCause());
+                        JOptionPane.showMessageDialog(MainWindow.this, "The save failed: " + ex.getCause(), "Save", JOptionPane.ERROR_MESSAGE);
+                    } finally {
+                        setCursor(Cursor.getDefaultCursor());
+                    }
+                }
+            };
+            contentSave = save;
+            save.execute();
         }
     }
 
@@ -3025,13 +3470,29 @@ public class MainWindow extends javax.swing.JFrame {
         //Get metadata object from Instance Main Object
         JellyfinFolderMetadata folderMetadata = new JellyfinFolderMetadata();
         JellyfinItems folderItems = new JellyfinItems();
-        for (int nI = 0; nI < instanceData.getFolders().getItems().size(); nI++){
-            if (cFolderID.equals(instanceData.getFolders().getItems().get(nI).getId())){
-                folderMetadata = instanceData.getFolders().getItems().get(nI).getMetadata();
-                folderItems = instanceData.getFolders().getItems().get(nI).getFolderContent();
-            }
+        JellyfinFolder folder = instanceData.findFolder(cFolderID);
+        if (folder != null){
+            folderMetadata = folder.getMetadata();
+            folderItems = folder.getFolderContent();
         }
         
+        //2 - Set the metadata GUI Objects
+        this.setFolderMetadataGUI(folderMetadata);
+
+        //4.1 Set the content of "Folder Content Main Grid"
+        this.setAllFolderContent(folderItems); 
+    }
+
+    /**
+     * This method is used to set the GUI objects of the folder metadata: the header fields and the people, genres, studio and tags grids.
+     * 
+     * @param folderMetadata The metadata of the folder.
+     * @throws java.text.ParseException If parsing the date fails.
+     * @author Cesar Bianchi
+     * @since 1.2
+     */
+    private void setFolderMetadataGUI(JellyfinFolderMetadata folderMetadata) throws java.text.ParseException {
+        
         //UnSelect options "Same of Title" on right side
         jCheckBox1.setSelected(false);
         jCheckBox2.setSelected(false);
@@ -3056,9 +3517,6 @@ public class MainWindow extends javax.swing.JFrame {
 
         //2.1 - Set the content of Tags Grid
         this.setAllTagsRows(folderMetadata);
-
-        //4.1 Set the content of "Folder Content Main Grid"
-        this.setAllFolderContent(folderItems); 
     }
 
     /**
@@ -3473,7 +3931,9 @@ public class MainWindow extends javax.swing.JFrame {
     /**
      * Reloads the folder items displayed in the MainWindow.
      *
-     * This method clears the current list of folder items, then reloads them by calling the loadFolders method. If an error occurs while loading the folders, it is logged and the method exits.
+     * If the folders were already loaded, only the items changed since the last sync are requested and merged (see syncChangedItems).
+     * Otherwise, this method clears the current list of folder items, then reloads them by calling the loadFolders method. If an error occurs while loading the folders, it is logged and the method exits.
+     * Both run in a background task; while one is in flight, a new reload is refused.
      *
      * @throws IOException If an I/O error occurs. This can happen if there's a problem with the network connection, the server, or the local machine.
      * @throws ParseException If there is an error parsing the server's response. This can happen if the server's response does not match the expected format.
@@ -3482,15 +3942,88 @@ public class MainWindow extends javax.swing.JFrame {
      */
     public void reloadFolderItems(){
         //Reload Folders and Itens button        
-        try {
+        if (this.isSyncing()){
+            JOptionPane.showMessageDialog(this, "Wait for the reload to finish.", "Reload", JOptionPane.WARNING_MESSAGE);
+            return;
+        }
+        if (this.isSaving()){
+            JOptionPane.showMessageDialog(this, "Wait for the save to finish.", "Reload", JOptionPane.WARNING_MESSAGE);
+            return;
+        }
+        
+        if (instanceData.getLastSync() != null){
+            this.syncChangedItems();
+        } else {
             modelList = new DefaultListModel<>();
             this.loadFolders();
-        } catch (IOException ex) {
-            Logger.getLogger(MainWindow.class.getName()).log(Level.SEVERE, null, ex);
-        } catch (ParseException ex) {
-            Logger.getLogger(MainWindow.class.getName()).log(Level.SEVERE, null, ex);
         }
     }
+    
+    /**
+     * Refreshes the instance data with the items saved or created in the Jellyfin server since the last sync.
+     * The changes are requested in a background task (SwingWorker), so the window stays responsive, and merged on the EDT when they arrive.
+     * If a folder was added or renamed, the folder tree is revalidated in the background too. Then the selected folder is shown again and a new snapshot is saved.
+     *
+     * @since 1.2
+     * @author Cesar Bianchi
+     * @see JellyfinDeltaSync
+     */
+    private void syncChangedItems() {
+        
+        //1 - Read what the requests need from the instance data, on the EDT
+        JellyfinDeltaSync deltaSync = new JellyfinDeltaSync(connectAPI);
+        deltaSync.prepare(instanceData);
+        this.setCursor(Cursor.getPredefinedCursor(Cursor.WAIT_CURSOR));
+        
+        SwingWorker<Void, Void> sync = new SwingWorker<Void, Void>() {
+            @Override
+            protected Void doInBackground() throws Exception {
+                //2 - Request the changed items and folders
+                deltaSync.requestChanges();
+                return null;
+            }
+            
+            @Override
+            protected void done() {
+                setCursor(Cursor.getDefaultCursor());
+                try {
+                    get();
+                    
+                    //3 - Merge the changed items
+                    deltaSync.mergeChanges(instanceData);
+                    
+                    //3.1 - Only the merged items are the new server state; unsaved edits and failed saves of the others stay pending
+                    for (String cItemID : deltaSync.getMergedItemIDs()){
+                        JellyfinFolder folder = instanceData.findFolderOfItem(cItemID);
+                        if (folder != null){
+                            changeTracker.setBaseline(instanceData.findItem(folder.getId(), cItemID));
+                        }
+                    }
+                    
+                    //4 - Refresh GUI Objects of the selected folder from Instance Obj, unless it is still loading
+                    int nIndex = jList2.getSelectedIndex();
+                    if (nIndex >= 0 && !isFolderLoading() && instanceData.getFolders().getItems().get(nIndex).getMetadata() != null){
+                        setFolderGUIFromInstObj(instanceData.getFolders().getItems().get(nIndex).getId());
+                    }
+                    
+                    //5 - Revalidate the folder tree in the background, if needed; it saves the snapshot when it finishes
+                    if (deltaSync.isFolderTreeChanged()){
+                        revalidateFoldersInBackground();
+                    } else {
+                        saveSnapshotInBackground();
+                    }
+                } catch (InterruptedException ex) {
+                    Thread.currentThread().interrupt();
+                } catch (ExecutionException ex) {
+                    Logger.getLogger(MainWindow.class.getName()).log(Level.SEVERE, null, ex.getCause());
+                } catch (java.text.ParseException ex) {
+                    Logger.getLogger(MainWindow.class.getName()).log(Level.SEVERE, null, ex);
+                }
+            }
+        };
+        folderSync = sync;
+        sync.execute();
+    }
 
     /**
      * Searches for a folder item in the MainWindow.
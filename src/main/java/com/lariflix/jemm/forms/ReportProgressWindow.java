@@ -0,0 +1,127 @@
+package com.lariflix.jemm.forms;
+
+import com.lariflix.jemm.utils.JellyfinReportPhase;
+import com.lariflix.jemm.utils.JellyfinReportTypes;
+import java.awt.BorderLayout;
+import java.awt.Dialog;
+import java.awt.FlowLayout;
+import java.awt.Window;
+import java.util.concurrent.Future;
+import javax.swing.BorderFactory;
+import javax.swing.JButton;
+import javax.swing.JDialog;
+import javax.swing.JLabel;
+import javax.swing.JPanel;
+import javax.swing.JProgressBar;
+import javax.swing.WindowConstants;
+
+/**
+ * This class represents a non-modal window that shows the progress of a report while it runs in the background,
+ * with a button to cancel it. All its methods must be called on the Event Dispatch Thread.
+ *
+ * @author Cesar Bianchi
+ * @since 1.2
+ * @see com.lariflix.jemm.reports.JellyfinReportExecutor
+ */
+public class ReportProgressWindow {
+    private final JDialog dialog;
+    private final JLabel phaseLabel = new JLabel("Waiting for a free report worker...");
+    private final JButton cancelButton = new JButton("Cancel");
+    private Future<?> report = null;
+
+    /**
+     * Constructs a new ReportProgressWindow for the given report type.
+     *
+     * @param owner The window that owns the dialog (e.g. the main window).
+     * @param reportType The type of the report.
+     * @author Cesar Bianchi
+     * @since 1.2
+     */
+    public ReportProgressWindow(Window owner, JellyfinReportTypes reportType) {
+        JProgressBar progressBar = new JProgressBar();
+        progressBar.setIndeterminate(true);
+
+        cancelButton.addActionListener(evt -> this.cancelReport());
+
+        JPanel buttonPanel = new JPanel(new FlowLayout(FlowLayout.RIGHT));
+        buttonPanel.add(cancelButton);
+
+        JPanel panel = new JPanel(new BorderLayout(10, 10));
+        panel.setBorder(BorderFactory.createEmptyBorder(15, 15, 15, 15));
+        panel.add(phaseLabel, BorderLayout.NORTH);
+        panel.add(progressBar, BorderLayout.CENTER);
+        panel.add(buttonPanel, BorderLayout.SOUTH);
+
+        dialog = new JDialog(owner, "Report " + reportType + "...", Dialog.ModalityType.MODELESS);
+        dialog.setDefaultCloseOperation(WindowConstants.DO_NOTHING_ON_CLOSE);
+        dialog.setResizable(false);
+        dialog.getContentPane().add(panel);
+        dialog.setSize(450, 150);
+        dialog.setLocationRelativeTo(owner);
+    }
+
+    /**
+     * Sets the report shown by this window, to be cancelled by the Cancel button, and shows the window.
+     *
+     * @param report The Future of the report.
+     * @author Cesar Bianchi
+     * @since 1.2
+     */
+    public void showReport(Future<?> report) {
+        this.report = report;
+        dialog.setVisible(true);
+    }
+
+    /**
+     * Shows the phase the report is running.
+     *
+     * @param phase The current phase of the report.
+     * @author Cesar Bianchi
+     * @since 1.2
+     */
+    public void setPhase(JellyfinReportPhase phase) {
+        switch (phase) {
+            case CRAWL:
+                phaseLabel.setText("Reading the library from the Jellyfin server...");
+                break;
+            case FETCH_METADATA:
+                phaseLabel.setText("Reading the metadata of the items...");
+                break;
+            case AGGREGATE:
+                phaseLabel.setText("Preparing the report items...");
+                break;
+            case FILL:
+                phaseLabel.setText("Filling the report...");
+                break;
+            case RENDER:
+                phaseLabel.setText("Opening the report...");
+                break;
+        }
+    }
+
+    /**
+     * Cancels the report, interrupting it at the next phase.
+     *
+     * @author Cesar Bianchi
+     * @since 1.2
+     */
+    private void cancelReport() {
+        if (report != null){
+            cancelButton.setEnabled(false);
+            phaseLabel.setText("Cancelling...");
+            report.cancel(true);
+        }
+    }
+
+    /**
+     * Closes the window.
+     *
+     * @author Cesar Bianchi
+     * @since 1.2
+     */
+    public void close() {
+        dialog.setVisible(false);
+        dialog.dispose();
+    }
+
+}
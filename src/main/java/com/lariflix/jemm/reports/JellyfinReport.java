@@ -0,0 +1,68 @@
+package com.lariflix.jemm.reports;
+
+import com.lariflix.jemm.utils.JellyfinItemFields;
+import java.io.IOException;
+import java.net.MalformedURLException;
+import java.util.EnumSet;
+import java.util.Set;
+import net.sf.jasperreports.engine.JRException;
+import net.sf.jasperreports.engine.JasperPrint;
+import org.json.simple.parser.ParseException;
+
+/**
+ * This interface represents a report of a Jellyfin library, implemented by each report type (inventory, genres, people, tags, studios and years).
+ *
+ * A report is executed in three steps: its items are loaded from the Jellyfin server (loadReportItems), the report is filled
+ * by JasperReports (fillReport) and the filled report is shown to the user (showReport).
+ *
+ * @author Cesar Bianchi
+ * @since 1.2
+ * @see JellyfinReportEngine
+ */
+public interface JellyfinReport {
+
+    /**
+     * Gets the fields of the library items this report needs, so the library snapshot requests no more than that.
+     *
+     * @return The fields of the items. All of them, unless the report overrides it.
+     * @since 1.2
+     * @author Cesar Bianchi
+     */
+    default Set<JellyfinItemFields> getItemFields() {
+        return EnumSet.allOf(JellyfinItemFields.class);
+    }
+
+    /**
+     * Loads the items of the report from the Jellyfin server.
+     *
+     * @throws IOException If an I/O error occurs.
+     * @throws MalformedURLException If the URL of the Jellyfin server is not valid.
+     * @throws ParseException If there is an error parsing the server's response.
+     * @throws JRException If there is an error generating the report.
+     * @since 1.2
+     * @author Cesar Bianchi
+     */
+    void loadReportItems() throws IOException, MalformedURLException, ParseException, JRException;
+
+    /**
+     * Fills the report with the loaded items.
+     *
+     * @return The filled report.
+     * @throws JRException If there is an error generating the report.
+     * @throws MalformedURLException If the URL of the Jellyfin server is not valid.
+     * @throws IOException If the report template can't be read.
+     * @since 1.2
+     * @author Cesar Bianchi
+     */
+    JasperPrint fillReport() throws JRException, MalformedURLException, IOException;
+
+    /**
+     * Shows a filled report to the user. It must be called on the Event Dispatch Thread.
+     *
+     * @param paintedReport The filled report.
+     * @since 1.2
+     * @author Cesar Bianchi
+     */
+    void showReport(JasperPrint paintedReport);
+
+}
@@ -0,0 +1,255 @@
+package com.lariflix.jemm.reports;
+
+import com.lariflix.jemm.core.JellyfinLibrarySnapshot;
+import com.lariflix.jemm.core.JellyfinLibrarySnapshotLoader;
+import com.lariflix.jemm.dtos.JellyfinFolder;
+import com.lariflix.jemm.dtos.JellyfinInstanceDetails;
+import com.lariflix.jemm.dtos.JellyfinItem;
+import com.lariflix.jemm.dtos.JellyfinItemMetadata;
+import com.lariflix.jemm.utils.JellyfinReportTypes;
+import java.io.IOException;
+import java.io.Writer;
+import java.net.MalformedURLException;
+import java.util.ArrayList;
+import java.util.List;
+import net.sf.jasperreports.engine.JRException;
+import org.json.simple.parser.ParseException;
+
+/**
+ * This class exports a report to CSV, writing the rows straight to a Writer without filling a JasperPrint.
+ *
+ * The inventory reports are written while the library snapshot is read, one row per item (folder and item), so no report structure is built.
+ * The other reports are written from their aggregated items (tag, year, person, genre or studio), one row per episode of each item,
+ * or one row per item if it has no episodes (e.g. the BASIC reports of people, genres and studios).
+ * The first line is the header. The values are separated by commas and quoted when needed (RFC 4180).
+ *
+ * @author Cesar Bianchi
+ * @since 1.2
+ */
+public class JellyfinReportCsvExporter {
+
+    private static final String[] ITEM_COLUMNS = {"Item", "Type", "ProductionYear", "OfficialRating", "CommunityRating"};
+
+    private final JellyfinInstanceDetails instanceData;
+
+    /**
+     * Constructor for the JellyfinReportCsvExporter class.
+     *
+     * @param instanceData The instance data, with the credentials and the admin user of the Jellyfin server.
+     * @since 1.2
+     * @author Cesar Bianchi
+     */
+    public JellyfinReportCsvExporter(JellyfinInstanceDetails instanceData) {
+        this.instanceData = instanceData;
+    }
+
+    /**
+     * Exports a report to CSV.
+     *
+     * @param reportType The type of the report.
+     * @param out The Writer that receives the CSV lines. It is not closed.
+     * @throws IOException If an I/O error occurs, requesting the server or writing the rows.
+     * @throws MalformedURLException If the URL of the Jellyfin server is not valid.
+     * @throws ParseException If there is an error parsing the server's response.
+     * @throws JRException If there is an error loading the report items.
+     * @since 1.2
+     * @author Cesar Bianchi
+     */
+    public void export(JellyfinReportTypes reportType, Writer out) throws IOException, MalformedURLException, ParseException, JRException {
+
+        switch(reportType) {
+            case INVENTORY_BASIC:
+            case INVENTORY_FULL:
+                JellyfinReportInventory inventoryReport = new JellyfinReportInventory(instanceData, reportType);
+                this.writeInventory(JellyfinLibrarySnapshotLoader.getDefault().getSnapshot(instanceData, inventoryReport.getItemFields()), reportType == JellyfinReportTypes.INVENTORY_FULL, out);
+                break;
+            case TAGS_BASIC:
+            case TAGS_FULL:
+                JellyfinReportTags tagsReport = new JellyfinReportTags(instanceData, reportType);
+                tagsReport.loadReportItems();
+                this.writeHeader("Tag", out);
+                for (JellyfinReportTagsItem tag : tagsReport.getItems()){
+                    this.writeGroup(tag.getTagName(), tag.getTagEpisodes(), out);
+                }
+                break;
+            case YEARS_FULL:
+                JellyfinReportYears yearsReport = new JellyfinReportYears(instanceData, reportType);
+                yearsReport.loadReportItems();
+                this.writeHeader("Year", out);
+                for (JellyfinReportYearsItem year : yearsReport.getItems()){
+                    this.writeGroup(year.getYear(), year.getYearEpisodes(), out);
+                }
+                break;
+            case PEOPLE_BASIC:
+            case PEOPLE_FULL:
+                JellyfinReportPeople peopleReport = new JellyfinReportPeople(instanceData, reportType);
+                peopleReport.loadReportItems();
+                this.writeHeader("Person", out);
+                for (JellyfinReportPeopleItem person : peopleReport.getItems()){
+                    this.writeGroup(person.getName(), person.getPeopleEpisodes(), out);
+                }
+                break;
+            case GENRES_BASIC:
+            case GENRES_FULL:
+                JellyfinReportGenres genresReport = new JellyfinReportGenres(instanceData, reportType);
+                genresReport.loadReportItems();
+                this.writeHeader("Genre", out);
+                for (JellyfinReportGenresItem genre : genresReport.getItems()){
+                    this.writeGroup(genre.getName(), genre.getGenreEpisodes(), out);
+                }
+                break;
+            case STUDIOS_BASIC:
+            case STUDIOS_FULL:
+                JellyfinReportStudios studiosReport = new JellyfinReportStudios(instanceData, reportType);
+                studiosReport.loadReportItems();
+                this.writeHeader("Studio", out);
+                for (JellyfinReportStudiosItem studio : studiosReport.getItems()){
+                    this.writeGroup(studio.getName(), studio.getStudioEpisodes(), out);
+                }
+                break;
+        }
+
+        out.flush();
+    }
+
+    /**
+     * Writes the inventory of a library snapshot, one row per item, in the order of the folders (by name).
+     *
+     * @param librarySnapshot The library snapshot.
+     * @param full If true, the genres and tags of each item are written too.
+     * @param out The Writer that receives the CSV lines.
+     * @throws IOException If the rows can't be written.
+     * @since 1.2
+     * @author Cesar Bianchi
+     */
+    void writeInventory(JellyfinLibrarySnapshot librarySnapshot, boolean full, Writer out) throws IOException {
+
+        ArrayList<String> header = new ArrayList<>(List.of("Folder"));
+        header.addAll(List.of(ITEM_COLUMNS));
+        if (full){
+            header.addAll(List.of("Genres", "Tags"));
+        }
+        this.writeRow(header, out);
+
+        ArrayList<JellyfinFolder> folders = new ArrayList<>(librarySnapshot.getFolders());
+        folders.sort((o1, o2) -> o1.getName().toUpperCase().compareTo(o2.getName().toUpperCase()));
+
+        for (JellyfinFolder folder : folders){
+            for (JellyfinItem item : librarySnapshot.getFolderItems(folder.getId())){
+                ArrayList<String> row = new ArrayList<>(List.of(folder.getName()));
+                row.addAll(this.getItemValues(item));
+                if (full){
+                    JellyfinItemMetadata itemMetadata = librarySnapshot.getMetadata(item.getId());
+                    row.add(itemMetadata == null ? "" : joinValues(itemMetadata.getGenres()));
+                    row.add(itemMetadata == null ? "" : joinValues(itemMetadata.getTags()));
+                }
+                this.writeRow(row, out);
+            }
+        }
+    }
+
+    /**
+     * Joins the values of a list field of the metadata (e.g. the genres) in a single cell.
+     *
+     * @param values The values of the field, or null if the metadata has none.
+     * @return The values separated by "; ", or an empty string if there are none.
+     * @since 1.2
+     * @author Cesar Bianchi
+     */
+    private static String joinValues(List<String> values) {
+        return values == null ? "" : String.join("; ", values);
+    }
+
+    /**
+     * Writes the header of a grouped report.
+     *
+     * @param groupColumn The name of the group column (e.g. "Tag").
+     * @param out The Writer that receives the CSV lines.
+     * @throws IOException If the header can't be written.
+     * @since 1.2
+     * @author Cesar Bianchi
+     */
+    private void writeHeader(String groupColumn, Writer out) throws IOException {
+        ArrayList<String> header = new ArrayList<>(List.of(groupColumn));
+        header.addAll(List.of(ITEM_COLUMNS));
+        this.writeRow(header, out);
+    }
+
+    /**
+     * Writes the episodes of a group, or just the group if it has no episodes.
+     *
+     * @param group The name of the group (e.g. the tag).
+     * @param episodes The episodes of the group.
+     * @param out The Writer that receives the CSV lines.
+     * @throws IOException If the rows can't be written.
+     * @since 1.2
+     * @author Cesar Bianchi
+     */
+    void writeGroup(String group, List<JellyfinReportInventorySubItem> episodes, Writer out) throws IOException {
+        if (episodes.isEmpty()){
+            this.writeRow(List.of(group), out);
+            return;
+        }
+
+        for (JellyfinReportInventorySubItem episode : episodes){
+            ArrayList<String> row = new ArrayList<>(List.of(group));
+            row.addAll(this.getItemValues(episode));
+            this.writeRow(row, out);
+        }
+    }
+
+    /**
+     * Gets the values of the item columns of an item.
+     *
+     * @param item The item.
+     * @return The values of the item columns.
+     * @since 1.2
+     * @author Cesar Bianchi
+     */
+    private List<String> getItemValues(JellyfinItem item) {
+        return List.of(
+                item.getName() == null ? "" : item.getName(),
+                item.getType() == null ? "" : item.getType(),
+                Integer.toString(item.getProductionYear()),
+                item.getOfficialRating() == null ? "" : item.getOfficialRating(),
+                Integer.toString(item.getCommunityRating()));
+    }
+
+    /**
+     * Writes a CSV line.
+     *
+     * @param values The values of the line.
+     * @param out The Writer that receives the CSV line.
+     * @throws IOException If the line can't be written.
+     * @since 1.2
+     * @author Cesar Bianchi
+     */
+    private void writeRow(List<String> values, Writer out) throws IOException {
+        for (int nI = 0; nI < values.size(); nI++){
+            if (nI > 0){
+                out.write(',');
+            }
+            out.write(escape(values.get(nI)));
+        }
+        out.write("\r\n");
+    }
+
+    /**
+     * Escapes a CSV value: a value with a comma, a quote or a line break is quoted, and its quotes are doubled.
+     *
+     * @param value The value.
+     * @return The escaped value.
+     * @since 1.2
+     * @author Cesar Bianchi
+     */
+    static String escape(String value) {
+        if (value == null){
+            return "";
+        }
+        if (value.contains(",") || value.contains("\"") || value.contains("\n") || value.contains("\r")){
+            return "\"" + value.replace("\"", "\"\"") + "\"";
+        }
+        return value;
+    }
+
+}
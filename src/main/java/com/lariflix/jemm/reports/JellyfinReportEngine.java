@@ -1,23 +1,28 @@
 package com.lariflix.jemm.reports;
 
+import com.lariflix.jemm.core.JellyfinLibrarySnapshotLoader;
+import com.lariflix.jemm.utils.JellyfinReportPhase;
 import com.lariflix.jemm.utils.JellyfinReportTypes;
 import com.lariflix.jemm.dtos.JellyfinInstanceDetails;
-import java.io.IOException;
-import java.util.logging.Level;
-import java.util.logging.Logger;
-import net.sf.jasperreports.engine.JRException;
-import org.json.simple.parser.ParseException;
+import java.util.concurrent.Callable;
+import javax.swing.SwingUtilities;
+import net.sf.jasperreports.engine.JasperPrint;
 
 /**
- * The JellyfinReportEngine class extends the Thread class and is used to generate reports from a Jellyfin server.
- * This class runs in its own thread to prevent blocking the main application thread.
+ * The JellyfinReportEngine class is used to generate reports from a Jellyfin server.
+ * It is a Callable executed by JellyfinReportExecutor on a worker thread, to prevent blocking the main application thread.
+ *
+ * The report goes through the phases of JellyfinReportPhase, reported to the progress listener. Between the phases the engine
+ * checks if its thread was interrupted (e.g. the report was cancelled with Future.cancel(true)) and stops with an InterruptedException.
  *
  * @author Cesar Bianchi
+ * @see JellyfinReportExecutor
  */
-public class JellyfinReportEngine extends Thread {
+public class JellyfinReportEngine implements Callable<JasperPrint> {
     private JellyfinReportTypes reportType = null;
     private JellyfinInstanceDetails instanceData = new JellyfinInstanceDetails();
-    private boolean isDone = false;
+    private JellyfinReportProgressListener progressListener = null;
+    private boolean showReport = true;
     
     /**
      * Constructor for the JellyfinReportEngine class.
@@ -33,67 +38,119 @@ public class JellyfinReportEngine extends Thread {
     }
     
     /**
-     * The main execution method for the JellyfinReportEngine thread.
+     * Generates the report.
      *
-     * This method is called when the thread is started. It generates a report based on the report type set in the JellyfinReportEngine object. 
-     * The report is generated by calling the appropriate print method for the report type. Once the report is generated, the method sets the isDone flag to true and notifies any threads that are waiting on this object's monitor.
+     * The library snapshot is crawled (or reused while it is fresh), the report items are aggregated, the report is filled and, if showReport is true,
+     * the filled report is shown to the user on the Event Dispatch Thread.
      *
-     * @since 1.1
+     * @return The filled report.
+     * @throws InterruptedException If the report was cancelled.
+     * @throws Exception If the report can't be generated (e.g. IOException, ParseException or JRException).
+     * @since 1.2
      * @author Cesar Bianchi
      */
     @Override
-    public void run(){
-        synchronized(this){
-            
-            JellyfinReportTypes rpType = this.getReportType();
-            
-            switch(rpType) {
-                case INVENTORY_BASIC:
-                    printInventoryReport();
-                    isDone = true;
-                    break;
-                case INVENTORY_FULL:
-                    printInventoryReport();                    
-                    isDone = true;
-                    break;
-                case GENRES_BASIC:
-                    printGenresReport();                    
-                    isDone = true;
-                    break;    
-                case GENRES_FULL:
-                    printGenresReport();                    
-                    isDone = true;
-                    break;
-                case PEOPLE_BASIC:
-                    printPeopleReport();                    
-                    isDone = true;
-                    break;  
-                case PEOPLE_FULL:
-                    printPeopleReport();                    
-                    isDone = true;
-                    break;
-                case TAGS_BASIC:
-                    printTagsReport();                    
-                    isDone = true;
-                    break;  
-                case TAGS_FULL:
-                    printTagsReport();                    
-                    isDone = true;
-                    break;
-                case STUDIOS_BASIC:
-                    printStudiosReport();                    
-                    isDone = true;
-                    break;     
-                case STUDIOS_FULL:
-                    printStudiosReport();                    
-                    isDone = true;
-                    break;
-                case YEARS_FULL:
-                    printYearsReport();                    
-                    isDone = true;
-                    break;
-            }
-            notify();
+    public JasperPrint call() throws Exception {
+        JellyfinReport report = this.createReport();
+
+        //1* Crawl the library (the BASIC reports of people, genres and studios don't read the library snapshot)
+        if (this.usesLibrarySnapshot()){
+            this.startPhase(JellyfinReportPhase.CRAWL);
+            JellyfinLibrarySnapshotLoader.getDefault().getSnapshot(this.getInstanceData(), report.getItemFields(), this::startPhase);
+            this.checkCancelled();
+        }
+
+        //2* Aggregate the report items
+        this.startPhase(JellyfinReportPhase.AGGREGATE);
+        report.loadReportItems();
+        this.checkCancelled();
+
+        //3* Fill the report
+        this.startPhase(JellyfinReportPhase.FILL);
+        JasperPrint paintedReport = report.fillReport();
+        this.checkCancelled();
+
+        //4* Show the report to the user
+        if (this.isShowReport()){
+            this.startPhase(JellyfinReportPhase.RENDER);
+            SwingUtilities.invokeLater(() -> report.showReport(paintedReport));
+        }
+
+        return paintedReport;
+    }
+
+    /**
+     * Creates the report of the report type of this JellyfinReportEngine.
+     *
+     * @return A new report.
+     * @since 1.2
+     * @author Cesar Bianchi
+     */
+    JellyfinReport createReport(){
+        switch(this.getReportType()) {
+            case INVENTORY_BASIC:
+            case INVENTORY_FULL:
+                return new JellyfinReportInventory(this.getInstanceData(),this.getReportType());
+            case GENRES_BASIC:
+            case GENRES_FULL:
+                return new JellyfinReportGenres(this.getInstanceData(),this.getReportType());
+            case PEOPLE_BASIC:
+            case PEOPLE_FULL:
+                return new JellyfinReportPeople(this.getInstanceData(),this.getReportType());
+            case TAGS_BASIC:
+            case TAGS_FULL:
+                return new JellyfinReportTags(this.getInstanceData(),this.getReportType());
+            case STUDIOS_BASIC:
+            case STUDIOS_FULL:
+                return new JellyfinReportStudios(this.getInstanceData(),this.getReportType());
+            case YEARS_FULL:
+                return new JellyfinReportYears(this.getInstanceData(),this.getReportType());
+            default:
+                throw new IllegalArgumentException("Unknown report type: " + this.getReportType());
+        }
+    }
+
+    /**
+     * Checks if the report type of this JellyfinReportEngine reads the library snapshot.
+     *
+     * @return false for the BASIC reports of people, genres and studios, which only request the list of the entities; true otherwise.
+     * @since 1.2
+     * @author Cesar Bianchi
+     */
+    boolean usesLibrarySnapshot(){
+        switch(this.getReportType()) {
+            case PEOPLE_BASIC:
+            case GENRES_BASIC:
+            case STUDIOS_BASIC:
+                return false;
+            default:
+                return true;
+        }
+    }
+
+    /**
+     * Reports a new phase to the progress listener, if any.
+     *
+     * @param phase The phase that started.
+     * @since 1.2
+     * @author Cesar Bianchi
+     */
+    private void startPhase(JellyfinReportPhase phase){
+        if (this.getProgressListener() != null){
+            this.getProgressListener().phaseStarted(this.getReportType(), phase);
+        }
+    }
+
+    /**
+     * Stops the report if it was cancelled.
+     *
+     * @throws InterruptedException If the current thread was interrupted.
+     * @since 1.2
+     * @author Cesar Bianchi
+     */
+    private void checkCancelled() throws InterruptedException {
+        if (Thread.currentThread().isInterrupted()){
+            throw new InterruptedException("Report cancelled: " + this.getReportType());
         }
     }
     
@@ -142,174 +199,47 @@ public class JellyfinReportEngine extends Thread {
     }
 
     /**
-     * Checks if the report generation is done.
+     * Retrieves the progressListener property of this JellyfinReportEngine.
      *
-     * @return A boolean value indicating whether the report generation is done. Returns true if the report generation is done, false otherwise.
-     * @since 1.1
+     * @return The listener that receives the phases of the report, or null if there is none.
+     * @since 1.2
      * @author Cesar Bianchi
      */
-    public boolean isDone() {
-        return isDone;
+    public JellyfinReportProgressListener getProgressListener() {
+        return progressListener;
     }
-    
-    /**
-     * Prints an inventory report.
-     *
-     * This method creates a new JellyfinReportInventory object using the instance data and report type of this JellyfinReportEngine. 
-     * It then loads the report items and prints the report. If an error occurs while loading the report items or printing the report, it is logged and the method exits.
-     *
-     * @throws IOException If an I/O error occurs. This can happen if there's a problem with the network connection, the server, or the local machine.
-     * @throws ParseException If there is an error parsing the server's response. This can happen if the server's response does not match the expected format.
-     * @throws JRException If there is an error generating the report. This can happen if there's a problem with the report template, the data, or the JasperReports engine.
-     * @since 1.1
-     * @author Cesar Bianchi
-     */
-    private void printInventoryReport(){
 
-        JellyfinReportInventory fullReport = new JellyfinReportInventory(this.getInstanceData(),this.getReportType());
-        try {
-            fullReport.loadReportItems();
-            fullReport.printReport();
-        } catch (IOException ex) {
-            Logger.getLogger(JellyfinReportEngine.class.getName()).log(Level.SEVERE, null, ex);
-        } catch (ParseException ex) {
-            Logger.getLogger(JellyfinReportEngine.class.getName()).log(Level.SEVERE, null, ex);
-        } catch (JRException ex) {
-            Logger.getLogger(JellyfinReportEngine.class.getName()).log(Level.SEVERE, null, ex);
-        }
-    }
-    
     /**
-     * Prints a genres report.
-     *
-     * This method creates a new JellyfinReportGenres object using the instance data and report type of this JellyfinReportEngine. 
-     * It then loads the report items and prints the report. If an error occurs while loading the report items or printing the report, it is logged and the method exits.
+     * Sets the progressListener property of this JellyfinReportEngine.
      *
-     * @throws IOException If an I/O error occurs. This can happen if there's a problem with the network connection, the server, or the local machine.
-     * @throws ParseException If there is an error parsing the server's response. This can happen if the server's response does not match the expected format.
-     * @throws JRException If there is an error generating the report. This can happen if there's a problem with the report template, the data, or the JasperReports engine.
-     * @since 1.1
+     * @param progressListener The listener that receives the phases of the report. May be null.
+     * @since 1.2
      * @author Cesar Bianchi
      */
-    private void printGenresReport(){
-
-        JellyfinReportGenres fullReport = new JellyfinReportGenres(this.getInstanceData(),this.getReportType());
-        try {
-            fullReport.loadReportItems();
-            fullReport.printReport();
-        } catch (IOException ex) {
-            Logger.getLogger(JellyfinReportEngine.class.getName()).log(Level.SEVERE, null, ex);
-        } catch (ParseException ex) {
-            Logger.getLogger(JellyfinReportEngine.class.getName()).log(Level.SEVERE, null, ex);
-        } catch (JRException ex) {
-            Logger.getLogger(JellyfinReportEngine.class.getName()).log(Level.SEVERE, null, ex);
-        }
-    }
-    
-    /**
-     * Prints a people report.
-     *
-     * This method creates a new JellyfinReportPeople object using the instance data and report type of this JellyfinReportEngine. 
-     * It then loads the report items and prints the report. If an error occurs while loading the report items or printing the report, it is logged and the method exits.
-     *
-     * @throws IOException If an I/O error occurs. This can happen if there's a problem with the network connection, the server, or the local machine.
-     * @throws ParseException If there is an error parsing the server's response. This can happen if the server's response does not match the expected format.
-     * @throws JRException If there is an error generating the report. This can happen if there's a problem with the report template, the data, or the JasperReports engine.
-     * @since 1.1
-     * @author Cesar Bianchi
-     */
-    private void printPeopleReport(){
-
-        JellyfinReportPeople fullReport = new JellyfinReportPeople(this.getInstanceData(),this.getReportType());
-        try {
-            fullReport.loadReportItems();
-            fullReport.printReport();
-        } catch (IOException ex) {
-            Logger.getLogger(JellyfinReportEngine.class.getName()).log(Level.SEVERE, null, ex);
-        } catch (ParseException ex) {
-            Logger.getLogger(JellyfinReportEngine.class.getName()).log(Level.SEVERE, null, ex);
-        } catch (JRException ex) {
-            Logger.getLogger(JellyfinReportEngine.class.getName()).log(Level.SEVERE, null, ex);
-        }
-    }
-    
-    /**
-     * Prints a tags report.
-     *
-     * This method creates a new JellyfinReportTags object using the instance data and report type of this JellyfinReportEngine. 
-     * It then loads the report items and prints the report. If an error occurs while loading the report items or printing the report, it is logged and the method exits.
-     *
-     * @throws IOException If an I/O error occurs. This can happen if there's a problem with the network connection, the server, or the local machine.
-     * @throws ParseException If there is an error parsing the server's response. This can happen if the server's response does not match the expected format.
-     * @throws JRException If there is an error generating the report. This can happen if there's a problem with the report template, the data, or the JasperReports engine.
-     * @since 1.1
-     * @author Cesar Bianchi
-     */
-    private void printTagsReport(){
-
-        JellyfinReportTags fullReport = new JellyfinReportTags(this.getInstanceData(),this.getReportType());
-        try {
-            fullReport.loadReportItems();
-            fullReport.printReport();
-        } catch (IOException ex) {
-            Logger.getLogger(JellyfinReportEngine.class.getName()).log(Level.SEVERE, null, ex);
-        } catch (ParseException ex) {
-            Logger.getLogger(JellyfinReportEngine.class.getName()).log(Level.SEVERE, null, ex);
-        } catch (JRException ex) {
-            Logger.getLogger(JellyfinReportEngine.class.getName()).log(Level.SEVERE, null, ex);
-        }
+    public void setProgressListener(JellyfinReportProgressListener progressListener) {
+        this.progressListener = progressListener;
     }
 
     /**
-     * Prints a studios report.
+     * Checks if the filled report is shown to the user.
      *
-     * This method creates a new JellyfinReportStudios object using the instance data and report type of this JellyfinReportEngine. 
-     * It then loads the report items and prints the report. If an error occurs while loading the report items or printing the report, it is logged and the method exits.
-     *
-     * @throws IOException If an I/O error occurs. This can happen if there's a problem with the network connection, the server, or the local machine.
-     * @throws ParseException If there is an error parsing the server's response. This can happen if the server's response does not match the expected format.
-     * @throws JRException If there is an error generating the report. This can happen if there's a problem with the report template, the data, or the JasperReports engine.
-     * @since 1.0
+     * @return true if the filled report is shown in the report viewer (the default), false if it is only returned (e.g. to be exported).
+     * @since 1.2
      * @author Cesar Bianchi
      */
-    private void printStudiosReport() {
-        
-        JellyfinReportStudios fullReport = new JellyfinReportStudios(this.getInstanceData(),this.getReportType());
-        try {
-            fullReport.loadReportItems();
-            fullReport.printReport();
-        } catch (IOException ex) {
-            Logger.getLogger(JellyfinReportEngine.class.getName()).log(Level.SEVERE, null, ex);
-        } catch (ParseException ex) {
-            Logger.getLogger(JellyfinReportEngine.class.getName()).log(Level.SEVERE, null, ex);
-        } catch (JRException ex) {
-            Logger.getLogger(JellyfinReportEngine.class.getName()).log(Level.SEVERE, null, ex);
-        }
+    public boolean isShowReport() {
+        return showReport;
     }
 
     /**
-     * Prints a years report.
+     * Sets if the filled report is shown to the user.
      *
-     * This method creates a new JellyfinReportYears object using the instance data and report type of this JellyfinReportEngine. It then loads the report items and prints the report. If an error occurs while loading the report items or printing the report, it is logged and the method exits.
-     *
-     * @throws IOException If an I/O error occurs. This can happen if there's a problem with the network connection, the server, or the local machine.
-     * @throws ParseException If there is an error parsing the server's response. This can happen if the server's response does not match the expected format.
-     * @throws JRException If there is an error generating the report. This can happen if there's a problem with the report template, the data, or the JasperReports engine.
-     * @since 1.0
+     * @param showReport true to show the filled report in the report viewer, false to only return it.
+     * @since 1.2
      * @author Cesar Bianchi
      */
-    private void printYearsReport() {
-        JellyfinReportYears fullReport = new JellyfinReportYears(this.getInstanceData(),this.getReportType());
-        try {
-            fullReport.loadReportItems();
-            fullReport.printReport();
-        } catch (IOException ex) {
-            Logger.getLogger(JellyfinReportEngine.class.getName()).log(Level.SEVERE, null, ex);
-        } catch (ParseException ex) {
-            Logger.getLogger(JellyfinReportEngine.class.getName()).log(Level.SEVERE, null, ex);
-        } catch (JRException ex) {
-            Logger.getLogger(JellyfinReportEngine.class.getName()).log(Level.SEVERE, null, ex);
-        }
+    public void setShowReport(boolean showReport) {
+        this.showReport = showReport;
     }
     
 }
@@ -0,0 +1,188 @@
+package com.lariflix.jemm.reports;
+
+import com.lariflix.jemm.core.JellyfinLibrarySnapshot;
+import com.lariflix.jemm.core.JellyfinLibrarySnapshotLoader;
+import com.lariflix.jemm.dtos.JellyfinGenreItem;
+import com.lariflix.jemm.dtos.JellyfinInstanceDetails;
+import com.lariflix.jemm.dtos.JellyfinItem;
+import com.lariflix.jemm.dtos.JellyfinItemMetadata;
+import com.lariflix.jemm.dtos.JellyfinPeopleItem;
+import com.lariflix.jemm.dtos.JellyfinStudioItem;
+import java.io.IOException;
+import java.net.MalformedURLException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import org.json.simple.parser.ParseException;
+
+/**
+ * This class indexes all episodes of a Jellyfin library by person, genre and studio, so the FULL reports of people, genres and studios
+ * can list the episodes of each entity without requesting the episodes again for every entity.
+ *
+ * The episodes and their metadata come from the shared library snapshot (see JellyfinLibrarySnapshotLoader), so each episode is
+ * requested at most once, and the inverted indexes (entity ID to episodes) are built in a single pass over the episodes.
+ *
+ * @author Cesar Bianchi
+ * @since 1.2
+ * @see JellyfinReportPeople
+ * @see JellyfinReportGenres
+ * @see JellyfinReportStudios
+ */
+public class JellyfinReportEpisodeIndex {
+
+    private ArrayList<JellyfinItem> episodes = new ArrayList<>();
+    private HashMap<String, JellyfinItemMetadata> episodesMetadata = new HashMap<>();
+    private HashMap<String, ArrayList<JellyfinItem>> episodesByPeople = new HashMap<>();
+    private HashMap<String, ArrayList<JellyfinItem>> episodesByGenre = new HashMap<>();
+    private HashMap<String, ArrayList<JellyfinItem>> episodesByStudio = new HashMap<>();
+
+    /**
+     * Constructor for the JellyfinReportEpisodeIndex class.
+     *
+     * @since 1.2
+     * @author Cesar Bianchi
+     */
+    public JellyfinReportEpisodeIndex() {
+        // ...
+    }
+
+    /**
+     * Builds the indexes from the shared snapshot of the Jellyfin library (see JellyfinLibrarySnapshotLoader),
+     * crawling the server only if there is no fresh snapshot. An episode without metadata is left out of the indexes.
+     *
+     * @param instanceData The instance data, with the credentials and the admin user of the Jellyfin server.
+     * @throws IOException If an I/O error occurs.
+     * @throws MalformedURLException If the URL of the Jellyfin server is not valid.
+     * @throws ParseException If there is an error parsing the server's response.
+     * @since 1.2
+     * @author Cesar Bianchi
+     */
+    public void load(JellyfinInstanceDetails instanceData) throws IOException, MalformedURLException, ParseException {
+        JellyfinLibrarySnapshot snapshot = JellyfinLibrarySnapshotLoader.getDefault().getSnapshot(instanceData);
+        this.build(snapshot.getEpisodes(), snapshot.getMetadata());
+    }
+
+    /**
+     * Builds the indexes in a single pass over the episodes.
+     * An episode is indexed only once per entity, even if the entity appears more than once in its metadata (e.g. a person who is actor and director).
+     *
+     * @param allEpisodes The episodes of the library.
+     * @param metadataById The metadata of the episodes, indexed by episode ID. Episodes without metadata are left out.
+     * @since 1.2
+     * @author Cesar Bianchi
+     */
+    void build(List<JellyfinItem> allEpisodes, Map<String, JellyfinItemMetadata> metadataById) {
+        this.episodes = new ArrayList<>();
+        this.episodesMetadata = new HashMap<>();
+        this.episodesByPeople = new HashMap<>();
+        this.episodesByGenre = new HashMap<>();
+        this.episodesByStudio = new HashMap<>();
+
+        for (JellyfinItem episode : allEpisodes){
+            JellyfinItemMetadata episodeMetadata = metadataById.get(episode.getId());
+            if (episodeMetadata == null){
+                continue;
+            }
+
+            this.episodes.add(episode);
+            this.episodesMetadata.put(episode.getId(), episodeMetadata);
+
+            if (episodeMetadata.getPeople() != null){
+                for (JellyfinPeopleItem people : episodeMetadata.getPeople()){
+                    this.addToIndex(episodesByPeople, people.getId(), episode);
+                }
+            }
+            if (episodeMetadata.getGenreItems() != null){
+                for (JellyfinGenreItem genre : episodeMetadata.getGenreItems()){
+                    this.addToIndex(episodesByGenre, genre.getId(), episode);
+                }
+            }
+            if (episodeMetadata.getStudios() != null){
+                for (JellyfinStudioItem studio : episodeMetadata.getStudios()){
+                    this.addToIndex(episodesByStudio, studio.getId(), episode);
+                }
+            }
+        }
+    }
+
+    /**
+     * Adds an episode to the list of an entity, unless it is already the last one added (the same episode being indexed again).
+     *
+     * @param index The index to be updated.
+     * @param cEntityID The ID of the person, genre or studio.
+     * @param episode The episode.
+     * @since 1.2
+     * @author Cesar Bianchi
+     */
+    private void addToIndex(HashMap<String, ArrayList<JellyfinItem>> index, String cEntityID, JellyfinItem episode) {
+        if (cEntityID == null){
+            return;
+        }
+
+        ArrayList<JellyfinItem> entityEpisodes = index.computeIfAbsent(cEntityID, k -> new ArrayList<>());
+        if (entityEpisodes.isEmpty() || entityEpisodes.get(entityEpisodes.size() - 1) != episode){
+            entityEpisodes.add(episode);
+        }
+    }
+
+    /**
+     * Gets the episodes of a person.
+     *
+     * @param cPeopleID The ID of the person.
+     * @return The episodes of the person, in library order. Empty if the person has no episodes.
+     * @since 1.2
+     * @author Cesar Bianchi
+     */
+    public ArrayList<JellyfinItem> getPeopleEpisodes(String cPeopleID) {
+        return episodesByPeople.getOrDefault(cPeopleID, new ArrayList<>());
+    }
+
+    /**
+     * Gets the episodes of a genre.
+     *
+     * @param cGenreID The ID of the genre.
+     * @return The episodes of the genre, in library order. Empty if the genre has no episodes.
+     * @since 1.2
+     * @author Cesar Bianchi
+     */
+    public ArrayList<JellyfinItem> getGenreEpisodes(String cGenreID) {
+        return episodesByGenre.getOrDefault(cGenreID, new ArrayList<>());
+    }
+
+    /**
+     * Gets the episodes of a studio.
+     *
+     * @param cStudioID The ID of the studio.
+     * @return The episodes of the studio, in library order. Empty if the studio has no episodes.
+     * @since 1.2
+     * @author Cesar Bianchi
+     */
+    public ArrayList<JellyfinItem> getStudioEpisodes(String cStudioID) {
+        return episodesByStudio.getOrDefault(cStudioID, new ArrayList<>());
+    }
+
+    /**
+     * Gets the metadata of an indexed episode.
+     *
+     * @param cEpisodeID The ID of the episode.
+     * @return The metadata of the episode, or null if the episode is not indexed.
+     * @since 1.2
+     * @author Cesar Bianchi
+     */
+    public JellyfinItemMetadata getEpisodeMetadata(String cEpisodeID) {
+        return episodesMetadata.get(cEpisodeID);
+    }
+
+    /**
+     * Gets all indexed episodes.
+     *
+     * @return The indexed episodes, in library order.
+     * @since 1.2
+     * @author Cesar Bianchi
+     */
+    public ArrayList<JellyfinItem> getEpisodes() {
+        return episodes;
+    }
+
+}
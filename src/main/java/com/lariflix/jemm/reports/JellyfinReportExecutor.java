@@ -0,0 +1,145 @@
+package com.lariflix.jemm.reports;
+
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import net.sf.jasperreports.engine.JasperPrint;
+
+/**
+ * This class executes the reports (JellyfinReportEngine) on a bounded pool of worker threads, so the user interface is never blocked by a report.
+ *
+ * At most maxWorkers reports run at the same time and at most maxQueued reports wait for a worker: a report submitted beyond that is rejected
+ * with a RejectedExecutionException. Each submitted report returns a Future, which can be used to wait for the filled report or to cancel it
+ * (Future.cancel(true) interrupts the worker, and the engine stops at the next phase). The progress listener of the engine, if any,
+ * is notified when the report finishes, fails or is cancelled.
+ *
+ * @author Cesar Bianchi
+ * @since 1.2
+ * @see JellyfinReportEngine
+ * @see JellyfinReportProgressListener
+ */
+public class JellyfinReportExecutor {
+
+    /**
+     * Default number of reports executed at the same time.
+     */
+    public static final int DEFAULT_MAX_WORKERS = 2;
+
+    /**
+     * Default number of reports waiting for a worker.
+     */
+    public static final int DEFAULT_MAX_QUEUED = 8;
+
+    private static final JellyfinReportExecutor defaultExecutor = new JellyfinReportExecutor(DEFAULT_MAX_WORKERS, DEFAULT_MAX_QUEUED);
+
+    private final ThreadPoolExecutor workers;
+    private final Set<Future<JasperPrint>> pendingReports = ConcurrentHashMap.newKeySet();
+
+    /**
+     * Constructor for the JellyfinReportExecutor class.
+     *
+     * @param maxWorkers The number of reports executed at the same time. Must be greater than zero.
+     * @param maxQueued The number of reports waiting for a worker. Must be greater than zero.
+     * @throws IllegalArgumentException If maxWorkers or maxQueued is not greater than zero.
+     * @since 1.2
+     * @author Cesar Bianchi
+     */
+    public JellyfinReportExecutor(int maxWorkers, int maxQueued) {
+        if (maxWorkers <= 0 || maxQueued <= 0){
+            throw new IllegalArgumentException("maxWorkers and maxQueued must be greater than zero");
+        }
+
+        AtomicInteger threadCount = new AtomicInteger();
+        this.workers = new ThreadPoolExecutor(maxWorkers, maxWorkers, 60, TimeUnit.SECONDS, new ArrayBlockingQueue<>(maxQueued), runnable -> {
+            //Daemon threads, so a running report never keeps JEMM alive after the main window is closed
+            Thread worker = new Thread(runnable, "jemm-report-" + threadCount.incrementAndGet());
+            worker.setDaemon(true);
+            return worker;
+        });
+        this.workers.allowCoreThreadTimeOut(true);
+    }
+
+    /**
+     * Gets the executor shared by the user interface.
+     *
+     * @return The default executor.
+     * @since 1.2
+     * @author Cesar Bianchi
+     */
+    public static JellyfinReportExecutor getDefault() {
+        return defaultExecutor;
+    }
+
+    /**
+     * Submits a report to be executed by a worker.
+     *
+     * @param engine The report to be executed.
+     * @return The Future of the filled report.
+     * @throws RejectedExecutionException If there are already maxQueued reports waiting for a worker, or the executor was shut down.
+     * @since 1.2
+     * @author Cesar Bianchi
+     */
+    public Future<JasperPrint> submit(JellyfinReportEngine engine) {
+        FutureTask<JasperPrint> report = new FutureTask<>(engine) {
+            @Override
+            protected void done() {
+                pendingReports.remove(this);
+                if (engine.getProgressListener() != null){
+                    engine.getProgressListener().reportFinished(engine.getReportType(), this);
+                }
+            }
+        };
+
+        pendingReports.add(report);
+        try {
+            workers.execute(report);
+        } catch (RejectedExecutionException ex) {
+            pendingReports.remove(report);
+            throw ex;
+        }
+        return report;
+    }
+
+    /**
+     * Gets the number of reports running or waiting for a worker.
+     *
+     * @return The number of pending reports.
+     * @since 1.2
+     * @author Cesar Bianchi
+     */
+    public int getPendingCount() {
+        return pendingReports.size();
+    }
+
+    /**
+     * Cancels all reports waiting for a worker and interrupts the running ones. The executor still accepts new reports.
+     *
+     * @since 1.2
+     * @author Cesar Bianchi
+     */
+    public void cancelAll() {
+        for (Future<JasperPrint> report : pendingReports){
+            report.cancel(true);
+        }
+        //The cancelled reports waiting for a worker are dropped from the queue
+        workers.purge();
+    }
+
+    /**
+     * Cancels all reports and stops the workers. The executor doesn't accept new reports anymore.
+     *
+     * @since 1.2
+     * @author Cesar Bianchi
+     */
+    public void shutdown() {
+        this.cancelAll();
+        workers.shutdownNow();
+    }
+
+}
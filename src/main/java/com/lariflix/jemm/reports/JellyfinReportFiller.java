@@ -0,0 +1,267 @@
+package com.lariflix.jemm.reports;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.ToIntFunction;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import net.sf.jasperreports.engine.JRDataSource;
+import net.sf.jasperreports.engine.JRException;
+import net.sf.jasperreports.engine.JRParameter;
+import net.sf.jasperreports.engine.JRPrintElement;
+import net.sf.jasperreports.engine.JRPrintPage;
+import net.sf.jasperreports.engine.JRPrintText;
+import net.sf.jasperreports.engine.JasperFillManager;
+import net.sf.jasperreports.engine.JasperPrint;
+import net.sf.jasperreports.engine.JasperReport;
+import net.sf.jasperreports.engine.data.JRBeanCollectionDataSource;
+import net.sf.jasperreports.engine.fill.JRSwapFileVirtualizer;
+import net.sf.jasperreports.engine.util.JRSwapFile;
+
+/**
+ * This class fills the reports, in low-memory mode for huge libraries.
+ *
+ * In low-memory mode the pages of the filled report are swapped to a temporary file by a JRSwapFileVirtualizer,
+ * so only the last MAX_PAGES_IN_MEMORY pages are kept in the heap, during the fill and while the report is shown.
+ * The swap file is deleted when the filled report is garbage collected or when JEMM exits.
+ *
+ * The low-memory mode is used for reports with at least LOW_MEMORY_THRESHOLD rows of content (e.g. episodes).
+ * It can be forced on or off with the system property jemm.report.lowMemory (true or false).
+ *
+ * The FULL reports can be filled in shards: the rows are split into contiguous shards, each shard is filled on its own worker
+ * and the pages are merged, in order, into the first filled report. The templates print their summary only for the last shard
+ * (parameter SHARD_LAST) and the page numbers (elements with key "pageNumber") are renumbered after the merge.
+ * The number of shards is the number of processors, or the system property jemm.report.shards (1 turns the sharding off).
+ *
+ * @author Cesar Bianchi
+ * @since 1.2
+ * @see JellyfinReportStreamingDataSource
+ */
+public class JellyfinReportFiller {
+
+    /**
+     * Number of rows of content from which the reports are filled in low-memory mode.
+     */
+    public static final int LOW_MEMORY_THRESHOLD = 20000;
+
+    /**
+     * System property that forces the low-memory mode on (true) or off (false).
+     */
+    public static final String LOW_MEMORY_PROPERTY = "jemm.report.lowMemory";
+
+    /**
+     * Number of pages of a filled report kept in memory in low-memory mode.
+     */
+    static final int MAX_PAGES_IN_MEMORY = 50;
+
+    /**
+     * System property that sets the number of shards of the FULL reports.
+     */
+    public static final String SHARDS_PROPERTY = "jemm.report.shards";
+
+    /**
+     * Parameter of the templates that is false for all shards but the last one.
+     */
+    public static final String SHARD_LAST_PARAMETER = "SHARD_LAST";
+
+    /**
+     * Key of the page number elements of the templates, renumbered after the shards are merged.
+     */
+    static final String PAGE_NUMBER_KEY = "pageNumber";
+
+    /**
+     * Minimum number of rows of content (e.g. episodes) of a shard: smaller reports are not worth the merge.
+     */
+    static final int MIN_SHARD_ROWS = 500;
+
+    private static final int SWAP_BLOCK_SIZE = 4096;
+    private static final int SWAP_MIN_GROW_COUNT = 256;
+
+    private JellyfinReportFiller() {
+        // ...
+    }
+
+    /**
+     * Checks if a report with the given number of rows of content must be filled in low-memory mode.
+     *
+     * @param totalRows The number of rows of content of the report (e.g. episodes).
+     * @return true if the report must be filled in low-memory mode.
+     * @since 1.2
+     * @author Cesar Bianchi
+     */
+    public static boolean isLowMemory(int totalRows) {
+        String lowMemory = System.getProperty(LOW_MEMORY_PROPERTY);
+        if (lowMemory != null && !lowMemory.isBlank()){
+            return Boolean.parseBoolean(lowMemory.trim());
+        }
+        return totalRows >= LOW_MEMORY_THRESHOLD;
+    }
+
+    /**
+     * Fills a report.
+     *
+     * @param report The compiled report.
+     * @param reportParameters The parameters of the report.
+     * @param dataSource The rows of the report.
+     * @param lowMemory If true, the pages of the filled report are swapped to a temporary file.
+     * @return The filled report.
+     * @throws JRException If there is an error filling the report.
+     * @since 1.2
+     * @author Cesar Bianchi
+     */
+    public static JasperPrint fill(JasperReport report, Map<String, Object> reportParameters, JRDataSource dataSource, boolean lowMemory) throws JRException {
+
+        if (!lowMemory){
+            return JasperFillManager.fillReport(report, reportParameters, dataSource);
+        }
+
+        JRSwapFileVirtualizer virtualizer = new JRSwapFileVirtualizer(MAX_PAGES_IN_MEMORY, new JRSwapFile(System.getProperty("java.io.tmpdir"), SWAP_BLOCK_SIZE, SWAP_MIN_GROW_COUNT), true);
+        reportParameters.put(JRParameter.REPORT_VIRTUALIZER, virtualizer);
+
+        try {
+            JasperPrint paintedReport = JasperFillManager.fillReport(report, reportParameters, dataSource);
+
+            //The filled pages are only read from now on (viewer or export)
+            virtualizer.setReadOnly(true);
+            return paintedReport;
+        } catch (JRException | RuntimeException ex) {
+            virtualizer.cleanup();
+            throw ex;
+        }
+    }
+
+    /**
+     * Gets the number of shards of the FULL reports.
+     *
+     * @return The system property jemm.report.shards, or the number of processors.
+     * @since 1.2
+     * @author Cesar Bianchi
+     */
+    public static int getShardCount() {
+        String shards = System.getProperty(SHARDS_PROPERTY);
+        if (shards != null && !shards.isBlank()){
+            try {
+                return Math.max(1, Integer.parseInt(shards.trim()));
+            } catch (NumberFormatException ex) {
+                Logger.getLogger(JellyfinReportFiller.class.getName()).log(Level.WARNING, "Invalid " + SHARDS_PROPERTY + ": " + shards, ex);
+            }
+        }
+        return Runtime.getRuntime().availableProcessors();
+    }
+
+    /**
+     * Splits the rows of a report into contiguous shards with about the same number of rows of content.
+     *
+     * @param <T> The type of the rows.
+     * @param rows The rows of the report, in the order of the report.
+     * @param rowWeight Gets the number of rows of content of a row (e.g. the episodes of a tag).
+     * @param shardCount The maximum number of shards.
+     * @return The shards, in the order of the report. A shard has at least MIN_SHARD_ROWS rows of content, except if there is only one shard.
+     * @since 1.2
+     * @author Cesar Bianchi
+     */
+    public static <T> List<List<T>> shard(List<T> rows, ToIntFunction<T> rowWeight, int shardCount) {
+        long totalWeight = 0;
+        for (T row : rows){
+            totalWeight += Math.max(1, rowWeight.applyAsInt(row));
+        }
+
+        int shards = (int) Math.max(1, Math.min(shardCount, totalWeight / MIN_SHARD_ROWS));
+        ArrayList<List<T>> result = new ArrayList<>();
+        int shardStart = 0;
+        long weight = 0;
+        for (int nI = 0; nI < rows.size(); nI++){
+            weight += Math.max(1, rowWeight.applyAsInt(rows.get(nI)));
+
+            //Cut the shard when it reaches its share of the total weight
+            if (result.size() < shards - 1 && weight * shards >= totalWeight * (result.size() + 1)){
+                result.add(rows.subList(shardStart, nI + 1));
+                shardStart = nI + 1;
+            }
+        }
+        if (shardStart < rows.size() || result.isEmpty()){
+            result.add(rows.subList(shardStart, rows.size()));
+        }
+
+        return result;
+    }
+
+    /**
+     * Fills a report in shards, each one on its own worker, and merges the pages into one report.
+     * The report must declare the parameter SHARD_LAST. With one shard the report is filled as by fill().
+     *
+     * @param report The compiled report.
+     * @param reportParameters The parameters of the report. Each shard receives a copy.
+     * @param shards The rows of the report, split into shards (see shard()).
+     * @return The filled report, with the pages of all shards.
+     * @throws JRException If there is an error filling a shard, or the fill is interrupted.
+     * @since 1.2
+     * @author Cesar Bianchi
+     */
+    public static JasperPrint fillSharded(JasperReport report, Map<String, Object> reportParameters, List<? extends List<?>> shards) throws JRException {
+
+        if (shards.size() <= 1){
+            return fill(report, reportParameters, new JRBeanCollectionDataSource(shards.isEmpty() ? List.of() : shards.get(0)), false);
+        }
+
+        ExecutorService workers = Executors.newFixedThreadPool(Math.min(shards.size(), Runtime.getRuntime().availableProcessors()));
+        try {
+            //1* Fill each shard on its own worker
+            ArrayList<Future<JasperPrint>> filledShards = new ArrayList<>();
+            for (int nI = 0; nI < shards.size(); nI++){
+                HashMap<String, Object> shardParameters = new HashMap<>(reportParameters);
+                shardParameters.put(SHARD_LAST_PARAMETER, nI == shards.size() - 1);
+                JRBeanCollectionDataSource shardDataSource = new JRBeanCollectionDataSource(shards.get(nI));
+                filledShards.add(workers.submit(() -> JasperFillManager.fillReport(report, shardParameters, shardDataSource)));
+            }
+
+            //2* Merge the pages, in the order of the shards
+            JasperPrint paintedReport = filledShards.get(0).get();
+            for (int nI = 1; nI < filledShards.size(); nI++){
+                for (JRPrintPage page : filledShards.get(nI).get().getPages()){
+                    paintedReport.addPage(page);
+                }
+            }
+
+            //3* Each shard numbered its pages from 1
+            renumberPages(paintedReport);
+            return paintedReport;
+
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new JRException("Report fill interrupted", ex);
+        } catch (ExecutionException ex) {
+            if (ex.getCause() instanceof JRException){
+                throw (JRException) ex.getCause();
+            }
+            throw new JRException(ex.getCause());
+        } finally {
+            workers.shutdownNow();
+        }
+    }
+
+    /**
+     * Renumbers the page number elements (key "pageNumber") of a report, from 1 to the number of pages.
+     *
+     * @param paintedReport The filled report.
+     * @since 1.2
+     * @author Cesar Bianchi
+     */
+    static void renumberPages(JasperPrint paintedReport) {
+        List<JRPrintPage> pages = paintedReport.getPages();
+        for (int nI = 0; nI < pages.size(); nI++){
+            for (JRPrintElement element : pages.get(nI).getElements()){
+                if (element instanceof JRPrintText && PAGE_NUMBER_KEY.equals(element.getKey())){
+                    ((JRPrintText) element).setText(Integer.toString(nI + 1));
+                }
+            }
+        }
+    }
+
+}
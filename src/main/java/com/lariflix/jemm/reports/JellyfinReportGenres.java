@@ -1,35 +1,22 @@
 package com.lariflix.jemm.reports;
 
 import com.lariflix.jemm.utils.JellyfinReportTypes;
-import com.lariflix.jemm.core.LoadFolders;
 import com.lariflix.jemm.core.LoadGenres;
-import com.lariflix.jemm.core.LoadItemMetadata;
-import com.lariflix.jemm.core.LoadItems;
+import com.lariflix.jemm.core.LoadItemMetadataConcurrent;
 import com.lariflix.jemm.dtos.JellyfinCadGenresItems;
-import com.lariflix.jemm.dtos.JellyfinFolders;
 import com.lariflix.jemm.dtos.JellyfinInstanceDetails;
 import com.lariflix.jemm.dtos.JellyfinItem;
 import com.lariflix.jemm.dtos.JellyfinItemMetadata;
-import com.lariflix.jemm.dtos.JellyfinItems;
-import com.lariflix.jemm.utils.JellyfimParameters;
-import com.lariflix.jemm.utils.JellyfinUtilFunctions;
 import com.lariflix.jemm.utils.JemmVersion;
 import java.io.IOException;
-import java.io.InputStream;
 import java.net.MalformedURLException;
 import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.Map;
-import java.util.logging.Level;
-import java.util.logging.Logger;
 import net.sf.jasperreports.engine.JRException;
-import net.sf.jasperreports.engine.JasperCompileManager;
-import net.sf.jasperreports.engine.JasperFillManager;
 import net.sf.jasperreports.engine.JasperPrint;
 import net.sf.jasperreports.engine.JasperReport;
 import net.sf.jasperreports.engine.data.JRBeanCollectionDataSource;
-import net.sf.jasperreports.engine.design.JasperDesign;
-import net.sf.jasperreports.engine.xml.JRXmlLoader;
 import net.sf.jasperreports.view.JasperViewer;
 import org.json.simple.parser.ParseException;
 
@@ -41,9 +28,9 @@ import org.json.simple.parser.ParseException;
  *
  * @author Cesar Bianchi
  */
-public class JellyfinReportGenres {
+public class JellyfinReportGenres implements JellyfinReport {
     
-    static JellyfinInstanceDetails instanceData = new JellyfinInstanceDetails();    
+    private JellyfinInstanceDetails instanceData = new JellyfinInstanceDetails();
     private JellyfinReportGenresStructure items = new JellyfinReportGenresStructure();
     private ArrayList<JellyfinItem> nonOrdenedEpisodes = new ArrayList();
     private int totalsubItems = 0;
@@ -69,7 +56,7 @@ public class JellyfinReportGenres {
      * @author Cesar Bianchi
      */
     public JellyfinReportGenres(JellyfinInstanceDetails instanceData, JellyfinReportTypes rpType) {
-        JellyfinReportGenres.instanceData = instanceData;
+        this.instanceData = instanceData;
         this.reportType = rpType;
     }
     
@@ -87,6 +74,7 @@ public class JellyfinReportGenres {
      * @since 1.1
      * @author Cesar Bianchi
      */
+    @Override
     public void loadReportItems() throws IOException, MalformedURLException, ParseException, JRException{
         
         switch(reportType) {
@@ -122,18 +110,24 @@ public class JellyfinReportGenres {
         JellyfinCadGenresItems genres = loadGenres.requestGenres();
         
         
-        for(int nI = 0; nI < genres.getTotalRecordCount();nI++){            
+        //Request the metadata of all genre items concurrently (see LoadItemMetadataConcurrent), in the order of the list
+        ArrayList<String> itemIDs = new ArrayList<>();
+        for(int nI = 0; nI < genres.getTotalRecordCount();nI++){
+            itemIDs.add(genres.getItems().get(nI).getId());
+        }
+        LoadItemMetadataConcurrent loadGenreItemMetadata = new LoadItemMetadataConcurrent(instanceData.getCredentials().getBaseURL(), instanceData.getCredentials().getTokenAPI(), instanceData.getAdminUser().getId());
+        ArrayList<JellyfinItemMetadata> genreItemMetadata = loadGenreItemMetadata.requestItemsMetadata(itemIDs);
+        
+        //As before, the report fails if the metadata of any item could not be loaded
+        if (loadGenreItemMetadata.hasFailures()){
+            Exception firstFailure = loadGenreItemMetadata.getFailures().values().iterator().next();
+            throw new IOException(loadGenreItemMetadata.getFailures().size() + " genre item(s) without metadata", firstFailure);
+        }
+        
+        for(int nI = 0; nI < itemIDs.size();nI++){            
             JellyfinReportGenresItem item = new JellyfinReportGenresItem();
             item.setItem( genres.getItems().get(nI) );
-            
-            /*Get Genre Item Metadata*/
-            LoadItemMetadata loadGenreItemMetadata = new LoadItemMetadata();
-            loadGenreItemMetadata.setJellyfinInstanceUrl(instanceData.getCredentials().getBaseURL());
-            loadGenreItemMetadata.setApiToken(instanceData.getCredentials().getTokenAPI());
-            loadGenreItemMetadata.setcUserAdminID(instanceData.getAdminUser().getId());
-            loadGenreItemMetadata.setcItemID(item.getId());                
-            JellyfinItemMetadata genreItemMetadata = loadGenreItemMetadata.requestItemMetadata();            
-            item.setGenreMetadata(genreItemMetadata);
+            item.setGenreMetadata(genreItemMetadata.get(nI));
             
             items.add(item);
         }
@@ -142,69 +136,28 @@ public class JellyfinReportGenres {
     }
     
     /**
-     * Loads the sub-items for each genre.
+     * Loads the episodes of each genre.
      *
-     * This method loads the sub-items for each genre from the Jellyfin server. 
-     * It first gets all folders from the server, then gets all items for each folder. For each item, it gets the metadata and checks 
-     * if the genre of the item is the same as the genre of the genre-item. If it is, it adds the item to the genre-item's list of episodes.
+     * This method loads all episodes of the library and their metadata only once (see JellyfinReportEpisodeIndex), indexed by genre,
+     * and then adds to each genre-item the episodes found in the index. Each episode is requested once, whatever the number of genres.
      *
-     * @throws IOException If an I/O error occurs. This can happen if there's a problem with the network connection, the server, or the local machine.
-     * @throws ParseException If there is an error parsing the server's response. This can happen if the server's response does not match the expected format.
+     * @throws IOException If there is a problem with the input or output.
+     * @throws ParseException If there is a problem with parsing the data.
      * @since 1.1
      * @author Cesar Bianchi
      */
-    private void loadSubItems() {
+    private void loadSubItems() throws IOException, ParseException {
         
-        //1* Get All Folders
-        LoadFolders loadItems = new LoadFolders(JellyfimParameters.FOLDERS_AND_SUBFOLDERS);
-        loadItems.setJellyfinInstanceUrl(instanceData.getCredentials().getBaseURL());
-        loadItems.setApiToken(instanceData.getCredentials().getTokenAPI());
-        loadItems.setcUserAdminID(instanceData.adminUser.getId());        
-        JellyfinFolders folders;
-        try {
-            folders = loadItems.requestFolders();
-            
-            //2* Get All Itens for each folder
-            LoadItems loadSubItems = new LoadItems(JellyfimParameters.JUST_ITEMS);
-            loadSubItems.setJellyfinInstanceUrl(instanceData.getCredentials().getBaseURL());
-            loadSubItems.setApiToken(instanceData.getCredentials().getTokenAPI());
-            loadSubItems.setcUserAdminID(instanceData.adminUser.getId());        
-            
-            for (int nI = 0; nI< folders.getItems().size(); nI++){            
-                loadSubItems.setcParentID(folders.getItems().get(nI).getId());                            
-                JellyfinItems subItems = loadSubItems.requestItems();                
-                
-                for (int nJ = 0; nJ < subItems.getItems().size(); nJ++){                    
-                    nonOrdenedEpisodes.add(subItems.getItems().get(nJ));
-                }
-            }
-            
-            //3* For each episode, Get the metadata and check if the genre episode is the same of genres-item
-            LoadItemMetadata loadEpisodeMetadata = new LoadItemMetadata();
-            loadEpisodeMetadata.setJellyfinInstanceUrl(instanceData.getCredentials().getBaseURL());
-            loadEpisodeMetadata.setApiToken(instanceData.getCredentials().getTokenAPI());
-            loadEpisodeMetadata.setcUserAdminID(instanceData.getAdminUser().getId());
-            for (int nI = 0; nI < this.items.size(); nI++){
-            
-                //for (int nJ = 0; nJ < 10; nJ++){
-                for (int nJ = 0; nJ < nonOrdenedEpisodes.size(); nJ++){
-                    
-                    loadEpisodeMetadata.setcItemID(nonOrdenedEpisodes.get(nJ).getId());                
-                    JellyfinItemMetadata genreItemMetadata = loadEpisodeMetadata.requestItemMetadata();                            
-                    for (int nK = 0; nK < genreItemMetadata.getGenreItems().size(); nK++){
-                    
-                        if (genreItemMetadata.getGenreItems().get(nK).getId().equals(this.getItems().get(nI).getId())){
-                            
-                            this.items.get(nI).addGenreEpisode(nonOrdenedEpisodes.get(nJ),genreItemMetadata);
-                        }                        
-                    }
-                }
+        //1* Get All Episodes and their metadata, indexed by genre
+        JellyfinReportEpisodeIndex episodeIndex = new JellyfinReportEpisodeIndex();
+        episodeIndex.load(instanceData);
+        nonOrdenedEpisodes = episodeIndex.getEpisodes();
+        
+        //2* Fill each genre-item with its episodes from the index
+        for (int nI = 0; nI < this.items.size(); nI++){
+            for (JellyfinItem episode : episodeIndex.getGenreEpisodes(this.items.get(nI).getId())){
+                this.items.get(nI).addGenreEpisode(episode, episodeIndex.getEpisodeMetadata(episode.getId()));
             }
-            
-        } catch (IOException ex) {
-            Logger.getLogger(JellyfinReportGenres.class.getName()).log(Level.SEVERE, null, ex);
-        } catch (ParseException ex) {
-            Logger.getLogger(JellyfinReportGenres.class.getName()).log(Level.SEVERE, null, ex);
         }
         
     }
@@ -223,70 +176,37 @@ public class JellyfinReportGenres {
      * @author Cesar Bianchi
      */
     public void printReport() throws JRException, MalformedURLException, IOException {
-        String localReportBasePath = new JellyfinUtilFunctions().getJRXMLLocalPath();
-        String resorceReportBasePath =  new  JellyfinUtilFunctions().getJRXMLResourcePath();
-        
-        String jrxmlFile = new String();
-        JasperDesign draw = null;
+        this.showReport(this.fillReport());
+    }
+    
+    /**
+     * Fills the genres report with the loaded items, using the compiled template of the report type.
+     *
+     * @return The filled report.
+     * @throws JRException If there is a problem with generating the report.
+     * @throws MalformedURLException If the URL of the Jellyfin instance is not formatted correctly.
+     * @throws IOException If the report template can't be read.
+     * @since 1.2
+     * @author Cesar Bianchi
+     */
+    @Override
+    public JasperPrint fillReport() throws JRException, MalformedURLException, IOException {
+        JellyfinReportTemplateCache templateCache = JellyfinReportTemplateCache.getDefault();
         JasperReport report = null;
+        String subReportFile = new String();
         
-        String jrxmlSubRepFile = new String();
-        JasperReport subreport = null;
-        JasperDesign drawSub = null;
-        JellyfinUtilFunctions commonFunctions = new JellyfinUtilFunctions();
-        String tempFilesPath = System.getProperty("java.io.tmpdir");
-        
+        //The templates are compiled only once (see JellyfinReportTemplateCache)
         switch(reportType) {
             case GENRES_BASIC:
-                
-                if(instanceData.isDebug()){                    
-                    //DEBUG WAY
-                    System.out.println("This Application is running on Netbeans, in DEBUG MODE");                    
-                    jrxmlFile = localReportBasePath.concat("/InstanceGenresBasic/JemmInstanceGenresBasic.jrxml");       
-                    draw = JRXmlLoader.load( jrxmlFile );
-                    report =  JasperCompileManager.compileReport( draw );
-                } else {
-                    //EMBEBED WAY
-                    jrxmlFile = resorceReportBasePath.concat("/InstanceGenresBasic/JemmInstanceGenresBasic.jrxml");
-                    InputStream drawIS = getClass().getResourceAsStream(jrxmlFile);
-                    report =  JasperCompileManager.compileReport( drawIS );
-                }
+                report = templateCache.getReport("/InstanceGenresBasic/JemmInstanceGenresBasic.jrxml", instanceData.isDebug());
                 break;
             
             case GENRES_FULL:
-            
-                if(instanceData.isDebug() ){                    
-                    //DEBUG WAY
-                    System.out.println("This Application is running on Netbeans, in DEBUG MODE");   
-                    jrxmlFile = localReportBasePath.concat("/InstanceGenresFull/JemmInstanceGenresFull.jrxml");       
-                    draw = JRXmlLoader.load( jrxmlFile );
-                    report =  JasperCompileManager.compileReport( draw );
-                    
-                    
-                    jrxmlSubRepFile = localReportBasePath.concat("/InstanceGenresFull/JemmInstanceGenresFullSubItems.jrxml");       
-                    drawSub = JRXmlLoader.load( jrxmlFile );
-                    subreport = JasperCompileManager.compileReport( drawSub );
-                    
-                    //Use a localfile subreport
-                    JasperCompileManager.compileReportToFile(jrxmlSubRepFile,tempFilesPath.concat("JemmInstanceGenresFullSubItems.jasper"));
-                } else {
-                    //EMBEBED WAY
-                    jrxmlFile = resorceReportBasePath.concat("/InstanceGenresFull/JemmInstanceGenresFull.jrxml");
-                    InputStream drawIS = getClass().getResourceAsStream(jrxmlFile);
-                    report =  JasperCompileManager.compileReport( drawIS );
-                    
-                    //Extract subreport from resource to a localfile                    
-                    jrxmlSubRepFile =  resorceReportBasePath.concat("/InstanceGenresFull/JemmInstanceGenresFullSubItems.jrxml");                    
-                    if (commonFunctions.extractFileFromJar(jrxmlSubRepFile, "JemmInstanceGenresFullSubItems.jrxml") ){
-                        JasperCompileManager.compileReportToFile(tempFilesPath.concat("JemmInstanceGenresFullSubItems.jrxml"),tempFilesPath.concat("JemmInstanceGenresFullSubItems.jasper"));                    
-                    }
-                }
-                
-                                
+                report = templateCache.getReport("/InstanceGenresFull/JemmInstanceGenresFull.jrxml", instanceData.isDebug());
+                subReportFile = templateCache.getCompiledFile("/InstanceGenresFull/JemmInstanceGenresFullSubItems.jrxml", instanceData.isDebug());
                 break;
-                
-        }       
-
+        }
+        
         //Set report Data Source
         JRBeanCollectionDataSource dataSource = new JRBeanCollectionDataSource(this.getItems());
 
@@ -296,16 +216,33 @@ public class JellyfinReportGenres {
         reportParameters.put("JEMM_VERSION",new JemmVersion().getVersion() );
         reportParameters.put("TOTAL_FOLDERITEMS",Integer.toString(this.items.size()));
         reportParameters.put("TOTAL_CONTENT",Integer.toString(this.totalsubItems));
-        reportParameters.put("SUBREPORT_JASPER_FILE",tempFilesPath.concat("JemmInstanceGenresFullSubItems.jasper"));
+        reportParameters.put("SUBREPORT_JASPER_FILE",subReportFile);
         
-        //Paint Report
-        JasperPrint paintedReport = JasperFillManager.fillReport( report , reportParameters,  dataSource);
+        //Paint Report: the FULL report is filled in shards, on parallel workers (see JellyfinReportFiller)
+        JasperPrint paintedReport = null;
+        boolean lowMemory = JellyfinReportFiller.isLowMemory(this.nonOrdenedEpisodes.size());
+        if (reportType == JellyfinReportTypes.GENRES_FULL && !lowMemory){
+            paintedReport = JellyfinReportFiller.fillSharded( report , reportParameters, JellyfinReportFiller.shard(this.getItems(), item -> item.getGenreEpisodes().size(), JellyfinReportFiller.getShardCount()));
+        } else {
+            paintedReport = JellyfinReportFiller.fill( report , reportParameters,  dataSource, lowMemory);
+        }
         
+        return paintedReport;
+    }
+    
+    /**
+     * Shows the filled genres report in a new JasperViewer. It must be called on the Event Dispatch Thread.
+     *
+     * @param paintedReport The filled report.
+     * @since 1.2
+     * @author Cesar Bianchi
+     */
+    @Override
+    public void showReport(JasperPrint paintedReport) {
         //Show Report
         JasperViewer viewer = new JasperViewer( paintedReport , false );
         viewer.setTitle("Jellyfin Easy Metadata Manager - Genres Report");
         viewer.show();
-       
     }
 
     /**
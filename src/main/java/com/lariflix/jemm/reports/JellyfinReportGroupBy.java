@@ -0,0 +1,115 @@
+package com.lariflix.jemm.reports;
+
+import com.lariflix.jemm.dtos.JellyfinItem;
+import com.lariflix.jemm.dtos.JellyfinItemMetadata;
+import java.util.AbstractMap.SimpleEntry;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * This class groups the episodes of a library by a key of their metadata (e.g. tag or production year), for the reports that list the episodes by key.
+ *
+ * The groups are indexed by a HashMap, so each episode is added to its group in constant time, whatever the number of groups.
+ * Libraries with at least PARALLEL_THRESHOLD episodes are grouped by a parallel stream. Both ways give the same groups,
+ * with the episodes in the order of the library. The groups are not sorted: the report sorts them once, at the end.
+ *
+ * @author Cesar Bianchi
+ * @since 1.2
+ */
+class JellyfinReportGroupBy {
+
+    /**
+     * Number of episodes from which the episodes are grouped in parallel.
+     */
+    static final int PARALLEL_THRESHOLD = 10000;
+
+    private JellyfinReportGroupBy() {
+        // ...
+    }
+
+    /**
+     * Groups the episodes by the keys of their metadata, in parallel for large libraries.
+     *
+     * @param episodes The episodes of the library.
+     * @param metadata The metadata of the episodes, indexed by ID. An episode without metadata is left out of the groups.
+     * @param keysOf Gets the keys of an episode from its metadata. The episode is added to the group of each of its keys.
+     * @return The episodes of each key.
+     * @since 1.2
+     * @author Cesar Bianchi
+     */
+    static Map<String, ArrayList<JellyfinReportInventorySubItem>> group(List<JellyfinItem> episodes, Map<String, JellyfinItemMetadata> metadata, Function<JellyfinItemMetadata, List<String>> keysOf) {
+        return group(episodes, metadata, keysOf, episodes.size() >= PARALLEL_THRESHOLD);
+    }
+
+    /**
+     * Groups the episodes by the keys of their metadata.
+     *
+     * @param episodes The episodes of the library.
+     * @param metadata The metadata of the episodes, indexed by ID. An episode without metadata is left out of the groups.
+     * @param keysOf Gets the keys of an episode from its metadata. The episode is added to the group of each of its keys.
+     * @param parallel If true, the episodes are grouped by a parallel stream.
+     * @return The episodes of each key.
+     * @since 1.2
+     * @author Cesar Bianchi
+     */
+    static Map<String, ArrayList<JellyfinReportInventorySubItem>> group(List<JellyfinItem> episodes, Map<String, JellyfinItemMetadata> metadata, Function<JellyfinItemMetadata, List<String>> keysOf, boolean parallel) {
+
+        if (parallel){
+            //groupingBy keeps the order of the episodes when it merges the partial groups
+            return episodes.parallelStream()
+                    .filter(episode -> metadata.get(episode.getId()) != null)
+                    .flatMap(episode -> {
+                        JellyfinItemMetadata episodeMetadata = metadata.get(episode.getId());
+                        return keysOf(keysOf, episodeMetadata).stream().map(key -> new SimpleEntry<>(key, newSubItem(episode, episodeMetadata)));
+                    })
+                    .collect(Collectors.groupingBy(SimpleEntry::getKey, HashMap::new, Collectors.mapping(SimpleEntry::getValue, Collectors.toCollection(ArrayList::new))));
+        }
+
+        HashMap<String, ArrayList<JellyfinReportInventorySubItem>> groups = new HashMap<>();
+        for (JellyfinItem episode : episodes){
+            JellyfinItemMetadata episodeMetadata = metadata.get(episode.getId());
+            if (episodeMetadata == null){
+                continue;
+            }
+            for (String key : keysOf(keysOf, episodeMetadata)){
+                groups.computeIfAbsent(key, k -> new ArrayList<>()).add(newSubItem(episode, episodeMetadata));
+            }
+        }
+        return groups;
+    }
+
+    /**
+     * Gets the keys of an episode, as an empty list if the metadata has none.
+     *
+     * @param keysOf Gets the keys of an episode from its metadata.
+     * @param episodeMetadata The metadata of the episode.
+     * @return The keys of the episode.
+     * @since 1.2
+     * @author Cesar Bianchi
+     */
+    private static List<String> keysOf(Function<JellyfinItemMetadata, List<String>> keysOf, JellyfinItemMetadata episodeMetadata) {
+        List<String> keys = keysOf.apply(episodeMetadata);
+        return keys == null ? List.of() : keys;
+    }
+
+    /**
+     * Creates the report sub-item of an episode.
+     *
+     * @param episode The episode.
+     * @param episodeMetadata The metadata of the episode.
+     * @return A new report sub-item.
+     * @since 1.2
+     * @author Cesar Bianchi
+     */
+    private static JellyfinReportInventorySubItem newSubItem(JellyfinItem episode, JellyfinItemMetadata episodeMetadata) {
+        JellyfinReportInventorySubItem subItem = new JellyfinReportInventorySubItem();
+        subItem.setSubItem(episode);
+        subItem.setSubItemMetadata(episodeMetadata);
+        return subItem;
+    }
+
+}
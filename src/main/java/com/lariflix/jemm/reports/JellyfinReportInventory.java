@@ -1,33 +1,27 @@
 package com.lariflix.jemm.reports;
 
 import com.lariflix.jemm.utils.JellyfinReportTypes;
-import com.lariflix.jemm.core.LoadFolders;
-import com.lariflix.jemm.core.LoadItemMetadata;
-import com.lariflix.jemm.core.LoadItems;
-import com.lariflix.jemm.dtos.JellyfinFolders;
+import com.lariflix.jemm.core.JellyfinLibrarySnapshot;
+import com.lariflix.jemm.core.JellyfinLibrarySnapshotLoader;
 import com.lariflix.jemm.dtos.JellyfinInstanceDetails;
 import com.lariflix.jemm.dtos.JellyfinItemMetadata;
 import com.lariflix.jemm.dtos.JellyfinItems;
-import com.lariflix.jemm.utils.JellyfimParameters;
-import com.lariflix.jemm.utils.JellyfinUtilFunctions;
+import com.lariflix.jemm.utils.JellyfinItemFields;
 import com.lariflix.jemm.utils.JemmVersion;
 import java.net.MalformedURLException;
-import java.util.logging.Level;
-import java.util.logging.Logger;
 import org.json.simple.parser.ParseException;
+import java.util.ArrayList;
+import java.util.EnumSet;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.Set;
+import net.sf.jasperreports.engine.JRDataSource;
 import net.sf.jasperreports.engine.JRException;
-import net.sf.jasperreports.engine.JasperCompileManager;
-import net.sf.jasperreports.engine.JasperFillManager;
 import net.sf.jasperreports.engine.JasperPrint;
 import net.sf.jasperreports.engine.JasperReport;
 import net.sf.jasperreports.engine.data.JRBeanCollectionDataSource;
-import net.sf.jasperreports.engine.design.JasperDesign;
-import net.sf.jasperreports.engine.xml.JRXmlLoader;
 import net.sf.jasperreports.view.JasperViewer;
 import java.io.IOException;
-import java.io.InputStream;
 
 /**
  * The JellyfinReportInventory class is used to generate inventory reports from a Jellyfin server.
@@ -37,12 +31,14 @@ import java.io.InputStream;
  *
  * @author Cesar Bianchi
  */
-public class JellyfinReportInventory {
+public class JellyfinReportInventory implements JellyfinReport {
     
-    static JellyfinInstanceDetails instanceData = new JellyfinInstanceDetails();    
+    private JellyfinInstanceDetails instanceData = new JellyfinInstanceDetails();
     private JellyfinReportInventoryStructure items = new JellyfinReportInventoryStructure();
     private int totalsubItems = 0;
     private JellyfinReportTypes reportType = null;  
+    private JellyfinLibrarySnapshot librarySnapshot = null;
+    private boolean lowMemory = false;
     
     /**
      * Constructor for the JellyfinReportInventory class.
@@ -64,22 +60,39 @@ public class JellyfinReportInventory {
      * @author Cesar Bianchi
      */
     public JellyfinReportInventory(JellyfinInstanceDetails instanceData, JellyfinReportTypes rpType) {
-        JellyfinReportInventory.instanceData = instanceData;
+        this.instanceData = instanceData;
         this.reportType = rpType;
     }
 
+    /**
+     * Gets the fields of the library items this report needs.
+     * The basic inventory only lists and counts the items, so their metadata is not requested: only the metadata of the folders.
+     *
+     * @return No field for INVENTORY_BASIC, all of them for INVENTORY_FULL.
+     * @since 1.2
+     * @author Cesar Bianchi
+     */
+    @Override
+    public Set<JellyfinItemFields> getItemFields() {
+        if (reportType == JellyfinReportTypes.INVENTORY_BASIC){
+            return EnumSet.noneOf(JellyfinItemFields.class);
+        }
+        return EnumSet.allOf(JellyfinItemFields.class);
+    }
+
+    @Override
     public void  loadReportItems() throws IOException, MalformedURLException, ParseException, JRException{
         
         switch(reportType) {
             case INVENTORY_BASIC:
                 this.loadItems();
-                this.loadSubItems(JellyfinReportTypes.INVENTORY_BASIC);
                 this.setTotalOfSubItems();
+                this.loadSubItems(JellyfinReportTypes.INVENTORY_BASIC);
                 break;
             case INVENTORY_FULL:
                 this.loadItems();
-                this.loadSubItems(JellyfinReportTypes.INVENTORY_FULL);
                 this.setTotalOfSubItems();
+                this.loadSubItems(JellyfinReportTypes.INVENTORY_FULL);
                 break;
         }
     }
@@ -98,24 +111,18 @@ public class JellyfinReportInventory {
      */
     private void loadItems() throws IOException, MalformedURLException, ParseException{
         
-        LoadFolders loadItems = new LoadFolders(JellyfimParameters.FOLDERS_AND_SUBFOLDERS);
-        loadItems.setJellyfinInstanceUrl(instanceData.getCredentials().getBaseURL());
-        loadItems.setApiToken(instanceData.getCredentials().getTokenAPI());
-        loadItems.setcUserAdminID(instanceData.adminUser.getId());        
-        JellyfinFolders folders = loadItems.requestFolders();
+        //The folders, items and metadata come from the library snapshot shared by all reports
+        librarySnapshot = JellyfinLibrarySnapshotLoader.getDefault().getSnapshot(instanceData, this.getItemFields());
         
-        for(int nI = 0; nI < folders.getItems().size();nI++){            
+        for(int nI = 0; nI < librarySnapshot.getFolders().size();nI++){            
             JellyfinReportInventoryItem item = new JellyfinReportInventoryItem();
-            item.setItem( folders.getItems().get(nI) );
+            item.setItem( librarySnapshot.getFolders().get(nI) );
             
-            //load itemMetadata
-            LoadItemMetadata loadItemMetadata = new LoadItemMetadata();
-            loadItemMetadata.setJellyfinInstanceUrl(instanceData.getCredentials().getBaseURL());
-            loadItemMetadata.setApiToken(instanceData.getCredentials().getTokenAPI());
-            loadItemMetadata.setcUserAdminID(instanceData.getAdminUser().getId());
-            loadItemMetadata.setcItemID(item.getId());            
-            JellyfinItemMetadata itemMetadata = loadItemMetadata.requestItemMetadata();            
-            item.setItemMetadata(itemMetadata);
+            //itemMetadata: a folder without metadata keeps the empty one
+            JellyfinItemMetadata itemMetadata = librarySnapshot.getMetadata(item.getId());
+            if (itemMetadata != null){
+                item.setItemMetadata(itemMetadata);
+            }
             
             items.add(item);
         }
@@ -127,56 +134,69 @@ public class JellyfinReportInventory {
     /**
      * Loads the sub-items for each item.
      *
-     * This method loads the sub-items for each item from the Jellyfin server based on the report type. 
+     * This method loads the sub-items for each item from the library snapshot based on the report type. 
      * If the report type is INVENTORY_BASIC, it loads the basic sub-items. 
      * If the report type is INVENTORY_FULL, it loads the full sub-items and their metadata.
+     * In low-memory mode (see JellyfinReportFiller) the sub-items are not loaded here: each item is loaded with its sub-items only when the report is filled.
      *
      * @param tpInventoryReport A JellyfinReportTypes object representing the type of report to generate. This could be either INVENTORY_BASIC or INVENTORY_FULL.
-     * @throws IOException If an I/O error occurs. This can happen if there's a problem with the network connection, the server, or the local machine.
-     * @throws ParseException If there is an error parsing the server's response. This can happen if the server's response does not match the expected format.
      * @since 1.1
      * @author Cesar Bianchi
      */
     private void loadSubItems(JellyfinReportTypes tpInventoryReport){
         
-        LoadItems loadSubItems = new LoadItems(JellyfimParameters.JUST_ITEMS);
-        loadSubItems.setJellyfinInstanceUrl(instanceData.getCredentials().getBaseURL());
-        loadSubItems.setApiToken(instanceData.getCredentials().getTokenAPI());
-        loadSubItems.setcUserAdminID(instanceData.adminUser.getId());
+        if (lowMemory){
+            return;
+        }
         
         for (int nI = 0; nI < items.size(); nI++){
-            
-            loadSubItems.setcParentID(items.get(nI).getId());            
-            try {
-                JellyfinItems subItems = loadSubItems.requestItems();
-                
-                items.get(nI).setSubItems(subItems);
-                
-                //load subitems metadata
-                if (tpInventoryReport == JellyfinReportTypes.INVENTORY_FULL){
-                    for (int nJ = 0; nJ < items.get(nI).getSubItems().size(); nJ++){ 
-                        LoadItemMetadata loadsubItemMetadata = new LoadItemMetadata();
-                        loadsubItemMetadata.setJellyfinInstanceUrl(instanceData.getCredentials().getBaseURL());
-                        loadsubItemMetadata.setApiToken(instanceData.getCredentials().getTokenAPI());
-                        loadsubItemMetadata.setcUserAdminID(instanceData.getAdminUser().getId());
-
-                        String subItemID = items.get(nI).getSubItems().get(nJ).getId();                            
+            this.loadSubItems(items.get(nI), tpInventoryReport);
+        }
+       
+    }
+    
+    /**
+     * Loads the sub-items of an item from the library snapshot.
+     *
+     * @param item The item.
+     * @param tpInventoryReport A JellyfinReportTypes object representing the type of report to generate. This could be either INVENTORY_BASIC or INVENTORY_FULL.
+     * @since 1.2
+     * @author Cesar Bianchi
+     */
+    private void loadSubItems(JellyfinReportInventoryItem item, JellyfinReportTypes tpInventoryReport){
+        
+        JellyfinItems subItems = new JellyfinItems();
+        subItems.setItems(new ArrayList<>(librarySnapshot.getFolderItems(item.getId())));
+        subItems.setTotalRecordCount(subItems.getItems().size());
 
-                        loadsubItemMetadata.setcItemID(subItemID);                
-                        JellyfinItemMetadata subItemMetadata = loadsubItemMetadata.requestItemMetadata();                                
+        item.setSubItems(subItems);
 
-                        items.get(nI).getSubItems().get(nJ).setSubItemMetadata(subItemMetadata);
-                    }
+        //subitems metadata: a sub-item without metadata keeps the empty one and is still listed
+        if (tpInventoryReport == JellyfinReportTypes.INVENTORY_FULL){
+            for (int nJ = 0; nJ < item.getSubItems().size(); nJ++){ 
+                JellyfinItemMetadata subItemMetadata = librarySnapshot.getMetadata(item.getSubItems().get(nJ).getId());
+                if (subItemMetadata != null){
+                    item.getSubItems().get(nJ).setSubItemMetadata(subItemMetadata);
                 }
-                
-            } catch (IOException ex) {
-                Logger.getLogger(JellyfinReportInventory.class.getName()).log(Level.SEVERE, null, ex);
-            } catch (ParseException ex) {
-                Logger.getLogger(JellyfinReportInventory.class.getName()).log(Level.SEVERE, null, ex);
             }
-            
         }
-       
+    }
+    
+    /**
+     * Builds a row of the report in low-memory mode: a copy of the item, with its sub-items.
+     * The row is dropped once JasperReports has read it, so the sub-items of only one item are kept in memory.
+     *
+     * @param item The item.
+     * @return A new row of the report.
+     * @since 1.2
+     * @author Cesar Bianchi
+     */
+    private JellyfinReportInventoryItem newReportRow(JellyfinReportInventoryItem item){
+        JellyfinReportInventoryItem row = new JellyfinReportInventoryItem();
+        row.setItem(item);
+        row.setItemMetadata(item.getItemMetadata());
+        this.loadSubItems(row, reportType);
+        return row;
     }
 
     /**
@@ -194,71 +214,44 @@ public class JellyfinReportInventory {
      * @author Cesar Bianchi
      */
     public void printReport() throws JRException, MalformedURLException, IOException {
-        String localReportBasePath = new JellyfinUtilFunctions().getJRXMLLocalPath();
-        String resorceReportBasePath =  new  JellyfinUtilFunctions().getJRXMLResourcePath();
-        
-        String jrxmlFile = new String();
-        JasperDesign draw = null;
+        this.showReport(this.fillReport());
+    }
+    
+    /**
+     * Fills the inventory report with the loaded items, using the compiled template of the report type.
+     *
+     * @return The filled report.
+     * @throws JRException If there is a problem with generating the report.
+     * @throws MalformedURLException If the URL of the Jellyfin instance is not formatted correctly.
+     * @throws IOException If the report template can't be read.
+     * @since 1.2
+     * @author Cesar Bianchi
+     */
+    @Override
+    public JasperPrint fillReport() throws JRException, MalformedURLException, IOException {
+        JellyfinReportTemplateCache templateCache = JellyfinReportTemplateCache.getDefault();
         JasperReport report = null;
+        String subReportFile = new String();
         
-        String jrxmlSubRepFile = new String();
-        JasperReport subreport = null;
-        JasperDesign drawSub = null;
-        JellyfinUtilFunctions commonFunctions = new JellyfinUtilFunctions();
-        String tempFilesPath = System.getProperty("java.io.tmpdir");
-        
+        //The templates are compiled only once (see JellyfinReportTemplateCache)
         switch(reportType) {
             case INVENTORY_BASIC:
-                
-                if(instanceData.isDebug()){                    
-                    //DEBUG WAY
-                    System.out.println("This Application is running on Netbeans, in DEBUG MODE");                    
-                    jrxmlFile = localReportBasePath.concat("/InstanceInventoryBasic/JemmInstanceInventoryBasic.jrxml");       
-                    draw = JRXmlLoader.load( jrxmlFile );
-                    report =  JasperCompileManager.compileReport( draw );
-                } else {
-                    //EMBEBED WAY
-                    jrxmlFile = resorceReportBasePath.concat("/InstanceInventoryBasic/JemmInstanceInventoryBasic.jrxml");
-                    InputStream drawIS = getClass().getResourceAsStream(jrxmlFile);
-                    report =  JasperCompileManager.compileReport( drawIS );
-                }
+                report = templateCache.getReport("/InstanceInventoryBasic/JemmInstanceInventoryBasic.jrxml", instanceData.isDebug());
                 break;
             
             case INVENTORY_FULL:
-            
-                if(instanceData.isDebug() ){                    
-                    //DEBUG WAY
-                    System.out.println("This Application is running on Netbeans, in DEBUG MODE");   
-                    jrxmlFile = localReportBasePath.concat("/InstanceInventoryFull/JemmInstanceInventoryFull.jrxml");       
-                    draw = JRXmlLoader.load( jrxmlFile );
-                    report =  JasperCompileManager.compileReport( draw );
-                    
-                    
-                    jrxmlSubRepFile = localReportBasePath.concat("/InstanceInventoryFull/JemmInstanceInventoryFullSubItems.jrxml");       
-                    drawSub = JRXmlLoader.load( jrxmlFile );
-                    subreport = JasperCompileManager.compileReport( drawSub );
-                    
-                    //Use a localfile subreport
-                    JasperCompileManager.compileReportToFile(jrxmlSubRepFile,tempFilesPath.concat("JemmInstanceInventoryFullSubItems.jasper"));
-                } else {
-                    //EMBEBED WAY
-                    jrxmlFile = resorceReportBasePath.concat("/InstanceInventoryFull/JemmInstanceInventoryFull.jrxml");
-                    InputStream drawIS = getClass().getResourceAsStream(jrxmlFile);
-                    report =  JasperCompileManager.compileReport( drawIS );
-                    
-                    //Extract subreport from resource to a localfile                    
-                    jrxmlSubRepFile =  resorceReportBasePath.concat("/InstanceInventoryFull/JemmInstanceInventoryFullSubItems.jrxml");                    
-                    if (commonFunctions.extractFileFromJar(jrxmlSubRepFile, "JemmInstanceInventoryFullSubItems.jrxml") ){
-                        JasperCompileManager.compileReportToFile(tempFilesPath.concat("JemmInstanceInventoryFullSubItems.jrxml"),tempFilesPath.concat("JemmInstanceInventoryFullSubItems.jasper"));                    
-                    }
-                }                
+                report = templateCache.getReport("/InstanceInventoryFull/JemmInstanceInventoryFull.jrxml", instanceData.isDebug());
+                subReportFile = templateCache.getCompiledFile("/InstanceInventoryFull/JemmInstanceInventoryFullSubItems.jrxml", instanceData.isDebug());
                 break;
-                
-        } 
+        }
         
-
-        //Set report Data Source (From jellyfinReportInventoryItem List)
-        JRBeanCollectionDataSource dataSource = new JRBeanCollectionDataSource(this.getItems());
+        //Set report Data Source (From jellyfinReportInventoryItem List). In low-memory mode, each row is built when it is read
+        JRDataSource dataSource = null;
+        if (lowMemory){
+            dataSource = new JellyfinReportStreamingDataSource<>(this.getItems(), this::newReportRow);
+        } else {
+            dataSource = new JRBeanCollectionDataSource(this.getItems());
+        }
 
         //Set Report Parameters
         Map reportParameters = new HashMap();
@@ -266,26 +259,42 @@ public class JellyfinReportInventory {
         reportParameters.put("JEMM_VERSION",new JemmVersion().getVersion() );
         reportParameters.put("TOTAL_FOLDERITEMS",Integer.toString(this.items.size()));
         reportParameters.put("TOTAL_CONTENT",Integer.toString(this.totalsubItems));
-        reportParameters.put("SUBREPORT_JASPER_FILE",tempFilesPath.concat("JemmInstanceInventoryFullSubItems.jasper"));
+        reportParameters.put("SUBREPORT_JASPER_FILE",subReportFile);
         
-        //Paint Report
-        JasperPrint paintedReport = JasperFillManager.fillReport( report , reportParameters,  dataSource);
+        //Paint Report: the FULL report is filled in shards, on parallel workers (see JellyfinReportFiller)
+        JasperPrint paintedReport = null;
+        if (reportType == JellyfinReportTypes.INVENTORY_FULL && !lowMemory){
+            paintedReport = JellyfinReportFiller.fillSharded( report , reportParameters, JellyfinReportFiller.shard(this.getItems(), item -> item.getSubItems().size(), JellyfinReportFiller.getShardCount()));
+        } else {
+            paintedReport = JellyfinReportFiller.fill( report , reportParameters,  dataSource, lowMemory);
+        }
         
+        return paintedReport;
+    }
+    
+    /**
+     * Shows the filled inventory report in a new JasperViewer. It must be called on the Event Dispatch Thread.
+     *
+     * @param paintedReport The filled report.
+     * @since 1.2
+     * @author Cesar Bianchi
+     */
+    @Override
+    public void showReport(JasperPrint paintedReport) {
         //Show Report
         JasperViewer viewer = new JasperViewer( paintedReport , false );
         viewer.setTitle("Jellyfin Easy Metadata Manager - Inventory Report");
         viewer.show();
-       
     }
     
     /**
-     * Retrieves the instanceData property of the JellyfinReportInventory class.
+     * Retrieves the instanceData property of this JellyfinReportInventory.
      *
      * @return A JellyfinInstanceDetails object representing the details of the Jellyfin instance from which to generate the report. This includes the URL, API token, and other necessary details.
      * @since 1.1
      * @author Cesar Bianchi
      */
-    public static JellyfinInstanceDetails getInstanceData() {
+    public JellyfinInstanceDetails getInstanceData() {
         return instanceData;
     }
 
@@ -301,15 +310,15 @@ public class JellyfinReportInventory {
     }
 
     /**
-     * Sets the instanceData property of the JellyfinReportInventory class.
+     * Sets the instanceData property of this JellyfinReportInventory.
      *
-     * @param instanceData A JellyfinInstanceDetails object that should be used as the new instance data for the JellyfinReportInventory class. 
+     * @param instanceData A JellyfinInstanceDetails object that should be used as the new instance data for this JellyfinReportInventory. 
      * This includes the URL, API token, and other necessary details.
      * @since 1.1
      * @author Cesar Bianchi
      */
-    public static void setInstanceData(JellyfinInstanceDetails instanceData) {
-        JellyfinReportInventory.instanceData = instanceData;
+    public void setInstanceData(JellyfinInstanceDetails instanceData) {
+        this.instanceData = instanceData;
     }
 
     /**
@@ -328,12 +337,28 @@ public class JellyfinReportInventory {
      * Sets the totalsubItems property of this JellyfinReportInventory.
      *
      * This method calculates the total number of sub-items in all items of this JellyfinReportInventory and sets the totalsubItems property to this value.
+     * The report is filled in low-memory mode if this total reaches JellyfinReportFiller.LOW_MEMORY_THRESHOLD.
      *
      * @since 1.1
      * @author Cesar Bianchi
      */
     private void setTotalOfSubItems() {
-        // method body
+        totalsubItems = 0;
+        for (int nI = 0; nI < items.size(); nI++){
+            totalsubItems += librarySnapshot.getFolderItems(items.get(nI).getId()).size();
+        }
+        lowMemory = JellyfinReportFiller.isLowMemory(totalsubItems);
+    }
+    
+    /**
+     * Checks if this JellyfinReportInventory is filled in low-memory mode.
+     *
+     * @return true if the pages of the report are swapped to disk and its rows are built only when they are read.
+     * @since 1.2
+     * @author Cesar Bianchi
+     */
+    public boolean isLowMemory() {
+        return lowMemory;
     }
     
 }
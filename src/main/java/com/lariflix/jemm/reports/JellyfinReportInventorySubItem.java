@@ -48,6 +48,8 @@ public class JellyfinReportInventorySubItem extends JellyfinItem{
         this.setMediaType(subIt.getMediaType());
         this.setName(subIt.getName());
         this.setOfficialRating(subIt.getOfficialRating());
+        this.setOverview(subIt.getOverview());
+        this.setPath(subIt.getPath());
         this.setPremiereDate(subIt.getPremiereDate());
         this.setProductionYear(subIt.getProductionYear());
         this.setServerId(subIt.getServerId());
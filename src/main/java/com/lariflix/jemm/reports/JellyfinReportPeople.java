@@ -1,35 +1,22 @@
 package com.lariflix.jemm.reports;
 
 import com.lariflix.jemm.utils.JellyfinReportTypes;
-import com.lariflix.jemm.core.LoadFolders;
-import com.lariflix.jemm.core.LoadItemMetadata;
-import com.lariflix.jemm.core.LoadItems;
+import com.lariflix.jemm.core.LoadItemMetadataConcurrent;
 import com.lariflix.jemm.core.LoadPeople;
 import com.lariflix.jemm.dtos.JellyfinCadPeopleItems;
-import com.lariflix.jemm.dtos.JellyfinFolders;
 import com.lariflix.jemm.dtos.JellyfinInstanceDetails;
 import com.lariflix.jemm.dtos.JellyfinItem;
 import com.lariflix.jemm.dtos.JellyfinItemMetadata;
-import com.lariflix.jemm.dtos.JellyfinItems;
-import com.lariflix.jemm.utils.JellyfimParameters;
-import com.lariflix.jemm.utils.JellyfinUtilFunctions;
 import com.lariflix.jemm.utils.JemmVersion;
 import java.io.IOException;
-import java.io.InputStream;
 import java.net.MalformedURLException;
 import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.Map;
-import java.util.logging.Level;
-import java.util.logging.Logger;
 import net.sf.jasperreports.engine.JRException;
-import net.sf.jasperreports.engine.JasperCompileManager;
-import net.sf.jasperreports.engine.JasperFillManager;
 import net.sf.jasperreports.engine.JasperPrint;
 import net.sf.jasperreports.engine.JasperReport;
 import net.sf.jasperreports.engine.data.JRBeanCollectionDataSource;
-import net.sf.jasperreports.engine.design.JasperDesign;
-import net.sf.jasperreports.engine.xml.JRXmlLoader;
 import net.sf.jasperreports.view.JasperViewer;
 import org.json.simple.parser.ParseException;
 
@@ -41,9 +28,9 @@ import org.json.simple.parser.ParseException;
  *
  * @author Cesar Bianchi
  */
-public class JellyfinReportPeople {
+public class JellyfinReportPeople implements JellyfinReport {
 
-    static JellyfinInstanceDetails instanceData = new JellyfinInstanceDetails();    
+    private JellyfinInstanceDetails instanceData = new JellyfinInstanceDetails();
     private JellyfinReportPeopleStructure items = new JellyfinReportPeopleStructure();
     private ArrayList<JellyfinItem> nonOrdenedEpisodes = new ArrayList();
     private JellyfinReportTypes reportType = null;  
@@ -72,7 +59,7 @@ public class JellyfinReportPeople {
      * @author Cesar Bianchi
      */
     public JellyfinReportPeople(JellyfinInstanceDetails instanceData, JellyfinReportTypes rpType) {
-        JellyfinReportPeople.instanceData = instanceData;
+        this.instanceData = instanceData;
         this.reportType = rpType;
     }
     
@@ -92,6 +79,7 @@ public class JellyfinReportPeople {
      * @since 1.1
      * @author Cesar Bianchi
      */
+    @Override
     public void loadReportItems() throws IOException, MalformedURLException, ParseException, JRException{
         
         switch(reportType) {
@@ -128,19 +116,24 @@ public class JellyfinReportPeople {
         JellyfinCadPeopleItems people = loadPeople.requestPeople();
         
         
-        for(int nI = 0; nI < people.getTotalRecordCount();nI++){            
+        //Request the metadata of all people items concurrently (see LoadItemMetadataConcurrent), in the order of the list
+        ArrayList<String> itemIDs = new ArrayList<>();
+        for(int nI = 0; nI < people.getTotalRecordCount();nI++){
+            itemIDs.add(people.getItems().get(nI).getId());
+        }
+        LoadItemMetadataConcurrent loadPepopleMetadata = new LoadItemMetadataConcurrent(instanceData.getCredentials().getBaseURL(), instanceData.getCredentials().getTokenAPI(), instanceData.getAdminUser().getId());
+        ArrayList<JellyfinItemMetadata> peopleMetadata = loadPepopleMetadata.requestItemsMetadata(itemIDs);
+        
+        //As before, the report fails if the metadata of any item could not be loaded
+        if (loadPepopleMetadata.hasFailures()){
+            Exception firstFailure = loadPepopleMetadata.getFailures().values().iterator().next();
+            throw new IOException(loadPepopleMetadata.getFailures().size() + " people item(s) without metadata", firstFailure);
+        }
+        
+        for(int nI = 0; nI < itemIDs.size();nI++){            
             JellyfinReportPeopleItem item = new JellyfinReportPeopleItem();
-            
             item.setItem( people.getItems().get(nI) );
-            
-            /*Get People Metadata*/
-            LoadItemMetadata loadPepopleMetadata = new LoadItemMetadata();
-            loadPepopleMetadata.setJellyfinInstanceUrl(instanceData.getCredentials().getBaseURL());
-            loadPepopleMetadata.setApiToken(instanceData.getCredentials().getTokenAPI());
-            loadPepopleMetadata.setcUserAdminID(instanceData.getAdminUser().getId());
-            loadPepopleMetadata.setcItemID(item.getId());                
-            JellyfinItemMetadata peopleMetadata = loadPepopleMetadata.requestItemMetadata();            
-            item.setPeopleMetadata(peopleMetadata);
+            item.setPeopleMetadata(peopleMetadata.get(nI));
             
             items.add(item);
         }
@@ -149,73 +142,28 @@ public class JellyfinReportPeople {
     }
 
     /**
-     * Loads the episodes for this JellyfinReportPeople.
-     *
-     * This method retrieves all folders from the Jellyfin instance, retrieves all items for each folder, and adds each item to the non-ordered episodes list. 
-     * Then, for each episode, it retrieves the metadata and checks if the people episode is the same as the people-item. 
-     * If it is, it adds the episode and its metadata to the people-item.
+     * Loads the episodes of each person.
      *
-     * This method throws an IOException if there is a problem with the input or output, and a ParseException if there is a problem with parsing the data.
+     * This method loads all episodes of the library and their metadata only once (see JellyfinReportEpisodeIndex), indexed by person,
+     * and then adds to each people-item the episodes found in the index. Each episode is requested once, whatever the number of people.
      *
      * @throws IOException If there is a problem with the input or output.
      * @throws ParseException If there is a problem with parsing the data.
      * @since 1.1
      * @author Cesar Bianchi
      */
-    private void loadEpisodes() {
+    private void loadEpisodes() throws IOException, ParseException {
         
-        //1* Get All Folders
-        LoadFolders loadItems = new LoadFolders(JellyfimParameters.FOLDERS_AND_SUBFOLDERS);
-        loadItems.setJellyfinInstanceUrl(instanceData.getCredentials().getBaseURL());
-        loadItems.setApiToken(instanceData.getCredentials().getTokenAPI());
-        loadItems.setcUserAdminID(instanceData.adminUser.getId());        
-        JellyfinFolders folders;
-        try {
-            folders = loadItems.requestFolders();
-            
-            //2* Get All Itens for each folder
-            LoadItems loadSubItems = new LoadItems(JellyfimParameters.JUST_ITEMS);
-            loadSubItems.setJellyfinInstanceUrl(instanceData.getCredentials().getBaseURL());
-            loadSubItems.setApiToken(instanceData.getCredentials().getTokenAPI());
-            loadSubItems.setcUserAdminID(instanceData.adminUser.getId());        
-            
-            for (int nI = 0; nI< folders.getItems().size(); nI++){            
-                loadSubItems.setcParentID(folders.getItems().get(nI).getId());                            
-                JellyfinItems subItems = loadSubItems.requestItems();                
-                
-                for (int nJ = 0; nJ < subItems.getItems().size(); nJ++){                    
-                    nonOrdenedEpisodes.add(subItems.getItems().get(nJ));
-                }
-            }
-            
-            //3* For each episode, Get the metadata and check if the people episode is the same of people-item
-            LoadItemMetadata loadEpisodeMetadata = new LoadItemMetadata();
-            loadEpisodeMetadata.setJellyfinInstanceUrl(instanceData.getCredentials().getBaseURL());
-            loadEpisodeMetadata.setApiToken(instanceData.getCredentials().getTokenAPI());
-            loadEpisodeMetadata.setcUserAdminID(instanceData.getAdminUser().getId());
-            for (int nI = 0; nI < this.items.size(); nI++){
-            
-                //for (int nJ = 0; nJ < 10; nJ++){
-                for (int nJ = 0; nJ < nonOrdenedEpisodes.size(); nJ++){
-                    
-                    loadEpisodeMetadata.setcItemID(nonOrdenedEpisodes.get(nJ).getId());                
-                    JellyfinItemMetadata episodeMetadata = loadEpisodeMetadata.requestItemMetadata();
-                    
-                    
-                    for (int nK = 0; nK < episodeMetadata.getPeople().size(); nK++){
-                    
-                        if (episodeMetadata.getPeople().get(nK).getId().equals(this.getItems().get(nI).getId())){
-                            
-                            this.items.get(nI).addPeopleEpisode(nonOrdenedEpisodes.get(nJ),episodeMetadata);
-                        }                        
-                    }
-                }
+        //1* Get All Episodes and their metadata, indexed by person
+        JellyfinReportEpisodeIndex episodeIndex = new JellyfinReportEpisodeIndex();
+        episodeIndex.load(instanceData);
+        nonOrdenedEpisodes = episodeIndex.getEpisodes();
+        
+        //2* Fill each people-item with its episodes from the index
+        for (int nI = 0; nI < this.items.size(); nI++){
+            for (JellyfinItem episode : episodeIndex.getPeopleEpisodes(this.items.get(nI).getId())){
+                this.items.get(nI).addPeopleEpisode(episode, episodeIndex.getEpisodeMetadata(episode.getId()));
             }
-            
-        } catch (IOException ex) {
-            Logger.getLogger(JellyfinReportGenres.class.getName()).log(Level.SEVERE, null, ex);
-        } catch (ParseException ex) {
-            Logger.getLogger(JellyfinReportGenres.class.getName()).log(Level.SEVERE, null, ex);
         }
         
     }
@@ -240,70 +188,37 @@ public class JellyfinReportPeople {
      * @author Cesar Bianchi
      */
     public void printReport() throws JRException, MalformedURLException, IOException {
-        String localReportBasePath = new JellyfinUtilFunctions().getJRXMLLocalPath();
-        String resorceReportBasePath =  new  JellyfinUtilFunctions().getJRXMLResourcePath();
-        
-        String jrxmlFile = new String();
-        JasperDesign draw = null;
+        this.showReport(this.fillReport());
+    }
+    
+    /**
+     * Fills the people report with the loaded items, using the compiled template of the report type.
+     *
+     * @return The filled report.
+     * @throws JRException If there is a problem with generating the report.
+     * @throws MalformedURLException If the URL of the Jellyfin instance is not formatted correctly.
+     * @throws IOException If the report template can't be read.
+     * @since 1.2
+     * @author Cesar Bianchi
+     */
+    @Override
+    public JasperPrint fillReport() throws JRException, MalformedURLException, IOException {
+        JellyfinReportTemplateCache templateCache = JellyfinReportTemplateCache.getDefault();
         JasperReport report = null;
+        String subReportFile = new String();
         
-        String jrxmlSubRepFile = new String();
-        JasperReport subreport = null;
-        JasperDesign drawSub = null;
-        JellyfinUtilFunctions commonFunctions = new JellyfinUtilFunctions();
-        String tempFilesPath = System.getProperty("java.io.tmpdir");
-        
+        //The templates are compiled only once (see JellyfinReportTemplateCache)
         switch(reportType) {
             case PEOPLE_BASIC:
-                
-                if(instanceData.isDebug()){                    
-                    //DEBUG WAY
-                    System.out.println("This Application is running on Netbeans, in DEBUG MODE");                    
-                    jrxmlFile = localReportBasePath.concat("/InstancePeopleBasic/JemmInstancePeopleBasic.jrxml");       
-                    draw = JRXmlLoader.load( jrxmlFile );
-                    report =  JasperCompileManager.compileReport( draw );
-                } else {
-                    //EMBEBED WAY
-                    jrxmlFile = resorceReportBasePath.concat("/InstancePeopleBasic/JemmInstancePeopleBasic.jrxml");
-                    InputStream drawIS = getClass().getResourceAsStream(jrxmlFile);
-                    report =  JasperCompileManager.compileReport( drawIS );
-                }
+                report = templateCache.getReport("/InstancePeopleBasic/JemmInstancePeopleBasic.jrxml", instanceData.isDebug());
                 break;
             
             case PEOPLE_FULL:
-            
-                if(instanceData.isDebug() ){                    
-                    //DEBUG WAY
-                    System.out.println("This Application is running on Netbeans, in DEBUG MODE");   
-                    jrxmlFile = localReportBasePath.concat("/InstancePeopleFull/JemmInstancePeopleFull.jrxml");       
-                    draw = JRXmlLoader.load( jrxmlFile );
-                    report =  JasperCompileManager.compileReport( draw );
-                    
-                    
-                    jrxmlSubRepFile = localReportBasePath.concat("/InstancePeopleFull/JemmInstancePeopleFullSubItems.jrxml");       
-                    drawSub = JRXmlLoader.load( jrxmlFile );
-                    subreport = JasperCompileManager.compileReport( drawSub );
-                    
-                    //Use a localfile subreport
-                    JasperCompileManager.compileReportToFile(jrxmlSubRepFile,tempFilesPath.concat("JemmInstancePeopleFullSubItems.jasper"));
-                } else {
-                    //EMBEBED WAY
-                    jrxmlFile = resorceReportBasePath.concat("/InstancePeopleFull/JemmInstancePeopleFull.jrxml");
-                    InputStream drawIS = getClass().getResourceAsStream(jrxmlFile);
-                    report =  JasperCompileManager.compileReport( drawIS );
-                    
-                    //Extract subreport from resource to a localfile                    
-                    jrxmlSubRepFile =  resorceReportBasePath.concat("/InstancePeopleFull/JemmInstancePeopleFullSubItems.jrxml");                    
-                    if (commonFunctions.extractFileFromJar(jrxmlSubRepFile, "JemmInstancePeopleFullSubItems.jrxml") ){
-                        JasperCompileManager.compileReportToFile(tempFilesPath.concat("JemmInstancePeopleFullSubItems.jrxml"),tempFilesPath.concat("JemmInstancePeopleFullSubItems.jasper"));                    
-                    }
-                }
-                
-                                
+                report = templateCache.getReport("/InstancePeopleFull/JemmInstancePeopleFull.jrxml", instanceData.isDebug());
+                subReportFile = templateCache.getCompiledFile("/InstancePeopleFull/JemmInstancePeopleFullSubItems.jrxml", instanceData.isDebug());
                 break;
-                
-        }       
-
+        }
+        
         //Set report Data Source
         JRBeanCollectionDataSource dataSource = new JRBeanCollectionDataSource(this.getItems());
 
@@ -313,16 +228,33 @@ public class JellyfinReportPeople {
         reportParameters.put("JEMM_VERSION",new JemmVersion().getVersion() );
         reportParameters.put("TOTAL_FOLDERITEMS",Integer.toString(this.items.size()));
         //reportParameters.put("TOTAL_CONTENT",Integer.toString(this.totalsubItems));
-        reportParameters.put("SUBREPORT_JASPER_FILE",tempFilesPath.concat("JemmInstancePeopleFullSubItems.jasper"));
+        reportParameters.put("SUBREPORT_JASPER_FILE",subReportFile);
         
-        //Paint Report
-        JasperPrint paintedReport = JasperFillManager.fillReport( report , reportParameters,  dataSource);
+        //Paint Report: the FULL report is filled in shards, on parallel workers (see JellyfinReportFiller)
+        JasperPrint paintedReport = null;
+        boolean lowMemory = JellyfinReportFiller.isLowMemory(this.nonOrdenedEpisodes.size());
+        if (reportType == JellyfinReportTypes.PEOPLE_FULL && !lowMemory){
+            paintedReport = JellyfinReportFiller.fillSharded( report , reportParameters, JellyfinReportFiller.shard(this.getItems(), item -> item.getPeopleEpisodes().size(), JellyfinReportFiller.getShardCount()));
+        } else {
+            paintedReport = JellyfinReportFiller.fill( report , reportParameters,  dataSource, lowMemory);
+        }
         
+        return paintedReport;
+    }
+    
+    /**
+     * Shows the filled people report in a new JasperViewer. It must be called on the Event Dispatch Thread.
+     *
+     * @param paintedReport The filled report.
+     * @since 1.2
+     * @author Cesar Bianchi
+     */
+    @Override
+    public void showReport(JasperPrint paintedReport) {
         //Show Report
         JasperViewer viewer = new JasperViewer( paintedReport , false );
         viewer.setTitle("Jellyfin Easy Metadata Manager - People Report");
         viewer.show();
-       
     }
     
     /**
@@ -0,0 +1,43 @@
+package com.lariflix.jemm.reports;
+
+import com.lariflix.jemm.utils.JellyfinReportPhase;
+import com.lariflix.jemm.utils.JellyfinReportTypes;
+import java.util.concurrent.Future;
+import net.sf.jasperreports.engine.JasperPrint;
+
+/**
+ * This interface receives the progress of a report executed by JellyfinReportExecutor.
+ *
+ * The methods are called on the worker thread of the report: a listener that updates the user interface must hand the update to the
+ * Event Dispatch Thread (e.g. with SwingUtilities.invokeLater).
+ *
+ * @author Cesar Bianchi
+ * @since 1.2
+ * @see JellyfinReportExecutor
+ */
+public interface JellyfinReportProgressListener {
+
+    /**
+     * Called when the report enters a new phase.
+     *
+     * @param reportType The type of the report.
+     * @param phase The phase that started.
+     * @since 1.2
+     * @author Cesar Bianchi
+     */
+    void phaseStarted(JellyfinReportTypes reportType, JellyfinReportPhase phase);
+
+    /**
+     * Called once when the report finishes, fails or is cancelled.
+     * The result can be checked with report.isCancelled() and report.get(), which doesn't block anymore.
+     *
+     * @param reportType The type of the report.
+     * @param report The finished report.
+     * @since 1.2
+     * @author Cesar Bianchi
+     */
+    default void reportFinished(JellyfinReportTypes reportType, Future<JasperPrint> report) {
+        // ...
+    }
+
+}
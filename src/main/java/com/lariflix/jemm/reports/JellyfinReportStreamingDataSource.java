@@ -0,0 +1,87 @@
+package com.lariflix.jemm.reports;
+
+import java.util.Iterator;
+import java.util.function.Function;
+import net.sf.jasperreports.engine.JRException;
+import net.sf.jasperreports.engine.JRField;
+import net.sf.jasperreports.engine.data.JRAbstractBeanDataSource;
+
+/**
+ * This class is a JasperReports data source that builds each row of a report only when JasperReports reads it.
+ *
+ * Unlike JRBeanCollectionDataSource, the rows are not kept in a list: each row is built from its source (e.g. a folder of the library)
+ * when the data source moves to it, and is left to the garbage collector when the data source moves to the next one.
+ * With a virtualizer (see JellyfinReportFiller) only the current row and the pages not yet swapped to disk stay in memory.
+ * The fields are read from the row bean properties, as in JRBeanCollectionDataSource.
+ *
+ * @param <T> The type of the sources of the rows.
+ * @author Cesar Bianchi
+ * @since 1.2
+ */
+public class JellyfinReportStreamingDataSource<T> extends JRAbstractBeanDataSource {
+
+    private final Iterable<T> sources;
+    private final Function<T, ?> rowBuilder;
+    private Iterator<T> iterator = null;
+    private Object currentRow = null;
+
+    /**
+     * Constructor for the JellyfinReportStreamingDataSource class.
+     *
+     * @param sources The sources of the rows, in the order of the report.
+     * @param rowBuilder Builds the row (a bean) of a source.
+     * @since 1.2
+     * @author Cesar Bianchi
+     */
+    public JellyfinReportStreamingDataSource(Iterable<T> sources, Function<T, ?> rowBuilder) {
+        super(true);
+        this.sources = sources;
+        this.rowBuilder = rowBuilder;
+        this.iterator = sources.iterator();
+    }
+
+    /**
+     * Moves to the next row, building it from its source.
+     *
+     * @return true if there is a next row, false at the end of the data source.
+     * @since 1.2
+     * @author Cesar Bianchi
+     */
+    @Override
+    public boolean next() {
+        //The previous row is released before the next one is built
+        currentRow = null;
+        if (!iterator.hasNext()){
+            return false;
+        }
+        currentRow = rowBuilder.apply(iterator.next());
+        return true;
+    }
+
+    /**
+     * Gets the value of a field of the current row.
+     *
+     * @param field The field of the report.
+     * @return The value of the bean property of the field.
+     * @throws JRException If the property can't be read.
+     * @since 1.2
+     * @author Cesar Bianchi
+     */
+    @Override
+    public Object getFieldValue(JRField field) throws JRException {
+        return this.getFieldValue(currentRow, field);
+    }
+
+    /**
+     * Moves back before the first row. The rows are built again from their sources.
+     *
+     * @since 1.2
+     * @author Cesar Bianchi
+     */
+    @Override
+    public void moveFirst() {
+        currentRow = null;
+        iterator = sources.iterator();
+    }
+
+}
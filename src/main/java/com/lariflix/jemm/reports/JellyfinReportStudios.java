@@ -1,35 +1,22 @@
 package com.lariflix.jemm.reports;
 
-import com.lariflix.jemm.core.LoadFolders;
-import com.lariflix.jemm.core.LoadItemMetadata;
-import com.lariflix.jemm.core.LoadItems;
+import com.lariflix.jemm.core.LoadItemMetadataConcurrent;
 import com.lariflix.jemm.core.LoadStudios;
 import com.lariflix.jemm.dtos.JellyfinCadStudioItems;
-import com.lariflix.jemm.dtos.JellyfinFolders;
 import com.lariflix.jemm.dtos.JellyfinInstanceDetails;
 import com.lariflix.jemm.dtos.JellyfinItem;
 import com.lariflix.jemm.dtos.JellyfinItemMetadata;
-import com.lariflix.jemm.dtos.JellyfinItems;
-import com.lariflix.jemm.utils.JellyfimParameters;
 import com.lariflix.jemm.utils.JellyfinReportTypes;
-import com.lariflix.jemm.utils.JellyfinUtilFunctions;
 import com.lariflix.jemm.utils.JemmVersion;
 import java.io.IOException;
-import java.io.InputStream;
 import java.net.MalformedURLException;
 import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.Map;
-import java.util.logging.Level;
-import java.util.logging.Logger;
 import net.sf.jasperreports.engine.JRException;
-import net.sf.jasperreports.engine.JasperCompileManager;
-import net.sf.jasperreports.engine.JasperFillManager;
 import net.sf.jasperreports.engine.JasperPrint;
 import net.sf.jasperreports.engine.JasperReport;
 import net.sf.jasperreports.engine.data.JRBeanCollectionDataSource;
-import net.sf.jasperreports.engine.design.JasperDesign;
-import net.sf.jasperreports.engine.xml.JRXmlLoader;
 import net.sf.jasperreports.view.JasperViewer;
 import org.json.simple.parser.ParseException;
 
@@ -40,8 +27,8 @@ import org.json.simple.parser.ParseException;
  *
  * @author Cesar Bianchi
  */
-public class JellyfinReportStudios {
-    static JellyfinInstanceDetails instanceData = new JellyfinInstanceDetails();    
+public class JellyfinReportStudios implements JellyfinReport {
+    private JellyfinInstanceDetails instanceData = new JellyfinInstanceDetails();
     private JellyfinReportStudiosStructure items = new JellyfinReportStudiosStructure();
     private ArrayList<JellyfinItem> nonOrdenedEpisodes = new ArrayList();
     private int totalsubItems = 0;
@@ -71,7 +58,7 @@ public class JellyfinReportStudios {
      * @author Cesar Bianchi
      */
     public JellyfinReportStudios(JellyfinInstanceDetails instanceData, JellyfinReportTypes rpType) {
-        JellyfinReportStudios.instanceData = instanceData;
+        this.instanceData = instanceData;
         this.reportType = rpType;
     }
    
@@ -89,6 +76,7 @@ public class JellyfinReportStudios {
      * @since 1.1
      * @author Cesar Bianchi
      */
+    @Override
     public void loadReportItems() throws IOException, MalformedURLException, ParseException, JRException{
         
         switch(reportType) {
@@ -124,18 +112,24 @@ public class JellyfinReportStudios {
         JellyfinCadStudioItems studios = loadStudios.requestStudios();
         
         
-        for(int nI = 0; nI < studios.getTotalRecordCount();nI++){            
+        //Request the metadata of all studio items concurrently (see LoadItemMetadataConcurrent), in the order of the list
+        ArrayList<String> itemIDs = new ArrayList<>();
+        for(int nI = 0; nI < studios.getTotalRecordCount();nI++){
+            itemIDs.add(studios.getItems().get(nI).getId());
+        }
+        LoadItemMetadataConcurrent loadStudioItemMetadata = new LoadItemMetadataConcurrent(instanceData.getCredentials().getBaseURL(), instanceData.getCredentials().getTokenAPI(), instanceData.getAdminUser().getId());
+        ArrayList<JellyfinItemMetadata> studioItemMetadata = loadStudioItemMetadata.requestItemsMetadata(itemIDs);
+        
+        //As before, the report fails if the metadata of any item could not be loaded
+        if (loadStudioItemMetadata.hasFailures()){
+            Exception firstFailure = loadStudioItemMetadata.getFailures().values().iterator().next();
+            throw new IOException(loadStudioItemMetadata.getFailures().size() + " studio item(s) without metadata", firstFailure);
+        }
+        
+        for(int nI = 0; nI < itemIDs.size();nI++){            
             JellyfinReportStudiosItem item = new JellyfinReportStudiosItem();
             item.setItem( studios.getItems().get(nI) );
-            
-            //Get Studio Item Metadata
-            LoadItemMetadata loadStudioItemMetadata = new LoadItemMetadata();
-            loadStudioItemMetadata.setJellyfinInstanceUrl(instanceData.getCredentials().getBaseURL());
-            loadStudioItemMetadata.setApiToken(instanceData.getCredentials().getTokenAPI());
-            loadStudioItemMetadata.setcUserAdminID(instanceData.getAdminUser().getId());
-            loadStudioItemMetadata.setcItemID(item.getId());                
-            JellyfinItemMetadata studioItemMetadata = loadStudioItemMetadata.requestItemMetadata();            
-            item.setStudioMetadata(studioItemMetadata);
+            item.setStudioMetadata(studioItemMetadata.get(nI));
             
             items.add(item);
         }
@@ -144,69 +138,28 @@ public class JellyfinReportStudios {
     }
 
     /**
-     * Loads the sub-items for this JellyfinReportStudios.
+     * Loads the episodes of each studio.
      *
-     * This method retrieves all folders from the Jellyfin instance, retrieves all items for each folder, and adds each item to the non-ordered episodes list. Then, for each episode, it retrieves the metadata and checks if the studio episode is the same as the studio-item. If it is, it adds the episode and its metadata to the studio-item.
-     *
-     * This method throws an IOException if there is a problem with the input or output, and a ParseException if there is a problem with parsing the data.
+     * This method loads all episodes of the library and their metadata only once (see JellyfinReportEpisodeIndex), indexed by studio,
+     * and then adds to each studio-item the episodes found in the index. Each episode is requested once, whatever the number of studios.
      *
      * @throws IOException If there is a problem with the input or output.
      * @throws ParseException If there is a problem with parsing the data.
      * @since 1.1
      * @author Cesar Bianchi
      */
-    private void loadSubItems() {
+    private void loadSubItems() throws IOException, ParseException {
         
-        //1* Get All Folders
-        LoadFolders loadItems = new LoadFolders(JellyfimParameters.FOLDERS_AND_SUBFOLDERS);
-        loadItems.setJellyfinInstanceUrl(instanceData.getCredentials().getBaseURL());
-        loadItems.setApiToken(instanceData.getCredentials().getTokenAPI());
-        loadItems.setcUserAdminID(instanceData.adminUser.getId());        
-        JellyfinFolders folders;
-        try {
-            folders = loadItems.requestFolders();
-            
-            //2* Get All Itens for each folder
-            LoadItems loadSubItems = new LoadItems(JellyfimParameters.JUST_ITEMS);
-            loadSubItems.setJellyfinInstanceUrl(instanceData.getCredentials().getBaseURL());
-            loadSubItems.setApiToken(instanceData.getCredentials().getTokenAPI());
-            loadSubItems.setcUserAdminID(instanceData.adminUser.getId());        
-            
-            for (int nI = 0; nI< folders.getItems().size(); nI++){            
-                loadSubItems.setcParentID(folders.getItems().get(nI).getId());                            
-                JellyfinItems subItems = loadSubItems.requestItems();                
-                
-                for (int nJ = 0; nJ < subItems.getItems().size(); nJ++){                    
-                    nonOrdenedEpisodes.add(subItems.getItems().get(nJ));
-                }
-            }
-            
-            //3* For each episode, Get the metadata and check if the studio episode is the same of studios-item
-            LoadItemMetadata loadEpisodeMetadata = new LoadItemMetadata();
-            loadEpisodeMetadata.setJellyfinInstanceUrl(instanceData.getCredentials().getBaseURL());
-            loadEpisodeMetadata.setApiToken(instanceData.getCredentials().getTokenAPI());
-            loadEpisodeMetadata.setcUserAdminID(instanceData.getAdminUser().getId());
-            for (int nI = 0; nI < this.items.size(); nI++){
-            
-                //for (int nJ = 0; nJ < 10; nJ++){
-                for (int nJ = 0; nJ < nonOrdenedEpisodes.size(); nJ++){
-                    
-                    loadEpisodeMetadata.setcItemID(nonOrdenedEpisodes.get(nJ).getId());                
-                    JellyfinItemMetadata studioItemMetadata = loadEpisodeMetadata.requestItemMetadata();                            
-                    for (int nK = 0; nK < studioItemMetadata.getStudios().size(); nK++){
-                    
-                        if (studioItemMetadata.getStudios().get(nK).getId().equals(this.getItems().get(nI).getId())){
-                            
-                            this.items.get(nI).addStudioEpisode(nonOrdenedEpisodes.get(nJ),studioItemMetadata);
-                        }                        
-                    }
-                }
+        //1* Get All Episodes and their metadata, indexed by studio
+        JellyfinReportEpisodeIndex episodeIndex = new JellyfinReportEpisodeIndex();
+        episodeIndex.load(instanceData);
+        nonOrdenedEpisodes = episodeIndex.getEpisodes();
+        
+        //2* Fill each studio-item with its episodes from the index
+        for (int nI = 0; nI < this.items.size(); nI++){
+            for (JellyfinItem episode : episodeIndex.getStudioEpisodes(this.items.get(nI).getId())){
+                this.items.get(nI).addStudioEpisode(episode, episodeIndex.getEpisodeMetadata(episode.getId()));
             }
-            
-        } catch (IOException ex) {
-            Logger.getLogger(JellyfinReportStudios.class.getName()).log(Level.SEVERE, null, ex);
-        } catch (ParseException ex) {
-            Logger.getLogger(JellyfinReportStudios.class.getName()).log(Level.SEVERE, null, ex);
         }
         
     }
@@ -232,70 +185,37 @@ public class JellyfinReportStudios {
      * @author Cesar Bianchi
      */
     public void printReport() throws JRException, MalformedURLException, IOException {
-        String localReportBasePath = new JellyfinUtilFunctions().getJRXMLLocalPath();
-        String resorceReportBasePath =  new  JellyfinUtilFunctions().getJRXMLResourcePath();
-        
-        String jrxmlFile = new String();
-        JasperDesign draw = null;
+        this.showReport(this.fillReport());
+    }
+    
+    /**
+     * Fills the studios report with the loaded items, using the compiled template of the report type.
+     *
+     * @return The filled report.
+     * @throws JRException If there is a problem with generating the report.
+     * @throws MalformedURLException If the URL of the Jellyfin instance is not formatted correctly.
+     * @throws IOException If the report template can't be read.
+     * @since 1.2
+     * @author Cesar Bianchi
+     */
+    @Override
+    public JasperPrint fillReport() throws JRException, MalformedURLException, IOException {
+        JellyfinReportTemplateCache templateCache = JellyfinReportTemplateCache.getDefault();
         JasperReport report = null;
+        String subReportFile = new String();
         
-        String jrxmlSubRepFile = new String();
-        JasperReport subreport = null;
-        JasperDesign drawSub = null;
-        JellyfinUtilFunctions commonFunctions = new JellyfinUtilFunctions();
-        String tempFilesPath = System.getProperty("java.io.tmpdir");
-        
+        //The templates are compiled only once (see JellyfinReportTemplateCache)
         switch(reportType) {
             case STUDIOS_BASIC:
-                
-                if(instanceData.isDebug()){                    
-                    //DEBUG WAY
-                    System.out.println("This Application is running on Netbeans, in DEBUG MODE");                    
-                    jrxmlFile = localReportBasePath.concat("/InstanceStudiosBasic/JemmInstanceStudiosBasic.jrxml");       
-                    draw = JRXmlLoader.load( jrxmlFile );
-                    report =  JasperCompileManager.compileReport( draw );
-                } else {
-                    //EMBEBED WAY
-                    jrxmlFile = resorceReportBasePath.concat("/InstanceStudiosBasic/JemmInstanceStudiosBasic.jrxml");
-                    InputStream drawIS = getClass().getResourceAsStream(jrxmlFile);
-                    report =  JasperCompileManager.compileReport( drawIS );
-                }
+                report = templateCache.getReport("/InstanceStudiosBasic/JemmInstanceStudiosBasic.jrxml", instanceData.isDebug());
                 break;
             
             case STUDIOS_FULL:
-            
-                if(instanceData.isDebug() ){                    
-                    //DEBUG WAY
-                    System.out.println("This Application is running on Netbeans, in DEBUG MODE");   
-                    jrxmlFile = localReportBasePath.concat("/InstanceStudiosFull/JemmInstanceStudiosFull.jrxml");       
-                    draw = JRXmlLoader.load( jrxmlFile );
-                    report =  JasperCompileManager.compileReport( draw );
-                    
-                    
-                    jrxmlSubRepFile = localReportBasePath.concat("/InstanceStudiosFull/JemmInstanceStudiosFullSubItems.jrxml");       
-                    drawSub = JRXmlLoader.load( jrxmlFile );
-                    subreport = JasperCompileManager.compileReport( drawSub );
-                    
-                    //Use a localfile subreport
-                    JasperCompileManager.compileReportToFile(jrxmlSubRepFile,tempFilesPath.concat("JemmInstanceStudiosFullSubItems.jasper"));
-                } else {
-                    //EMBEBED WAY
-                    jrxmlFile = resorceReportBasePath.concat("/InstanceStudiosFull/JemmInstanceStudiosFull.jrxml");
-                    InputStream drawIS = getClass().getResourceAsStream(jrxmlFile);
-                    report =  JasperCompileManager.compileReport( drawIS );
-                    
-                    //Extract subreport from resource to a localfile                    
-                    jrxmlSubRepFile =  resorceReportBasePath.concat("/InstanceStudiosFull/JemmInstanceStudiosFullSubItems.jrxml");                    
-                    if (commonFunctions.extractFileFromJar(jrxmlSubRepFile, "JemmInstanceStudiosFullSubItems.jrxml") ){
-                        JasperCompileManager.compileReportToFile(tempFilesPath.concat("JemmInstanceStudiosFullSubItems.jrxml"),tempFilesPath.concat("JemmInstanceStudiosFullSubItems.jasper"));                    
-                    }
-                }
-                
-                                
+                report = templateCache.getReport("/InstanceStudiosFull/JemmInstanceStudiosFull.jrxml", instanceData.isDebug());
+                subReportFile = templateCache.getCompiledFile("/InstanceStudiosFull/JemmInstanceStudiosFullSubItems.jrxml", instanceData.isDebug());
                 break;
-                
-        }       
-
+        }
+        
         //Set report Data Source
         JRBeanCollectionDataSource dataSource = new JRBeanCollectionDataSource(this.getItems());
 
@@ -305,16 +225,33 @@ public class JellyfinReportStudios {
         reportParameters.put("JEMM_VERSION",new JemmVersion().getVersion() );
         reportParameters.put("TOTAL_FOLDERITEMS",Integer.toString(this.items.size()));
         reportParameters.put("TOTAL_CONTENT",Integer.toString(this.totalsubItems));
-        reportParameters.put("SUBREPORT_JASPER_FILE",tempFilesPath.concat("JemmInstanceStudiosFullSubItems.jasper"));
+        reportParameters.put("SUBREPORT_JASPER_FILE",subReportFile);
         
-        //Paint Report
-        JasperPrint paintedReport = JasperFillManager.fillReport( report , reportParameters,  dataSource);
+        //Paint Report: the FULL report is filled in shards, on parallel workers (see JellyfinReportFiller)
+        JasperPrint paintedReport = null;
+        boolean lowMemory = JellyfinReportFiller.isLowMemory(this.nonOrdenedEpisodes.size());
+        if (reportType == JellyfinReportTypes.STUDIOS_FULL && !lowMemory){
+            paintedReport = JellyfinReportFiller.fillSharded( report , reportParameters, JellyfinReportFiller.shard(this.getItems(), item -> item.getStudioEpisodes().size(), JellyfinReportFiller.getShardCount()));
+        } else {
+            paintedReport = JellyfinReportFiller.fill( report , reportParameters,  dataSource, lowMemory);
+        }
         
+        return paintedReport;
+    }
+    
+    /**
+     * Shows the filled studios report in a new JasperViewer. It must be called on the Event Dispatch Thread.
+     *
+     * @param paintedReport The filled report.
+     * @since 1.2
+     * @author Cesar Bianchi
+     */
+    @Override
+    public void showReport(JasperPrint paintedReport) {
         //Show Report
         JasperViewer viewer = new JasperViewer( paintedReport , false );
         viewer.setTitle("Jellyfin Easy Metadata Manager - Studios Report");
         viewer.show();
-       
     }
     
     /**
@@ -1,33 +1,21 @@
 package com.lariflix.jemm.reports;
 
-import com.lariflix.jemm.core.LoadFolders;
-import com.lariflix.jemm.core.LoadItemMetadata;
-import com.lariflix.jemm.core.LoadItems;
-import com.lariflix.jemm.dtos.JellyfinFolders;
+import com.lariflix.jemm.core.JellyfinLibrarySnapshot;
+import com.lariflix.jemm.core.JellyfinLibrarySnapshotLoader;
 import com.lariflix.jemm.dtos.JellyfinInstanceDetails;
 import com.lariflix.jemm.dtos.JellyfinItem;
 import com.lariflix.jemm.dtos.JellyfinItemMetadata;
-import com.lariflix.jemm.dtos.JellyfinItems;
-import com.lariflix.jemm.utils.JellyfimParameters;
 import com.lariflix.jemm.utils.JellyfinReportTypes;
-import com.lariflix.jemm.utils.JellyfinUtilFunctions;
 import com.lariflix.jemm.utils.JemmVersion;
 import java.io.IOException;
-import java.io.InputStream;
 import java.net.MalformedURLException;
 import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.Map;
-import java.util.logging.Level;
-import java.util.logging.Logger;
 import net.sf.jasperreports.engine.JRException;
-import net.sf.jasperreports.engine.JasperCompileManager;
-import net.sf.jasperreports.engine.JasperFillManager;
 import net.sf.jasperreports.engine.JasperPrint;
 import net.sf.jasperreports.engine.JasperReport;
 import net.sf.jasperreports.engine.data.JRBeanCollectionDataSource;
-import net.sf.jasperreports.engine.design.JasperDesign;
-import net.sf.jasperreports.engine.xml.JRXmlLoader;
 import net.sf.jasperreports.view.JasperViewer;
 import org.json.simple.parser.ParseException;
 
@@ -39,9 +27,9 @@ import org.json.simple.parser.ParseException;
  *
  * @author Cesar Bianchi
  */
-public class JellyfinReportTags {
+public class JellyfinReportTags implements JellyfinReport {
 
-    static JellyfinInstanceDetails instanceData = new JellyfinInstanceDetails();    
+    private JellyfinInstanceDetails instanceData = new JellyfinInstanceDetails();
     private JellyfinReportTagsStructure items = new JellyfinReportTagsStructure();
     private ArrayList<JellyfinItem> nonOrdenedEpisodes = new ArrayList();
     private int totalsubItems = 0;
@@ -71,7 +59,7 @@ public class JellyfinReportTags {
      * @author Cesar Bianchi
      */
     public JellyfinReportTags(JellyfinInstanceDetails instanceData, JellyfinReportTypes rpType) {
-        JellyfinReportTags.instanceData = instanceData;
+        this.instanceData = instanceData;
         this.reportType = rpType;
     }
     
@@ -92,6 +80,7 @@ public class JellyfinReportTags {
      * @since 1.1
      * @author Cesar Bianchi
      */
+    @Override
     public void loadReportItems() throws IOException, MalformedURLException, ParseException, JRException{
         
         switch(reportType) {
@@ -108,7 +97,7 @@ public class JellyfinReportTags {
      * Loads the items for this JellyfinReportTags.
      *
      * This method retrieves all folders from the Jellyfin instance, retrieves all items for each folder, and adds each item to the non-ordered episodes list. 
-     * Then, for each episode, it retrieves the metadata and checks if the tag episode is the same as the tag-item. If it is, it adds the episode and its metadata to the tag-item.
+     * Then the episodes are grouped by tag in a hash-indexed accumulator (see JellyfinReportGroupBy), and the tag-items are sorted once by name.
      *
      * This method throws an IOException if there is a problem with the input or output, and a ParseException if there is a problem with parsing the data.
      *
@@ -117,85 +106,21 @@ public class JellyfinReportTags {
      * @since 1.1
      * @author Cesar Bianchi
      */
-    private void loadItems() {
+    private void loadItems() throws IOException, ParseException {
         
-        //1* Get All Folders
-        LoadFolders loadItems = new LoadFolders(JellyfimParameters.FOLDERS_AND_SUBFOLDERS);
-        loadItems.setJellyfinInstanceUrl(instanceData.getCredentials().getBaseURL());
-        loadItems.setApiToken(instanceData.getCredentials().getTokenAPI());
-        loadItems.setcUserAdminID(instanceData.adminUser.getId());        
-        JellyfinFolders folders;
-        try {
-            folders = loadItems.requestFolders();
-            
-            //2* Get All Itens for each folder
-            LoadItems loadSubItems = new LoadItems(JellyfimParameters.JUST_ITEMS);
-            loadSubItems.setJellyfinInstanceUrl(instanceData.getCredentials().getBaseURL());
-            loadSubItems.setApiToken(instanceData.getCredentials().getTokenAPI());
-            loadSubItems.setcUserAdminID(instanceData.adminUser.getId());
-            for (int nI = 0; nI< folders.getItems().size(); nI++){            
-                loadSubItems.setcParentID(folders.getItems().get(nI).getId());                            
-                JellyfinItems subItems = loadSubItems.requestItems();                
-                
-                for (int nJ = 0; nJ < subItems.getItems().size(); nJ++){                    
-                    nonOrdenedEpisodes.add(subItems.getItems().get(nJ));
-                }
-            }
-            
-            //3* For each episode, Get the ItemMetadata
-            LoadItemMetadata loadEpisodeMetadata = new LoadItemMetadata();
-            loadEpisodeMetadata.setJellyfinInstanceUrl(instanceData.getCredentials().getBaseURL());
-            loadEpisodeMetadata.setApiToken(instanceData.getCredentials().getTokenAPI());
-            loadEpisodeMetadata.setcUserAdminID(instanceData.getAdminUser().getId());
-            
-            //for (int nJ = 0; nJ < 10; nJ++){
-            for (int nJ = 0; nJ < nonOrdenedEpisodes.size(); nJ++){
-
-                loadEpisodeMetadata.setcItemID(nonOrdenedEpisodes.get(nJ).getId());                
-                JellyfinItemMetadata episodeItemMetadata = loadEpisodeMetadata.requestItemMetadata();                                                
-                nonOrdenedEpisodes.get(nJ).setItemMetadata(episodeItemMetadata);
-                
-                //4* add the itemTag to TagList
-                for (int nK = 0; nK < episodeItemMetadata.getTags().size(); nK++){
-
-                    //Check if the tag has already added before
-                    String tag = episodeItemMetadata.getTags().get(nK);
-                    boolean added = false;
-
-                    for (int nI = 0; nI < this.items.size() ; nI++){
-                        String tempTag = this.items.get(nI).getTagName();
-                        if (tempTag.equals(tag)){
-                            added = true;
-
-                            //add the Episode as TagSubItem
-                            JellyfinReportInventorySubItem episode = new JellyfinReportInventorySubItem();
-                            episode.setSubItem(nonOrdenedEpisodes.get(nJ));                           
-                            episode.setSubItemMetadata(nonOrdenedEpisodes.get(nJ).getItemMetadata());
-                            
-                            this.items.get(nI).addTagEpisode(episode);
-
-                            break;                                
-                        }
-                    }
-
-                    if (!added){
-                        JellyfinReportInventorySubItem episode = new JellyfinReportInventorySubItem();
-                        episode.setSubItem(nonOrdenedEpisodes.get(nJ));                                
-                        episode.setSubItemMetadata(nonOrdenedEpisodes.get(nJ).getItemMetadata());
-                        JellyfinReportTagsItem newTag = new JellyfinReportTagsItem();
-                        newTag.setTagName(tag);
-                        newTag.addTagEpisode(episode);
-
-                        this.items.add(newTag);
-                    }
+        //1* Get All Episodes and their metadata from the library snapshot shared by all reports
+        JellyfinLibrarySnapshot librarySnapshot = JellyfinLibrarySnapshotLoader.getDefault().getSnapshot(instanceData);
+        nonOrdenedEpisodes = new ArrayList<>(librarySnapshot.getEpisodes());
+        
+        //2* Group the episodes by tag. An episode without metadata is left out of the report
+        Map<String, ArrayList<JellyfinReportInventorySubItem>> tagEpisodes = JellyfinReportGroupBy.group(nonOrdenedEpisodes, librarySnapshot.getMetadata(), JellyfinItemMetadata::getTags);
+        
+        for (Map.Entry<String, ArrayList<JellyfinReportInventorySubItem>> tag : tagEpisodes.entrySet()){
+            JellyfinReportTagsItem newTag = new JellyfinReportTagsItem();
+            newTag.setTagName(tag.getKey());
+            newTag.setTagEpisodes(tag.getValue());
 
-                }
-            }
-            
-        } catch (IOException ex) {
-            Logger.getLogger(JellyfinReportGenres.class.getName()).log(Level.SEVERE, null, ex);
-        } catch (ParseException ex) {
-            Logger.getLogger(JellyfinReportGenres.class.getName()).log(Level.SEVERE, null, ex);
+            this.items.add(newTag);
         }
         
         items.sort((o1, o2) -> o1.getTagName().toUpperCase().compareTo(o2.getTagName().toUpperCase()));
@@ -223,70 +148,37 @@ public class JellyfinReportTags {
      * @author Cesar Bianchi
      */
     public void printReport() throws JRException, MalformedURLException, IOException {
-        String localReportBasePath = new JellyfinUtilFunctions().getJRXMLLocalPath();
-        String resorceReportBasePath =  new  JellyfinUtilFunctions().getJRXMLResourcePath();
-        
-        String jrxmlFile = new String();
-        JasperDesign draw = null;
+        this.showReport(this.fillReport());
+    }
+    
+    /**
+     * Fills the tags report with the loaded items, using the compiled template of the report type.
+     *
+     * @return The filled report.
+     * @throws JRException If there is a problem with generating the report.
+     * @throws MalformedURLException If the URL of the Jellyfin instance is not formatted correctly.
+     * @throws IOException If the report template can't be read.
+     * @since 1.2
+     * @author Cesar Bianchi
+     */
+    @Override
+    public JasperPrint fillReport() throws JRException, MalformedURLException, IOException {
+        JellyfinReportTemplateCache templateCache = JellyfinReportTemplateCache.getDefault();
         JasperReport report = null;
+        String subReportFile = new String();
         
-        String jrxmlSubRepFile = new String();
-        JasperReport subreport = null;
-        JasperDesign drawSub = null;
-        JellyfinUtilFunctions commonFunctions = new JellyfinUtilFunctions();
-        String tempFilesPath = System.getProperty("java.io.tmpdir");
-        
+        //The templates are compiled only once (see JellyfinReportTemplateCache)
         switch(reportType) {
             case TAGS_BASIC:
-                
-                if(instanceData.isDebug()){                    
-                    //DEBUG WAY
-                    System.out.println("This Application is running on Netbeans, in DEBUG MODE");                    
-                    jrxmlFile = localReportBasePath.concat("/InstanceTagsBasic/JemmInstanceTagsBasic.jrxml");       
-                    draw = JRXmlLoader.load( jrxmlFile );
-                    report =  JasperCompileManager.compileReport( draw );
-                } else {
-                    //EMBEBED WAY
-                    jrxmlFile = resorceReportBasePath.concat("/InstanceTagsBasic/JemmInstanceTagsBasic.jrxml");
-                    InputStream drawIS = getClass().getResourceAsStream(jrxmlFile);
-                    report =  JasperCompileManager.compileReport( drawIS );
-                }
+                report = templateCache.getReport("/InstanceTagsBasic/JemmInstanceTagsBasic.jrxml", instanceData.isDebug());
                 break;
             
             case TAGS_FULL:
-            
-                if(instanceData.isDebug() ){                    
-                    //DEBUG WAY
-                    System.out.println("This Application is running on Netbeans, in DEBUG MODE");   
-                    jrxmlFile = localReportBasePath.concat("/InstanceTagsFull/JemmInstanceTagsFull.jrxml");       
-                    draw = JRXmlLoader.load( jrxmlFile );
-                    report =  JasperCompileManager.compileReport( draw );
-                    
-                    
-                    jrxmlSubRepFile = localReportBasePath.concat("/InstanceTagsFull/JemmInstanceTagsFullSubItems.jrxml");       
-                    drawSub = JRXmlLoader.load( jrxmlFile );
-                    subreport = JasperCompileManager.compileReport( drawSub );
-                    
-                    //Use a localfile subreport
-                    JasperCompileManager.compileReportToFile(jrxmlSubRepFile,tempFilesPath.concat("JemmInstanceTagsFullSubItems.jasper"));
-                } else {
-                    //EMBEBED WAY
-                    jrxmlFile = resorceReportBasePath.concat("/InstanceTagsFull/JemmInstanceTagsFull.jrxml");
-                    InputStream drawIS = getClass().getResourceAsStream(jrxmlFile);
-                    report =  JasperCompileManager.compileReport( drawIS );
-                    
-                    //Extract subreport from resource to a localfile                    
-                    jrxmlSubRepFile =  resorceReportBasePath.concat("/InstanceTagsFull/JemmInstanceTagsFullSubItems.jrxml");                    
-                    if (commonFunctions.extractFileFromJar(jrxmlSubRepFile, "JemmInstanceTagsFullSubItems.jrxml") ){
-                        JasperCompileManager.compileReportToFile(tempFilesPath.concat("JemmInstanceTagsFullSubItems.jrxml"),tempFilesPath.concat("JemmInstanceTagsFullSubItems.jasper"));                    
-                    }
-                }
-                
-                                
+                report = templateCache.getReport("/InstanceTagsFull/JemmInstanceTagsFull.jrxml", instanceData.isDebug());
+                subReportFile = templateCache.getCompiledFile("/InstanceTagsFull/JemmInstanceTagsFullSubItems.jrxml", instanceData.isDebug());
                 break;
-                
-        }       
-
+        }
+        
         //Set report Data Source
         JRBeanCollectionDataSource dataSource = new JRBeanCollectionDataSource(this.getItems());
 
@@ -296,16 +188,33 @@ public class JellyfinReportTags {
         reportParameters.put("JEMM_VERSION",new JemmVersion().getVersion() );
         reportParameters.put("TOTAL_FOLDERITEMS",Integer.toString(this.items.size()));
         reportParameters.put("TOTAL_CONTENT",Integer.toString(this.totalsubItems));
-        reportParameters.put("SUBREPORT_JASPER_FILE",tempFilesPath.concat("JemmInstanceTagsFullSubItems.jasper"));
+        reportParameters.put("SUBREPORT_JASPER_FILE",subReportFile);
         
-        //Paint Report
-        JasperPrint paintedReport = JasperFillManager.fillReport( report , reportParameters,  dataSource);
+        //Paint Report: the FULL report is filled in shards, on parallel workers (see JellyfinReportFiller)
+        JasperPrint paintedReport = null;
+        boolean lowMemory = JellyfinReportFiller.isLowMemory(this.nonOrdenedEpisodes.size());
+        if (reportType == JellyfinReportTypes.TAGS_FULL && !lowMemory){
+            paintedReport = JellyfinReportFiller.fillSharded( report , reportParameters, JellyfinReportFiller.shard(this.getItems(), item -> item.getTagEpisodes().size(), JellyfinReportFiller.getShardCount()));
+        } else {
+            paintedReport = JellyfinReportFiller.fill( report , reportParameters,  dataSource, lowMemory);
+        }
         
+        return paintedReport;
+    }
+    
+    /**
+     * Shows the filled tags report in a new JasperViewer. It must be called on the Event Dispatch Thread.
+     *
+     * @param paintedReport The filled report.
+     * @since 1.2
+     * @author Cesar Bianchi
+     */
+    @Override
+    public void showReport(JasperPrint paintedReport) {
         //Show Report
         JasperViewer viewer = new JasperViewer( paintedReport , false );
         viewer.setTitle("Jellyfin Easy Metadata Manager - Tags Report");
         viewer.show();
-       
     }
 
     /**
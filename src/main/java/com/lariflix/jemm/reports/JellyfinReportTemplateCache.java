@@ -0,0 +1,279 @@
+package com.lariflix.jemm.reports;
+
+import com.lariflix.jemm.utils.JellyfinUtilFunctions;
+import com.lariflix.jemm.utils.JemmVersion;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HashMap;
+import java.util.HexFormat;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import net.sf.jasperreports.engine.JRException;
+import net.sf.jasperreports.engine.JasperCompileManager;
+import net.sf.jasperreports.engine.JasperReport;
+import net.sf.jasperreports.engine.util.JRLoader;
+import net.sf.jasperreports.engine.util.JRSaver;
+
+/**
+ * This class compiles the JasperReports templates (.jrxml) of the reports once and reuses the compiled reports (.jasper).
+ *
+ * The compiled reports are indexed by the SHA-256 hash of the template content, so a changed template is always compiled again.
+ * They are kept in memory and in a cache directory per JEMM version (~/.jemm/reports/&lt;version&gt;), so the next runs of JEMM
+ * don't compile them again. The subreports are read by JasperReports from a file, so getCompiledFile() returns the cached .jasper file.
+ *
+ * @author Cesar Bianchi
+ * @since 1.2
+ */
+public class JellyfinReportTemplateCache {
+
+    private static final JellyfinReportTemplateCache defaultCache = new JellyfinReportTemplateCache();
+
+    private final Path cacheDir;
+    private final HashMap<String, JasperReport> compiledReports = new HashMap<>();
+    private Path runDir = null;
+
+    /**
+     * Constructor for the JellyfinReportTemplateCache class, using the directory ~/.jemm/reports/&lt;JEMM version&gt;.
+     *
+     * @since 1.2
+     * @author Cesar Bianchi
+     */
+    public JellyfinReportTemplateCache() {
+        this(Paths.get(System.getProperty("user.home"), ".jemm", "reports", new JemmVersion().getVersion()));
+    }
+
+    /**
+     * Constructor for the JellyfinReportTemplateCache class.
+     *
+     * @param cacheDir The directory where the compiled reports are stored.
+     * @since 1.2
+     * @author Cesar Bianchi
+     */
+    public JellyfinReportTemplateCache(Path cacheDir) {
+        this.cacheDir = cacheDir;
+    }
+
+    /**
+     * Gets the cache shared by all reports.
+     *
+     * @return The default cache.
+     * @since 1.2
+     * @author Cesar Bianchi
+     */
+    public static JellyfinReportTemplateCache getDefault() {
+        return defaultCache;
+    }
+
+    /**
+     * Gets the compiled report of a template, compiling it only if it was never compiled before.
+     *
+     * @param templatePath The path of the template, relative to the report base path (e.g. "/InstanceTagsFull/JemmInstanceTagsFull.jrxml").
+     * @param debug If true, the template is read from the local JRXML path instead of the embedded resources.
+     * @return The compiled report.
+     * @throws JRException If the template can't be compiled.
+     * @throws IOException If the template can't be read.
+     * @since 1.2
+     * @author Cesar Bianchi
+     */
+    public JasperReport getReport(String templatePath, boolean debug) throws JRException, IOException {
+        return this.getReport(this.readTemplate(templatePath, debug));
+    }
+
+    /**
+     * Gets the compiled report file of a template (e.g. to be used as a subreport), compiling it only if it was never compiled before.
+     *
+     * @param templatePath The path of the template, relative to the report base path.
+     * @param debug If true, the template is read from the local JRXML path instead of the embedded resources.
+     * @return The full path of the compiled report file.
+     * @throws JRException If the template can't be compiled.
+     * @throws IOException If the template can't be read or the compiled file can't be written.
+     * @since 1.2
+     * @author Cesar Bianchi
+     */
+    public String getCompiledFile(String templatePath, boolean debug) throws JRException, IOException {
+        byte[] template = this.readTemplate(templatePath, debug);
+        this.getReport(template);
+
+        return this.getCompiledFile(template).toAbsolutePath().toString();
+    }
+
+    /**
+     * Gets the compiled report of a template content: from memory, from the cache directory or compiling it.
+     *
+     * @param template The content of the template.
+     * @return The compiled report.
+     * @throws JRException If the template can't be compiled.
+     * @since 1.2
+     * @author Cesar Bianchi
+     */
+    synchronized JasperReport getReport(byte[] template) throws JRException {
+        String key = this.getKey(template);
+
+        //1* In memory
+        JasperReport report = compiledReports.get(key);
+        if (report != null){
+            return report;
+        }
+
+        //2* In the cache directory, compiled by a previous run
+        Path compiledFile = cacheDir.resolve(key.concat(".jasper"));
+        if (Files.isRegularFile(compiledFile)){
+            try {
+                report = (JasperReport) JRLoader.loadObject(compiledFile.toFile());
+            } catch (JRException | ClassCastException ex) {
+                Logger.getLogger(JellyfinReportTemplateCache.class.getName()).log(Level.WARNING, "Ignoring unreadable compiled report " + compiledFile, ex);
+            }
+        }
+
+        //3* Compile it, and save it for the next runs
+        if (report == null){
+            report = JasperCompileManager.compileReport(new ByteArrayInputStream(template));
+            this.saveCompiledReport(report, compiledFile);
+        }
+
+        compiledReports.put(key, report);
+        return report;
+    }
+
+    /**
+     * Gets the compiled report file of a template content. The template must have been compiled by getReport() before.
+     *
+     * @param template The content of the template.
+     * @return The compiled report file.
+     * @throws JRException If the compiled report can't be written.
+     * @throws IOException If the compiled report can't be written.
+     * @since 1.2
+     * @author Cesar Bianchi
+     */
+    private synchronized Path getCompiledFile(byte[] template) throws JRException, IOException {
+        String key = this.getKey(template);
+        Path compiledFile = cacheDir.resolve(key.concat(".jasper"));
+
+        //The cache directory may not be writable: then the file is written on the temporary directory of this run
+        if (!Files.isRegularFile(compiledFile)){
+            compiledFile = this.getRunDir().resolve(key.concat(".jasper"));
+            if (!Files.isRegularFile(compiledFile)){
+                JRSaver.saveObject(compiledReports.get(key), compiledFile.toFile());
+                compiledFile.toFile().deleteOnExit();
+            }
+        }
+
+        return compiledFile;
+    }
+
+    /**
+     * Gets the temporary directory of this run, creating it on the first call. Its name is unique, so reports of other JEMM
+     * instances never write to the same files. It is deleted when JEMM exits.
+     *
+     * @return The temporary directory of this run.
+     * @throws IOException If the directory can't be created.
+     * @since 1.2
+     * @author Cesar Bianchi
+     */
+    synchronized Path getRunDir() throws IOException {
+        if (runDir == null){
+            runDir = Files.createTempDirectory("jemm-run-");
+            runDir.toFile().deleteOnExit();
+        }
+        return runDir;
+    }
+
+    /**
+     * Saves a compiled report in the cache directory. It is written to a temporary file first and then moved, so a crash never leaves a truncated file.
+     * A failure is only logged: the report is compiled again by the next run.
+     *
+     * @param report The compiled report.
+     * @param compiledFile The file of the compiled report.
+     * @since 1.2
+     * @author Cesar Bianchi
+     */
+    private void saveCompiledReport(JasperReport report, Path compiledFile) {
+        try {
+            Files.createDirectories(cacheDir);
+            Path tempFile = Files.createTempFile(cacheDir, "report", ".tmp");
+            try {
+                JRSaver.saveObject(report, tempFile.toFile());
+                Files.move(tempFile, compiledFile, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            } finally {
+                Files.deleteIfExists(tempFile);
+            }
+        } catch (IOException | JRException ex) {
+            Logger.getLogger(JellyfinReportTemplateCache.class.getName()).log(Level.WARNING, "Compiled report not cached on disk", ex);
+        }
+    }
+
+    /**
+     * Reads the content of a template, from the embedded resources or, in debug mode, from the local JRXML path.
+     *
+     * @param templatePath The path of the template, relative to the report base path.
+     * @param debug If true, the template is read from the local JRXML path.
+     * @return The content of the template.
+     * @throws IOException If the template doesn't exist or can't be read.
+     * @since 1.2
+     * @author Cesar Bianchi
+     */
+    private byte[] readTemplate(String templatePath, boolean debug) throws IOException {
+        JellyfinUtilFunctions commonFunctions = new JellyfinUtilFunctions();
+
+        if (debug){
+            //DEBUG WAY
+            System.out.println("This Application is running on Netbeans, in DEBUG MODE");
+            return Files.readAllBytes(Paths.get(commonFunctions.getJRXMLLocalPath().concat(templatePath)));
+        }
+
+        //EMBEBED WAY
+        String resourcePath = commonFunctions.getJRXMLResourcePath().concat(templatePath);
+        try (InputStream templateIS = getClass().getResourceAsStream(resourcePath)) {
+            if (templateIS == null){
+                throw new IOException("Report template not found: " + resourcePath);
+            }
+            return templateIS.readAllBytes();
+        }
+    }
+
+    /**
+     * Gets the cache key of a template: the SHA-256 hash of its content, in hexadecimal.
+     *
+     * @param template The content of the template.
+     * @return The cache key.
+     * @since 1.2
+     * @author Cesar Bianchi
+     */
+    String getKey(byte[] template) {
+        try {
+            return HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(template));
+        } catch (NoSuchAlgorithmException ex) {
+            //Every Java platform supports SHA-256
+            throw new IllegalStateException(ex);
+        }
+    }
+
+    /**
+     * Drops the compiled reports kept in memory. The cache directory is kept.
+     *
+     * @since 1.2
+     * @author Cesar Bianchi
+     */
+    public synchronized void clear() {
+        compiledReports.clear();
+    }
+
+    /**
+     * Gets the directory where the compiled reports are stored.
+     *
+     * @return The cache directory.
+     * @since 1.2
+     * @author Cesar Bianchi
+     */
+    public Path getCacheDir() {
+        return cacheDir;
+    }
+
+}
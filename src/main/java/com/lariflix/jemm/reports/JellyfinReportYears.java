@@ -1,33 +1,25 @@
 package com.lariflix.jemm.reports;
 
-import com.lariflix.jemm.core.LoadFolders;
-import com.lariflix.jemm.core.LoadItemMetadata;
-import com.lariflix.jemm.core.LoadItems;
-import com.lariflix.jemm.dtos.JellyfinFolders;
+import com.lariflix.jemm.core.JellyfinLibrarySnapshot;
+import com.lariflix.jemm.core.JellyfinLibrarySnapshotLoader;
 import com.lariflix.jemm.dtos.JellyfinInstanceDetails;
 import com.lariflix.jemm.dtos.JellyfinItem;
 import com.lariflix.jemm.dtos.JellyfinItemMetadata;
-import com.lariflix.jemm.dtos.JellyfinItems;
-import com.lariflix.jemm.utils.JellyfimParameters;
+import com.lariflix.jemm.utils.JellyfinItemFields;
 import com.lariflix.jemm.utils.JellyfinReportTypes;
-import com.lariflix.jemm.utils.JellyfinUtilFunctions;
 import com.lariflix.jemm.utils.JemmVersion;
 import java.io.IOException;
-import java.io.InputStream;
 import java.net.MalformedURLException;
 import java.util.ArrayList;
+import java.util.EnumSet;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
-import java.util.logging.Level;
-import java.util.logging.Logger;
+import java.util.Set;
 import net.sf.jasperreports.engine.JRException;
-import net.sf.jasperreports.engine.JasperCompileManager;
-import net.sf.jasperreports.engine.JasperFillManager;
 import net.sf.jasperreports.engine.JasperPrint;
 import net.sf.jasperreports.engine.JasperReport;
 import net.sf.jasperreports.engine.data.JRBeanCollectionDataSource;
-import net.sf.jasperreports.engine.design.JasperDesign;
-import net.sf.jasperreports.engine.xml.JRXmlLoader;
 import net.sf.jasperreports.view.JasperViewer;
 import org.json.simple.parser.ParseException;
 
@@ -39,8 +31,8 @@ import org.json.simple.parser.ParseException;
  *
  * @author Cesar Bianchi
  */
-public class JellyfinReportYears {
-    static JellyfinInstanceDetails instanceData = new JellyfinInstanceDetails();    
+public class JellyfinReportYears implements JellyfinReport {
+    private JellyfinInstanceDetails instanceData = new JellyfinInstanceDetails();
     private JellyfinReportYearsStructure items = new JellyfinReportYearsStructure();
     private ArrayList<JellyfinItem> nonOrdenedEpisodes = new ArrayList();
     private int totalsubItems = 0;
@@ -70,7 +62,7 @@ public class JellyfinReportYears {
      * @author Cesar Bianchi
      */
     public JellyfinReportYears(JellyfinInstanceDetails instanceData, JellyfinReportTypes rpType) {
-        JellyfinReportYears.instanceData = instanceData;
+        this.instanceData = instanceData;
         this.reportType = rpType;
     }
     
@@ -88,6 +80,7 @@ public class JellyfinReportYears {
      * @since 1.1
      * @author Cesar Bianchi
      */
+    @Override
     public void loadReportItems() throws IOException, MalformedURLException, ParseException, JRException{        
         this.loadItems();        
     }
@@ -95,7 +88,7 @@ public class JellyfinReportYears {
     /**
      * Loads the items for this JellyfinReportYears.
      *
-     * This method retrieves all folders from the Jellyfin instance, retrieves all items for each folder, and adds each item to the non-ordered episodes list. Then, for each episode, it retrieves the metadata and adds the production year to the year list. If the year has already been added, it adds the episode as a year sub-item. If the year has not been added, it creates a new JellyfinReportYearsItem with the year and episode and adds it to the items list.
+     * This method retrieves all folders from the Jellyfin instance, retrieves all items for each folder, and adds each item to the non-ordered episodes list. Then the episodes are grouped by production year in a hash-indexed accumulator (see JellyfinReportGroupBy), a JellyfinReportYearsItem is created for each year and the items are sorted once by year.
      *
      * This method throws an IOException if there is a problem with the input or output, and a ParseException if there is a problem with parsing the data.
      *
@@ -104,87 +97,60 @@ public class JellyfinReportYears {
      * @since 1.1
      * @author Cesar Bianchi
      */
-    private void loadItems() {
+    private void loadItems() throws IOException, ParseException {
         
-        //1* Get All Folders
-        LoadFolders loadItems = new LoadFolders(JellyfimParameters.FOLDERS_AND_SUBFOLDERS);
-        loadItems.setJellyfinInstanceUrl(instanceData.getCredentials().getBaseURL());
-        loadItems.setApiToken(instanceData.getCredentials().getTokenAPI());
-        loadItems.setcUserAdminID(instanceData.adminUser.getId());        
-        JellyfinFolders folders;
+        //1* Get All Episodes from the library snapshot shared by all reports, without their metadata
+        JellyfinLibrarySnapshot librarySnapshot = JellyfinLibrarySnapshotLoader.getDefault().getSnapshot(instanceData, this.getItemFields());
+        nonOrdenedEpisodes = new ArrayList<>(librarySnapshot.getEpisodes());
         
-        try {
-            folders = loadItems.requestFolders();
-            
-            //2* Get All Itens for each folder
-            LoadItems loadSubItems = new LoadItems(JellyfimParameters.JUST_ITEMS);
-            loadSubItems.setJellyfinInstanceUrl(instanceData.getCredentials().getBaseURL());
-            loadSubItems.setApiToken(instanceData.getCredentials().getTokenAPI());
-            loadSubItems.setcUserAdminID(instanceData.adminUser.getId());
-            for (int nI = 0; nI< folders.getItems().size(); nI++){            
-                loadSubItems.setcParentID(folders.getItems().get(nI).getId());                            
-                JellyfinItems subItems = loadSubItems.requestItems();                
-                
-                for (int nJ = 0; nJ < subItems.getItems().size(); nJ++){                    
-                    nonOrdenedEpisodes.add(subItems.getItems().get(nJ));
-                }
-            }
-            
-            //3* For each episode, Get the ItemMetadata
-            LoadItemMetadata loadEpisodeMetadata = new LoadItemMetadata();
-            loadEpisodeMetadata.setJellyfinInstanceUrl(instanceData.getCredentials().getBaseURL());
-            loadEpisodeMetadata.setApiToken(instanceData.getCredentials().getTokenAPI());
-            loadEpisodeMetadata.setcUserAdminID(instanceData.getAdminUser().getId());
-            
-            //for (int nJ = 0; nJ < 10; nJ++){
-            for (int nJ = 0; nJ < nonOrdenedEpisodes.size(); nJ++){
-
-                loadEpisodeMetadata.setcItemID(nonOrdenedEpisodes.get(nJ).getId());                
-                JellyfinItemMetadata episodeItemMetadata = loadEpisodeMetadata.requestItemMetadata();                                                
-                nonOrdenedEpisodes.get(nJ).setItemMetadata(episodeItemMetadata);
-                
-                //4* add the ProductionYear to YearList
-                //Check if the year has already added before
-                String year = Integer.toString(episodeItemMetadata.getProductionYear());
-                boolean added = false;
-
-                for (int nI = 0; nI < this.items.size() ; nI++){
-                    String tempYear = this.items.get(nI).getYear();
-                    if (tempYear.equals(year)){
-                        added = true;
-
-                        //add the Episode as YearSubItem
-                        JellyfinReportInventorySubItem episode = new JellyfinReportInventorySubItem();
-                        episode.setSubItem(nonOrdenedEpisodes.get(nJ));                           
-                        episode.setSubItemMetadata(nonOrdenedEpisodes.get(nJ).getItemMetadata());
-
-                        this.items.get(nI).addYearEpisode(episode);
-
-                        break;                                
-                    }
-                }
-
-                if (!added){
-                    JellyfinReportInventorySubItem episode = new JellyfinReportInventorySubItem();
-                    episode.setSubItem(nonOrdenedEpisodes.get(nJ));                                
-                    episode.setSubItemMetadata(nonOrdenedEpisodes.get(nJ).getItemMetadata());
-                    JellyfinReportYearsItem newYear = new JellyfinReportYearsItem();
-                    newYear.setYear(year);
-                    newYear.addYearEpisode(episode);
+        //2* Group the episodes by ProductionYear. The year, overview and path come with the list of items
+        HashMap<String, JellyfinItemMetadata> listMetadata = new HashMap<>();
+        for (JellyfinItem episode : nonOrdenedEpisodes){
+            listMetadata.put(episode.getId(), this.getListMetadata(episode));
+        }
+        Map<String, ArrayList<JellyfinReportInventorySubItem>> yearEpisodes = JellyfinReportGroupBy.group(nonOrdenedEpisodes, listMetadata, metadata -> List.of(Integer.toString(metadata.getProductionYear())));
+        
+        for (Map.Entry<String, ArrayList<JellyfinReportInventorySubItem>> year : yearEpisodes.entrySet()){
+            JellyfinReportYearsItem newYear = new JellyfinReportYearsItem();
+            newYear.setYear(year.getKey());
+            newYear.setYearEpisodes(year.getValue());
 
-                    this.items.add(newYear);
-                }
-            }
-            
-        } catch (IOException ex) {
-            Logger.getLogger(JellyfinReportYears.class.getName()).log(Level.SEVERE, null, ex);
-        } catch (ParseException ex) {
-            Logger.getLogger(JellyfinReportYears.class.getName()).log(Level.SEVERE, null, ex);
+            this.items.add(newYear);
         }
         
         items.sort((o1, o2) -> o1.getYear().toUpperCase().compareTo(o2.getYear().toUpperCase()));
     }
     
+    /**
+     * Gets the fields of the library items this report needs. The production year is always returned with the list of items,
+     * and the overview and the path are requested with it, so the metadata of the items is never requested.
+     *
+     * @return The overview and the path.
+     * @since 1.2
+     * @author Cesar Bianchi
+     */
+    @Override
+    public Set<JellyfinItemFields> getItemFields() {
+        return EnumSet.of(JellyfinItemFields.OVERVIEW, JellyfinItemFields.PATH);
+    }
+
+    /**
+     * Builds the metadata shown by the report for an episode, from the fields returned with the list of items.
+     *
+     * @param episode The episode.
+     * @return The production year, overview and path of the episode.
+     * @since 1.2
+     * @author Cesar Bianchi
+     */
+    private JellyfinItemMetadata getListMetadata(JellyfinItem episode) {
+        JellyfinItemMetadata episodeMetadata = new JellyfinItemMetadata();
+        episodeMetadata.setId(episode.getId());
+        episodeMetadata.setProductionYear(episode.getProductionYear());
+        episodeMetadata.setOverview(episode.getOverview());
+        episodeMetadata.setPath(episode.getPath());
+        return episodeMetadata;
+    }
+
     /**
      * Prints the report for this JellyfinReportYears.
      *
@@ -203,47 +169,27 @@ public class JellyfinReportYears {
      * @author Cesar Bianchi
      */
     public void printReport() throws JRException, MalformedURLException, IOException {
-        String localReportBasePath = new JellyfinUtilFunctions().getJRXMLLocalPath();
-        String resorceReportBasePath =  new  JellyfinUtilFunctions().getJRXMLResourcePath();
+        this.showReport(this.fillReport());
+    }
+    
+    /**
+     * Fills the years report with the loaded items, using the compiled template of the report type.
+     *
+     * @return The filled report.
+     * @throws JRException If there is a problem with generating the report.
+     * @throws MalformedURLException If the URL of the Jellyfin instance is not formatted correctly.
+     * @throws IOException If the report template can't be read.
+     * @since 1.2
+     * @author Cesar Bianchi
+     */
+    @Override
+    public JasperPrint fillReport() throws JRException, MalformedURLException, IOException {
+        JellyfinReportTemplateCache templateCache = JellyfinReportTemplateCache.getDefault();
         
-        String jrxmlFile = new String();
-        JasperDesign draw = null;
-        JasperReport report = null;
+        //The templates are compiled only once (see JellyfinReportTemplateCache)
+        JasperReport report = templateCache.getReport("/InstanceYearsFull/JemmInstanceYearsFull.jrxml", instanceData.isDebug());
+        String subReportFile = templateCache.getCompiledFile("/InstanceYearsFull/JemmInstanceYearsFullSubItems.jrxml", instanceData.isDebug());
         
-        String jrxmlSubRepFile = new String();
-        JasperReport subreport = null;
-        JasperDesign drawSub = null;
-        JellyfinUtilFunctions commonFunctions = new JellyfinUtilFunctions();
-        String tempFilesPath = System.getProperty("java.io.tmpdir");
-
-        if(instanceData.isDebug() ){                    
-            //DEBUG WAY
-            System.out.println("This Application is running on Netbeans, in DEBUG MODE");   
-            jrxmlFile = localReportBasePath.concat("/InstanceYearsFull/JemmInstanceYearsFull.jrxml");       
-            draw = JRXmlLoader.load( jrxmlFile );
-            report =  JasperCompileManager.compileReport( draw );
-
-
-            jrxmlSubRepFile = localReportBasePath.concat("/InstanceYearsFull/JemmInstanceYearsFullSubItems.jrxml");       
-            drawSub = JRXmlLoader.load( jrxmlFile );
-            subreport = JasperCompileManager.compileReport( drawSub );
-
-            //Use a localfile subreport
-            JasperCompileManager.compileReportToFile(jrxmlSubRepFile,tempFilesPath.concat("JemmInstanceYearsFullSubItems.jasper"));
-        } else {
-            //EMBEBED WAY
-            jrxmlFile = resorceReportBasePath.concat("/InstanceYearsFull/JemmInstanceYearsFull.jrxml");
-            InputStream drawIS = getClass().getResourceAsStream(jrxmlFile);
-            report =  JasperCompileManager.compileReport( drawIS );
-
-            //Extract subreport from resource to a localfile                    
-            jrxmlSubRepFile =  resorceReportBasePath.concat("/InstanceYearsFull/JemmInstanceYearsFullSubItems.jrxml");                    
-            if (commonFunctions.extractFileFromJar(jrxmlSubRepFile, "JemmInstanceYearsFullSubItems.jrxml") ){
-                JasperCompileManager.compileReportToFile(tempFilesPath.concat("JemmInstanceYearsFullSubItems.jrxml"),tempFilesPath.concat("JemmInstanceYearsFullSubItems.jasper"));                    
-            }
-        }
-   
-
         //Set report Data Source
         JRBeanCollectionDataSource dataSource = new JRBeanCollectionDataSource(this.getItems());
 
@@ -253,16 +199,33 @@ public class JellyfinReportYears {
         reportParameters.put("JEMM_VERSION",new JemmVersion().getVersion() );
         reportParameters.put("TOTAL_FOLDERITEMS",Integer.toString(this.items.size()));
         reportParameters.put("TOTAL_CONTENT",Integer.toString(this.totalsubItems));
-        reportParameters.put("SUBREPORT_JASPER_FILE",tempFilesPath.concat("JemmInstanceYearsFullSubItems.jasper"));
+        reportParameters.put("SUBREPORT_JASPER_FILE",subReportFile);
         
-        //Paint Report
-        JasperPrint paintedReport = JasperFillManager.fillReport( report , reportParameters,  dataSource);
+        //Paint Report: the FULL report is filled in shards, on parallel workers (see JellyfinReportFiller)
+        JasperPrint paintedReport = null;
+        boolean lowMemory = JellyfinReportFiller.isLowMemory(this.nonOrdenedEpisodes.size());
+        if (!lowMemory){
+            paintedReport = JellyfinReportFiller.fillSharded( report , reportParameters, JellyfinReportFiller.shard(this.getItems(), item -> item.getYearEpisodes().size(), JellyfinReportFiller.getShardCount()));
+        } else {
+            paintedReport = JellyfinReportFiller.fill( report , reportParameters,  dataSource, lowMemory);
+        }
         
+        return paintedReport;
+    }
+    
+    /**
+     * Shows the filled years report in a new JasperViewer. It must be called on the Event Dispatch Thread.
+     *
+     * @param paintedReport The filled report.
+     * @since 1.2
+     * @author Cesar Bianchi
+     */
+    @Override
+    public void showReport(JasperPrint paintedReport) {
         //Show Report
         JasperViewer viewer = new JasperViewer( paintedReport , false );
         viewer.setTitle("Jellyfin Easy Metadata Manager - Years Report");
         viewer.show();
-       
     }
 
     /**
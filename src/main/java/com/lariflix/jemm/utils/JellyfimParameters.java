@@ -10,6 +10,7 @@ package com.lariflix.jemm.utils;
  * FOLDERS_AND_SUBFOLDERS: This parameter is used to indicate that both folders and subfolders should be considered. (Used for the root folders of the library).
  * JUST_ITEMS: This parameter is used to indicate that only items should be considered. (Used for the items of the root-library).
  * JUST_SUBFOLDERS: This parameter is used to indicate that only subfolders should be considered. (Used for the items of the root-library)
+ * ALL_SUBFOLDERS: This parameter is used to indicate that all subfolders, at any depth, should be considered in a single recursive query. (Used to build the folder tree of a root-library)
  *
  * @author Cesar Bianchi
  */
@@ -17,5 +18,6 @@ public enum JellyfimParameters {
     JUST_ROOT_FOLDERS,
     FOLDERS_AND_SUBFOLDERS,
     JUST_ITEMS,
-    JUST_SUBFOLDERS;
+    JUST_SUBFOLDERS,
+    ALL_SUBFOLDERS;
 }
\ No newline at end of file
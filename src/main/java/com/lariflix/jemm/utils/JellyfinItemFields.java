@@ -0,0 +1,39 @@
+package com.lariflix.jemm.utils;
+
+/**
+ * The JellyfinItemFields enumeration is used to represent the fields of the library items that a report needs, besides the ones
+ * always returned by the Items endpoint (name, type, production year, premiere date, ratings, container and media type).
+ *
+ * OVERVIEW: The overview of the items, requested with the list of items ("Fields=Overview").
+ * PATH: The path of the items, requested with the list of items ("Fields=Path").
+ * METADATA: The full metadata of the items (genres, tags, people, studios...), requested in bulk after the list of items (see LoadItemsMetadata).
+ *           The list brings the Etag of the items ("Fields=Etag"), so the items not changed since the last load aren't requested again.
+ *
+ * The metadata of the folders is always requested: there are few of them.
+ *
+ * @author Cesar Bianchi
+ * @since 1.2
+ * @see com.lariflix.jemm.core.JellyfinLibrarySnapshotLoader
+ */
+public enum JellyfinItemFields {
+    OVERVIEW("Overview"),
+    PATH("Path"),
+    METADATA("Etag");
+
+    private final String apiField;
+
+    JellyfinItemFields(String apiField) {
+        this.apiField = apiField;
+    }
+
+    /**
+     * Gets the name of the field in the "Fields" option of the Items endpoint.
+     *
+     * @return The name of the field, or an empty string if it is not requested with the list of items.
+     * @author Cesar Bianchi
+     * @since 1.2
+     */
+    public String getApiField() {
+        return apiField;
+    }
+}
@@ -0,0 +1,21 @@
+package com.lariflix.jemm.utils;
+
+/**
+ * The JellyfinReportPhase enumeration is used to represent the phases of the execution of a report, in the order they happen.
+ *
+ * CRAWL: The folders and items of the library are requested from the Jellyfin server (or a fresh library snapshot is reused).
+ * FETCH_METADATA: The metadata of the folders and items is requested from the Jellyfin server.
+ * AGGREGATE: The report items are built from the library (e.g. grouped by tag, year, person, genre or studio).
+ * FILL: The report is filled with the report items by JasperReports.
+ * RENDER: The filled report is shown to the user.
+ *
+ * @author Cesar Bianchi
+ * @since 1.2
+ */
+public enum JellyfinReportPhase {
+    CRAWL,
+    FETCH_METADATA,
+    AGGREGATE,
+    FILL,
+    RENDER;
+}
@@ -0,0 +1,20 @@
+package com.lariflix.jemm;
+
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+public class JemmCliTest {
+
+    @Test
+    public void testMissingArguments() {
+        assertEquals(JemmCli.EXIT_USAGE, JemmCli.run(new String[0]));
+        assertEquals(JemmCli.EXIT_USAGE, JemmCli.run(new String[]{"http://localhost:8096", "testToken"}));
+    }
+
+    @Test
+    public void testInvalidReportTypeOrFormat() {
+        assertEquals(JemmCli.EXIT_USAGE, JemmCli.run(new String[]{"http://localhost:8096", "testToken", "UNKNOWN", "PDF", "report.pdf"}));
+        assertEquals(JemmCli.EXIT_USAGE, JemmCli.run(new String[]{"http://localhost:8096", "testToken", "TAGS_FULL", "DOCX", "report.docx"}));
+    }
+
+}
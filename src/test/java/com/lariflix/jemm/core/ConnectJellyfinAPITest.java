@@ -1,7 +1,21 @@
 package com.lariflix.jemm.core;
 
 import org.junit.jupiter.api.Test;
+import com.lariflix.jemm.dtos.JellyfinItems;
+import com.lariflix.jemm.dtos.JellyfinUser;
+import com.sun.net.httpserver.HttpServer;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 
 public class ConnectJellyfinAPITest {
 
@@ -32,4 +46,94 @@ public class ConnectJellyfinAPITest {
         connectJellyfinAPI.setcTokenApi("1234567890");
         assertEquals("1234567890", connectJellyfinAPI.getcTokenApi());
     }
-}
\ No newline at end of file
+
+    @Test
+    public void testSetAdminUserIsCached() throws Exception {
+        ConnectJellyfinAPI connectJellyfinAPI = new ConnectJellyfinAPI();
+        connectJellyfinAPI.setcBaseURL("http://localhost:8096/");
+        connectJellyfinAPI.setcTokenApi("1234567890");
+        JellyfinUser admin = new JellyfinUser();
+        admin.setId("admin01");
+        connectJellyfinAPI.setAdminUser(admin);
+        assertSame(admin, connectJellyfinAPI.getAdminUser());
+    }
+
+    @Test
+    public void testAdminUserInvalidatedOnNewCredentials() throws Exception {
+        ConnectJellyfinAPI connectJellyfinAPI = new ConnectJellyfinAPI();
+        connectJellyfinAPI.setcBaseURL("http://localhost:8096/");
+        connectJellyfinAPI.setcTokenApi("1234567890");
+        JellyfinUser admin = new JellyfinUser();
+        admin.setId("admin01");
+        connectJellyfinAPI.setAdminUser(admin);
+        
+        connectJellyfinAPI.setcTokenApi("1234567890");
+        assertSame(admin, connectJellyfinAPI.getAdminUser());
+        
+        connectJellyfinAPI.setcTokenApi("0987654321");
+        assertFalse(connectJellyfinAPI.isAdminUserCached());
+        
+        connectJellyfinAPI.setAdminUser(new JellyfinUser());
+        assertFalse(connectJellyfinAPI.isAdminUserCached());
+        
+        connectJellyfinAPI.setAdminUser(admin);
+        connectJellyfinAPI.setcBaseURL("http://otherhost:8096/");
+        assertFalse(connectJellyfinAPI.isAdminUserCached());
+    }
+
+    @Test
+    public void testGetItemsRequestsOnlyTheChangedMetadata() throws Exception {
+        //The list returns the Etag of each item; the bulk metadata request returns the requested IDs with the same Etag
+        Map<String, String> etags = new ConcurrentHashMap<>(Map.of("item1", "e1", "item2", "e2"));
+        List<String> requestedIDs = Collections.synchronizedList(new ArrayList<>());
+        HttpServer server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        server.createContext("/Users/admin01/Items", exchange -> {
+            String query = exchange.getRequestURI().getQuery();
+            StringBuilder items = new StringBuilder();
+            if (query.contains("Ids=")){
+                for (String id : query.substring(query.indexOf("Ids=") + 4, query.indexOf('&')).split(",")){
+                    requestedIDs.add(id);
+                    items.append(items.length() == 0 ? "" : ",").append("{\"Id\":\"").append(id).append("\",\"Etag\":\"").append(etags.get(id)).append("\",\"Overview\":\"").append(etags.get(id)).append("\"}");
+                }
+            } else {
+                for (String id : List.of("item1", "item2")){
+                    items.append(items.length() == 0 ? "" : ",").append("{\"Id\":\"").append(id).append("\",\"Name\":\"").append(id).append("\",\"Etag\":\"").append(etags.get(id)).append("\"}");
+                }
+            }
+            byte[] body = ("{\"Items\":[" + items + "],\"TotalRecordCount\":2}").getBytes(StandardCharsets.UTF_8);
+            exchange.sendResponseHeaders(200, body.length);
+            exchange.getResponseBody().write(body);
+            exchange.close();
+        });
+        server.start();
+
+        try {
+            ConnectJellyfinAPI connectJellyfinAPI = new ConnectJellyfinAPI();
+            connectJellyfinAPI.setcBaseURL("http://127.0.0.1:" + server.getAddress().getPort() + "/");
+            connectJellyfinAPI.setcTokenApi("1234567890");
+            JellyfinUser admin = new JellyfinUser();
+            admin.setId("admin01");
+            connectJellyfinAPI.setAdminUser(admin);
+
+            connectJellyfinAPI.getItems("folder01", null);
+            assertEquals(List.of("item1", "item2"), requestedIDs);
+
+            //Nothing changed: the metadata comes from the cache, and each load gets its own copy
+            requestedIDs.clear();
+            JellyfinItems unchanged = connectJellyfinAPI.getItems("folder01", null);
+            assertTrue(requestedIDs.isEmpty());
+            assertEquals("e1", unchanged.getItems().get(0).getItemMetadata().getOverview());
+            unchanged.getItems().get(0).getItemMetadata().setOverview("edited");
+
+            //Only the changed item is requested again
+            etags.put("item2", "e2b");
+            JellyfinItems changed = connectJellyfinAPI.getItems("folder01", null);
+            assertEquals(List.of("item2"), requestedIDs);
+            assertEquals("e1", changed.getItems().get(0).getItemMetadata().getOverview());
+            assertEquals("e2b", changed.getItems().get(1).getItemMetadata().getOverview());
+            assertNotSame(unchanged.getItems().get(0).getItemMetadata(), changed.getItems().get(0).getItemMetadata());
+        } finally {
+            server.stop(0);
+        }
+    }
+}
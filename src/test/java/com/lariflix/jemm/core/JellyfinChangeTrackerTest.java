@@ -0,0 +1,79 @@
+package com.lariflix.jemm.core;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.lariflix.jemm.dtos.JellyfinItem;
+import com.lariflix.jemm.dtos.JellyfinItemMetadata;
+import com.lariflix.jemm.dtos.JellyfinItems;
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class JellyfinChangeTrackerTest {
+
+    private JellyfinItem newItem(String cItemID, String overview) {
+        JellyfinItemMetadata itemMetadata = new JellyfinItemMetadata();
+        itemMetadata.setId(cItemID);
+        itemMetadata.setOverview(overview);
+        itemMetadata.setTags(new ArrayList<>(List.of("tag1")));
+
+        JellyfinItem item = new JellyfinItem();
+        item.setId(cItemID);
+        item.setItemMetadata(itemMetadata);
+        return item;
+    }
+
+    @Test
+    public void testItemWithoutBaselineIsDirty() {
+        JellyfinChangeTracker tracker = new JellyfinChangeTracker();
+        JellyfinItem item = this.newItem("item1", "Overview");
+
+        assertNull(tracker.getChangedFields(item));
+        assertTrue(tracker.isDirty(item));
+    }
+
+    @Test
+    public void testEditAfterTheSavedStateStaysDirty() {
+        JellyfinChangeTracker tracker = new JellyfinChangeTracker();
+        JellyfinItem item = this.newItem("item1", "Overview");
+
+        //The state is taken when the save starts; the user edits the item again while it is posted
+        JsonNode postedState = tracker.getState(item);
+        item.getItemMetadata().setOverview("Edited during the save");
+        tracker.setBaseline(item.getId(), postedState);
+
+        assertTrue(tracker.isDirty(item));
+        item.getItemMetadata().setOverview("Overview");
+        assertFalse(tracker.isDirty(item));
+    }
+
+    @Test
+    public void testOnlyChangedItemsAreDirty() {
+        JellyfinChangeTracker tracker = new JellyfinChangeTracker();
+        JellyfinItem unchanged = this.newItem("item1", "Overview");
+        JellyfinItem changed = this.newItem("item2", "Overview");
+        JellyfinItems items = new JellyfinItems();
+        items.setItems(new ArrayList<>(List.of(unchanged, changed)));
+        tracker.setBaseline(items);
+
+        //The edits are made on the metadata objects themselves
+        changed.getItemMetadata().setOverview("New overview");
+        changed.getItemMetadata().getTags().add("tag2");
+
+        assertFalse(tracker.isDirty(unchanged));
+        assertTrue(tracker.isDirty(changed));
+        assertEquals(2, tracker.getChangedFields(changed).size());
+        assertTrue(tracker.getChangedFields(changed).containsAll(List.of("Overview", "Tags")));
+
+        //Once saved, the item is clean again
+        tracker.setBaseline(changed);
+        assertFalse(tracker.isDirty(changed));
+
+        tracker.clear();
+        assertTrue(tracker.isDirty(unchanged));
+    }
+
+}
@@ -0,0 +1,181 @@
+package com.lariflix.jemm.core;
+
+import com.lariflix.jemm.dtos.JellyfinFolder;
+import com.lariflix.jemm.dtos.JellyfinFolders;
+import com.lariflix.jemm.dtos.JellyfinInstanceDetails;
+import com.lariflix.jemm.dtos.JellyfinItem;
+import com.lariflix.jemm.dtos.JellyfinItemMetadata;
+import com.lariflix.jemm.dtos.JellyfinItems;
+import com.lariflix.jemm.dtos.JellyfinUser;
+import com.sun.net.httpserver.HttpServer;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class JellyfinDeltaSyncTest {
+
+    @Test
+    public void testSynchronizeRequiresFullLoad() {
+        JellyfinDeltaSync deltaSync = new JellyfinDeltaSync(new ConnectJellyfinAPI());
+        assertThrows(IllegalStateException.class, () -> deltaSync.synchronize(new JellyfinInstanceDetails()));
+    }
+
+    @Test
+    public void testMergeUpdatesLoadedItem() {
+        JellyfinInstanceDetails instanceData = newInstanceData();
+        JellyfinDeltaSync deltaSync = new JellyfinDeltaSync(new ConnectJellyfinAPI());
+        deltaSync.indexInstanceData(instanceData);
+
+        JellyfinItemMetadata changed = newMetadata("pilot", "Pilot (Remastered)", "movies", false);
+        deltaSync.mergeChangedItem(changed);
+
+        JellyfinItem pilot = instanceData.getFolders().getItems().get(0).getFolderContent().getItems().get(0);
+        assertEquals("Pilot (Remastered)", pilot.getName());
+        assertSame(changed, pilot.getItemMetadata());
+        assertEquals(1, deltaSync.getUpdatedItems());
+        assertEquals(List.of("pilot"), deltaSync.getMergedItemIDs());
+        assertFalse(deltaSync.isFolderTreeChanged());
+    }
+
+    @Test
+    public void testMergeAddsNewItemToLoadedFolder() {
+        JellyfinInstanceDetails instanceData = newInstanceData();
+        JellyfinDeltaSync deltaSync = new JellyfinDeltaSync(new ConnectJellyfinAPI());
+        deltaSync.indexInstanceData(instanceData);
+
+        deltaSync.mergeChangedItem(newMetadata("sequel", "Sequel", "movies", false));
+        deltaSync.mergeChangedItem(newMetadata("other", "Other", "unknown-folder", false));
+
+        assertEquals(2, instanceData.getFolders().getItems().get(0).getFolderContent().getItems().size());
+        assertEquals(1, deltaSync.getAddedItems());
+        assertEquals(List.of("sequel"), deltaSync.getMergedItemIDs());
+    }
+
+    @Test
+    public void testMergeNewFolderChangesTree() {
+        JellyfinInstanceDetails instanceData = newInstanceData();
+        JellyfinDeltaSync deltaSync = new JellyfinDeltaSync(new ConnectJellyfinAPI());
+        deltaSync.indexInstanceData(instanceData);
+
+        deltaSync.mergeChangedItem(newMetadata("classics", "Classics", "movies", true));
+
+        assertTrue(deltaSync.isFolderTreeChanged());
+    }
+
+    @Test
+    public void testFolderUnderUnopenedFolderDoesNotChangeTree() {
+        //Lazy folder tree: the subfolders of Movies were never loaded, and nothing is loaded under unknown-folder
+        JellyfinInstanceDetails instanceData = newInstanceData();
+        instanceData.getFolders().getItems().get(0).setSubFoldersLoaded(false);
+        JellyfinDeltaSync deltaSync = new JellyfinDeltaSync(new ConnectJellyfinAPI());
+        deltaSync.indexInstanceData(instanceData);
+
+        deltaSync.mergeChangedItem(newMetadata("classics", "Classics", "movies", true));
+        JellyfinItemMetadata westerns = newMetadata("westerns", "Westerns", "unknown-folder", true);
+        westerns.setType("Folder");
+        deltaSync.mergeChangedItem(westerns);
+
+        assertFalse(deltaSync.isFolderTreeChanged());
+    }
+
+    @Test
+    public void testNewRootFolderChangesTree() {
+        //A new library: its parent is the root of the user, which is never in the folder list
+        JellyfinInstanceDetails instanceData = newInstanceData();
+        JellyfinDeltaSync deltaSync = new JellyfinDeltaSync(new ConnectJellyfinAPI());
+        deltaSync.indexInstanceData(instanceData);
+
+        JellyfinItemMetadata documentaries = newMetadata("documentaries", "Documentaries", "user-root", true);
+        documentaries.setType("CollectionFolder");
+        deltaSync.mergeChangedItem(documentaries);
+
+        assertTrue(deltaSync.isFolderTreeChanged());
+    }
+
+    @Test
+    public void testRequestChangesLeavesInstanceDataUntouched() throws Exception {
+        HttpServer server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        server.createContext("/Users/", exchange -> {
+            byte[] body = "{\"Items\":[{\"Id\":\"pilot\",\"Name\":\"Pilot (Remastered)\",\"ParentId\":\"movies\"}],\"TotalRecordCount\":1,\"StartIndex\":0}".getBytes(StandardCharsets.UTF_8);
+            exchange.sendResponseHeaders(200, body.length);
+            exchange.getResponseBody().write(body);
+            exchange.close();
+        });
+        server.start();
+
+        try {
+            JellyfinUser adminUser = new JellyfinUser();
+            adminUser.setId("admin");
+            ConnectJellyfinAPI connectAPI = new ConnectJellyfinAPI();
+            connectAPI.setcBaseURL("http://127.0.0.1:" + server.getAddress().getPort() + "/");
+            connectAPI.setcTokenApi("1234567890");
+            connectAPI.setAdminUser(adminUser);
+
+            JellyfinInstanceDetails instanceData = newInstanceData();
+            Date lastSync = new Date(System.currentTimeMillis() - 60000);
+            instanceData.setLastSync(lastSync);
+
+            //The requests run in the background in the GUI: nothing changes until the merge, on the EDT
+            JellyfinDeltaSync deltaSync = new JellyfinDeltaSync(connectAPI);
+            deltaSync.prepare(instanceData);
+            deltaSync.requestChanges();
+            JellyfinItem pilot = instanceData.getFolders().getItems().get(0).getFolderContent().getItems().get(0);
+            assertEquals("Pilot", pilot.getName());
+            assertEquals(lastSync, instanceData.getLastSync());
+
+            deltaSync.mergeChanges(instanceData);
+            assertEquals("Pilot (Remastered)", pilot.getName());
+            assertEquals(List.of("pilot"), deltaSync.getMergedItemIDs());
+            assertTrue(instanceData.getLastSync().after(lastSync));
+        } finally {
+            server.stop(0);
+        }
+    }
+
+    @Test
+    public void testMergeRequiresRequestedChanges() {
+        JellyfinDeltaSync deltaSync = new JellyfinDeltaSync(new ConnectJellyfinAPI());
+        assertThrows(IllegalStateException.class, () -> deltaSync.requestChanges());
+        assertThrows(IllegalStateException.class, () -> deltaSync.mergeChanges(newInstanceData()));
+    }
+
+    private JellyfinItemMetadata newMetadata(String id, String name, String parentId, boolean isFolder) {
+        JellyfinItemMetadata metadata = new JellyfinItemMetadata();
+        metadata.setId(id);
+        metadata.setName(name);
+        metadata.setParentId(parentId);
+        metadata.setIsFolder(isFolder);
+        return metadata;
+    }
+
+    private JellyfinInstanceDetails newInstanceData() {
+        JellyfinItem pilot = new JellyfinItem();
+        pilot.setId("pilot");
+        pilot.setName("Pilot");
+        JellyfinItems content = new JellyfinItems();
+        content.setItems(new ArrayList<>());
+        content.getItems().add(pilot);
+
+        JellyfinFolder movies = new JellyfinFolder();
+        movies.setId("movies");
+        movies.setName("Movies");
+        movies.setFolderContent(content);
+        movies.setSubFoldersLoaded(true);
+
+        JellyfinFolders folders = new JellyfinFolders();
+        folders.setItems(new ArrayList<>());
+        folders.getItems().add(movies);
+
+        JellyfinInstanceDetails instanceData = new JellyfinInstanceDetails();
+        instanceData.setFolders(folders);
+        return instanceData;
+    }
+}
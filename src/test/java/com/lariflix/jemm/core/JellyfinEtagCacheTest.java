@@ -0,0 +1,57 @@
+package com.lariflix.jemm.core;
+
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+public class JellyfinEtagCacheTest {
+
+    @Test
+    public void testPutAndGet() {
+        JellyfinEtagCache cache = new JellyfinEtagCache();
+        cache.put("item1", "\"abc\"", "value", 10);
+        assertEquals("\"abc\"", cache.get("item1").getEtag());
+        assertEquals("value", cache.get("item1").getValue());
+    }
+
+    @Test
+    public void testPutWithoutEtagDropsEntry() {
+        JellyfinEtagCache cache = new JellyfinEtagCache();
+        cache.put("item1", "\"abc\"", "value", 10);
+        cache.put("item1", null, "value", 10);
+        assertNull(cache.get("item1"));
+    }
+
+    @Test
+    public void testLeastRecentlyUsedEntryIsDropped() {
+        JellyfinEtagCache cache = new JellyfinEtagCache(200);
+        cache.put("item1", "\"1\"", "one", 100);
+        cache.put("item2", "\"2\"", "two", 100);
+        cache.get("item1");
+        cache.put("item3", "\"3\"", "three", 100);
+        assertEquals(2, cache.size());
+        assertEquals(200, cache.getWeight());
+        assertNotNull(cache.get("item1"));
+        assertNull(cache.get("item2"));
+    }
+
+    @Test
+    public void testCacheIsBoundedByWeight() {
+        JellyfinEtagCache cache = new JellyfinEtagCache(100);
+        cache.put("small1", "\"1\"", "one", 30);
+        cache.put("small2", "\"2\"", "two", 30);
+        cache.put("large", "\"3\"", "three", 60);
+        assertNull(cache.get("small1"));
+        assertNotNull(cache.get("small2"));
+        assertEquals(90, cache.getWeight());
+
+        //An entry heavier than the whole cache is not cached, and replacing an entry doesn't count it twice
+        cache.put("huge", "\"4\"", "four", 101);
+        assertNull(cache.get("huge"));
+        cache.put("large", "\"5\"", "five", 50);
+        assertEquals(80, cache.getWeight());
+        cache.invalidate("large");
+        assertEquals(30, cache.getWeight());
+    }
+}
@@ -0,0 +1,105 @@
+package com.lariflix.jemm.core;
+
+import com.lariflix.jemm.dtos.JellyfinItemMetadata;
+import com.lariflix.jemm.dtos.JellyfinItems;
+import com.sun.net.httpserver.HttpServer;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.http.HttpClient;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class JellyfinHttpTransportTest {
+
+    @Test
+    public void testClientPrefersHttp2() {
+        JellyfinHttpTransport transport = new JellyfinHttpTransport();
+        assertNotNull(transport.getClient());
+        assertEquals(HttpClient.Version.HTTP_2, transport.getClient().version());
+    }
+
+    @Test
+    public void testTransportIsSharedByConnectJellyfinAPI() {
+        assertNotNull(ConnectJellyfinAPI.getTransport());
+        assertSame(ConnectJellyfinAPI.getTransport(), ConnectJellyfinAPI.getTransport());
+    }
+
+    @Test
+    public void testMapperStreamsIntoDtoIgnoringUnknownFields() throws IOException {
+        String json = "{\"Items\":[{\"Name\":\"Pilot\",\"Id\":\"1\",\"Unknown\":true}],\"TotalRecordCount\":1,\"StartIndex\":0}";
+        JellyfinItems items = JellyfinHttpTransport.getMapper().readValue(new ByteArrayInputStream(json.getBytes(StandardCharsets.UTF_8)), JellyfinItems.class);
+        assertEquals(1, items.getItems().size());
+        assertEquals("Pilot", items.getItems().get(0).getName());
+    }
+
+    @Test
+    public void testRevalidatedRequestReusesCachedDtoOn304() throws IOException {
+        AtomicInteger fullResponses = new AtomicInteger();
+        HttpServer server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        server.createContext("/item", exchange -> {
+            if ("\"abc\"".equals(exchange.getRequestHeaders().getFirst("If-None-Match"))) {
+                exchange.sendResponseHeaders(304, -1);
+            } else {
+                fullResponses.incrementAndGet();
+                byte[] body = "{\"Name\":\"Pilot\",\"Id\":\"1\",\"Etag\":\"abc\"}".getBytes(StandardCharsets.UTF_8);
+                exchange.getResponseHeaders().set("ETag", "\"abc\"");
+                exchange.sendResponseHeaders(200, body.length);
+                exchange.getResponseBody().write(body);
+            }
+            exchange.close();
+        });
+        server.start();
+
+        try {
+            JellyfinHttpTransport transport = new JellyfinHttpTransport();
+            String url = "http://127.0.0.1:" + server.getAddress().getPort() + "/item";
+
+            JellyfinItemMetadata first = transport.requestObjectRevalidated(url, url, JellyfinItemMetadata.class);
+            first.setName("Changed by the caller");
+            JellyfinItemMetadata second = transport.requestObjectRevalidated(url, url, JellyfinItemMetadata.class);
+
+            assertEquals(1, fullResponses.get());
+            assertEquals("Pilot", second.getName());
+            assertNotSame(first, second);
+            assertTrue(transport.getEtagCache().getWeight() > 0);
+        } finally {
+            server.stop(0);
+        }
+    }
+
+    @Test
+    public void testResponseWithoutEtagHeaderIsNotCached() throws IOException {
+        //The DTO has an Etag property, but the server sends no ETag header: nothing is cached nor revalidated
+        AtomicInteger fullResponses = new AtomicInteger();
+        HttpServer server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        server.createContext("/item", exchange -> {
+            fullResponses.incrementAndGet();
+            byte[] body = "{\"Name\":\"Pilot\",\"Id\":\"1\",\"Etag\":\"abc\"}".getBytes(StandardCharsets.UTF_8);
+            exchange.sendResponseHeaders(200, body.length);
+            exchange.getResponseBody().write(body);
+            exchange.close();
+        });
+        server.start();
+
+        try {
+            JellyfinHttpTransport transport = new JellyfinHttpTransport();
+            String url = "http://127.0.0.1:" + server.getAddress().getPort() + "/item";
+
+            transport.requestObjectRevalidated(url, url, JellyfinItemMetadata.class);
+            JellyfinItemMetadata second = transport.requestObjectRevalidated(url, url, JellyfinItemMetadata.class);
+
+            assertEquals(2, fullResponses.get());
+            assertEquals("Pilot", second.getName());
+            assertEquals(0, transport.getEtagCache().size());
+        } finally {
+            server.stop(0);
+        }
+    }
+}
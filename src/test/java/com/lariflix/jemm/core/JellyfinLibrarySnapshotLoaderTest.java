@@ -0,0 +1,109 @@
+package com.lariflix.jemm.core;
+
+import com.lariflix.jemm.dtos.JellyfinInstanceDetails;
+import com.lariflix.jemm.dtos.JellyfinItem;
+import com.lariflix.jemm.dtos.JellyfinUser;
+import com.lariflix.jemm.utils.JellyfinItemFields;
+import com.lariflix.jemm.utils.JellyfinReportPhase;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Set;
+import java.util.function.Consumer;
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class JellyfinLibrarySnapshotLoaderTest {
+
+    /**
+     * A loader that counts the crawls instead of requesting the server.
+     */
+    private static class CountingLoader extends JellyfinLibrarySnapshotLoader {
+        int crawls = 0;
+
+        @Override
+        public JellyfinLibrarySnapshot load(String cBaseURL, String cTokenAPI, String cAdminID, Set<JellyfinItemFields> itemFields, Consumer<JellyfinReportPhase> phaseListener) {
+            crawls++;
+            return new JellyfinLibrarySnapshot(cBaseURL, cAdminID, Instant.now(), List.of(), new HashMap<String, ArrayList<JellyfinItem>>(), new HashMap<>(), itemFields);
+        }
+    }
+
+    private JellyfinInstanceDetails newInstanceData(String baseURL) {
+        JellyfinInstanceDetails instanceData = new JellyfinInstanceDetails();
+        instanceData.getCredentials().setBaseURL(baseURL);
+        instanceData.getCredentials().setTokenAPI("1234567890");
+        JellyfinUser admin = new JellyfinUser();
+        admin.setId("admin");
+        instanceData.setAdminUser(admin);
+        return instanceData;
+    }
+
+    @Test
+    public void testFreshSnapshotIsShared() throws Exception {
+        CountingLoader loader = new CountingLoader();
+        JellyfinInstanceDetails instanceData = this.newInstanceData("http://localhost:8096/");
+
+        JellyfinLibrarySnapshot first = loader.getSnapshot(instanceData);
+        JellyfinLibrarySnapshot second = loader.getSnapshot(instanceData);
+
+        assertSame(first, second);
+        assertEquals(1, loader.crawls);
+    }
+
+    @Test
+    public void testSnapshotIsReloadedWhenStaleInvalidatedOrForAnotherServer() throws Exception {
+        CountingLoader loader = new CountingLoader();
+        JellyfinInstanceDetails instanceData = this.newInstanceData("http://localhost:8096/");
+
+        JellyfinLibrarySnapshot first = loader.getSnapshot(instanceData);
+        assertNotSame(first, loader.getSnapshot(this.newInstanceData("http://otherhost:8096/")));
+
+        loader.invalidate();
+        assertNull(loader.getCachedSnapshot());
+        loader.getSnapshot(instanceData);
+
+        loader.setFreshnessWindow(Duration.ZERO);
+        loader.getSnapshot(instanceData);
+
+        assertEquals(4, loader.crawls);
+    }
+
+    @Test
+    public void testSnapshotIsReloadedForMissingFields() throws Exception {
+        CountingLoader loader = new CountingLoader();
+        JellyfinInstanceDetails instanceData = this.newInstanceData("http://localhost:8096/");
+
+        JellyfinLibrarySnapshot listOnly = loader.getSnapshot(instanceData, EnumSet.of(JellyfinItemFields.PATH));
+        assertSame(listOnly, loader.getSnapshot(instanceData, EnumSet.noneOf(JellyfinItemFields.class)));
+        assertEquals(1, loader.crawls);
+
+        //The fields of the cached snapshot are kept
+        JellyfinLibrarySnapshot withMetadata = loader.getSnapshot(instanceData, EnumSet.of(JellyfinItemFields.METADATA));
+        assertEquals(2, loader.crawls);
+        assertTrue(withMetadata.covers(EnumSet.of(JellyfinItemFields.PATH, JellyfinItemFields.METADATA)));
+        assertSame(withMetadata, loader.getSnapshot(instanceData, EnumSet.of(JellyfinItemFields.PATH)));
+    }
+
+    @Test
+    public void testGetListFields() {
+        assertEquals("", JellyfinLibrarySnapshotLoader.getListFields(EnumSet.noneOf(JellyfinItemFields.class)));
+        assertEquals("Etag", JellyfinLibrarySnapshotLoader.getListFields(EnumSet.of(JellyfinItemFields.METADATA)));
+        assertEquals("Overview,Path,Etag", JellyfinLibrarySnapshotLoader.getListFields(EnumSet.allOf(JellyfinItemFields.class)));
+    }
+
+    @Test
+    public void testSetFreshnessWindowRejectsNegative() {
+        JellyfinLibrarySnapshotLoader loader = new JellyfinLibrarySnapshotLoader();
+        assertEquals(JellyfinLibrarySnapshotLoader.DEFAULT_FRESHNESS_WINDOW, loader.getFreshnessWindow());
+        assertThrows(IllegalArgumentException.class, () -> loader.setFreshnessWindow(Duration.ofSeconds(-1)));
+    }
+
+}
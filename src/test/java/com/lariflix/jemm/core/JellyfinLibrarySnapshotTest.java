@@ -0,0 +1,73 @@
+package com.lariflix.jemm.core;
+
+import com.lariflix.jemm.dtos.JellyfinFolder;
+import com.lariflix.jemm.dtos.JellyfinItem;
+import com.lariflix.jemm.dtos.JellyfinItemMetadata;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class JellyfinLibrarySnapshotTest {
+
+    @Test
+    public void testEpisodesFollowTheFolderOrder() {
+        JellyfinFolder folder1 = new JellyfinFolder();
+        folder1.setId("f1");
+        JellyfinFolder folder2 = new JellyfinFolder();
+        folder2.setId("f2");
+
+        JellyfinItem item1 = new JellyfinItem();
+        item1.setId("i1");
+        JellyfinItem item2 = new JellyfinItem();
+        item2.setId("i2");
+
+        HashMap<String, ArrayList<JellyfinItem>> folderItems = new HashMap<>();
+        folderItems.put("f2", new ArrayList<>(List.of(item2)));
+        folderItems.put("f1", new ArrayList<>(List.of(item1)));
+
+        HashMap<String, JellyfinItemMetadata> metadata = new HashMap<>();
+        JellyfinItemMetadata metadata1 = new JellyfinItemMetadata();
+        metadata.put("i1", metadata1);
+
+        JellyfinLibrarySnapshot snapshot = new JellyfinLibrarySnapshot("http://localhost:8096/", "admin", Instant.now(), List.of(folder1, folder2), folderItems, metadata);
+
+        assertEquals(List.of(item1, item2), snapshot.getEpisodes());
+        assertEquals(List.of(item2), snapshot.getFolderItems("f2"));
+        assertTrue(snapshot.getFolderItems("unknown").isEmpty());
+        assertSame(metadata1, snapshot.getMetadata("i1"));
+        assertNull(snapshot.getMetadata("i2"));
+        assertTrue(snapshot.isSnapshotOf("http://localhost:8096/", "admin"));
+        assertFalse(snapshot.isSnapshotOf("http://localhost:8096/", "other"));
+    }
+
+    @Test
+    public void testSnapshotCannotBeModified() {
+        ArrayList<JellyfinFolder> folders = new ArrayList<>();
+        JellyfinLibrarySnapshot snapshot = new JellyfinLibrarySnapshot("http://localhost:8096/", "admin", Instant.now(), folders, new HashMap<String, ArrayList<JellyfinItem>>(), new HashMap<>());
+
+        folders.add(new JellyfinFolder());
+
+        assertTrue(snapshot.getFolders().isEmpty());
+        assertThrows(UnsupportedOperationException.class, () -> snapshot.getFolders().add(new JellyfinFolder()));
+        assertThrows(UnsupportedOperationException.class, () -> snapshot.getEpisodes().add(new JellyfinItem()));
+        assertThrows(UnsupportedOperationException.class, () -> snapshot.getMetadata().put("i1", new JellyfinItemMetadata()));
+    }
+
+    @Test
+    public void testIsFresh() {
+        JellyfinLibrarySnapshot snapshot = new JellyfinLibrarySnapshot("http://localhost:8096/", "admin", Instant.now().minusSeconds(60), List.of(), new HashMap<String, ArrayList<JellyfinItem>>(), new HashMap<>());
+
+        assertTrue(snapshot.isFresh(Duration.ofMinutes(5)));
+        assertFalse(snapshot.isFresh(Duration.ofSeconds(30)));
+    }
+
+}
@@ -0,0 +1,157 @@
+package com.lariflix.jemm.core;
+
+import com.lariflix.jemm.dtos.JellyfinFolder;
+import com.lariflix.jemm.dtos.JellyfinFolderMetadata;
+import com.lariflix.jemm.dtos.JellyfinFolders;
+import com.lariflix.jemm.dtos.JellyfinInstanceDetails;
+import com.lariflix.jemm.dtos.JellyfinItem;
+import com.lariflix.jemm.dtos.JellyfinItems;
+import com.lariflix.jemm.dtos.JellyfinUser;
+import com.sun.net.httpserver.HttpServer;
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class JellyfinSnapshotStoreTest {
+
+    @TempDir
+    Path snapshotDir;
+
+    @Test
+    public void testSaveAndLoad() throws IOException {
+        JellyfinSnapshotStore store = new JellyfinSnapshotStore(snapshotDir);
+        store.save(newInstanceData());
+
+        assertTrue(Files.isRegularFile(store.getSnapshotFile("server01")));
+
+        JellyfinInstanceDetails snapshot = store.load("http://localhost:8096/");
+        assertEquals(2, snapshot.getFolders().getItems().size());
+        assertEquals("Movies", snapshot.getFolders().getItems().get(0).getName());
+        assertEquals("Overview", snapshot.getFolders().getItems().get(0).getMetadata().getOverview());
+        assertEquals("Pilot", snapshot.getFolders().getItems().get(0).getFolderContent().getItems().get(0).getName());
+        assertEquals(2, snapshot.getFolders().getItems().get(1).getFolderLevel());
+        assertEquals("", snapshot.getCredentials().getTokenAPI());
+    }
+
+    @Test
+    public void testLoadUnknownServer() {
+        JellyfinSnapshotStore store = new JellyfinSnapshotStore(snapshotDir);
+        assertNull(store.load("http://localhost:8096/"));
+    }
+
+    @Test
+    public void testNothingIsSavedWithoutServerId() throws IOException {
+        JellyfinSnapshotStore store = new JellyfinSnapshotStore(snapshotDir);
+        store.save(new JellyfinInstanceDetails());
+        assertNull(store.load(""));
+    }
+
+    @Test
+    public void testCopyIsNotSharedWithTheOriginal() {
+        JellyfinInstanceDetails instanceData = newInstanceData();
+        JellyfinInstanceDetails copy = JellyfinSnapshotStore.copyOf(instanceData);
+
+        //Changes made by the GUI after the copy don't reach the snapshot being saved
+        instanceData.getFolders().getItems().get(0).getFolderContent().getItems().get(0).setName("Changed");
+        instanceData.getFolders().getItems().remove(1);
+
+        assertEquals(2, copy.getFolders().getItems().size());
+        assertEquals("Pilot", copy.getFolders().getItems().get(0).getFolderContent().getItems().get(0).getName());
+        assertEquals("Overview", copy.getFolders().getItems().get(0).getMetadata().getOverview());
+        assertEquals("http://localhost:8096/", copy.getCredentials().getBaseURL());
+    }
+
+    @Test
+    public void testWarmStartKeepsTheDeltaSync() throws Exception {
+        //The server answers the delta sync with no changed items
+        AtomicInteger syncRequests = new AtomicInteger();
+        HttpServer server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        server.createContext("/Users/", exchange -> {
+            syncRequests.incrementAndGet();
+            byte[] body = "{\"Items\":[],\"TotalRecordCount\":0,\"StartIndex\":0}".getBytes(StandardCharsets.UTF_8);
+            exchange.sendResponseHeaders(200, body.length);
+            exchange.getResponseBody().write(body);
+            exchange.close();
+        });
+        server.start();
+
+        try {
+            String baseURL = "http://127.0.0.1:" + server.getAddress().getPort() + "/";
+            JellyfinUser adminUser = new JellyfinUser();
+            adminUser.setId("admin");
+            Date lastSync = new Date(System.currentTimeMillis() - 60000);
+
+            //1 - A session saves its snapshot
+            JellyfinInstanceDetails instanceData = newInstanceData();
+            instanceData.getCredentials().setBaseURL(baseURL);
+            instanceData.setAdminUser(adminUser);
+            instanceData.setLastSync(lastSync);
+            JellyfinSnapshotStore store = new JellyfinSnapshotStore(snapshotDir);
+            store.save(instanceData);
+
+            //2 - The next session starts warm from it, with the date of the last sync
+            JellyfinInstanceDetails warmData = new JellyfinInstanceDetails();
+            warmData.getCredentials().setBaseURL(baseURL);
+            warmData.restoreFrom(store.load(baseURL));
+            assertEquals(lastSync, warmData.getLastSync());
+
+            //3 - So the reload is a delta sync, and the next snapshot keeps the new date of the last sync
+            ConnectJellyfinAPI connectAPI = new ConnectJellyfinAPI();
+            connectAPI.setcBaseURL(baseURL);
+            connectAPI.setcTokenApi("1234567890");
+            connectAPI.setAdminUser(warmData.getAdminUser());
+            new JellyfinDeltaSync(connectAPI).synchronize(warmData);
+            assertEquals(1, syncRequests.get());
+            assertTrue(warmData.getLastSync().after(lastSync));
+
+            store.save(warmData);
+            assertEquals(warmData.getLastSync(), store.load(baseURL).getLastSync());
+        } finally {
+            server.stop(0);
+        }
+    }
+
+    private JellyfinInstanceDetails newInstanceData() {
+        JellyfinInstanceDetails instanceData = new JellyfinInstanceDetails();
+        instanceData.getCredentials().setBaseURL("http://localhost:8096/");
+        instanceData.getCredentials().setTokenAPI("1234567890");
+
+        JellyfinFolder movies = new JellyfinFolder();
+        movies.setId("movies");
+        movies.setServerId("server01");
+        movies.setName("Movies");
+        JellyfinFolderMetadata metadata = new JellyfinFolderMetadata();
+        metadata.setOverview("Overview");
+        movies.setMetadata(metadata);
+        JellyfinItem pilot = new JellyfinItem();
+        pilot.setName("Pilot");
+        JellyfinItems content = new JellyfinItems();
+        content.setItems(new ArrayList<>());
+        content.getItems().add(pilot);
+        movies.setFolderContent(content);
+
+        JellyfinFolder classics = new JellyfinFolder();
+        classics.setId("classics");
+        classics.setServerId("server01");
+        classics.setName("   ⎆ Classics");
+        classics.setFolderLevel(2);
+
+        JellyfinFolders folders = new JellyfinFolders();
+        folders.setItems(new ArrayList<>());
+        folders.getItems().add(movies);
+        folders.getItems().add(classics);
+        instanceData.setFolders(folders);
+
+        return instanceData;
+    }
+}
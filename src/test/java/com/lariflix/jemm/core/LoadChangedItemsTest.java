@@ -0,0 +1,21 @@
+package com.lariflix.jemm.core;
+
+import java.util.Date;
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+public class LoadChangedItemsTest {
+
+    @Test
+    public void testGetFullURL() {
+        LoadChangedItems loadChangedItems = new LoadChangedItems("http://localhost:8096/", "1234567890", "admin", new Date(0));
+        assertEquals("http://localhost:8096/Users/admin/Items?Recursive=true&MinDateLastSaved=1970-01-01T00%3A00%3A00Z&Fields=" + LoadItemsMetadata.METADATA_FIELDS + "&ApiKey=1234567890", loadChangedItems.getFullURL());
+    }
+
+    @Test
+    public void testGetPagedURL() {
+        LoadChangedItems loadChangedItems = new LoadChangedItems("http://localhost:8096/", "1234567890", "admin", new Date(0));
+        loadChangedItems.setPageSize(10);
+        assertEquals(loadChangedItems.getFullURL() + "&SortBy=SortName&StartIndex=20&Limit=10", loadChangedItems.getPagedURL(20));
+    }
+}
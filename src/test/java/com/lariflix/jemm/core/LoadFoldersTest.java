@@ -1,8 +1,17 @@
 package com.lariflix.jemm.core;
 
+import com.lariflix.jemm.dtos.JellyfinFolder;
+import com.lariflix.jemm.dtos.JellyfinItem;
 import com.lariflix.jemm.utils.JellyfimParameters;
+import com.sun.net.httpserver.HttpServer;
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
 import org.junit.jupiter.api.Test;
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
 
 public class LoadFoldersTest {
 
@@ -37,4 +46,71 @@ public class LoadFoldersTest {
          
         assertEquals("http://localhost:8096/Items?ApiKey=1234567890&userId=admin", loadFolders.getFullURL());
     }
-}
\ No newline at end of file
+
+    @Test
+    public void testBuildSubFoldersTree() {
+        LoadFolders loadFolders = new LoadFolders(JellyfimParameters.FOLDERS_AND_SUBFOLDERS);
+        JellyfinFolder root = new JellyfinFolder();
+        root.setId("root");
+        root.setName("Movies");
+
+        List<JellyfinItem> subFolders = List.of(
+            newSubFolder("b1", "Beta One", "b"),
+            newSubFolder("b", "Beta", "physical-root"),
+            newSubFolder("a", "Alpha", "root"),
+            newSubFolder("a1", "Alpha One", "a"));
+
+        ArrayList<JellyfinFolder> tree = loadFolders.buildSubFoldersTree(root, subFolders);
+
+        assertEquals(4, tree.size());
+        assertEquals("a", tree.get(0).getId());
+        assertEquals("a1", tree.get(1).getId());
+        assertEquals("b", tree.get(2).getId());
+        assertEquals("b1", tree.get(3).getId());
+        assertEquals("   ⎆ Alpha", tree.get(0).getName());
+        assertEquals("      ⎆ Alpha One", tree.get(1).getName());
+        assertEquals(3, tree.get(3).getFolderLevel());
+    }
+
+    @Test
+    public void testRequestSubFolders() throws IOException {
+        //Answers just the direct subfolders of "root", in one page
+        HttpServer server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        server.createContext("/Users/admin/Items", exchange -> {
+            String query = exchange.getRequestURI().getQuery();
+            String body = query.contains("parentId=root") && query.contains("filters=IsFolder") && !query.contains("Recursive=true")
+                    ? "{\"Items\":[{\"Id\":\"b\",\"Name\":\"Beta\"},{\"Id\":\"a\",\"Name\":\"Alpha\"}],\"TotalRecordCount\":2}"
+                    : "{\"Items\":[],\"TotalRecordCount\":0}";
+            byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+            exchange.sendResponseHeaders(200, bytes.length);
+            exchange.getResponseBody().write(bytes);
+            exchange.close();
+        });
+        server.start();
+
+        try {
+            LoadFolders loadFolders = new LoadFolders("http://127.0.0.1:" + server.getAddress().getPort() + "/", "1234567890", "admin", JellyfimParameters.JUST_SUBFOLDERS);
+            JellyfinFolder root = new JellyfinFolder();
+            root.setId("root");
+            root.setName("Movies");
+
+            ArrayList<JellyfinFolder> subFolders = loadFolders.requestSubFolders(root);
+
+            assertEquals(2, subFolders.size());
+            assertEquals("a", subFolders.get(0).getId());
+            assertEquals("   ⎆ Alpha", subFolders.get(0).getName());
+            assertEquals(2, subFolders.get(1).getFolderLevel());
+            assertFalse(subFolders.get(0).isSubFoldersLoaded());
+        } finally {
+            server.stop(0);
+        }
+    }
+
+    private JellyfinItem newSubFolder(String id, String name, String parentId) {
+        JellyfinItem subFolder = new JellyfinItem();
+        subFolder.setId(id);
+        subFolder.setName(name);
+        subFolder.setParentId(parentId);
+        return subFolder;
+    }
+}
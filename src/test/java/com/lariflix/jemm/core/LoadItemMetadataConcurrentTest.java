@@ -0,0 +1,101 @@
+package com.lariflix.jemm.core;
+
+import com.lariflix.jemm.dtos.JellyfinItemMetadata;
+import com.sun.net.httpserver.HttpServer;
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class LoadItemMetadataConcurrentTest {
+
+    @Test
+    public void testDefaultMaxInFlight() {
+        LoadItemMetadataConcurrent loader = new LoadItemMetadataConcurrent();
+        assertEquals(LoadItemMetadataConcurrent.DEFAULT_MAX_IN_FLIGHT, loader.getMaxInFlight());
+    }
+
+    @Test
+    public void testSetMaxInFlightRejectsZero() {
+        LoadItemMetadataConcurrent loader = new LoadItemMetadataConcurrent();
+        assertThrows(IllegalArgumentException.class, () -> loader.setMaxInFlight(0));
+    }
+
+    @Test
+    public void testEmptyBatch() {
+        LoadItemMetadataConcurrent loader = new LoadItemMetadataConcurrent("http://localhost:8096/", "1234567890", "admin");
+        assertTrue(loader.requestItemsMetadata(new ArrayList<>()).isEmpty());
+        assertFalse(loader.hasFailures());
+    }
+
+    @Test
+    public void testFailuresAreRecordedInOrder() {
+        //Nothing listens on port 1, so every request fails without aborting the batch
+        LoadItemMetadataConcurrent loader = new LoadItemMetadataConcurrent("http://127.0.0.1:1/", "1234567890", "admin");
+        loader.setMaxInFlight(2);
+        List<String> ids = List.of("item1", "item2", "item3");
+        ArrayList<JellyfinItemMetadata> results = loader.requestItemsMetadata(ids);
+
+        assertEquals(3, results.size());
+        assertNull(results.get(0));
+        assertNull(results.get(2));
+        assertEquals(ids, new ArrayList<>(loader.getFailures().keySet()));
+    }
+
+    @Test
+    public void testResultsKeepTheOrderAndTheRequestsInFlightAreBounded() throws IOException {
+        //The first items answer last, so the responses complete out of order; the server records the peak of concurrent requests
+        AtomicInteger inFlight = new AtomicInteger();
+        AtomicInteger peakInFlight = new AtomicInteger();
+        HttpServer server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        server.setExecutor(Executors.newCachedThreadPool());
+        server.createContext("/Users/", exchange -> {
+            peakInFlight.accumulateAndGet(inFlight.incrementAndGet(), Math::max);
+            try {
+                String path = exchange.getRequestURI().getPath();
+                String cItemID = path.substring(path.lastIndexOf('/') + 1);
+                int nItem = Integer.parseInt(cItemID.substring("item".length()));
+                Thread.sleep((6 - nItem) * 40L);
+
+                byte[] body = ("{\"Id\":\"" + cItemID + "\",\"Name\":\"Name of " + cItemID + "\"}").getBytes(StandardCharsets.UTF_8);
+                exchange.sendResponseHeaders(200, body.length);
+                exchange.getResponseBody().write(body);
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+            } finally {
+                inFlight.decrementAndGet();
+                exchange.close();
+            }
+        });
+        server.start();
+
+        try {
+            LoadItemMetadataConcurrent loader = new LoadItemMetadataConcurrent("http://127.0.0.1:" + server.getAddress().getPort() + "/", "1234567890", "admin");
+            loader.setMaxInFlight(2);
+            List<String> ids = List.of("item0", "item1", "item2", "item3", "item4", "item5");
+            ArrayList<JellyfinItemMetadata> results = loader.requestItemsMetadata(ids);
+
+            assertFalse(loader.hasFailures());
+            assertEquals(ids.size(), results.size());
+            for (int nI = 0; nI < ids.size(); nI++){
+                assertEquals(ids.get(nI), results.get(nI).getId());
+                assertEquals("Name of " + ids.get(nI), results.get(nI).getName());
+            }
+            assertTrue(peakInFlight.get() <= 2, "Peak of requests in flight: " + peakInFlight.get());
+            assertEquals(2, peakInFlight.get());
+        } finally {
+            server.stop(0);
+            ((ExecutorService) server.getExecutor()).shutdownNow();
+        }
+    }
+}
@@ -0,0 +1,71 @@
+package com.lariflix.jemm.core;
+
+import com.lariflix.jemm.dtos.JellyfinItemMetadata;
+import com.sun.net.httpserver.HttpServer;
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class LoadItemsMetadataTest {
+
+    @Test
+    public void testGetSetItemIDs() {
+        LoadItemsMetadata loadItemsMetadata = new LoadItemsMetadata();
+        List<String> ids = List.of("item1", "item2");
+        loadItemsMetadata.setItemIDs(ids);
+        assertEquals(ids, loadItemsMetadata.getItemIDs());
+    }
+
+    @Test
+    public void testGetFullURL() {
+        LoadItemsMetadata loadItemsMetadata = new LoadItemsMetadata("http://localhost:8096/", "1234567890", "admin");
+        loadItemsMetadata.setItemIDs(List.of("item1", "item2"));
+        assertEquals("http://localhost:8096/Users/admin/Items?Ids=item1,item2&Fields=" + LoadItemsMetadata.METADATA_FIELDS + "&ApiKey=1234567890", loadItemsMetadata.getFullURL());
+    }
+
+    @Test
+    public void testRequestByIdWithoutIdsIssuesNoRequest() {
+        LoadItemsMetadata loadItemsMetadata = new LoadItemsMetadata("http://localhost:8096/", "1234567890", "admin");
+        assertTrue(loadItemsMetadata.requestItemsMetadataById(new ArrayList<>()).isEmpty());
+    }
+
+    @Test
+    public void testEachChunkIsHandedAsItArrives() throws IOException {
+        //Answers each chunk with the metadata of the requested IDs
+        HttpServer server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        server.createContext("/Users/admin/Items", exchange -> {
+            String query = exchange.getRequestURI().getQuery();
+            String ids = query.substring(query.indexOf("Ids=") + 4, query.indexOf('&'));
+            StringBuilder items = new StringBuilder();
+            for (String id : ids.split(",")){
+                items.append(items.length() == 0 ? "" : ",").append("{\"Id\":\"").append(id).append("\"}");
+            }
+            byte[] body = ("{\"Items\":[" + items + "]}").getBytes(StandardCharsets.UTF_8);
+            exchange.sendResponseHeaders(200, body.length);
+            exchange.getResponseBody().write(body);
+            exchange.close();
+        });
+        server.start();
+
+        try {
+            ArrayList<String> ids = new ArrayList<>();
+            for (int nI = 0; nI < LoadItemsMetadata.MAX_IDS_PER_REQUEST + 1; nI++){
+                ids.add("item" + nI);
+            }
+            LoadItemsMetadata loadItemsMetadata = new LoadItemsMetadata("http://127.0.0.1:" + server.getAddress().getPort() + "/", "1234567890", "admin");
+            ArrayList<Integer> chunkSizes = new ArrayList<>();
+            HashMap<String, JellyfinItemMetadata> metadata = loadItemsMetadata.requestItemsMetadataById(ids, chunk -> chunkSizes.add(chunk.size()));
+
+            assertEquals(ids.size(), metadata.size());
+            assertEquals(List.of(LoadItemsMetadata.MAX_IDS_PER_REQUEST, 1), chunkSizes);
+        } finally {
+            server.stop(0);
+        }
+    }
+}
@@ -42,4 +42,22 @@ public class LoadItemsTest {
         loadItems.setcParentID("parent1");
         assertEquals("http://localhost:8096/Users/admin/Items?parentId=parent1&userId=admin&ApiKey=1234567890&filters=IsNotFolder", loadItems.getFullURL());
     }
-}
\ No newline at end of file
+
+    @Test
+    public void testGetPagedURL() {
+        LoadItems loadItems = new LoadItems("http://localhost:8096/", "1234567890", "admin", "parent1", JellyfimParameters.JUST_ITEMS);
+        loadItems.setPageSize(50);
+        assertEquals("http://localhost:8096/Users/admin/Items?parentId=parent1&userId=admin&ApiKey=1234567890&filters=IsNotFolder&SortBy=SortName&StartIndex=0&Limit=50", loadItems.getPagedURL(0));
+    }
+
+    @Test
+    public void testGetFullURLWithFields() {
+        LoadItems loadItems = new LoadItems("http://localhost:8096/", "1234567890", "admin", "parent1", JellyfimParameters.JUST_ITEMS);
+        loadItems.setFields("Overview,Path");
+        assertEquals("http://localhost:8096/Users/admin/Items?parentId=parent1&userId=admin&ApiKey=1234567890&filters=IsNotFolder&Fields=Overview,Path", loadItems.getFullURL());
+
+        LoadItems loadSubfolders = new LoadItems("http://localhost:8096/", "1234567890", "admin", "parent1", JellyfimParameters.ALL_SUBFOLDERS);
+        loadSubfolders.setFields("Path");
+        assertEquals("http://localhost:8096/Users/admin/Items?parentId=parent1&userId=admin&ApiKey=1234567890&filters=IsFolder&Recursive=true&Fields=ParentId,Path", loadSubfolders.getFullURL());
+    }
+}
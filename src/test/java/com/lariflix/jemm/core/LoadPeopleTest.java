@@ -1,6 +1,14 @@
 package com.lariflix.jemm.core;
+import com.lariflix.jemm.dtos.JellyfinCadPeopleItem;
+import com.sun.net.httpserver.HttpServer;
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashSet;
 import org.junit.jupiter.api.Test;
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
 
 public class LoadPeopleTest {
 
@@ -39,4 +47,54 @@ public class LoadPeopleTest {
         loadPeople.setApiToken("1234567890");
         assertEquals("http://localhost:8096/Persons?ApiKey=1234567890", loadPeople.getFullURL());
     }
-}
\ No newline at end of file
+
+    @Test
+    public void testGetPagedURL() {
+        LoadPeople loadPeople = new LoadPeople("http://localhost:8096/", "1234567890");
+        loadPeople.setPageSize(200);
+        assertEquals("http://localhost:8096/Items?ApiKey=1234567890&IncludeItemTypes=Person&Recursive=true&SortBy=SortName&StartIndex=400&Limit=200", loadPeople.getPagedURL(400));
+    }
+
+    @Test
+    public void testSetPageSizeRejectsZero() {
+        LoadPeople loadPeople = new LoadPeople();
+        assertEquals(LoadPeople.DEFAULT_PAGE_SIZE, loadPeople.getPageSize());
+        assertThrows(IllegalArgumentException.class, () -> loadPeople.setPageSize(0));
+    }
+
+    @Test
+    public void testServerIgnoringStartIndexDropsNobody() throws IOException {
+        //Like the Persons endpoint: Limit is honored, StartIndex is not, and the total is the size of the page
+        HttpServer server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        server.createContext("/", exchange -> {
+            String query = exchange.getRequestURI().getQuery();
+            int limit = query.contains("Limit=") ? Integer.parseInt(query.replaceAll(".*Limit=(\\d+).*", "$1")) : 5;
+            StringBuilder items = new StringBuilder();
+            for (int nI = 0; nI < Math.min(limit, 5); nI++){
+                items.append(nI == 0 ? "" : ",").append("{\"Id\":\"person").append(nI).append("\",\"Name\":\"Person ").append(nI).append("\"}");
+            }
+            byte[] body = ("{\"Items\":[" + items + "],\"TotalRecordCount\":" + Math.min(limit, 5) + "}").getBytes(StandardCharsets.UTF_8);
+            exchange.sendResponseHeaders(200, body.length);
+            exchange.getResponseBody().write(body);
+            exchange.close();
+        });
+        server.start();
+
+        try {
+            LoadPeople loadPeople = new LoadPeople("http://127.0.0.1:" + server.getAddress().getPort() + "/", "1234567890");
+            loadPeople.setPageSize(2);
+            ArrayList<String> received = new ArrayList<>();
+            int total = loadPeople.requestPeoplePages(page -> {
+                for (JellyfinCadPeopleItem people : page.getItems()){
+                    received.add(people.getId());
+                }
+            });
+
+            assertEquals(5, total);
+            assertEquals(5, received.size());
+            assertEquals(5, new HashSet<>(received).size());
+        } finally {
+            server.stop(0);
+        }
+    }
+}
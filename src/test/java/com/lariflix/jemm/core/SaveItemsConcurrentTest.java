@@ -0,0 +1,149 @@
+package com.lariflix.jemm.core;
+
+import com.lariflix.jemm.dtos.JellyfinFolder;
+import com.lariflix.jemm.dtos.JellyfinFolders;
+import com.lariflix.jemm.dtos.JellyfinGenreItem;
+import com.lariflix.jemm.dtos.JellyfinInstanceDetails;
+import com.lariflix.jemm.dtos.JellyfinItem;
+import com.lariflix.jemm.dtos.JellyfinItemMetadata;
+import com.lariflix.jemm.dtos.JellyfinItems;
+import com.sun.net.httpserver.HttpServer;
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class SaveItemsConcurrentTest {
+
+    private JellyfinInstanceDetails newInstance(String cFolderID, List<String> itemIDs) {
+        ArrayList<JellyfinItem> items = new ArrayList<>();
+        for (String cItemID : itemIDs){
+            JellyfinItemMetadata itemMetadata = new JellyfinItemMetadata();
+            itemMetadata.setId(cItemID);
+            itemMetadata.setName("Name of " + cItemID);
+            itemMetadata.setGenreItems(new ArrayList<JellyfinGenreItem>());
+            itemMetadata.setTags(new ArrayList<>());
+            itemMetadata.setPremiereDate(new Date());
+            itemMetadata.setDateCreated(new Date());
+
+            JellyfinItem item = new JellyfinItem();
+            item.setId(cItemID);
+            item.setItemMetadata(itemMetadata);
+            items.add(item);
+        }
+        JellyfinItems folderContent = new JellyfinItems();
+        folderContent.setItems(items);
+
+        JellyfinFolder folder = new JellyfinFolder();
+        folder.setId(cFolderID);
+        folder.setFolderContent(folderContent);
+        JellyfinFolders folders = new JellyfinFolders();
+        folders.setItems(new ArrayList<>(List.of(folder)));
+
+        JellyfinInstanceDetails instance = new JellyfinInstanceDetails();
+        instance.setFolders(folders);
+        return instance;
+    }
+
+    @Test
+    public void testSettersRejectInvalidValues() {
+        SaveItemsConcurrent saveItems = new SaveItemsConcurrent();
+        assertEquals(SaveItemsConcurrent.DEFAULT_MAX_IN_FLIGHT, saveItems.getMaxInFlight());
+        assertThrows(IllegalArgumentException.class, () -> saveItems.setMaxInFlight(0));
+        assertThrows(IllegalArgumentException.class, () -> saveItems.setMaxRetries(-1));
+        assertThrows(IllegalArgumentException.class, () -> saveItems.setRetryDelayMillis(-1));
+    }
+
+    @Test
+    public void testIsTransient() {
+        assertTrue(SaveItemsConcurrent.isTransient(503));
+        assertTrue(SaveItemsConcurrent.isTransient(429));
+        assertFalse(SaveItemsConcurrent.isTransient(204));
+        assertFalse(SaveItemsConcurrent.isTransient(400));
+    }
+
+    @Test
+    public void testEmptyBatch() {
+        SaveItemsConcurrent saveItems = new SaveItemsConcurrent("http://localhost:8096/", "1234567890");
+        SaveItemsResult result = saveItems.saveItems(this.newInstance("folder1", List.of()), "folder1", new ArrayList<>());
+        assertTrue(result.getStatusCodes().isEmpty());
+        assertFalse(result.hasFailures());
+    }
+
+    @Test
+    public void testMissingItemIsAFailure() {
+        SaveItemsConcurrent saveItems = new SaveItemsConcurrent("http://localhost:8096/", "1234567890");
+        SaveItemsResult result = saveItems.saveItems(this.newInstance("folder1", List.of("item1")), "folder1", List.of("item2"));
+        assertEquals(1, result.getFailedCount());
+        assertTrue(result.getFailures().containsKey("item2"));
+    }
+
+    @Test
+    public void testPreparedItemsDontNeedTheInstanceData() {
+        //The bodies are built first (on the EDT, in the GUI); the posts only use the prepared requests
+        List<String> ids = List.of("item1", "missing", "item2");
+        SaveItemsConcurrent saveItems = new SaveItemsConcurrent("http://127.0.0.1:1/", "1234567890");
+        saveItems.setMaxRetries(0);
+        JellyfinInstanceDetails instance = this.newInstance("folder1", List.of("item1", "item2"));
+        SaveItemsConcurrent.PreparedItems prepared = saveItems.prepareItems(instance, "folder1", ids);
+        assertEquals(List.of("item1", "item2"), prepared.getPreparedItems());
+        assertEquals(1, prepared.getFailedCount());
+
+        instance.getFolders().getItems().clear();
+        SaveItemsResult result = saveItems.postItems(prepared);
+        assertEquals(ids, new ArrayList<>(result.getFailures().keySet()));
+    }
+
+    @Test
+    public void testTransientErrorsAreRetried() throws IOException {
+        //The first request of each item is answered with 503, the next one with 204; item3 is always rejected with 400
+        ConcurrentHashMap<String, AtomicInteger> requests = new ConcurrentHashMap<>();
+        HttpServer server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        server.createContext("/Items/", exchange -> {
+            exchange.getRequestBody().readAllBytes();
+            String cItemID = exchange.getRequestURI().getPath().substring("/Items/".length());
+            int count = requests.computeIfAbsent(cItemID, key -> new AtomicInteger()).incrementAndGet();
+            int statusCode = "item3".equals(cItemID) ? 400 : (count == 1 ? 503 : 204);
+            exchange.sendResponseHeaders(statusCode, -1);
+            exchange.close();
+        });
+        server.start();
+
+        try {
+            List<String> ids = List.of("item1", "item2", "item3");
+            SaveItemsConcurrent saveItems = new SaveItemsConcurrent("http://127.0.0.1:" + server.getAddress().getPort() + "/", "1234567890");
+            saveItems.setMaxInFlight(2);
+            saveItems.setRetryDelayMillis(1);
+            SaveItemsResult result = saveItems.saveItems(this.newInstance("folder1", ids), "folder1", ids);
+
+            assertEquals(ids, new ArrayList<>(result.getStatusCodes().keySet()));
+            assertEquals(List.of("item1", "item2"), result.getSavedItems());
+            assertEquals(400, result.getStatusCodes().get("item3"));
+            assertEquals(1, result.getFailedCount());
+            assertEquals(2, requests.get("item1").get());
+            assertEquals(1, requests.get("item3").get());
+        } finally {
+            server.stop(0);
+        }
+    }
+
+    @Test
+    public void testConnectionFailuresAreRecorded() {
+        //Nothing listens on port 1, so every request fails without aborting the batch
+        List<String> ids = List.of("item1", "item2");
+        SaveItemsConcurrent saveItems = new SaveItemsConcurrent("http://127.0.0.1:1/", "1234567890");
+        saveItems.setRetryDelayMillis(1);
+        SaveItemsResult result = saveItems.saveItems(this.newInstance("folder1", ids), "folder1", ids);
+
+        assertEquals(ids, new ArrayList<>(result.getFailures().keySet()));
+        assertTrue(result.getSavedItems().isEmpty());
+    }
+}
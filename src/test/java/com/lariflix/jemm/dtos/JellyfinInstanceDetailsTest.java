@@ -1,7 +1,12 @@
 package com.lariflix.jemm.dtos;
 
+import java.util.ArrayList;
+import java.util.List;
 import org.junit.jupiter.api.Test;
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 
 public class JellyfinInstanceDetailsTest {
 
@@ -25,4 +30,84 @@ public class JellyfinInstanceDetailsTest {
         instanceDetails.setFolders(folders);
         assertEquals(folders, instanceDetails.getFolders());
     }
-}
\ No newline at end of file
+
+    private JellyfinItem newItem(String itemID, String parentID) {
+        JellyfinItem item = new JellyfinItem();
+        item.setId(itemID);
+        item.setParentId(parentID);
+        return item;
+    }
+
+    private JellyfinFolder newFolder(String folderID, JellyfinItem... items) {
+        JellyfinItems folderContent = new JellyfinItems();
+        folderContent.setItems(new ArrayList<>(List.of(items)));
+        JellyfinFolder folder = new JellyfinFolder();
+        folder.setId(folderID);
+        folder.setFolderContent(folderContent);
+        return folder;
+    }
+
+    @Test
+    public void testFindByIndex() {
+        JellyfinInstanceDetails instanceDetails = new JellyfinInstanceDetails();
+        JellyfinItem episode1 = this.newItem("episode1", "season1");
+        JellyfinItem episode2 = this.newItem("episode2", "season1");
+        JellyfinFolder series = this.newFolder("series", episode1, episode2);
+        JellyfinFolder movies = this.newFolder("movies", this.newItem("movie1", "movies"));
+        JellyfinFolders folders = new JellyfinFolders();
+        folders.setItems(new ArrayList<>(List.of(series, movies)));
+        instanceDetails.setFolders(folders);
+
+        assertSame(movies, instanceDetails.findFolder("movies"));
+        assertSame(episode2, instanceDetails.findItem("series", "episode2"));
+        assertNull(instanceDetails.findItem("movies", "episode2"));
+        assertSame(series, instanceDetails.findFolderOfItem("episode1"));
+        assertEquals(List.of(episode1, episode2), instanceDetails.findChildren("season1"));
+        assertNull(instanceDetails.findFolder("unknown"));
+    }
+
+    @Test
+    public void testIndexFollowsReloads() {
+        JellyfinInstanceDetails instanceDetails = new JellyfinInstanceDetails();
+        JellyfinFolder movies = this.newFolder("movies", this.newItem("movie1", "movies"));
+        JellyfinFolders folders = new JellyfinFolders();
+        folders.setItems(new ArrayList<>(List.of(movies)));
+        instanceDetails.setFolders(folders);
+        assertSame(movies, instanceDetails.findFolder("movies"));
+
+        //An item added to a loaded folder (e.g. by a delta sync)
+        JellyfinItem movie2 = this.newItem("movie2", "movies");
+        movies.getFolderContent().getItems().add(movie2);
+        assertSame(movie2, instanceDetails.findItem("movies", "movie2"));
+
+        //The content of a folder reloaded
+        JellyfinItem reloaded = this.newItem("movie1", "movies");
+        movies.setFolderContent(this.newFolder("movies", reloaded).getFolderContent());
+        assertSame(reloaded, instanceDetails.findItem("movies", "movie1"));
+        assertNull(instanceDetails.findItem("movies", "movie2"));
+
+        //A folder added to the list
+        JellyfinFolder shows = this.newFolder("shows");
+        folders.getItems().add(shows);
+        assertSame(shows, instanceDetails.findFolder("shows"));
+    }
+
+    @Test
+    public void testAddSubFolders() {
+        JellyfinInstanceDetails instanceDetails = new JellyfinInstanceDetails();
+        JellyfinFolders folders = new JellyfinFolders();
+        folders.setItems(new ArrayList<>(List.of(this.newFolder("movies"), this.newFolder("shows"))));
+        instanceDetails.setFolders(folders);
+
+        //"classics" is already in the list (e.g. from a snapshot), so it is not added again
+        folders.getItems().add(this.newFolder("classics"));
+        int added = instanceDetails.addSubFolders("movies", List.of(this.newFolder("action"), this.newFolder("classics")));
+
+        assertEquals(1, added);
+        assertEquals("action", folders.getItems().get(1).getId());
+        assertEquals("shows", folders.getItems().get(2).getId());
+        assertTrue(instanceDetails.findFolder("movies").isSubFoldersLoaded());
+        assertSame(folders.getItems().get(1), instanceDetails.findFolder("action"));
+        assertEquals(-1, instanceDetails.addSubFolders("unknown", List.of()));
+    }
+}
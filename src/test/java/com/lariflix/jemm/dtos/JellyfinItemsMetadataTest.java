@@ -0,0 +1,23 @@
+package com.lariflix.jemm.dtos;
+
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import java.util.ArrayList;
+
+public class JellyfinItemsMetadataTest {
+
+    @Test
+    public void testJellyfinItemsMetadata() {
+        JellyfinItemsMetadata items = new JellyfinItemsMetadata();
+
+        ArrayList<JellyfinItemMetadata> itemList = new ArrayList<>();
+        items.setItems(itemList);
+        assertEquals(itemList, items.getItems());
+
+        items.setTotalRecordCount(3);
+        assertEquals(3, items.getTotalRecordCount());
+
+        items.setStartIndex(5);
+        assertEquals(5, items.getStartIndex());
+    }
+}
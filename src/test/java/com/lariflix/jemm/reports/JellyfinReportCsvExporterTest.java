@@ -0,0 +1,89 @@
+package com.lariflix.jemm.reports;
+
+import com.lariflix.jemm.core.JellyfinLibrarySnapshot;
+import com.lariflix.jemm.dtos.JellyfinFolder;
+import com.lariflix.jemm.dtos.JellyfinInstanceDetails;
+import com.lariflix.jemm.dtos.JellyfinItem;
+import com.lariflix.jemm.dtos.JellyfinItemMetadata;
+import java.io.StringWriter;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+public class JellyfinReportCsvExporterTest {
+
+    @Test
+    public void testWriteInventory() throws Exception {
+        JellyfinFolder folder = new JellyfinFolder();
+        folder.setId("f1");
+        folder.setName("Movies");
+
+        JellyfinItem item = new JellyfinItem();
+        item.setId("i1");
+        item.setName("Hello, World");
+        item.setType("Movie");
+        item.setProductionYear(1999);
+
+        JellyfinItemMetadata itemMetadata = new JellyfinItemMetadata();
+        itemMetadata.setGenres(new ArrayList<>(List.of("Drama")));
+        itemMetadata.setTags(new ArrayList<>(List.of("4K", "HDR")));
+
+        HashMap<String, ArrayList<JellyfinItem>> folderItems = new HashMap<>();
+        folderItems.put("f1", new ArrayList<>(List.of(item)));
+        HashMap<String, JellyfinItemMetadata> metadata = new HashMap<>();
+        metadata.put("i1", itemMetadata);
+
+        JellyfinLibrarySnapshot snapshot = new JellyfinLibrarySnapshot("http://localhost:8096/", "admin", Instant.now(), List.of(folder), folderItems, metadata);
+
+        StringWriter out = new StringWriter();
+        new JellyfinReportCsvExporter(new JellyfinInstanceDetails()).writeInventory(snapshot, true, out);
+
+        String[] lines = out.toString().split("\r\n");
+        assertEquals(2, lines.length);
+        assertEquals("Folder,Item,Type,ProductionYear,OfficialRating,CommunityRating,Genres,Tags", lines[0]);
+        assertEquals("Movies,\"Hello, World\",Movie,1999,,0,Drama,4K; HDR", lines[1]);
+    }
+
+    @Test
+    public void testWriteInventoryWithoutGenresAndTags() throws Exception {
+        //The server omits the empty lists: the metadata has null genres and tags
+        JellyfinFolder folder = new JellyfinFolder();
+        folder.setId("f1");
+        folder.setName("Movies");
+
+        JellyfinItem item = new JellyfinItem();
+        item.setId("i1");
+        item.setName("Untagged");
+        item.setType("Movie");
+
+        JellyfinItemMetadata itemMetadata = new JellyfinItemMetadata();
+        itemMetadata.setGenres(null);
+        itemMetadata.setTags(null);
+
+        HashMap<String, ArrayList<JellyfinItem>> folderItems = new HashMap<>();
+        folderItems.put("f1", new ArrayList<>(List.of(item)));
+        HashMap<String, JellyfinItemMetadata> metadata = new HashMap<>();
+        metadata.put("i1", itemMetadata);
+
+        JellyfinLibrarySnapshot snapshot = new JellyfinLibrarySnapshot("http://localhost:8096/", "admin", Instant.now(), List.of(folder), folderItems, metadata);
+
+        StringWriter out = new StringWriter();
+        new JellyfinReportCsvExporter(new JellyfinInstanceDetails()).writeInventory(snapshot, true, out);
+
+        String[] lines = out.toString().split("\r\n");
+        assertEquals(2, lines.length);
+        assertEquals("Movies,Untagged,Movie,0,,0,,", lines[1]);
+    }
+
+    @Test
+    public void testEscape() {
+        assertEquals("plain", JellyfinReportCsvExporter.escape("plain"));
+        assertEquals("\"a,b\"", JellyfinReportCsvExporter.escape("a,b"));
+        assertEquals("\"say \"\"hi\"\"\"", JellyfinReportCsvExporter.escape("say \"hi\""));
+        assertEquals("", JellyfinReportCsvExporter.escape(null));
+    }
+
+}
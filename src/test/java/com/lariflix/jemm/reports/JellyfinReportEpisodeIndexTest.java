@@ -0,0 +1,82 @@
+package com.lariflix.jemm.reports;
+
+import com.lariflix.jemm.dtos.JellyfinGenreItem;
+import com.lariflix.jemm.dtos.JellyfinItem;
+import com.lariflix.jemm.dtos.JellyfinItemMetadata;
+import com.lariflix.jemm.dtos.JellyfinPeopleItem;
+import com.lariflix.jemm.dtos.JellyfinStudioItem;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class JellyfinReportEpisodeIndexTest {
+
+    @Test
+    public void testBuildIndexesByPeopleGenreAndStudio() {
+        JellyfinItem ep1 = this.newEpisode("ep1");
+        JellyfinItem ep2 = this.newEpisode("ep2");
+        JellyfinItem ep3 = this.newEpisode("ep3");
+
+        HashMap<String, JellyfinItemMetadata> metadataById = new HashMap<>();
+        metadataById.put("ep1", this.newMetadata("ep1", List.of("p1", "p2"), List.of("g1"), List.of("s1")));
+        metadataById.put("ep2", this.newMetadata("ep2", List.of("p1", "p1"), List.of("g1", "g2"), List.of()));
+        //ep3 has no metadata
+
+        JellyfinReportEpisodeIndex index = new JellyfinReportEpisodeIndex();
+        index.build(List.of(ep1, ep2, ep3), metadataById);
+
+        assertEquals(List.of(ep1, ep2), index.getEpisodes());
+        assertEquals(List.of(ep1, ep2), index.getPeopleEpisodes("p1"));
+        assertEquals(List.of(ep1), index.getPeopleEpisodes("p2"));
+        assertEquals(List.of(ep1, ep2), index.getGenreEpisodes("g1"));
+        assertEquals(List.of(ep2), index.getGenreEpisodes("g2"));
+        assertEquals(List.of(ep1), index.getStudioEpisodes("s1"));
+        assertTrue(index.getStudioEpisodes("unknown").isEmpty());
+        assertSame(metadataById.get("ep2"), index.getEpisodeMetadata("ep2"));
+        assertNull(index.getEpisodeMetadata("ep3"));
+    }
+
+    private JellyfinItem newEpisode(String id) {
+        JellyfinItem episode = new JellyfinItem();
+        episode.setId(id);
+        episode.setName(id);
+        return episode;
+    }
+
+    private JellyfinItemMetadata newMetadata(String id, List<String> peopleIDs, List<String> genreIDs, List<String> studioIDs) {
+        JellyfinItemMetadata metadata = new JellyfinItemMetadata();
+        metadata.setId(id);
+
+        ArrayList<JellyfinPeopleItem> people = new ArrayList<>();
+        for (String peopleID : peopleIDs){
+            JellyfinPeopleItem person = new JellyfinPeopleItem();
+            person.setId(peopleID);
+            people.add(person);
+        }
+        metadata.setPeople(people);
+
+        ArrayList<JellyfinGenreItem> genres = new ArrayList<>();
+        for (String genreID : genreIDs){
+            JellyfinGenreItem genre = new JellyfinGenreItem();
+            genre.setId(genreID);
+            genres.add(genre);
+        }
+        metadata.setGenreItems(genres);
+
+        ArrayList<JellyfinStudioItem> studios = new ArrayList<>();
+        for (String studioID : studioIDs){
+            JellyfinStudioItem studio = new JellyfinStudioItem();
+            studio.setId(studioID);
+            studios.add(studio);
+        }
+        metadata.setStudios(studios);
+
+        return metadata;
+    }
+
+}
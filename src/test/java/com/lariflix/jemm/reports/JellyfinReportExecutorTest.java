@@ -0,0 +1,134 @@
+package com.lariflix.jemm.reports;
+
+import com.lariflix.jemm.dtos.JellyfinInstanceDetails;
+import com.lariflix.jemm.utils.JellyfinReportPhase;
+import com.lariflix.jemm.utils.JellyfinReportTypes;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import net.sf.jasperreports.engine.JasperPrint;
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class JellyfinReportExecutorTest {
+
+    /**
+     * A report that doesn't request the server. Its items are loaded only after the given latch is released.
+     */
+    private static class FakeReport implements JellyfinReport {
+        final JasperPrint paintedReport = new JasperPrint();
+        final CountDownLatch release;
+
+        FakeReport(CountDownLatch release) {
+            this.release = release;
+        }
+
+        @Override
+        public void loadReportItems() {
+            try {
+                release.await();
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+            }
+        }
+
+        @Override
+        public JasperPrint fillReport() {
+            return paintedReport;
+        }
+
+        @Override
+        public void showReport(JasperPrint paintedReport) {
+            // ...
+        }
+    }
+
+    /**
+     * A listener that records the phases and waits for the end of the report.
+     */
+    private static class RecordingListener implements JellyfinReportProgressListener {
+        final List<JellyfinReportPhase> phases = new CopyOnWriteArrayList<>();
+        final CountDownLatch finished = new CountDownLatch(1);
+
+        @Override
+        public void phaseStarted(JellyfinReportTypes reportType, JellyfinReportPhase phase) {
+            phases.add(phase);
+        }
+
+        @Override
+        public void reportFinished(JellyfinReportTypes reportType, Future<JasperPrint> report) {
+            finished.countDown();
+        }
+    }
+
+    private JellyfinReportEngine newEngine(FakeReport report, RecordingListener listener) {
+        //PEOPLE_BASIC doesn't read the library snapshot
+        JellyfinReportEngine engine = new JellyfinReportEngine(JellyfinReportTypes.PEOPLE_BASIC, new JellyfinInstanceDetails()) {
+            @Override
+            JellyfinReport createReport() {
+                return report;
+            }
+        };
+        engine.setShowReport(false);
+        engine.setProgressListener(listener);
+        return engine;
+    }
+
+    @Test
+    public void testReportPhases() throws Exception {
+        JellyfinReportExecutor executor = new JellyfinReportExecutor(1, 1);
+        FakeReport report = new FakeReport(new CountDownLatch(0));
+        RecordingListener listener = new RecordingListener();
+
+        Future<JasperPrint> result = executor.submit(this.newEngine(report, listener));
+
+        assertSame(report.paintedReport, result.get(10, TimeUnit.SECONDS));
+        assertTrue(listener.finished.await(10, TimeUnit.SECONDS));
+        assertEquals(List.of(JellyfinReportPhase.AGGREGATE, JellyfinReportPhase.FILL), listener.phases);
+        executor.shutdown();
+    }
+
+    @Test
+    public void testCancelRunningReport() throws Exception {
+        JellyfinReportExecutor executor = new JellyfinReportExecutor(1, 1);
+        RecordingListener listener = new RecordingListener();
+
+        Future<JasperPrint> result = executor.submit(this.newEngine(new FakeReport(new CountDownLatch(1)), listener));
+        result.cancel(true);
+
+        assertTrue(listener.finished.await(10, TimeUnit.SECONDS));
+        assertTrue(result.isCancelled());
+        assertFalse(listener.phases.contains(JellyfinReportPhase.FILL));
+        executor.shutdown();
+    }
+
+    @Test
+    public void testQueueIsBounded() throws Exception {
+        JellyfinReportExecutor executor = new JellyfinReportExecutor(1, 1);
+        CountDownLatch release = new CountDownLatch(1);
+
+        executor.submit(this.newEngine(new FakeReport(release), new RecordingListener()));
+        executor.submit(this.newEngine(new FakeReport(release), new RecordingListener()));
+
+        assertThrows(RejectedExecutionException.class, () -> executor.submit(this.newEngine(new FakeReport(release), new RecordingListener())));
+        assertEquals(2, executor.getPendingCount());
+
+        executor.cancelAll();
+        release.countDown();
+        executor.shutdown();
+    }
+
+    @Test
+    public void testInvalidPoolSize() {
+        assertThrows(IllegalArgumentException.class, () -> new JellyfinReportExecutor(0, 1));
+        assertThrows(IllegalArgumentException.class, () -> new JellyfinReportExecutor(1, 0));
+    }
+
+}
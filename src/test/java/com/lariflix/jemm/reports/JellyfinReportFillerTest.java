@@ -0,0 +1,122 @@
+package com.lariflix.jemm.reports;
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import net.sf.jasperreports.engine.JRParameter;
+import net.sf.jasperreports.engine.JRPrintElement;
+import net.sf.jasperreports.engine.JRPrintText;
+import net.sf.jasperreports.engine.JasperPrint;
+import net.sf.jasperreports.engine.JasperReport;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class JellyfinReportFillerTest {
+
+    @TempDir
+    Path cacheDir;
+
+    @AfterEach
+    public void clearProperty() {
+        System.clearProperty(JellyfinReportFiller.LOW_MEMORY_PROPERTY);
+    }
+
+    @Test
+    public void testIsLowMemory() {
+        assertFalse(JellyfinReportFiller.isLowMemory(JellyfinReportFiller.LOW_MEMORY_THRESHOLD - 1));
+        assertTrue(JellyfinReportFiller.isLowMemory(JellyfinReportFiller.LOW_MEMORY_THRESHOLD));
+
+        System.setProperty(JellyfinReportFiller.LOW_MEMORY_PROPERTY, "true");
+        assertTrue(JellyfinReportFiller.isLowMemory(0));
+
+        System.setProperty(JellyfinReportFiller.LOW_MEMORY_PROPERTY, "false");
+        assertFalse(JellyfinReportFiller.isLowMemory(JellyfinReportFiller.LOW_MEMORY_THRESHOLD));
+    }
+
+    @Test
+    public void testLowMemoryFill() throws Exception {
+        JasperReport report = new JellyfinReportTemplateCache(cacheDir).getReport("/InstanceTagsBasic/JemmInstanceTagsBasic.jrxml", false);
+
+        ArrayList<String> tags = new ArrayList<>();
+        for (int nI = 0; nI < 500; nI++){
+            tags.add("tag" + nI);
+        }
+
+        Map<String, Object> reportParameters = new HashMap<>();
+        reportParameters.put("INSTANCE_URL", "http://localhost:8096/");
+        reportParameters.put("JEMM_VERSION", "test");
+        reportParameters.put("TOTAL_FOLDERITEMS", Integer.toString(tags.size()));
+        reportParameters.put("TOTAL_CONTENT", "0");
+
+        JasperPrint paintedReport = JellyfinReportFiller.fill(report, reportParameters, new JellyfinReportStreamingDataSource<>(tags, tag -> {
+            JellyfinReportTagsItem row = new JellyfinReportTagsItem();
+            row.setTagName(tag);
+            return row;
+        }), true);
+
+        assertNotNull(reportParameters.get(JRParameter.REPORT_VIRTUALIZER));
+        assertFalse(paintedReport.getPages().isEmpty());
+    }
+
+    @Test
+    public void testShard() {
+        ArrayList<Integer> rows = new ArrayList<>();
+        for (int nI = 0; nI < 100; nI++){
+            rows.add(nI);
+        }
+
+        List<List<Integer>> shards = JellyfinReportFiller.shard(rows, row -> 20, 4);
+
+        assertEquals(4, shards.size());
+        ArrayList<Integer> merged = new ArrayList<>();
+        for (List<Integer> shard : shards){
+            assertEquals(25, shard.size());
+            merged.addAll(shard);
+        }
+        assertEquals(rows, merged);
+
+        //Too small to be split
+        assertEquals(1, JellyfinReportFiller.shard(rows, row -> 1, 4).size());
+        assertEquals(1, JellyfinReportFiller.shard(new ArrayList<Integer>(), row -> 1, 4).size());
+    }
+
+    @Test
+    public void testFillShardedMergesPages() throws Exception {
+        JellyfinReportTemplateCache cache = new JellyfinReportTemplateCache(cacheDir);
+        JasperReport report = cache.getReport("/InstanceInventoryFull/JemmInstanceInventoryFull.jrxml", false);
+
+        ArrayList<JellyfinReportInventoryItem> items = new ArrayList<>();
+        for (int nI = 0; nI < 120; nI++){
+            JellyfinReportInventoryItem item = new JellyfinReportInventoryItem();
+            item.setName("Folder " + nI);
+            items.add(item);
+        }
+
+        Map<String, Object> reportParameters = new HashMap<>();
+        reportParameters.put("INSTANCE_URL", "http://localhost:8096/");
+        reportParameters.put("JEMM_VERSION", "test");
+        reportParameters.put("TOTAL_FOLDERITEMS", Integer.toString(items.size()));
+        reportParameters.put("TOTAL_CONTENT", "0");
+        reportParameters.put("SUBREPORT_JASPER_FILE", cache.getCompiledFile("/InstanceInventoryFull/JemmInstanceInventoryFullSubItems.jrxml", false));
+
+        JasperPrint single = JellyfinReportFiller.fillSharded(report, new HashMap<>(reportParameters), List.of(items));
+        JasperPrint sharded = JellyfinReportFiller.fillSharded(report, new HashMap<>(reportParameters), List.of(items.subList(0, 60), items.subList(60, 120)));
+
+        assertTrue(sharded.getPages().size() >= single.getPages().size());
+        for (int nI = 0; nI < sharded.getPages().size(); nI++){
+            for (JRPrintElement element : sharded.getPages().get(nI).getElements()){
+                if (JellyfinReportFiller.PAGE_NUMBER_KEY.equals(element.getKey())){
+                    assertEquals(Integer.toString(nI + 1), ((JRPrintText) element).getFullText());
+                }
+            }
+        }
+    }
+
+}
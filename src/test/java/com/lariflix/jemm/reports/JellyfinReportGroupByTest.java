@@ -0,0 +1,68 @@
+package com.lariflix.jemm.reports;
+
+import com.lariflix.jemm.dtos.JellyfinItem;
+import com.lariflix.jemm.dtos.JellyfinItemMetadata;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+
+public class JellyfinReportGroupByTest {
+
+    private ArrayList<JellyfinItem> episodes = new ArrayList<>();
+    private HashMap<String, JellyfinItemMetadata> metadata = new HashMap<>();
+
+    private void addEpisode(String cID, String... tags) {
+        JellyfinItem episode = new JellyfinItem();
+        episode.setId(cID);
+        episodes.add(episode);
+
+        if (tags.length > 0){
+            JellyfinItemMetadata episodeMetadata = new JellyfinItemMetadata();
+            episodeMetadata.setTags(new ArrayList<>(List.of(tags)));
+            metadata.put(cID, episodeMetadata);
+        }
+    }
+
+    private List<String> getIDs(List<JellyfinReportInventorySubItem> subItems) {
+        ArrayList<String> ids = new ArrayList<>();
+        for (JellyfinReportInventorySubItem subItem : subItems){
+            ids.add(subItem.getId());
+        }
+        return ids;
+    }
+
+    @Test
+    public void testGroupByTag() {
+        this.addEpisode("e1", "drama", "comedy");
+        this.addEpisode("e2", "comedy");
+        this.addEpisode("e3");
+        this.addEpisode("e4", "drama");
+
+        Map<String, ArrayList<JellyfinReportInventorySubItem>> groups = JellyfinReportGroupBy.group(episodes, metadata, JellyfinItemMetadata::getTags, false);
+
+        assertEquals(2, groups.size());
+        assertEquals(List.of("e1", "e4"), this.getIDs(groups.get("drama")));
+        assertEquals(List.of("e1", "e2"), this.getIDs(groups.get("comedy")));
+        assertFalse(this.getIDs(groups.get("drama")).contains("e3"));
+    }
+
+    @Test
+    public void testParallelGroupsAreTheSame() {
+        for (int nI = 0; nI < 5000; nI++){
+            this.addEpisode("e" + nI, "tag" + (nI % 37), "tag" + (nI % 11));
+        }
+
+        Map<String, ArrayList<JellyfinReportInventorySubItem>> sequential = JellyfinReportGroupBy.group(episodes, metadata, JellyfinItemMetadata::getTags, false);
+        Map<String, ArrayList<JellyfinReportInventorySubItem>> parallel = JellyfinReportGroupBy.group(episodes, metadata, JellyfinItemMetadata::getTags, true);
+
+        assertEquals(sequential.keySet(), parallel.keySet());
+        for (String tag : sequential.keySet()){
+            assertEquals(this.getIDs(sequential.get(tag)), this.getIDs(parallel.get(tag)));
+        }
+    }
+
+}
@@ -0,0 +1,41 @@
+package com.lariflix.jemm.reports;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import net.sf.jasperreports.engine.design.JRDesignField;
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class JellyfinReportStreamingDataSourceTest {
+
+    @Test
+    public void testRowsAreBuiltWhenRead() throws Exception {
+        AtomicInteger builtRows = new AtomicInteger();
+        JellyfinReportStreamingDataSource<String> dataSource = new JellyfinReportStreamingDataSource<>(List.of("drama", "comedy"), tag -> {
+            builtRows.incrementAndGet();
+            JellyfinReportTagsItem row = new JellyfinReportTagsItem();
+            row.setTagName(tag);
+            return row;
+        });
+
+        JRDesignField tagName = new JRDesignField();
+        tagName.setName("tagName");
+        tagName.setValueClass(String.class);
+
+        assertEquals(0, builtRows.get());
+        assertTrue(dataSource.next());
+        assertEquals(1, builtRows.get());
+        assertEquals("drama", dataSource.getFieldValue(tagName));
+        assertTrue(dataSource.next());
+        assertEquals("comedy", dataSource.getFieldValue(tagName));
+        assertFalse(dataSource.next());
+
+        dataSource.moveFirst();
+        assertTrue(dataSource.next());
+        assertEquals("drama", dataSource.getFieldValue(tagName));
+        assertEquals(3, builtRows.get());
+    }
+
+}
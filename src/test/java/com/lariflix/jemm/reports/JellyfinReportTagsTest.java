@@ -0,0 +1,25 @@
+package com.lariflix.jemm.reports;
+
+import com.lariflix.jemm.dtos.JellyfinCredentials;
+import com.lariflix.jemm.dtos.JellyfinInstanceDetails;
+import com.lariflix.jemm.dtos.JellyfinUser;
+import com.lariflix.jemm.utils.JellyfinReportTypes;
+import java.io.IOException;
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+public class JellyfinReportTagsTest {
+
+    @Test
+    public void testLoadErrorIsNotSwallowed() {
+        //Nothing listens on port 1: the report must fail instead of being exported empty
+        JellyfinUser adminUser = new JellyfinUser();
+        adminUser.setId("admin");
+        JellyfinInstanceDetails instanceData = new JellyfinInstanceDetails();
+        instanceData.setCredentials(new JellyfinCredentials("http://127.0.0.1:1/", "1234567890"));
+        instanceData.setAdminUser(adminUser);
+
+        JellyfinReportTags report = new JellyfinReportTags(instanceData, JellyfinReportTypes.TAGS_BASIC);
+        assertThrows(IOException.class, report::loadReportItems);
+    }
+}
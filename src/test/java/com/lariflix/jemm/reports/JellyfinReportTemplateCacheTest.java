@@ -0,0 +1,81 @@
+package com.lariflix.jemm.reports;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import net.sf.jasperreports.engine.JasperReport;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class JellyfinReportTemplateCacheTest {
+
+    private static final String TEMPLATE = "/InstanceTagsBasic/JemmInstanceTagsBasic.jrxml";
+
+    @TempDir
+    Path cacheDir;
+
+    @Test
+    public void testTemplateIsCompiledOnceAndCachedOnDisk() throws Exception {
+        JellyfinReportTemplateCache cache = new JellyfinReportTemplateCache(cacheDir);
+
+        JasperReport first = cache.getReport(TEMPLATE, false);
+        assertSame(first, cache.getReport(TEMPLATE, false));
+
+        try (var files = Files.list(cacheDir)) {
+            assertEquals(1, files.filter(file -> file.toString().endsWith(".jasper")).count());
+        }
+
+        //A new run reads the compiled report from the cache directory
+        JellyfinReportTemplateCache nextRun = new JellyfinReportTemplateCache(cacheDir);
+        assertEquals(first.getName(), nextRun.getReport(TEMPLATE, false).getName());
+    }
+
+    @Test
+    public void testGetCompiledFile() throws Exception {
+        JellyfinReportTemplateCache cache = new JellyfinReportTemplateCache(cacheDir);
+
+        String compiledFile = cache.getCompiledFile(TEMPLATE, false);
+
+        assertTrue(compiledFile.startsWith(cacheDir.toAbsolutePath().toString()));
+        assertTrue(Files.isRegularFile(Path.of(compiledFile)));
+    }
+
+    @Test
+    public void testCompiledFileOfUnwritableCacheIsPerRun() throws Exception {
+        //A regular file can't be the parent of the cache directory
+        Path blocker = Files.createFile(cacheDir.resolve("blocker"));
+        JellyfinReportTemplateCache cache = new JellyfinReportTemplateCache(blocker.resolve("cache"));
+        JellyfinReportTemplateCache otherRun = new JellyfinReportTemplateCache(blocker.resolve("cache"));
+
+        String compiledFile = cache.getCompiledFile(TEMPLATE, false);
+
+        assertTrue(compiledFile.startsWith(cache.getRunDir().toAbsolutePath().toString()));
+        assertTrue(Files.isRegularFile(Path.of(compiledFile)));
+        assertNotEquals(cache.getRunDir(), otherRun.getRunDir());
+        assertNotEquals(compiledFile, otherRun.getCompiledFile(TEMPLATE, false));
+    }
+
+    @Test
+    public void testKeyDependsOnContent() {
+        JellyfinReportTemplateCache cache = new JellyfinReportTemplateCache(cacheDir);
+
+        String key = cache.getKey("<jasperReport/>".getBytes(StandardCharsets.UTF_8));
+
+        assertEquals(64, key.length());
+        assertEquals(key, cache.getKey("<jasperReport/>".getBytes(StandardCharsets.UTF_8)));
+        assertNotEquals(key, cache.getKey("<jasperReport />".getBytes(StandardCharsets.UTF_8)));
+    }
+
+    @Test
+    public void testMissingTemplate() {
+        JellyfinReportTemplateCache cache = new JellyfinReportTemplateCache(cacheDir);
+
+        assertThrows(java.io.IOException.class, () -> cache.getReport("/Missing/Missing.jrxml", false));
+    }
+
+}